@@ -0,0 +1,88 @@
+package dev.sharanggupta.account.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Enforces the deadline the gateway sends as {@value #HEADER}, the milliseconds the
+ * caller is still willing to wait.
+ *
+ * A request that arrives with no time left is answered with 504 before it touches the
+ * database. Otherwise the deadline is put into the Reactor context as a
+ * {@link System#nanoTime()} instant under {@link #CONTEXT_KEY}, and the request is
+ * cancelled when it runs out, which cancels its pending R2DBC queries instead of letting
+ * them finish for a caller that has already given up. Only the deadline itself is
+ * answered with 504: a timeout raised while serving the request, such as waiting for a
+ * pooled R2DBC connection, keeps its own error handling. Requests without the header are
+ * not limited.
+ *
+ * The account, card and loan services each carry this class, identical apart from the
+ * package: every service is built, versioned and shipped on its own from its own
+ * directory, so there is no shared module to hold it. The account copy is the reference;
+ * carry every change over to the other two unchanged. {@code deploy/dev/build-images.sh}
+ * refuses to build while the copies differ.
+ */
+@Component
+@Slf4j
+public class DeadlineFilter implements WebFilter, Ordered {
+
+    public static final String HEADER = "X-Request-Timeout-Ms";
+    public static final String CONTEXT_KEY = "request.deadline";
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        Long remainingMillis = parse(exchange.getRequest().getHeaders().getFirst(HEADER));
+        if (remainingMillis == null) {
+            return chain.filter(exchange);
+        }
+        if (remainingMillis <= 0) {
+            log.debug("Rejecting {} {} - deadline already expired",
+                    exchange.getRequest().getMethod(), exchange.getRequest().getPath());
+            return expired(exchange);
+        }
+
+        Duration remaining = Duration.ofMillis(remainingMillis);
+        long expiresAtNanos = System.nanoTime() + remaining.toNanos();
+        return chain.filter(exchange)
+                .contextWrite(context -> context.put(CONTEXT_KEY, expiresAtNanos))
+                .timeout(remaining, Mono.defer(() -> {
+                    log.debug("Cancelled {} {} - deadline expired",
+                            exchange.getRequest().getMethod(), exchange.getRequest().getPath());
+                    return expired(exchange);
+                }));
+    }
+
+    private static Long parse(String headerValue) {
+        if (headerValue == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(headerValue.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Mono<Void> expired(ServerWebExchange exchange) {
+        ServerHttpResponse response = exchange.getResponse();
+        if (response.isCommitted()) {
+            return Mono.empty();
+        }
+        response.setStatusCode(HttpStatus.GATEWAY_TIMEOUT);
+        return response.setComplete();
+    }
+}
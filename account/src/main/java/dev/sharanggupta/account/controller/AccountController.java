@@ -1,5 +1,6 @@
 package dev.sharanggupta.account.controller;
 
+import dev.sharanggupta.account.dto.BatchFetchRequest;
 import dev.sharanggupta.account.dto.CustomerDto;
 import dev.sharanggupta.account.dto.ErrorResponseDto;
 import dev.sharanggupta.account.dto.ResponseDto;
@@ -12,20 +13,36 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Pattern;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
 @Tag(name = "Account REST APIs", description = "REST APIs to CREATE, UPDATE, FETCH and DELETE account details")
 @RestController
-@RequestMapping(path = "/api", produces = MediaType.APPLICATION_JSON_VALUE)
+@RequestMapping(path = "/api", produces = {MediaType.APPLICATION_JSON_VALUE, AccountController.APPLICATION_SMILE_VALUE})
 @Validated
 @AllArgsConstructor
 public class AccountController {
 
+    /**
+     * Binary Smile is produced only for callers that ask for it, such as the gateway;
+     * everyone else gets JSON.
+     */
+    static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    private static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
     private static final String MOBILE_PATTERN = "^\\d{10}$";
     private static final String MOBILE_MESSAGE = "Mobile number must be 10 digits";
 
@@ -44,13 +61,41 @@ public class AccountController {
 
     @Operation(summary = "Fetch account", description = "REST API to fetch customer and account details by mobile number")
     @ApiResponse(responseCode = "200", description = "Account fetched successfully")
+    @ApiResponse(responseCode = "304", description = "Account unchanged since the ETag in If-None-Match")
     @ApiResponse(responseCode = "404", description = "Account not found",
             content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))
     @GetMapping("/{mobileNumber}")
     public Mono<ResponseEntity<CustomerDto>> fetchAccountDetails(
-            @PathVariable @Pattern(regexp = MOBILE_PATTERN, message = MOBILE_MESSAGE) String mobileNumber) {
+            @PathVariable @Pattern(regexp = MOBILE_PATTERN, message = MOBILE_MESSAGE) String mobileNumber,
+            ServerHttpRequest request) {
         return accountService.fetchAccountDetails(mobileNumber)
-                .map(ResponseEntity::ok);
+                .map(customer -> {
+                    MediaType representation = representation(request.getHeaders().getAccept());
+                    return ResponseEntity.ok()
+                            .contentType(representation)
+                            .eTag(etag(customer.getUpdatedAt(), representation))
+                            .varyBy(HttpHeaders.ACCEPT)
+                            .body(customer);
+                });
+    }
+
+    @Operation(summary = "Fetch accounts in batch",
+            description = "REST API to fetch customer and account details for many mobile numbers in one query, streamed as NDJSON")
+    @ApiResponse(responseCode = "200", description = "Accounts fetched successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid or too many mobile numbers",
+            content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))
+    @PostMapping(path = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CustomerDto> fetchAccountDetails(@Valid @RequestBody BatchFetchRequest request) {
+        return accountService.fetchAccountDetails(request.getMobileNumbers());
+    }
+
+    @Operation(summary = "Export mobile numbers",
+            description = "REST API to stream the mobile number of every customer, one per line")
+    @ApiResponse(responseCode = "200", description = "Mobile numbers streamed successfully")
+    @GetMapping(path = "/mobile-numbers", produces = MediaType.TEXT_PLAIN_VALUE)
+    public Flux<String> exportMobileNumbers() {
+        return accountService.fetchAllMobileNumbers()
+                .map(mobileNumber -> mobileNumber + "\n");
     }
 
     @Operation(summary = "Update account", description = "REST API to update customer and account details")
@@ -73,4 +118,37 @@ public class AccountController {
         return accountService.deleteAccount(mobileNumber)
                 .then(Mono.just(ResponseEntity.noContent().<Void>build()));
     }
+
+    /**
+     * A strong ETag for the customer's current version, derived from when they or their
+     * account were last changed. JSON and Smile bodies differ, so each gets its own tag.
+     * Records saved before changes were tracked have none.
+     */
+    private static String etag(LocalDateTime updatedAt, MediaType representation) {
+        if (updatedAt == null) {
+            return null;
+        }
+        long version = updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + updatedAt.getNano();
+        String suffix = APPLICATION_SMILE.equals(representation) ? "-smile" : "";
+        return "\"" + Long.toHexString(version) + suffix + "\"";
+    }
+
+    /**
+     * The representation to serve: the first of JSON and Smile that the caller accepts, in
+     * the caller's order of preference. Setting it on the response keeps the body in the
+     * format its ETag was computed for.
+     */
+    private static MediaType representation(List<MediaType> accepted) {
+        List<MediaType> ranked = new ArrayList<>(accepted);
+        MimeTypeUtils.sortBySpecificity(ranked);
+        for (MediaType type : ranked) {
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return MediaType.APPLICATION_JSON;
+            }
+            if (type.isCompatibleWith(APPLICATION_SMILE)) {
+                return APPLICATION_SMILE;
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
 }
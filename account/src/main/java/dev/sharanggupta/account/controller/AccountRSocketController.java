@@ -0,0 +1,134 @@
+package dev.sharanggupta.account.controller;
+
+import dev.sharanggupta.account.dto.BatchFetchRequest;
+import dev.sharanggupta.account.dto.CustomerDto;
+import dev.sharanggupta.account.exception.AccountDetailsMissingException;
+import dev.sharanggupta.account.exception.CustomerAlreadyExistsException;
+import dev.sharanggupta.account.exception.ResourceNotFoundException;
+import dev.sharanggupta.account.service.AccountService;
+import io.rsocket.exceptions.CustomRSocketException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.handler.annotation.support.MethodArgumentNotValidException;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.stream.Collectors;
+
+/**
+ * Serves the account operations over RSocket, for the gateway. External callers keep
+ * using the REST API in {@link AccountController}.
+ *
+ * Lookups and changes are request-response routes ({@code account.fetch.{mobileNumber}}
+ * and so on); the batch lookup and the mobile number export are request-stream routes
+ * whose items are sent only as fast as the gateway asks for them. A failed call is
+ * answered with the error code {@link #ERROR_CODE_BASE} plus the HTTP status the REST
+ * API would have used.
+ */
+@Slf4j
+@Controller
+@MessageMapping("account")
+@Validated
+@AllArgsConstructor
+public class AccountRSocketController {
+
+    static final int ERROR_CODE_BASE = 0x1000;
+
+    private static final String MOBILE_PATTERN = "^\\d{10}$";
+    private static final String MOBILE_MESSAGE = "Mobile number must be 10 digits";
+
+    private final AccountService accountService;
+
+    @MessageMapping("create")
+    public Mono<Void> createAccount(@Valid @Payload CustomerDto customerDto) {
+        return accountService.createAccount(customerDto)
+                .onErrorMap(AccountRSocketController::toRSocketError);
+    }
+
+    @MessageMapping("fetch.{mobileNumber}")
+    public Mono<CustomerDto> fetchAccountDetails(
+            @DestinationVariable @Pattern(regexp = MOBILE_PATTERN, message = MOBILE_MESSAGE) String mobileNumber) {
+        return accountService.fetchAccountDetails(mobileNumber)
+                .onErrorMap(AccountRSocketController::toRSocketError);
+    }
+
+    @MessageMapping("fetch-batch")
+    public Flux<CustomerDto> fetchAccountDetails(@Valid @Payload BatchFetchRequest request) {
+        return accountService.fetchAccountDetails(request.getMobileNumbers())
+                .onErrorMap(AccountRSocketController::toRSocketError);
+    }
+
+    @MessageMapping("mobile-numbers")
+    public Flux<String> exportMobileNumbers() {
+        return accountService.fetchAllMobileNumbers()
+                .onErrorMap(AccountRSocketController::toRSocketError);
+    }
+
+    @MessageMapping("update")
+    public Mono<Void> updateAccountDetails(@Valid @Payload CustomerDto customerDto) {
+        return accountService.updateAccount(customerDto)
+                .onErrorMap(AccountRSocketController::toRSocketError);
+    }
+
+    @MessageMapping("delete.{mobileNumber}")
+    public Mono<Void> deleteAccountDetails(
+            @DestinationVariable @Pattern(regexp = MOBILE_PATTERN, message = MOBILE_MESSAGE) String mobileNumber) {
+        return accountService.deleteAccount(mobileNumber)
+                .onErrorMap(AccountRSocketController::toRSocketError);
+    }
+
+    /**
+     * Rejects a call that failed before reaching the service, such as one with an invalid
+     * mobile number or payload.
+     */
+    @MessageExceptionHandler
+    public Mono<Void> handleException(Throwable ex) {
+        return Mono.error(toRSocketError(ex));
+    }
+
+    private static Throwable toRSocketError(Throwable ex) {
+        return switch (ex) {
+            case CustomRSocketException e -> e;
+            case ResourceNotFoundException e -> error(HttpStatus.NOT_FOUND, e.getMessage());
+            case CustomerAlreadyExistsException e -> error(HttpStatus.BAD_REQUEST, e.getMessage());
+            case AccountDetailsMissingException e -> error(HttpStatus.BAD_REQUEST, e.getMessage());
+            case ConstraintViolationException e -> error(HttpStatus.BAD_REQUEST, e.getConstraintViolations().stream()
+                    .map(ConstraintViolation::getMessage)
+                    .collect(Collectors.joining(", ")));
+            case MethodArgumentNotValidException e -> error(HttpStatus.BAD_REQUEST, validationMessage(e));
+            default -> {
+                log.error("Unexpected error in RSocket call: {}", ex.getMessage(), ex);
+                yield error(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred. Please try again later.");
+            }
+        };
+    }
+
+    /**
+     * The failed field checks of an invalid {@code @Valid @Payload}, as the HTTP API reports them.
+     */
+    private static String validationMessage(MethodArgumentNotValidException ex) {
+        BindingResult bindingResult = ex.getBindingResult();
+        if (bindingResult == null) {
+            return ex.getMessage();
+        }
+        return bindingResult.getFieldErrors().stream()
+                .map(fieldError -> fieldError.getField() + ": " + fieldError.getDefaultMessage())
+                .collect(Collectors.joining(", "));
+    }
+
+    private static CustomRSocketException error(HttpStatus status, String message) {
+        return new CustomRSocketException(ERROR_CODE_BASE + status.value(), message);
+    }
+}
@@ -1,6 +1,7 @@
 package dev.sharanggupta.account.dto;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Email;
@@ -10,6 +11,8 @@ import jakarta.validation.constraints.Size;
 import lombok.Builder;
 import lombok.Getter;
 
+import java.time.LocalDateTime;
+
 @Getter
 @Schema(name = "Customer", description = "Schema to hold Customer and Account information")
 public class CustomerDto {
@@ -32,16 +35,28 @@ public class CustomerDto {
     @Schema(description = "Account details of the Customer")
     private final AccountDto account;
 
+    /**
+     * When the customer or their account was last changed, for the ETag. Not part of the
+     * representation.
+     */
+    @JsonIgnore
+    private final LocalDateTime updatedAt;
+
     @JsonCreator
-    @Builder(toBuilder = true)
     public CustomerDto(
             @JsonProperty("name") String name,
             @JsonProperty("email") String email,
             @JsonProperty("mobileNumber") String mobileNumber,
             @JsonProperty("account") AccountDto account) {
+        this(name, email, mobileNumber, account, null);
+    }
+
+    @Builder(toBuilder = true)
+    public CustomerDto(String name, String email, String mobileNumber, AccountDto account, LocalDateTime updatedAt) {
         this.name = name;
         this.email = email;
         this.mobileNumber = mobileNumber;
         this.account = account;
+        this.updatedAt = updatedAt;
     }
 }
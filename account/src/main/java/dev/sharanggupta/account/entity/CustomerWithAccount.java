@@ -0,0 +1,13 @@
+package dev.sharanggupta.account.entity;
+
+/**
+ * Read-only projection of a customer joined with their account, used for batch lookups.
+ */
+public record CustomerWithAccount(
+        String name,
+        String email,
+        String mobileNumber,
+        String accountNumber,
+        String accountType,
+        String branchAddress
+) {}
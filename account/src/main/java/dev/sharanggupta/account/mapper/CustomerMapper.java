@@ -2,7 +2,11 @@ package dev.sharanggupta.account.mapper;
 
 import dev.sharanggupta.account.dto.AccountDto;
 import dev.sharanggupta.account.dto.CustomerDto;
+import dev.sharanggupta.account.entity.Account;
 import dev.sharanggupta.account.entity.Customer;
+import dev.sharanggupta.account.entity.CustomerWithAccount;
+
+import java.time.LocalDateTime;
 
 public class CustomerMapper {
 
@@ -18,8 +22,27 @@ public class CustomerMapper {
                 .build();
     }
 
+    public static CustomerDto mapToDto(Customer customer, Account account) {
+        return mapToDto(customer, AccountMapper.mapToDto(account)).toBuilder()
+                .updatedAt(latest(customer.getUpdatedAt(), account.getUpdatedAt()))
+                .build();
+    }
+
     public static CustomerDto mapToDto(Customer customer) {
-        return mapToDto(customer, null);
+        return mapToDto(customer, (AccountDto) null);
+    }
+
+    public static CustomerDto mapToDto(CustomerWithAccount row) {
+        return CustomerDto.builder()
+                .name(row.name())
+                .email(row.email())
+                .mobileNumber(row.mobileNumber())
+                .account(AccountDto.builder()
+                        .accountNumber(row.accountNumber())
+                        .accountType(row.accountType())
+                        .branchAddress(row.branchAddress())
+                        .build())
+                .build();
     }
 
     public static Customer mapToEntity(CustomerDto dto) {
@@ -36,4 +59,11 @@ public class CustomerMapper {
         customer.setMobileNumber(dto.getMobileNumber());
         return customer;
     }
-}
\ No newline at end of file
+
+    private static LocalDateTime latest(LocalDateTime first, LocalDateTime second) {
+        if (first == null || second == null) {
+            return first == null ? second : first;
+        }
+        return first.isAfter(second) ? first : second;
+    }
+}
@@ -1,8 +1,11 @@
 package dev.sharanggupta.account.repository;
 
 import dev.sharanggupta.account.entity.Customer;
+import dev.sharanggupta.account.entity.CustomerWithAccount;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Repository
@@ -10,4 +13,15 @@ public interface CustomerRepository extends ReactiveCrudRepository<Customer, Lon
 
     Mono<Customer> findByMobileNumber(String mobileNumber);
 
+    @Query("SELECT mobile_number FROM customer")
+    Flux<String> findAllMobileNumbers();
+
+    @Query("""
+            SELECT c.name, c.email, c.mobile_number, a.account_number, a.account_type, a.branch_address
+            FROM customer c
+            JOIN account a ON a.customer_id = c.customer_id
+            WHERE c.mobile_number = ANY(:mobileNumbers)
+            """)
+    Flux<CustomerWithAccount> findAllWithAccountByMobileNumbers(String[] mobileNumbers);
+
 }
@@ -1,8 +1,11 @@
 package dev.sharanggupta.account.service;
 
 import dev.sharanggupta.account.dto.CustomerDto;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 public interface AccountService {
 /**
 *
@@ -12,7 +15,11 @@ public interface AccountService {
 
     Mono<CustomerDto> fetchAccountDetails(String mobileNumber);
 
+    Flux<CustomerDto> fetchAccountDetails(List<String> mobileNumbers);
+
     Mono<Void> updateAccount(CustomerDto customerDto);
 
     Mono<Void> deleteAccount(String mobileNumber);
+
+    Flux<String> fetchAllMobileNumbers();
 }
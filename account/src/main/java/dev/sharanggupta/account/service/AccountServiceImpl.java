@@ -13,8 +13,10 @@ import dev.sharanggupta.account.repository.AccountRepository;
 import dev.sharanggupta.account.repository.CustomerRepository;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -48,10 +50,17 @@ public class AccountServiceImpl implements AccountService {
                 .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber)))
                 .flatMap(customer -> accountRepository.findByCustomerId(customer.getCustomerId())
                         .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Account", "customerId", customer.getCustomerId().toString())))
-                        .map(account -> CustomerMapper.mapToDto(customer, AccountMapper.mapToDto(account)))
+                        .map(account -> CustomerMapper.mapToDto(customer, account))
                 );
     }
 
+    @Override
+    public Flux<CustomerDto> fetchAccountDetails(List<String> mobileNumbers) {
+        String[] distinctMobileNumbers = mobileNumbers.stream().distinct().toArray(String[]::new);
+        return customerRepository.findAllWithAccountByMobileNumbers(distinctMobileNumbers)
+                .map(CustomerMapper::mapToDto);
+    }
+
     @Override
     public Mono<Void> updateAccount(CustomerDto customerDto) {
         String mobileNumber = customerDto.getMobileNumber();
@@ -81,6 +90,11 @@ public class AccountServiceImpl implements AccountService {
                 );
     }
 
+    @Override
+    public Flux<String> fetchAllMobileNumbers() {
+        return customerRepository.findAllMobileNumbers();
+    }
+
     private Mono<Void> validateCustomerDoesNotExist(String mobileNumber) {
         return customerRepository.findByMobileNumber(mobileNumber)
                 .flatMap(customer -> Mono.error(new CustomerAlreadyExistsException(
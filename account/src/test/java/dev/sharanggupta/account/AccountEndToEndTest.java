@@ -5,14 +5,24 @@ import dev.sharanggupta.account.dto.CustomerDto;
 import dev.sharanggupta.account.dto.ResponseDto;
 import dev.sharanggupta.account.repository.AccountRepository;
 import dev.sharanggupta.account.repository.CustomerRepository;
+import io.rsocket.exceptions.CustomRSocketException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.messaging.rsocket.RSocketRequester;
 import reactor.core.publisher.Mono;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class AccountEndToEndTest extends BaseEndToEndTest {
 
@@ -21,6 +31,9 @@ class AccountEndToEndTest extends BaseEndToEndTest {
     private static final String API_UPDATE_PATH = "/api";
     private static final String API_DELETE_PATH = "/api";
 
+    private static final MediaType APPLICATION_SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+    private static final int RSOCKET_BAD_REQUEST = 0x1000 + 400;
+
     private static final String VALID_NAME = "Test Customer";
     private static final String VALID_EMAIL = "test@example.com";
     private static final String VALID_MOBILE_NUMBER = "1234567890";
@@ -33,6 +46,12 @@ class AccountEndToEndTest extends BaseEndToEndTest {
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private RSocketRequester.Builder rsocketRequesterBuilder;
+
+    @Value("${local.rsocket.server.port}")
+    private int rsocketPort;
+
     @AfterEach
     void tearDown() {
         accountRepository.deleteAll().block();
@@ -148,6 +167,218 @@ class AccountEndToEndTest extends BaseEndToEndTest {
                 .expectStatus().isNotFound();
     }
 
+    @Test
+    @DisplayName("Should export the mobile numbers of all customers")
+    void shouldExportMobileNumbers() {
+        createAccount(createCustomerRequest(VALID_NAME, VALID_EMAIL, VALID_MOBILE_NUMBER));
+        createAccount(createCustomerRequest(VALID_NAME, "other@example.com", "1112223334"));
+
+        client.get()
+                .uri(API_FETCH_PATH + "/mobile-numbers")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .value(body -> assertThat(body.lines())
+                        .containsExactlyInAnyOrder(VALID_MOBILE_NUMBER, "1112223334"));
+    }
+
+    @Test
+    @DisplayName("Should fetch accounts for many mobile numbers in one request")
+    void shouldFetchAccountsInBatch() {
+        createAccount(createCustomerRequest(VALID_NAME, VALID_EMAIL, VALID_MOBILE_NUMBER));
+        createAccount(createCustomerRequest(VALID_NAME, "other@example.com", "1112223334"));
+
+        List<CustomerDto> customers = client.post()
+                .uri(API_FETCH_PATH + "/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(Map.of("mobileNumbers", List.of(VALID_MOBILE_NUMBER, "1112223334", "9999999999")))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(CustomerDto.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertThat(customers)
+                .extracting(CustomerDto::getMobileNumber)
+                .containsExactlyInAnyOrder(VALID_MOBILE_NUMBER, "1112223334");
+        assertThat(customers)
+                .allSatisfy(customer -> assertThat(customer.getAccount().getAccountNumber()).isNotNull());
+    }
+
+    @Test
+    @DisplayName("Should reject batch fetch with too many mobile numbers")
+    void shouldRejectOversizedBatchFetch() {
+        client.post()
+                .uri(API_FETCH_PATH + "/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("mobileNumbers", Collections.nCopies(5001, VALID_MOBILE_NUMBER)))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("Should reject a request whose deadline has already expired without writing")
+    void shouldRejectExpiredRequest() {
+        CustomerDto customerRequest = createCustomerRequest(VALID_NAME, VALID_EMAIL, VALID_MOBILE_NUMBER);
+
+        client.post()
+                .uri(API_CREATE_PATH)
+                .header("X-Request-Timeout-Ms", "0")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(customerRequest), CustomerDto.class)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+
+        assertThat(customerRepository.count().block()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should accept and return accounts as Smile when asked")
+    void shouldNegotiateBinaryFormat() {
+        CustomerDto customerRequest = createCustomerRequest(VALID_NAME, VALID_EMAIL, VALID_MOBILE_NUMBER);
+
+        client.post()
+                .uri(API_CREATE_PATH)
+                .contentType(APPLICATION_SMILE)
+                .body(Mono.just(customerRequest), CustomerDto.class)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON);
+
+        client.get()
+                .uri(API_FETCH_PATH + "/" + VALID_MOBILE_NUMBER)
+                .accept(APPLICATION_SMILE)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(APPLICATION_SMILE)
+                .expectBody(CustomerDto.class)
+                .value(customer -> {
+                    assertThat(customer.getName()).isEqualTo(VALID_NAME);
+                    assertThat(customer.getAccount().getAccountNumber()).isNotNull();
+                });
+    }
+
+    @Test
+    @DisplayName("Should answer an unchanged account with 304 Not Modified")
+    void shouldAnswerUnchangedAccountWithNotModified() {
+        createAccount(createCustomerRequest(VALID_NAME, VALID_EMAIL, VALID_MOBILE_NUMBER));
+        String etag = fetchAccountETag(VALID_MOBILE_NUMBER);
+
+        client.get()
+                .uri(API_FETCH_PATH + "/" + VALID_MOBILE_NUMBER)
+                .ifNoneMatch(etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, etag)
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should give the Smile representation of the account its own ETag")
+    void shouldTagSmileSeparately() {
+        createAccount(createCustomerRequest(VALID_NAME, VALID_EMAIL, VALID_MOBILE_NUMBER));
+        String jsonETag = fetchAccountETag(VALID_MOBILE_NUMBER);
+
+        String smileETag = client.get()
+                .uri(API_FETCH_PATH + "/" + VALID_MOBILE_NUMBER)
+                .accept(APPLICATION_SMILE)
+                .ifNoneMatch(jsonETag)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(APPLICATION_SMILE)
+                .expectBody().returnResult()
+                .getResponseHeaders()
+                .getETag();
+        assertThat(smileETag).isNotNull().isNotEqualTo(jsonETag);
+
+        client.get()
+                .uri(API_FETCH_PATH + "/" + VALID_MOBILE_NUMBER)
+                .accept(APPLICATION_SMILE)
+                .ifNoneMatch(smileETag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    @DisplayName("Should change the account's ETag when the customer is updated")
+    void shouldChangeETagOnUpdate() {
+        createAccount(createCustomerRequest(VALID_NAME, VALID_EMAIL, VALID_MOBILE_NUMBER));
+        String etag = fetchAccountETag(VALID_MOBILE_NUMBER);
+
+        client.put()
+                .uri(API_UPDATE_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(CustomerDto.builder()
+                        .name("Updated Name")
+                        .email(VALID_EMAIL)
+                        .mobileNumber(VALID_MOBILE_NUMBER)
+                        .account(AccountDto.builder()
+                                .accountType("Savings")
+                                .branchAddress("456 New Address")
+                                .build())
+                        .build())
+                .exchange()
+                .expectStatus().isNoContent();
+
+        client.get()
+                .uri(API_FETCH_PATH + "/" + VALID_MOBILE_NUMBER)
+                .ifNoneMatch(etag)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().value(HttpHeaders.ETAG, current -> assertThat(current).isNotEqualTo(etag))
+                .expectBody(CustomerDto.class)
+                .value(customer -> assertThat(customer.getName()).isEqualTo("Updated Name"));
+    }
+
+    @Test
+    @DisplayName("Should create and fetch an account over RSocket")
+    void shouldCreateAndFetchAccountOverRSocket() {
+        RSocketRequester requester = rsocketRequesterBuilder.tcp("localhost", rsocketPort);
+
+        requester.route("account.create")
+                .data(createCustomerRequest(VALID_NAME, VALID_EMAIL, VALID_MOBILE_NUMBER))
+                .retrieveMono(Void.class)
+                .block();
+        CustomerDto customer = requester.route("account.fetch.{mobileNumber}", VALID_MOBILE_NUMBER)
+                .retrieveMono(CustomerDto.class)
+                .block();
+
+        assertThat(customer.getName()).isEqualTo(VALID_NAME);
+        assertThat(customer.getAccount().getAccountNumber()).isNotNull();
+        requester.dispose();
+    }
+
+    @Test
+    @DisplayName("Should stream the mobile numbers of all customers over RSocket")
+    void shouldStreamMobileNumbersOverRSocket() {
+        createAccount(createCustomerRequest(VALID_NAME, VALID_EMAIL, VALID_MOBILE_NUMBER));
+        RSocketRequester requester = rsocketRequesterBuilder.tcp("localhost", rsocketPort);
+
+        List<String> mobileNumbers = requester.route("account.mobile-numbers")
+                .retrieveFlux(String.class)
+                .collectList()
+                .block();
+
+        assertThat(mobileNumbers).containsExactly(VALID_MOBILE_NUMBER);
+        requester.dispose();
+    }
+
+    @Test
+    @DisplayName("Should answer an invalid payload over RSocket with the bad-request error code")
+    void shouldRejectInvalidPayloadOverRSocket() {
+        RSocketRequester requester = rsocketRequesterBuilder.tcp("localhost", rsocketPort);
+
+        assertThatThrownBy(() -> requester.route("account.fetch-batch")
+                .data(Map.of("mobileNumbers", List.of()))
+                .retrieveFlux(CustomerDto.class)
+                .blockLast())
+                .isInstanceOfSatisfying(CustomRSocketException.class,
+                        e -> assertThat(e.errorCode()).isEqualTo(RSOCKET_BAD_REQUEST));
+        requester.dispose();
+    }
+
     private void createAccount(CustomerDto customerDto) {
         client.post()
                 .uri(API_CREATE_PATH)
@@ -157,6 +388,17 @@ class AccountEndToEndTest extends BaseEndToEndTest {
                 .expectStatus().isCreated();
     }
 
+    private String fetchAccountETag(String mobileNumber) {
+        return client.get()
+                .uri(API_FETCH_PATH + "/" + mobileNumber)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(CustomerDto.class)
+                .returnResult()
+                .getResponseHeaders()
+                .getETag();
+    }
+
     private CustomerDto fetchAccount(String mobileNumber) {
         return client.get()
                 .uri(API_FETCH_PATH + "/" + mobileNumber)
@@ -1,5 +1,6 @@
 package dev.sharanggupta.card.controller;
 
+import dev.sharanggupta.card.dto.BatchFetchRequest;
 import dev.sharanggupta.card.dto.CardCreateRequest;
 import dev.sharanggupta.card.dto.CardDto;
 import dev.sharanggupta.card.dto.CardUpdateRequest;
@@ -14,20 +15,36 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Pattern;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
 @Tag(name = "Card REST APIs", description = "REST APIs to CREATE, UPDATE, FETCH and DELETE card details")
 @RestController
-@RequestMapping(path = "/api", produces = MediaType.APPLICATION_JSON_VALUE)
+@RequestMapping(path = "/api", produces = {MediaType.APPLICATION_JSON_VALUE, CardController.APPLICATION_SMILE_VALUE})
 @Validated
 @AllArgsConstructor
 public class CardController {
 
+    /**
+     * Binary Smile is produced only for callers that ask for it, such as the gateway;
+     * everyone else gets JSON.
+     */
+    static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    private static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
     private static final String STATUS_201 = "201";
     private static final String MESSAGE_201 = "Card created successfully";
     private static final String MOBILE_NUMBER_PATTERN = "^\\d{10}$";
@@ -52,6 +69,7 @@ public class CardController {
 
     @Operation(summary = "Fetch card", description = "REST API to fetch card details by mobile number")
     @ApiResponse(responseCode = "200", description = "Card fetched successfully")
+    @ApiResponse(responseCode = "304", description = "Card unchanged since the ETag in If-None-Match")
     @ApiResponse(
             responseCode = "404",
             description = "Card not found",
@@ -61,12 +79,29 @@ public class CardController {
     public Mono<ResponseEntity<CardDto>> fetchCard(
             @PathVariable
             @Pattern(regexp = MOBILE_NUMBER_PATTERN, message = MOBILE_NUMBER_MESSAGE)
-            String mobileNumber) {
+            String mobileNumber,
+            ServerHttpRequest request) {
 
         return cardService.fetchCard(mobileNumber)
-                .map(ResponseEntity::ok);
+                .map(card -> {
+                    MediaType representation = representation(request.getHeaders().getAccept());
+                    return ResponseEntity.ok()
+                            .contentType(representation)
+                            .eTag(etag(card.getUpdatedAt(), representation))
+                            .varyBy(HttpHeaders.ACCEPT)
+                            .body(card);
+                });
     }
 
+    @Operation(summary = "Fetch cards in batch",
+            description = "REST API to fetch the cards of many customers in one query, streamed as NDJSON")
+    @ApiResponse(responseCode = "200", description = "Cards fetched successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid or too many mobile numbers",
+            content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))
+    @PostMapping(path = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CardDto> fetchCards(@Valid @RequestBody BatchFetchRequest request) {
+        return cardService.fetchCards(request.getMobileNumbers());
+    }
 
     @Operation(summary = "Update card", description = "REST API to update card details")
     @ApiResponse(responseCode = "204", description = "Card updated successfully")
@@ -92,4 +127,37 @@ public class CardController {
         return cardService.deleteCard(mobileNumber)
                 .then(Mono.just(ResponseEntity.noContent().<Void>build()));
     }
-}
\ No newline at end of file
+
+    /**
+     * A strong ETag for the card's current version, derived from when it was last changed.
+     * JSON and Smile bodies differ, so each gets its own tag. Records saved before changes
+     * were tracked have none.
+     */
+    private static String etag(LocalDateTime updatedAt, MediaType representation) {
+        if (updatedAt == null) {
+            return null;
+        }
+        long version = updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + updatedAt.getNano();
+        String suffix = APPLICATION_SMILE.equals(representation) ? "-smile" : "";
+        return "\"" + Long.toHexString(version) + suffix + "\"";
+    }
+
+    /**
+     * The representation to serve: the first of JSON and Smile that the caller accepts, in
+     * the caller's order of preference. Setting it on the response keeps the body in the
+     * format its ETag was computed for.
+     */
+    private static MediaType representation(List<MediaType> accepted) {
+        List<MediaType> ranked = new ArrayList<>(accepted);
+        MimeTypeUtils.sortBySpecificity(ranked);
+        for (MediaType type : ranked) {
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return MediaType.APPLICATION_JSON;
+            }
+            if (type.isCompatibleWith(APPLICATION_SMILE)) {
+                return APPLICATION_SMILE;
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+}
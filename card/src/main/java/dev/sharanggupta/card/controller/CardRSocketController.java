@@ -0,0 +1,135 @@
+package dev.sharanggupta.card.controller;
+
+import dev.sharanggupta.card.dto.BatchFetchRequest;
+import dev.sharanggupta.card.dto.CardCreateRequest;
+import dev.sharanggupta.card.dto.CardDto;
+import dev.sharanggupta.card.dto.CardUpdateRequest;
+import dev.sharanggupta.card.exception.CardAlreadyExistsException;
+import dev.sharanggupta.card.exception.ResourceNotFoundException;
+import dev.sharanggupta.card.service.CardService;
+import io.rsocket.exceptions.CustomRSocketException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.handler.annotation.support.MethodArgumentNotValidException;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.stream.Collectors;
+
+/**
+ * Serves the card operations over RSocket, for the gateway. External callers keep using
+ * the REST API in {@link CardController}.
+ *
+ * Lookups and changes are request-response routes ({@code card.fetch.{mobileNumber}} and
+ * so on); the batch lookup is a request-stream route whose cards are sent only as fast
+ * as the gateway asks for them. A failed call is answered with the error code
+ * {@link #ERROR_CODE_BASE} plus the HTTP status the REST API would have used.
+ */
+@Slf4j
+@Controller
+@MessageMapping("card")
+@Validated
+@AllArgsConstructor
+public class CardRSocketController {
+
+    static final int ERROR_CODE_BASE = 0x1000;
+
+    private static final String MOBILE_NUMBER_PATTERN = "^\\d{10}$";
+    private static final String MOBILE_NUMBER_MESSAGE = "Mobile number must be 10 digits";
+
+    private final CardService cardService;
+
+    @MessageMapping("create.{mobileNumber}")
+    public Mono<Void> createCard(
+            @DestinationVariable @Pattern(regexp = MOBILE_NUMBER_PATTERN, message = MOBILE_NUMBER_MESSAGE)
+            String mobileNumber,
+            @Valid @Payload CardCreateRequest request) {
+        return cardService.createCard(mobileNumber, request)
+                .onErrorMap(CardRSocketController::toRSocketError);
+    }
+
+    @MessageMapping("fetch.{mobileNumber}")
+    public Mono<CardDto> fetchCard(
+            @DestinationVariable @Pattern(regexp = MOBILE_NUMBER_PATTERN, message = MOBILE_NUMBER_MESSAGE)
+            String mobileNumber) {
+        return cardService.fetchCard(mobileNumber)
+                .onErrorMap(CardRSocketController::toRSocketError);
+    }
+
+    @MessageMapping("fetch-batch")
+    public Flux<CardDto> fetchCards(@Valid @Payload BatchFetchRequest request) {
+        return cardService.fetchCards(request.getMobileNumbers())
+                .onErrorMap(CardRSocketController::toRSocketError);
+    }
+
+    @MessageMapping("update.{mobileNumber}")
+    public Mono<Void> updateCard(
+            @DestinationVariable @Pattern(regexp = MOBILE_NUMBER_PATTERN, message = MOBILE_NUMBER_MESSAGE)
+            String mobileNumber,
+            @Valid @Payload CardUpdateRequest request) {
+        return cardService.updateCard(mobileNumber, request)
+                .onErrorMap(CardRSocketController::toRSocketError);
+    }
+
+    @MessageMapping("delete.{mobileNumber}")
+    public Mono<Void> deleteCard(
+            @DestinationVariable @Pattern(regexp = MOBILE_NUMBER_PATTERN, message = MOBILE_NUMBER_MESSAGE)
+            String mobileNumber) {
+        return cardService.deleteCard(mobileNumber)
+                .onErrorMap(CardRSocketController::toRSocketError);
+    }
+
+    /**
+     * Rejects a call that failed before reaching the service, such as one with an invalid
+     * mobile number or payload.
+     */
+    @MessageExceptionHandler
+    public Mono<Void> handleException(Throwable ex) {
+        return Mono.error(toRSocketError(ex));
+    }
+
+    private static Throwable toRSocketError(Throwable ex) {
+        return switch (ex) {
+            case CustomRSocketException e -> e;
+            case ResourceNotFoundException e -> error(HttpStatus.NOT_FOUND, e.getMessage());
+            case CardAlreadyExistsException e -> error(HttpStatus.BAD_REQUEST, e.getMessage());
+            case ConstraintViolationException e -> error(HttpStatus.BAD_REQUEST, e.getConstraintViolations().stream()
+                    .map(ConstraintViolation::getMessage)
+                    .collect(Collectors.joining(", ")));
+            case MethodArgumentNotValidException e -> error(HttpStatus.BAD_REQUEST, validationMessage(e));
+            default -> {
+                log.error("Unexpected error in RSocket call: {}", ex.getMessage(), ex);
+                yield error(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred. Please try again later.");
+            }
+        };
+    }
+
+    /**
+     * The failed field checks of an invalid {@code @Valid @Payload}, as the HTTP API reports them.
+     */
+    private static String validationMessage(MethodArgumentNotValidException ex) {
+        BindingResult bindingResult = ex.getBindingResult();
+        if (bindingResult == null) {
+            return ex.getMessage();
+        }
+        return bindingResult.getFieldErrors().stream()
+                .map(fieldError -> fieldError.getField() + ": " + fieldError.getDefaultMessage())
+                .collect(Collectors.joining(", "));
+    }
+
+    private static CustomRSocketException error(HttpStatus status, String message) {
+        return new CustomRSocketException(ERROR_CODE_BASE + status.value(), message);
+    }
+}
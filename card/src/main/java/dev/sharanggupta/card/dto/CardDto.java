@@ -1,11 +1,14 @@
 package dev.sharanggupta.card.dto;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.Builder;
 import lombok.Getter;
 
+import java.time.LocalDateTime;
+
 @Getter
 public class CardDto {
 
@@ -21,22 +24,34 @@ public class CardDto {
     @PositiveOrZero(message = "Amount used must be zero or positive")
     private final int amountUsed;
 
+    /**
+     * When the card was last changed, for its ETag. Not part of the representation.
+     */
+    @JsonIgnore
+    private final LocalDateTime updatedAt;
+
     public int getAvailableAmount() {
         return totalLimit - amountUsed;
     }
 
     @JsonCreator
-    @Builder
     public CardDto(
             @JsonProperty("mobileNumber") String mobileNumber,
             @JsonProperty("cardNumber") String cardNumber,
             @JsonProperty("cardType") String cardType,
             @JsonProperty("totalLimit") int totalLimit,
             @JsonProperty("amountUsed") int amountUsed) {
+        this(mobileNumber, cardNumber, cardType, totalLimit, amountUsed, null);
+    }
+
+    @Builder
+    public CardDto(String mobileNumber, String cardNumber, String cardType, int totalLimit, int amountUsed,
+                   LocalDateTime updatedAt) {
         this.mobileNumber = mobileNumber;
         this.cardNumber = cardNumber;
         this.cardType = cardType;
         this.totalLimit = totalLimit;
         this.amountUsed = amountUsed;
+        this.updatedAt = updatedAt;
     }
 }
@@ -13,6 +13,7 @@ public class CardMapper {
                 .cardType(card.getCardType())
                 .totalLimit(card.getTotalLimit())
                 .amountUsed(card.getAmountUsed())
+                .updatedAt(card.getUpdatedAt())
                 .build();
     }
 
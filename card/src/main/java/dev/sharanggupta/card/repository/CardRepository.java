@@ -1,8 +1,10 @@
 package dev.sharanggupta.card.repository;
 
 import dev.sharanggupta.card.entity.Card;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Repository
@@ -10,5 +12,8 @@ public interface CardRepository extends ReactiveCrudRepository<Card, Long> {
 
     Mono<Card> findByMobileNumber(String mobileNumber);
 
+    @Query("SELECT * FROM card WHERE mobile_number = ANY(:mobileNumbers)")
+    Flux<Card> findAllByMobileNumbers(String[] mobileNumbers);
+
     Mono<Card> findByCardNumber(String cardNumber);
 }
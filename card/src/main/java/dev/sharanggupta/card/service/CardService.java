@@ -3,14 +3,19 @@ package dev.sharanggupta.card.service;
 import dev.sharanggupta.card.dto.CardCreateRequest;
 import dev.sharanggupta.card.dto.CardDto;
 import dev.sharanggupta.card.dto.CardUpdateRequest;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 public interface CardService {
 
     Mono<Void> createCard(String mobileNumber, CardCreateRequest request);
 
     Mono<CardDto> fetchCard(String mobileNumber);
 
+    Flux<CardDto> fetchCards(List<String> mobileNumbers);
+
     Mono<Void> updateCard(String mobileNumber, CardUpdateRequest request);
 
     Mono<Void> deleteCard(String mobileNumber);
@@ -10,8 +10,10 @@ import dev.sharanggupta.card.mapper.CardMapper;
 import dev.sharanggupta.card.repository.CardRepository;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.Random;
 
 @Service
@@ -47,6 +49,13 @@ public class CardServiceImpl implements CardService {
                 .map(CardMapper::mapToDto);
     }
 
+    @Override
+    public Flux<CardDto> fetchCards(List<String> mobileNumbers) {
+        String[] distinctMobileNumbers = mobileNumbers.stream().distinct().toArray(String[]::new);
+        return cardRepository.findAllByMobileNumbers(distinctMobileNumbers)
+                .map(CardMapper::mapToDto);
+    }
+
     @Override
     public Mono<Void> updateCard(String mobileNumber, CardUpdateRequest request) {
         return getCardByMobileNumber(mobileNumber)
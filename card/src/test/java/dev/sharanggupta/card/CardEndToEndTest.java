@@ -8,14 +8,26 @@ import dev.sharanggupta.card.repository.CardRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import io.rsocket.exceptions.CustomRSocketException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.messaging.rsocket.RSocketRequester;
+
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class CardEndToEndTest extends BaseEndToEndTest {
 
     private static final String CARD_API_PATH = "/api";
+    private static final MediaType APPLICATION_SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+    private static final int RSOCKET_NOT_FOUND = 0x1000 + 404;
+    private static final int RSOCKET_BAD_REQUEST = 0x1000 + 400;
     private static final String VALID_MOBILE_NUMBER = "1234567890";
     private static final String CREDIT_CARD_TYPE = "Credit Card";
     private static final int DEFAULT_TOTAL_LIMIT = 100_000;
@@ -25,6 +37,12 @@ class CardEndToEndTest extends BaseEndToEndTest {
     @Autowired
     private CardRepository cardRepository;
 
+    @Autowired
+    private RSocketRequester.Builder rsocketRequesterBuilder;
+
+    @Value("${local.rsocket.server.port}")
+    private int rsocketPort;
+
     @AfterEach
     void tearDown() {
         cardRepository.deleteAll().block(); // block here is ok for cleanup
@@ -136,6 +154,188 @@ class CardEndToEndTest extends BaseEndToEndTest {
                 .expectStatus().isNotFound();
     }
 
+    @Test
+    @DisplayName("Should fetch cards for many mobile numbers in one request")
+    void shouldFetchCardsInBatch() {
+        createCard(VALID_MOBILE_NUMBER, createCardRequest(CREDIT_CARD_TYPE, DEFAULT_TOTAL_LIMIT));
+        createCard("1112223334", createCardRequest(CREDIT_CARD_TYPE, DEFAULT_TOTAL_LIMIT));
+
+        List<CardDto> cards = client.post()
+                .uri(CARD_API_PATH + "/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(Map.of("mobileNumbers", List.of(VALID_MOBILE_NUMBER, "1112223334", "9999999999")))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(CardDto.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertThat(cards)
+                .extracting(CardDto::getMobileNumber)
+                .containsExactlyInAnyOrder(VALID_MOBILE_NUMBER, "1112223334");
+    }
+
+    @Test
+    @DisplayName("Should reject batch fetch with an invalid mobile number")
+    void shouldRejectBatchFetchWithInvalidMobileNumber() {
+        client.post()
+                .uri(CARD_API_PATH + "/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("mobileNumbers", List.of("12345")))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("Should reject a request whose deadline has already expired without writing")
+    void shouldRejectExpiredRequest() {
+        CardCreateRequest cardRequest = createCardRequest(CREDIT_CARD_TYPE, DEFAULT_TOTAL_LIMIT);
+
+        client.post()
+                .uri(CARD_API_PATH + "/" + VALID_MOBILE_NUMBER)
+                .header("X-Request-Timeout-Ms", "0")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(cardRequest)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+
+        assertThat(cardRepository.count().block()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should fetch card as Smile when asked and as JSON otherwise")
+    void shouldNegotiateBinaryFormat() {
+        createCard(VALID_MOBILE_NUMBER, createCardRequest(CREDIT_CARD_TYPE, DEFAULT_TOTAL_LIMIT));
+
+        client.get()
+                .uri(CARD_API_PATH + "/" + VALID_MOBILE_NUMBER)
+                .accept(APPLICATION_SMILE)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(APPLICATION_SMILE)
+                .expectBody(CardDto.class)
+                .value(card -> assertThat(card.getMobileNumber()).isEqualTo(VALID_MOBILE_NUMBER));
+
+        client.get()
+                .uri(CARD_API_PATH + "/" + VALID_MOBILE_NUMBER)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON);
+    }
+
+    @Test
+    @DisplayName("Should answer an unchanged card with 304 Not Modified")
+    void shouldAnswerUnchangedCardWithNotModified() {
+        createCard(VALID_MOBILE_NUMBER, createCardRequest(CREDIT_CARD_TYPE, DEFAULT_TOTAL_LIMIT));
+        String etag = fetchCardETag(VALID_MOBILE_NUMBER);
+
+        client.get()
+                .uri(CARD_API_PATH + "/" + VALID_MOBILE_NUMBER)
+                .ifNoneMatch(etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, etag)
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should give the Smile representation of the card its own ETag")
+    void shouldTagSmileSeparately() {
+        createCard(VALID_MOBILE_NUMBER, createCardRequest(CREDIT_CARD_TYPE, DEFAULT_TOTAL_LIMIT));
+        String jsonETag = fetchCardETag(VALID_MOBILE_NUMBER);
+
+        String smileETag = client.get()
+                .uri(CARD_API_PATH + "/" + VALID_MOBILE_NUMBER)
+                .accept(APPLICATION_SMILE)
+                .ifNoneMatch(jsonETag)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(APPLICATION_SMILE)
+                .expectBody().returnResult()
+                .getResponseHeaders()
+                .getETag();
+        assertThat(smileETag).isNotNull().isNotEqualTo(jsonETag);
+
+        client.get()
+                .uri(CARD_API_PATH + "/" + VALID_MOBILE_NUMBER)
+                .accept(APPLICATION_SMILE)
+                .ifNoneMatch(smileETag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    @DisplayName("Should change the card's ETag when the card is updated")
+    void shouldChangeETagOnUpdate() {
+        createCard(VALID_MOBILE_NUMBER, createCardRequest(CREDIT_CARD_TYPE, DEFAULT_TOTAL_LIMIT));
+        String etag = fetchCardETag(VALID_MOBILE_NUMBER);
+        CardDto existingCard = fetchCard(VALID_MOBILE_NUMBER);
+
+        client.put()
+                .uri(CARD_API_PATH + "/" + VALID_MOBILE_NUMBER)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(CardUpdateRequest.builder()
+                        .cardNumber(existingCard.getCardNumber())
+                        .cardType(existingCard.getCardType())
+                        .totalLimit(200_000)
+                        .amountUsed(50_000)
+                        .build())
+                .exchange()
+                .expectStatus().isNoContent();
+
+        client.get()
+                .uri(CARD_API_PATH + "/" + VALID_MOBILE_NUMBER)
+                .ifNoneMatch(etag)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().value(HttpHeaders.ETAG, current -> assertThat(current).isNotEqualTo(etag))
+                .expectBody(CardDto.class)
+                .value(card -> assertThat(card.getTotalLimit()).isEqualTo(200_000));
+    }
+
+    @Test
+    @DisplayName("Should fetch card over RSocket")
+    void shouldFetchCardOverRSocket() {
+        createCard(VALID_MOBILE_NUMBER, createCardRequest(CREDIT_CARD_TYPE, DEFAULT_TOTAL_LIMIT));
+        RSocketRequester requester = rsocketRequester();
+
+        CardDto card = requester.route("card.fetch.{mobileNumber}", VALID_MOBILE_NUMBER)
+                .retrieveMono(CardDto.class)
+                .block();
+
+        assertThat(card.getCardType()).isEqualTo(CREDIT_CARD_TYPE);
+        requester.dispose();
+    }
+
+    @Test
+    @DisplayName("Should answer a non-existent card over RSocket with the not-found error code")
+    void shouldReturnNotFoundOverRSocket() {
+        RSocketRequester requester = rsocketRequester();
+
+        assertThatThrownBy(() -> requester.route("card.fetch.{mobileNumber}", "9999999999")
+                .retrieveMono(CardDto.class)
+                .block())
+                .isInstanceOfSatisfying(CustomRSocketException.class,
+                        e -> assertThat(e.errorCode()).isEqualTo(RSOCKET_NOT_FOUND));
+        requester.dispose();
+    }
+
+    @Test
+    @DisplayName("Should answer an invalid payload over RSocket with the bad-request error code")
+    void shouldRejectInvalidPayloadOverRSocket() {
+        RSocketRequester requester = rsocketRequester();
+
+        assertThatThrownBy(() -> requester.route("card.fetch-batch")
+                .data(Map.of("mobileNumbers", List.of()))
+                .retrieveFlux(CardDto.class)
+                .blockLast())
+                .isInstanceOfSatisfying(CustomRSocketException.class,
+                        e -> assertThat(e.errorCode()).isEqualTo(RSOCKET_BAD_REQUEST));
+        requester.dispose();
+    }
+
     // ----------------------
     // Helpers
     // ----------------------
@@ -149,6 +349,21 @@ class CardEndToEndTest extends BaseEndToEndTest {
                 .expectStatus().isCreated();
     }
 
+    private RSocketRequester rsocketRequester() {
+        return rsocketRequesterBuilder.tcp("localhost", rsocketPort);
+    }
+
+    private String fetchCardETag(String mobileNumber) {
+        return client.get()
+                .uri(CARD_API_PATH + "/" + mobileNumber)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(CardDto.class)
+                .returnResult()
+                .getResponseHeaders()
+                .getETag();
+    }
+
     private CardDto fetchCard(String mobileNumber) {
         return client.get()
                 .uri(CARD_API_PATH + "/" + mobileNumber)
@@ -17,7 +17,7 @@ import java.lang.annotation.Target;
  * following the DRY principle.
  */
 @Documented
-@Target({ElementType.PARAMETER, ElementType.FIELD})
+@Target({ElementType.PARAMETER, ElementType.FIELD, ElementType.TYPE_USE})
 @Retention(RetentionPolicy.RUNTIME)
 @Pattern(regexp = "^\\d{10}$", message = "Mobile number must be 10 digits")
 @Constraint(validatedBy = {})
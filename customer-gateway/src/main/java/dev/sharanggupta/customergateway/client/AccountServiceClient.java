@@ -1,44 +1,98 @@
 package dev.sharanggupta.customergateway.client;
 
+import dev.sharanggupta.customergateway.config.HedgingProperties;
 import dev.sharanggupta.customergateway.config.ServiceProperties;
+import dev.sharanggupta.customergateway.dto.BatchFetchRequest;
 import dev.sharanggupta.customergateway.dto.CustomerAccount;
 import dev.sharanggupta.customergateway.exception.ResourceNotFoundException;
+import dev.sharanggupta.customergateway.support.Hedger;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @Slf4j
 @Component
 public class AccountServiceClient {
 
     private static final String BASE_URI = "account/api";
     private static final String MOBILE_URI = "account/api/{mobileNumber}";
+    private static final String BATCH_URI = "account/api/batch";
+    private static final String MOBILE_NUMBERS_URI = "account/api/mobile-numbers";
+    private static final String CREATE_ROUTE = "account.create";
+    private static final String FETCH_ROUTE = "account.fetch.{mobileNumber}";
+    private static final String FETCH_BATCH_ROUTE = "account.fetch-batch";
+    private static final String UPDATE_ROUTE = "account.update";
+    private static final String DELETE_ROUTE = "account.delete.{mobileNumber}";
+    private static final String MOBILE_NUMBERS_ROUTE = "account.mobile-numbers";
 
     private final WebClient webClient;
+    private final MediaType wireFormat;
+    private final DownstreamRSocket rsocket;
+    private final Hedger hedger;
 
-    public AccountServiceClient(WebClient.Builder builder, ServiceProperties props) {
-        this.webClient = builder.baseUrl(props.accountUrl()).build();
+    public AccountServiceClient(WebClient.Builder builder, ServiceProperties props, DownstreamConnectors connectors,
+                                DownstreamBulkheads bulkheads, DownstreamLimiters limiters, DownstreamDeadlines deadlines,
+                                DownstreamBalancers balancers, DownstreamTimeouts timeouts,
+                                DownstreamRevalidation revalidation, DownstreamRSocket rsocket,
+                                HedgingProperties hedging, MeterRegistry meterRegistry) {
+        this.webClient = builder.clientConnector(connectors.account())
+                .filter(deadlines.client("Account")).filter(bulkheads.account())
+                .filter(limiters.account()).filter(balancers.account()).filter(timeouts.client("Account"))
+                .filter(revalidation.client("Account"))
+                .baseUrl(props.accountInstances().getFirst().toString()).build();
+        this.wireFormat = props.wireFormat().mediaType();
+        this.rsocket = rsocket;
+        this.hedger = hedging.enabled() ? new Hedger("account", hedging, meterRegistry) : null;
     }
 
     public Mono<Void> createAccount(CustomerAccount customerAccount) {
-        return webClient.post()
-                .uri(BASE_URI)
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(customerAccount)
-                .retrieve()
-                .toBodilessEntity()
-                .then()
+        Mono<Void> creation = rsocket.enabled()
+                ? rsocket.mono("Account", "create", requester -> requester.route(CREATE_ROUTE)
+                        .data(customerAccount)
+                        .retrieveMono(Void.class))
+                : webClient.post()
+                        .uri(BASE_URI)
+                        .attribute(DownstreamTimeouts.OPERATION, "create")
+                        .contentType(wireFormat)
+                        .bodyValue(customerAccount)
+                        .retrieve()
+                        .toBodilessEntity()
+                        .then();
+        return creation
                 .doOnError(e -> log.error("Error creating account for mobile: {}", customerAccount.mobileNumber(), e));
     }
 
+    /**
+     * Fetches one customer, hedging slow lookups. Batched lookups are coalesced into
+     * {@link #fetchAccounts} by the service layer instead, and are neither hedged nor carry an ETag.
+     */
     public Mono<CustomerAccount> fetchAccount(String mobileNumber) {
-        return webClient.get()
-                .uri(MOBILE_URI, mobileNumber)
-                .retrieve()
-                .bodyToMono(CustomerAccount.class)
+        if (hedger != null) {
+            return hedger.hedge(() -> requestAccount(mobileNumber));
+        }
+        return requestAccount(mobileNumber);
+    }
+
+    private Mono<CustomerAccount> requestAccount(String mobileNumber) {
+        Mono<CustomerAccount> account = rsocket.enabled()
+                ? rsocket.mono("Account", "fetch", requester -> requester.route(FETCH_ROUTE, mobileNumber)
+                        .retrieveMono(CustomerAccount.class))
+                : webClient.get()
+                        .uri(MOBILE_URI, mobileNumber)
+                        .attribute(DownstreamTimeouts.OPERATION, "fetch")
+                        .accept(wireFormat)
+                        .retrieve()
+                        .toEntity(CustomerAccount.class)
+                        .mapNotNull(AccountServiceClient::withEtag);
+        return account
                 .onErrorResume(WebClientResponseException.NotFound.class, e -> {
                     log.debug("Account not found for mobile: {}", mobileNumber);
                     return Mono.error(new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber));
@@ -50,14 +104,40 @@ public class AccountServiceClient {
                 });
     }
 
+    /**
+     * Fetches many customers in one request. Unknown mobile numbers are absent from the result.
+     */
+    public Flux<CustomerAccount> fetchAccounts(List<String> mobileNumbers) {
+        Flux<CustomerAccount> accounts = rsocket.enabled()
+                ? rsocket.flux("Account", "fetch-batch", requester -> requester.route(FETCH_BATCH_ROUTE)
+                        .data(new BatchFetchRequest(mobileNumbers))
+                        .retrieveFlux(CustomerAccount.class))
+                : webClient.post()
+                        .uri(BATCH_URI)
+                        .attribute(DownstreamTimeouts.OPERATION, "fetch-batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .bodyValue(new BatchFetchRequest(mobileNumbers))
+                        .retrieve()
+                        .bodyToFlux(CustomerAccount.class);
+        return accounts
+                .doOnError(e -> log.error("Error fetching accounts for {} mobile numbers", mobileNumbers.size(), e));
+    }
+
     public Mono<Void> updateAccount(CustomerAccount customerAccount) {
-        return webClient.put()
-                .uri(BASE_URI)
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(customerAccount)
-                .retrieve()
-                .toBodilessEntity()
-                .then()
+        Mono<Void> update = rsocket.enabled()
+                ? rsocket.mono("Account", "update", requester -> requester.route(UPDATE_ROUTE)
+                        .data(customerAccount)
+                        .retrieveMono(Void.class))
+                : webClient.put()
+                        .uri(BASE_URI)
+                        .attribute(DownstreamTimeouts.OPERATION, "update")
+                        .contentType(wireFormat)
+                        .bodyValue(customerAccount)
+                        .retrieve()
+                        .toBodilessEntity()
+                        .then();
+        return update
                 .onErrorResume(WebClientResponseException.NotFound.class, e -> {
                     log.debug("Account not found for update, mobile: {}", customerAccount.mobileNumber());
                     return Mono.error(new ResourceNotFoundException("Account", "mobileNumber", customerAccount.mobileNumber()));
@@ -70,11 +150,16 @@ public class AccountServiceClient {
     }
 
     public Mono<Void> deleteAccount(String mobileNumber) {
-        return webClient.delete()
-                .uri(MOBILE_URI, mobileNumber)
-                .retrieve()
-                .toBodilessEntity()
-                .then()
+        Mono<Void> deletion = rsocket.enabled()
+                ? rsocket.mono("Account", "delete", requester -> requester.route(DELETE_ROUTE, mobileNumber)
+                        .retrieveMono(Void.class))
+                : webClient.delete()
+                        .uri(MOBILE_URI, mobileNumber)
+                        .attribute(DownstreamTimeouts.OPERATION, "delete")
+                        .retrieve()
+                        .toBodilessEntity()
+                        .then();
+        return deletion
                 .onErrorResume(WebClientResponseException.NotFound.class, e -> {
                     log.debug("Account not found for delete, mobile: {}", mobileNumber);
                     return Mono.error(new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber));
@@ -85,4 +170,28 @@ public class AccountServiceClient {
                     }
                 });
     }
+
+    public Flux<String> streamMobileNumbers() {
+        Flux<String> mobileNumbers = rsocket.enabled()
+                ? rsocket.flux("Account", "stream-mobile-numbers", requester -> requester.route(MOBILE_NUMBERS_ROUTE)
+                        .retrieveFlux(String.class))
+                : webClient.get()
+                        .uri(MOBILE_NUMBERS_URI)
+                        .attribute(DownstreamTimeouts.OPERATION, "stream-mobile-numbers")
+                        .accept(MediaType.TEXT_PLAIN)
+                        .retrieve()
+                        .bodyToFlux(String.class);
+        return mobileNumbers
+                .map(String::strip)
+                .filter(mobileNumber -> !mobileNumber.isEmpty())
+                .doOnError(e -> log.error("Error streaming mobile numbers", e));
+    }
+
+    /**
+     * The looked-up account with the ETag it was served with, for the profile's composite ETag.
+     */
+    private static CustomerAccount withEtag(ResponseEntity<CustomerAccount> entity) {
+        CustomerAccount body = entity.getBody();
+        return body == null ? null : body.toBuilder().etag(entity.getHeaders().getETag()).build();
+    }
 }
@@ -1,30 +1,75 @@
 package dev.sharanggupta.customergateway.client;
 
+import dev.sharanggupta.customergateway.config.HedgingProperties;
 import dev.sharanggupta.customergateway.config.ServiceProperties;
+import dev.sharanggupta.customergateway.dto.BatchFetchRequest;
 import dev.sharanggupta.customergateway.dto.CardInfo;
+import dev.sharanggupta.customergateway.support.Hedger;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @Slf4j
 @Component
 public class CardServiceClient {
 
     private static final String CARD_URI = "card/api/{mobileNumber}";
+    private static final String CARD_BATCH_URI = "card/api/batch";
+    private static final String FETCH_ROUTE = "card.fetch.{mobileNumber}";
+    private static final String FETCH_BATCH_ROUTE = "card.fetch-batch";
+    private static final String DELETE_ROUTE = "card.delete.{mobileNumber}";
 
     private final WebClient webClient;
+    private final MediaType wireFormat;
+    private final DownstreamRSocket rsocket;
+    private final Hedger hedger;
 
-    public CardServiceClient(WebClient.Builder builder, ServiceProperties props) {
-        this.webClient = builder.baseUrl(props.cardUrl()).build();
+    public CardServiceClient(WebClient.Builder builder, ServiceProperties props, DownstreamConnectors connectors,
+                             DownstreamBulkheads bulkheads, DownstreamLimiters limiters, DownstreamDeadlines deadlines,
+                             DownstreamBalancers balancers, DownstreamTimeouts timeouts,
+                             DownstreamRevalidation revalidation, DownstreamRSocket rsocket,
+                             HedgingProperties hedging, MeterRegistry meterRegistry) {
+        this.webClient = builder.clientConnector(connectors.card())
+                .filter(deadlines.client("Card")).filter(bulkheads.card())
+                .filter(limiters.card()).filter(balancers.card()).filter(timeouts.client("Card"))
+                .filter(revalidation.client("Card"))
+                .baseUrl(props.cardInstances().getFirst().toString()).build();
+        this.wireFormat = props.wireFormat().mediaType();
+        this.rsocket = rsocket;
+        this.hedger = hedging.enabled() ? new Hedger("card", hedging, meterRegistry) : null;
     }
 
+    /**
+     * Fetches one customer's card, hedging slow lookups. Batched lookups are coalesced into
+     * {@link #fetchCards} by the service layer instead, and are neither hedged nor carry an ETag.
+     */
     public Mono<CardInfo> fetchCard(String mobileNumber) {
-        return webClient.get()
-                .uri(CARD_URI, mobileNumber)
-                .retrieve()
-                .bodyToMono(CardInfo.class)
+        if (hedger != null) {
+            return hedger.hedge(() -> requestCard(mobileNumber));
+        }
+        return requestCard(mobileNumber);
+    }
+
+    private Mono<CardInfo> requestCard(String mobileNumber) {
+        Mono<CardInfo> card = rsocket.enabled()
+                ? rsocket.mono("Card", "fetch", requester -> requester.route(FETCH_ROUTE, mobileNumber)
+                        .retrieveMono(CardInfo.class))
+                : webClient.get()
+                        .uri(CARD_URI, mobileNumber)
+                        .attribute(DownstreamTimeouts.OPERATION, "fetch")
+                        .accept(wireFormat)
+                        .retrieve()
+                        .toEntity(CardInfo.class)
+                        .mapNotNull(CardServiceClient::withEtag);
+        return card
                 .onErrorResume(WebClientResponseException.NotFound.class, e -> {
                     log.debug("No card found for mobile: {}", mobileNumber);
                     return Mono.empty();
@@ -32,16 +77,49 @@ public class CardServiceClient {
                 .doOnError(e -> log.error("Error fetching card for mobile: {}", mobileNumber, e));
     }
 
+    /**
+     * Fetches the cards of many customers in one request. Customers without a card are absent from the result.
+     */
+    public Flux<CardInfo> fetchCards(List<String> mobileNumbers) {
+        Flux<CardInfo> cards = rsocket.enabled()
+                ? rsocket.flux("Card", "fetch-batch", requester -> requester.route(FETCH_BATCH_ROUTE)
+                        .data(new BatchFetchRequest(mobileNumbers))
+                        .retrieveFlux(CardInfo.class))
+                : webClient.post()
+                        .uri(CARD_BATCH_URI)
+                        .attribute(DownstreamTimeouts.OPERATION, "fetch-batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .bodyValue(new BatchFetchRequest(mobileNumbers))
+                        .retrieve()
+                        .bodyToFlux(CardInfo.class);
+        return cards
+                .doOnError(e -> log.error("Error fetching cards for {} mobile numbers", mobileNumbers.size(), e));
+    }
+
     public Mono<Void> deleteCard(String mobileNumber) {
-        return webClient.delete()
-                .uri(CARD_URI, mobileNumber)
-                .retrieve()
-                .toBodilessEntity()
-                .then()
+        Mono<Void> deletion = rsocket.enabled()
+                ? rsocket.mono("Card", "delete", requester -> requester.route(DELETE_ROUTE, mobileNumber)
+                        .retrieveMono(Void.class))
+                : webClient.delete()
+                        .uri(CARD_URI, mobileNumber)
+                        .attribute(DownstreamTimeouts.OPERATION, "delete")
+                        .retrieve()
+                        .toBodilessEntity()
+                        .then();
+        return deletion
                 .onErrorResume(WebClientResponseException.NotFound.class, e -> {
                     log.debug("No card to delete for mobile: {}", mobileNumber);
                     return Mono.empty();
                 })
                 .doOnError(e -> log.error("Error deleting card for mobile: {}", mobileNumber, e));
     }
+
+    /**
+     * The looked-up card with the ETag it was served with, for the profile's composite ETag.
+     */
+    private static CardInfo withEtag(ResponseEntity<CardInfo> entity) {
+        CardInfo body = entity.getBody();
+        return body == null ? null : body.withEtag(entity.getHeaders().getETag());
+    }
 }
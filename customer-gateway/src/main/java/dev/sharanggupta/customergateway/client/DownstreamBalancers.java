@@ -0,0 +1,122 @@
+package dev.sharanggupta.customergateway.client;
+
+import dev.sharanggupta.customergateway.config.LoadBalancingProperties;
+import dev.sharanggupta.customergateway.config.ServiceProperties;
+import dev.sharanggupta.customergateway.support.LoadBalancer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+
+/**
+ * One load balancer per downstream service, shared by the service client and the proxied
+ * routes to that service so that both see the same outstanding calls and latencies.
+ *
+ * Each call is sent to the instance its balancer picks. Connection errors and 5xx
+ * responses count as failures of that instance; a retried or hedged call picks again.
+ * Services configured with a single instance are passed through untouched.
+ */
+@Component
+public class DownstreamBalancers {
+
+    /** Route filters run after the route URL is resolved, so they can redirect it to an instance. */
+    private static final int ROUTE_FILTER_ORDER = RouteToRequestUrlFilter.ROUTE_TO_URL_FILTER_ORDER + 1;
+
+    private final LoadBalancer account;
+    private final LoadBalancer card;
+    private final LoadBalancer loan;
+
+    public DownstreamBalancers(ServiceProperties services, LoadBalancingProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.account = new LoadBalancer("account", services.accountInstances(), properties, meterRegistry);
+        this.card = new LoadBalancer("card", services.cardInstances(), properties, meterRegistry);
+        this.loan = new LoadBalancer("loan", services.loanInstances(), properties, meterRegistry);
+    }
+
+    public ExchangeFilterFunction account() {
+        return clientFilter(account);
+    }
+
+    public ExchangeFilterFunction card() {
+        return clientFilter(card);
+    }
+
+    public ExchangeFilterFunction loan() {
+        return clientFilter(loan);
+    }
+
+    public GatewayFilter accountRoute() {
+        return routeFilter(account);
+    }
+
+    public GatewayFilter cardRoute() {
+        return routeFilter(card);
+    }
+
+    public GatewayFilter loanRoute() {
+        return routeFilter(loan);
+    }
+
+    // ========== Internal Helpers ==========
+
+    private static ExchangeFilterFunction clientFilter(LoadBalancer balancer) {
+        if (!balancer.balancing()) {
+            return (request, next) -> next.exchange(request);
+        }
+        return (request, next) -> Mono.defer(() -> {
+            LoadBalancer.Selection selection = balancer.select();
+            ClientRequest routed = ClientRequest.from(request)
+                    .url(onInstance(request.url(), selection.uri()))
+                    .build();
+            return next.exchange(routed)
+                    .doOnSuccess(response -> complete(selection, response == null ? null : response.statusCode()))
+                    .doOnError(e -> selection.failure())
+                    .doOnCancel(selection::ignore);
+        });
+    }
+
+    private static GatewayFilter routeFilter(LoadBalancer balancer) {
+        if (!balancer.balancing()) {
+            return (exchange, chain) -> chain.filter(exchange);
+        }
+        return new OrderedGatewayFilter((exchange, chain) -> Mono.defer(() -> {
+            URI url = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+            if (url == null) {
+                return chain.filter(exchange);
+            }
+            LoadBalancer.Selection selection = balancer.select();
+            exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, onInstance(url, selection.uri()));
+            return chain.filter(exchange)
+                    .doOnSuccess(done -> complete(selection, exchange.getResponse().getStatusCode()))
+                    .doOnError(e -> selection.failure())
+                    .doOnCancel(selection::ignore);
+        }), ROUTE_FILTER_ORDER);
+    }
+
+    private static void complete(LoadBalancer.Selection selection, HttpStatusCode status) {
+        if (status != null && status.is5xxServerError()) {
+            selection.failure();
+        } else {
+            selection.success();
+        }
+    }
+
+    private static URI onInstance(URI url, URI instance) {
+        return UriComponentsBuilder.fromUri(url)
+                .scheme(instance.getScheme())
+                .host(instance.getHost())
+                .port(instance.getPort())
+                .build(true)
+                .toUri();
+    }
+}
@@ -0,0 +1,128 @@
+package dev.sharanggupta.customergateway.client;
+
+import dev.sharanggupta.customergateway.config.BulkheadProperties;
+import dev.sharanggupta.customergateway.exception.BulkheadFullException;
+import dev.sharanggupta.customergateway.support.Bulkhead;
+import dev.sharanggupta.customergateway.support.SlotQueue;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Supplier;
+
+/**
+ * One bulkhead per downstream service, shared by the service client and the proxied
+ * routes to that service, so that a slow service can tie up only its own compartment.
+ *
+ * Calls rejected by a full bulkhead fail with {@link BulkheadFullException} (503), which
+ * circuit breakers ignore: the service has not failed, the gateway just stopped sending
+ * it more work.
+ */
+@Component
+@Slf4j
+public class DownstreamBulkheads {
+
+    private final boolean enabled;
+    private final Bulkhead account;
+    private final Bulkhead card;
+    private final Bulkhead loan;
+
+    public DownstreamBulkheads(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.enabled();
+        this.account = new Bulkhead("account", properties.account(), meterRegistry);
+        this.card = new Bulkhead("card", properties.card(), meterRegistry);
+        this.loan = new Bulkhead("loan", properties.loan(), meterRegistry);
+    }
+
+    public ExchangeFilterFunction account() {
+        return clientFilter(account, "Account");
+    }
+
+    public ExchangeFilterFunction card() {
+        return clientFilter(card, "Card");
+    }
+
+    public ExchangeFilterFunction loan() {
+        return clientFilter(loan, "Loan");
+    }
+
+    public GatewayFilter accountRoute() {
+        return routeFilter(account, "Account");
+    }
+
+    public GatewayFilter cardRoute() {
+        return routeFilter(card, "Card");
+    }
+
+    public GatewayFilter loanRoute() {
+        return routeFilter(loan, "Loan");
+    }
+
+    /**
+     * Runs a call that bypasses WebClient, such as an RSocket request, in the bulkhead of
+     * the named service.
+     */
+    public <T> Mono<T> call(String serviceName, Supplier<Mono<T>> call) {
+        if (!enabled) {
+            return Mono.defer(call);
+        }
+        return isolated(bulkhead(serviceName), serviceName, call);
+    }
+
+    /**
+     * Runs a stream that bypasses WebClient in the bulkhead of the named service, holding
+     * its place until the stream ends.
+     */
+    public <T> Flux<T> stream(String serviceName, Supplier<Flux<T>> call) {
+        if (!enabled) {
+            return Flux.defer(call);
+        }
+        return bulkhead(serviceName).acquire()
+                .doOnDiscard(SlotQueue.Permit.class, SlotQueue.Permit::release)
+                .flatMapMany(permit -> permit.admitted()
+                        ? call.get().doFinally(signal -> permit.release())
+                        : DownstreamBulkheads.<T>rejected(serviceName));
+    }
+
+    // ========== Internal Helpers ==========
+
+    private ExchangeFilterFunction clientFilter(Bulkhead bulkhead, String serviceName) {
+        if (!enabled) {
+            return (request, next) -> next.exchange(request);
+        }
+        return (request, next) -> isolated(bulkhead, serviceName, () -> next.exchange(request));
+    }
+
+    private GatewayFilter routeFilter(Bulkhead bulkhead, String serviceName) {
+        if (!enabled) {
+            return (exchange, chain) -> chain.filter(exchange);
+        }
+        return (exchange, chain) -> isolated(bulkhead, serviceName, () -> chain.filter(exchange));
+    }
+
+    private Bulkhead bulkhead(String serviceName) {
+        return switch (serviceName) {
+            case "Account" -> account;
+            case "Card" -> card;
+            case "Loan" -> loan;
+            default -> throw new IllegalArgumentException("Unknown service: " + serviceName);
+        };
+    }
+
+    private <T> Mono<T> isolated(Bulkhead bulkhead, String serviceName, Supplier<Mono<T>> call) {
+        return bulkhead.acquire()
+                .doOnDiscard(SlotQueue.Permit.class, SlotQueue.Permit::release)
+                .flatMap(permit -> permit.admitted()
+                        ? call.get().doFinally(signal -> permit.release())
+                        : DownstreamBulkheads.<T>rejected(serviceName).next());
+    }
+
+    private static <T> Flux<T> rejected(String serviceName) {
+        log.warn("Rejecting {} service call - bulkhead full", serviceName);
+        return Flux.error(new BulkheadFullException(serviceName));
+    }
+}
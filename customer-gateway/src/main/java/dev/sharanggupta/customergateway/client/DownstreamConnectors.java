@@ -0,0 +1,122 @@
+package dev.sharanggupta.customergateway.client;
+
+import dev.sharanggupta.customergateway.config.HttpClientProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.SocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.ToIntFunction;
+
+/**
+ * Builds one dedicated Reactor Netty connection pool per downstream service.
+ *
+ * A slow or saturated service can then only exhaust its own pool, and each pool is
+ * sized and evicted independently. Every pool publishes {@code gateway.downstream.pool.*}
+ * gauges, tagged with the service name and remote address.
+ *
+ * With {@code h2c} enabled, requests are multiplexed as HTTP/2 streams over a few
+ * cleartext connections (prior knowledge, no upgrade round trip), so a burst of
+ * fan-out requests does not queue behind each other for a free connection.
+ */
+@Component
+@Slf4j
+public class DownstreamConnectors {
+
+    private static final String METRIC_PREFIX = "gateway.downstream.pool";
+
+    private final HttpClientProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final List<ConnectionProvider> providers = new CopyOnWriteArrayList<>();
+    private final Map<String, List<Meter>> metersByPool = new ConcurrentHashMap<>();
+
+    public DownstreamConnectors(HttpClientProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public ClientHttpConnector account() {
+        return connector("account", properties.account());
+    }
+
+    public ClientHttpConnector card() {
+        return connector("card", properties.card());
+    }
+
+    public ClientHttpConnector loan() {
+        return connector("loan", properties.loan());
+    }
+
+    @PreDestroy
+    void disposePools() {
+        providers.forEach(ConnectionProvider::dispose);
+    }
+
+    // ========== Internal Helpers ==========
+
+    private ClientHttpConnector connector(String service, HttpClientProperties.Pool pool) {
+        ConnectionProvider provider = ConnectionProvider.builder(service)
+                .maxConnections(pool.maxConnections())
+                .pendingAcquireMaxCount(pool.pendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.pendingAcquireTimeout())
+                .maxIdleTime(pool.maxIdleTime())
+                .maxLifeTime(pool.maxLifeTime())
+                .evictInBackground(pool.evictionInterval())
+                .metrics(true, PoolMeters::new)
+                .build();
+        providers.add(provider);
+
+        HttpClient httpClient = HttpClient.create(provider)
+                .protocol(pool.h2c() ? HttpProtocol.H2C : HttpProtocol.HTTP11);
+        log.info("Connection pool for {} service: max {} connections, protocol {}",
+                service, pool.maxConnections(), pool.h2c() ? "h2c" : "HTTP/1.1");
+        return new ReactorClientHttpConnector(httpClient);
+    }
+
+    /**
+     * Registers the gauges of one pool (one per service and remote address) with the application registry.
+     */
+    private class PoolMeters implements ConnectionProvider.MeterRegistrar {
+
+        @Override
+        public void registerMetrics(String poolName, String id, SocketAddress remoteAddress, ConnectionPoolMetrics metrics) {
+            Tags tags = Tags.of("service", poolName, "remote.address", String.valueOf(remoteAddress));
+            metersByPool.put(id, List.of(
+                    gauge("acquired", "Connections (or HTTP/2 streams) in use", metrics, ConnectionPoolMetrics::acquiredSize, tags),
+                    gauge("allocated", "Connections open", metrics, ConnectionPoolMetrics::allocatedSize, tags),
+                    gauge("idle", "Connections open and idle", metrics, ConnectionPoolMetrics::idleSize, tags),
+                    gauge("pending", "Requests waiting for a connection", metrics, ConnectionPoolMetrics::pendingAcquireSize, tags),
+                    gauge("max.allocated", "Maximum connections", metrics, ConnectionPoolMetrics::maxAllocatedSize, tags)));
+        }
+
+        @Override
+        public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+            List<Meter> meters = metersByPool.remove(id);
+            if (meters != null) {
+                meters.forEach(meterRegistry::remove);
+            }
+        }
+
+        private Meter gauge(String name, String description, ConnectionPoolMetrics metrics,
+                            ToIntFunction<ConnectionPoolMetrics> value, Tags tags) {
+            return Gauge.builder(METRIC_PREFIX + "." + name, metrics, m -> value.applyAsInt(m))
+                    .description(description)
+                    .tags(tags)
+                    .register(meterRegistry);
+        }
+    }
+}
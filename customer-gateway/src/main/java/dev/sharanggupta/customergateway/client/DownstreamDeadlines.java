@@ -0,0 +1,107 @@
+package dev.sharanggupta.customergateway.client;
+
+import dev.sharanggupta.customergateway.exception.DeadlineExceededException;
+import dev.sharanggupta.customergateway.support.Deadline;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Supplier;
+
+/**
+ * Sends the request deadline to the downstream services and stops waiting for them once
+ * it expires.
+ *
+ * Every call carries the time left as {@code X-Request-Timeout-Ms}, so the service can
+ * abandon its own work at the same moment the gateway stops waiting for it. A call made
+ * after the deadline has expired is never sent and fails with
+ * {@link DeadlineExceededException} (504), as does a call still running when it expires.
+ * Batched lookups carry the earliest deadline of the requests in the batch; calls made
+ * outside of a request, such as those of the offboarding queue, carry none.
+ */
+@Component
+@Slf4j
+public class DownstreamDeadlines {
+
+    public ExchangeFilterFunction client(String serviceName) {
+        return (request, next) -> Mono.deferContextual(context -> {
+            Deadline deadline = Deadline.current(context);
+            if (deadline == null) {
+                return next.exchange(request);
+            }
+            if (deadline.expired()) {
+                return expired(serviceName);
+            }
+            ClientRequest withDeadline = ClientRequest.from(request)
+                    .header(Deadline.HEADER, deadline.headerValue())
+                    .build();
+            return next.exchange(withDeadline)
+                    .timeout(deadline.remaining(), Mono.defer(() -> expired(serviceName)));
+        });
+    }
+
+    public GatewayFilter route(String serviceName) {
+        return (exchange, chain) -> Mono.deferContextual(context -> {
+            Deadline deadline = Deadline.current(context);
+            if (deadline == null) {
+                return chain.filter(exchange);
+            }
+            if (deadline.expired()) {
+                return expired(serviceName);
+            }
+            return chain.filter(exchange.mutate()
+                            .request(request -> request.headers(headers ->
+                                    headers.set(Deadline.HEADER, deadline.headerValue())))
+                            .build())
+                    .timeout(deadline.remaining(), Mono.defer(() -> expired(serviceName)));
+        });
+    }
+
+    /**
+     * Stops waiting for a call that bypasses WebClient, such as an RSocket request, once the
+     * request deadline expires. The time left is not sent along: cancelling the call also
+     * cancels the service's work.
+     */
+    public <T> Mono<T> call(String serviceName, Supplier<Mono<T>> call) {
+        return Mono.deferContextual(context -> {
+            Deadline deadline = Deadline.current(context);
+            if (deadline == null) {
+                return call.get();
+            }
+            if (deadline.expired()) {
+                return expired(serviceName);
+            }
+            return call.get().timeout(deadline.remaining(), Mono.defer(() -> expired(serviceName)));
+        });
+    }
+
+    /**
+     * Stops waiting for a stream that bypasses WebClient once the request deadline expires,
+     * however many elements it has delivered by then.
+     */
+    public <T> Flux<T> stream(String serviceName, Supplier<Flux<T>> call) {
+        return Flux.deferContextual(context -> {
+            Deadline deadline = Deadline.current(context);
+            if (deadline == null) {
+                return call.get();
+            }
+            if (deadline.expired()) {
+                return DownstreamDeadlines.<T>expired(serviceName).flux();
+            }
+            return call.get().timeout(Mono.delay(deadline.remaining()),
+                    next -> Mono.delay(deadline.remaining()),
+                    Flux.defer(() -> expired(serviceName)));
+        });
+    }
+
+    // ========== Internal Helpers ==========
+
+    private static <T> Mono<T> expired(String serviceName) {
+        log.warn("Abandoning {} service call - request deadline expired", serviceName);
+        return Mono.error(new DeadlineExceededException(serviceName));
+    }
+}
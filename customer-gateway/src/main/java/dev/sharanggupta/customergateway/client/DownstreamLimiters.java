@@ -0,0 +1,170 @@
+package dev.sharanggupta.customergateway.client;
+
+import dev.sharanggupta.customergateway.config.ConcurrencyLimitProperties;
+import dev.sharanggupta.customergateway.exception.DownstreamOverloadedException;
+import dev.sharanggupta.customergateway.support.ConcurrencyLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * One adaptive concurrency limiter per downstream service, shared by the service client
+ * and the proxied routes to that service so that both draw from the same limit.
+ *
+ * Calls beyond the limit fail immediately with {@link DownstreamOverloadedException}
+ * (503) instead of queueing in the connection pool until they time out.
+ *
+ * Only timeouts, connection failures and 5xx answers count as drops that shrink the
+ * limit, whether the 5xx arrives as an error or, over HTTP, as a completed response. A
+ * 4xx error, such as a not found over RSocket, is an ordinary answer from a healthy
+ * service, just as the same response over HTTP is.
+ */
+@Component
+@Slf4j
+public class DownstreamLimiters {
+
+    private final boolean enabled;
+    private final ConcurrencyLimiter account;
+    private final ConcurrencyLimiter card;
+    private final ConcurrencyLimiter loan;
+
+    public DownstreamLimiters(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.enabled();
+        this.account = new ConcurrencyLimiter("account", properties, meterRegistry);
+        this.card = new ConcurrencyLimiter("card", properties, meterRegistry);
+        this.loan = new ConcurrencyLimiter("loan", properties, meterRegistry);
+    }
+
+    public ExchangeFilterFunction account() {
+        return clientFilter(account, "Account");
+    }
+
+    public ExchangeFilterFunction card() {
+        return clientFilter(card, "Card");
+    }
+
+    public ExchangeFilterFunction loan() {
+        return clientFilter(loan, "Loan");
+    }
+
+    public GatewayFilter accountRoute() {
+        return routeFilter(account, "Account");
+    }
+
+    public GatewayFilter cardRoute() {
+        return routeFilter(card, "Card");
+    }
+
+    public GatewayFilter loanRoute() {
+        return routeFilter(loan, "Loan");
+    }
+
+    /**
+     * Runs a call that bypasses WebClient, such as an RSocket request, within the limit of
+     * the named service.
+     */
+    public <T> Mono<T> call(String serviceName, Supplier<Mono<T>> call) {
+        if (!enabled) {
+            return Mono.defer(call);
+        }
+        return limited(limiter(serviceName), serviceName, call, result -> null);
+    }
+
+    /**
+     * Runs a stream that bypasses WebClient within the limit of the named service. The
+     * stream holds its place until its first element, the counterpart of an HTTP exchange
+     * ending with the response headers, so its latency is comparable to single calls.
+     */
+    public <T> Flux<T> stream(String serviceName, Supplier<Flux<T>> call) {
+        if (!enabled) {
+            return Flux.defer(call);
+        }
+        ConcurrencyLimiter limiter = limiter(serviceName);
+        return Flux.defer(() -> {
+            ConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+            if (permit == null) {
+                return Flux.error(overloaded(limiter, serviceName));
+            }
+            return call.get()
+                    .doOnNext(first -> permit.success())
+                    .doOnComplete(permit::success)
+                    .doOnError(e -> failed(permit, e))
+                    .doOnCancel(permit::ignore);
+        });
+    }
+
+    // ========== Internal Helpers ==========
+
+    private ExchangeFilterFunction clientFilter(ConcurrencyLimiter limiter, String serviceName) {
+        if (!enabled) {
+            return (request, next) -> next.exchange(request);
+        }
+        return (request, next) -> limited(limiter, serviceName, () -> next.exchange(request),
+                response -> response == null ? null : response.statusCode());
+    }
+
+    private GatewayFilter routeFilter(ConcurrencyLimiter limiter, String serviceName) {
+        if (!enabled) {
+            return (exchange, chain) -> chain.filter(exchange);
+        }
+        return (exchange, chain) -> limited(limiter, serviceName, () -> chain.filter(exchange),
+                done -> exchange.getResponse().getStatusCode());
+    }
+
+    private ConcurrencyLimiter limiter(String serviceName) {
+        return switch (serviceName) {
+            case "Account" -> account;
+            case "Card" -> card;
+            case "Loan" -> loan;
+            default -> throw new IllegalArgumentException("Unknown service: " + serviceName);
+        };
+    }
+
+    private static DownstreamOverloadedException overloaded(ConcurrencyLimiter limiter, String serviceName) {
+        log.warn("Shedding {} service call - concurrency limit reached", limiter.service());
+        return new DownstreamOverloadedException(serviceName);
+    }
+
+    private static void failed(ConcurrencyLimiter.Permit permit, Throwable throwable) {
+        if (throwable instanceof WebClientResponseException responseException
+                && responseException.getStatusCode().is4xxClientError()) {
+            permit.success();
+        } else {
+            permit.dropped();
+        }
+    }
+
+    /**
+     * Runs a call within the limit. {@code statusOf} gives the HTTP status a completed call
+     * answered with, or null when it has none.
+     */
+    private <T> Mono<T> limited(ConcurrencyLimiter limiter, String serviceName, Supplier<Mono<T>> call,
+                                Function<T, HttpStatusCode> statusOf) {
+        return Mono.defer(() -> {
+            ConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+            if (permit == null) {
+                return Mono.error(overloaded(limiter, serviceName));
+            }
+            return call.get()
+                    .doOnSuccess(result -> {
+                        HttpStatusCode status = statusOf.apply(result);
+                        if (status != null && status.is5xxServerError()) {
+                            permit.dropped();
+                        } else {
+                            permit.success();
+                        }
+                    })
+                    .doOnError(e -> failed(permit, e))
+                    .doOnCancel(permit::ignore);
+        });
+    }
+}
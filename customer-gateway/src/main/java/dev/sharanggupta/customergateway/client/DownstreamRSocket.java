@@ -0,0 +1,127 @@
+package dev.sharanggupta.customergateway.client;
+
+import dev.sharanggupta.customergateway.config.RSocketTransportProperties;
+import dev.sharanggupta.customergateway.config.ServiceProperties;
+import io.rsocket.exceptions.CustomRSocketException;
+import io.rsocket.loadbalance.LoadbalanceTarget;
+import io.rsocket.loadbalance.WeightedLoadbalanceStrategy;
+import io.rsocket.transport.netty.client.TcpClientTransport;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Reaches the downstream services over RSocket instead of HTTP when
+ * {@code gateway.rsocket.enabled} is set.
+ *
+ * Each service gets one requester that keeps a single multiplexed connection to every
+ * instance and picks between them with RSocket's weighted strategy (two random instances,
+ * the less loaded one wins). Streams are sent only as fast as the gateway consumes them,
+ * and a cancelled call is cancelled on the service as well. Request-response and
+ * request-stream calls pass the same request deadline, bulkhead, concurrency limit and
+ * adaptive timeout as their HTTP counterparts.
+ *
+ * The services send no ETag over RSocket, so lookups made over it carry no version and
+ * {@code /details} answers without an ETag while RSocket is enabled.
+ *
+ * The services answer a failed call with the error code {@link #ERROR_CODE_BASE} plus the
+ * HTTP status they would have used. It is turned back into the matching
+ * {@link WebClientResponseException}, so the rest of the gateway handles both transports
+ * alike.
+ */
+@Component
+@Slf4j
+public class DownstreamRSocket {
+
+    public static final int ERROR_CODE_BASE = 0x1000;
+
+    private final boolean enabled;
+    private final DownstreamDeadlines deadlines;
+    private final DownstreamBulkheads bulkheads;
+    private final DownstreamLimiters limiters;
+    private final DownstreamTimeouts timeouts;
+    private final Map<String, RSocketRequester> requesters;
+
+    public DownstreamRSocket(RSocketTransportProperties properties, ServiceProperties services,
+                             ObjectProvider<RSocketRequester.Builder> builders, DownstreamDeadlines deadlines,
+                             DownstreamBulkheads bulkheads, DownstreamLimiters limiters, DownstreamTimeouts timeouts) {
+        this.enabled = properties.enabled();
+        this.deadlines = deadlines;
+        this.bulkheads = bulkheads;
+        this.limiters = limiters;
+        this.timeouts = timeouts;
+        this.requesters = enabled
+                ? Map.of("Account", requester(builders.getObject(), "account", services.accountInstances(), properties.accountPort()),
+                        "Card", requester(builders.getObject(), "card", services.cardInstances(), properties.cardPort()),
+                        "Loan", requester(builders.getObject(), "loan", services.loanInstances(), properties.loanPort()))
+                : Map.of();
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Sends a request-response call to the named service as the given operation.
+     */
+    public <T> Mono<T> mono(String serviceName, String operation, Function<RSocketRequester, Mono<T>> call) {
+        RSocketRequester requester = requesters.get(serviceName);
+        return deadlines.call(serviceName, () -> bulkheads.call(serviceName, () -> limiters.call(serviceName,
+                () -> timeouts.call(serviceName, operation, () -> call.apply(requester)
+                        .onErrorMap(DownstreamRSocket::toResponseException)))));
+    }
+
+    /**
+     * Sends a request-stream call to the named service as the given operation. The request
+     * deadline and the bulkhead cover the whole stream; the concurrency limit and adaptive
+     * timeout cover it up to its first element, as they cover an HTTP call up to its headers.
+     */
+    public <T> Flux<T> flux(String serviceName, String operation, Function<RSocketRequester, Flux<T>> call) {
+        RSocketRequester requester = requesters.get(serviceName);
+        return deadlines.stream(serviceName, () -> bulkheads.stream(serviceName, () -> limiters.stream(serviceName,
+                () -> timeouts.stream(serviceName, operation, () -> call.apply(requester)
+                        .onErrorMap(DownstreamRSocket::toResponseException)))));
+    }
+
+    @PreDestroy
+    void disposeRequesters() {
+        requesters.values().forEach(RSocketRequester::dispose);
+    }
+
+    // ========== Internal Helpers ==========
+
+    private static RSocketRequester requester(RSocketRequester.Builder builder, String service,
+                                              List<URI> instances, int port) {
+        List<LoadbalanceTarget> targets = instances.stream()
+                .map(instance -> LoadbalanceTarget.from(instance.getHost() + ":" + port,
+                        TcpClientTransport.create(instance.getHost(), port)))
+                .toList();
+        log.info("RSocket transport for {} service: {} instance(s) on port {}", service, targets.size(), port);
+        return builder.transports(Flux.just(targets), WeightedLoadbalanceStrategy.create());
+    }
+
+    private static Throwable toResponseException(Throwable failure) {
+        if (!(failure instanceof CustomRSocketException error) || error.errorCode() <= ERROR_CODE_BASE) {
+            return failure;
+        }
+        HttpStatusCode status = HttpStatusCode.valueOf(error.errorCode() - ERROR_CODE_BASE);
+        HttpStatus resolved = HttpStatus.resolve(status.value());
+        return WebClientResponseException.create(status, resolved == null ? "" : resolved.getReasonPhrase(),
+                HttpHeaders.EMPTY, String.valueOf(error.getMessage()).getBytes(StandardCharsets.UTF_8),
+                StandardCharsets.UTF_8, null);
+    }
+}
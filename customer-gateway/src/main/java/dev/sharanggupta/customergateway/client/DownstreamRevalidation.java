@@ -0,0 +1,102 @@
+package dev.sharanggupta.customergateway.client;
+
+import dev.sharanggupta.customergateway.config.RevalidationProperties;
+import dev.sharanggupta.customergateway.support.RevalidationCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revalidates downstream lookups instead of downloading them again.
+ *
+ * A GET answered with an ETag is cached per service by path and {@code Accept}. The next
+ * GET for it carries {@code If-None-Match}, and a 304 is handed to the client as the cached
+ * 200, so client code reads the body and the ETag as usual. Any other answer replaces or
+ * drops the entry. The key leaves out the instance, because every instance derives the
+ * same ETag from the same record.
+ */
+@Component
+public class DownstreamRevalidation {
+
+    private final RevalidationProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RevalidationCache> caches = new ConcurrentHashMap<>();
+
+    public DownstreamRevalidation(RevalidationProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public ExchangeFilterFunction client(String serviceName) {
+        if (!properties.enabled()) {
+            return (request, next) -> next.exchange(request);
+        }
+        RevalidationCache cache = caches.computeIfAbsent(serviceName.toLowerCase(),
+                service -> new RevalidationCache(service, properties.maxEntries(), meterRegistry));
+        return (request, next) -> {
+            if (request.method() != HttpMethod.GET) {
+                return next.exchange(request);
+            }
+            String key = key(request);
+            RevalidationCache.Entry cached = cache.get(key);
+            ClientRequest conditional = cached == null
+                    ? request
+                    : ClientRequest.from(request).headers(headers -> headers.setIfNoneMatch(cached.etag())).build();
+            return next.exchange(conditional)
+                    .flatMap(response -> handle(cache, key, cached, response));
+        };
+    }
+
+    // ========== Internal Helpers ==========
+
+    private static Mono<ClientResponse> handle(RevalidationCache cache, String key, RevalidationCache.Entry cached,
+                                               ClientResponse response) {
+        if (response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED) && cached != null) {
+            cache.recordNotModified();
+            return response.releaseBody().then(Mono.fromSupplier(() -> response.mutate()
+                    .statusCode(HttpStatus.OK)
+                    .headers(headers -> {
+                        headers.set(HttpHeaders.CONTENT_TYPE, cached.contentType());
+                        headers.setETag(cached.etag());
+                    })
+                    .body(body(cached.body()))
+                    .build()));
+        }
+        String etag = response.headers().asHttpHeaders().getETag();
+        String contentType = response.headers().asHttpHeaders().getFirst(HttpHeaders.CONTENT_TYPE);
+        if (!response.statusCode().isSameCodeAs(HttpStatus.OK) || etag == null || etag.startsWith("W/")
+                || contentType == null) {
+            cache.remove(key);
+            return Mono.just(response);
+        }
+        if (cached != null) {
+            cache.recordModified();
+        }
+        return response.bodyToMono(byte[].class)
+                .defaultIfEmpty(new byte[0])
+                .map(bytes -> {
+                    cache.put(key, new RevalidationCache.Entry(etag, contentType, bytes));
+                    return response.mutate().body(body(bytes)).build();
+                });
+    }
+
+    private static String key(ClientRequest request) {
+        return request.url().getRawPath() + " " + request.headers().getFirst(HttpHeaders.ACCEPT);
+    }
+
+    private static Flux<DataBuffer> body(byte[] bytes) {
+        return Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(bytes));
+    }
+}
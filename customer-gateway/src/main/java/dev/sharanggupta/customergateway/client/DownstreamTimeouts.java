@@ -0,0 +1,135 @@
+package dev.sharanggupta.customergateway.client;
+
+import dev.sharanggupta.customergateway.config.AdaptiveTimeoutProperties;
+import dev.sharanggupta.customergateway.exception.DownstreamTimeoutException;
+import dev.sharanggupta.customergateway.support.AdaptiveTimeout;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Gives every operation of every downstream service its own {@link AdaptiveTimeout}, so a
+ * lookup that normally takes milliseconds is not allowed to hang for as long as a batch
+ * fetch.
+ *
+ * Client calls name their operation with the {@link #OPERATION} request attribute; calls
+ * that do not are timed per HTTP method. Proxied route calls are timed per route and HTTP
+ * method. A call that times out fails with {@link DownstreamTimeoutException} (504).
+ */
+@Component
+@Slf4j
+public class DownstreamTimeouts {
+
+    public static final String OPERATION = DownstreamTimeouts.class.getName() + ".operation";
+
+    private final AdaptiveTimeoutProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Map<String, AdaptiveTimeout>> timeouts = new ConcurrentHashMap<>();
+
+    public DownstreamTimeouts(AdaptiveTimeoutProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public ExchangeFilterFunction client(String serviceName) {
+        if (!properties.enabled()) {
+            return (request, next) -> next.exchange(request);
+        }
+        return (request, next) -> {
+            String operation = request.attribute(OPERATION)
+                    .map(String.class::cast)
+                    .orElseGet(() -> request.method().name());
+            return timeout(serviceName, operation).apply(next.exchange(request), () -> expired(serviceName, operation));
+        };
+    }
+
+    public GatewayFilter route(String serviceName) {
+        if (!properties.enabled()) {
+            return (exchange, chain) -> chain.filter(exchange);
+        }
+        return (exchange, chain) -> {
+            Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+            String operation = exchange.getRequest().getMethod().name() + " " + (route == null ? "route" : route.getId());
+            return timeout(serviceName, operation).apply(chain.filter(exchange), () -> expired(serviceName, operation));
+        };
+    }
+
+    /**
+     * Times a call that bypasses WebClient, such as an RSocket request, as the given
+     * operation of the named service.
+     */
+    public <T> Mono<T> call(String serviceName, String operation, Supplier<Mono<T>> call) {
+        if (!properties.enabled()) {
+            return Mono.defer(call);
+        }
+        return timeout(serviceName, operation).apply(Mono.defer(call), () -> expired(serviceName, operation));
+    }
+
+    /**
+     * Times a stream that bypasses WebClient up to its first element, as the given operation
+     * of the named service.
+     */
+    public <T> Flux<T> stream(String serviceName, String operation, Supplier<Flux<T>> call) {
+        if (!properties.enabled()) {
+            return Flux.defer(call);
+        }
+        return timeout(serviceName, operation).applyToFirst(Flux.defer(call), () -> expired(serviceName, operation));
+    }
+
+    /**
+     * The current timeout of every operation called so far, by service and operation.
+     */
+    public Map<String, Map<String, OperationTimeout>> current() {
+        Map<String, Map<String, OperationTimeout>> current = new TreeMap<>();
+        timeouts.forEach((service, operations) -> {
+            Map<String, OperationTimeout> byOperation = new TreeMap<>();
+            operations.forEach((operation, timeout) -> byOperation.put(operation, OperationTimeout.of(timeout)));
+            current.put(service, byOperation);
+        });
+        return current;
+    }
+
+    /**
+     * @param timeoutMs  the timeout calls are currently given
+     * @param trackedMs  the tracked latency percentile, or {@code null} while there are too few samples
+     * @param samples    responses recorded in the window
+     */
+    public record OperationTimeout(double timeoutMs, Double trackedMs, long samples) {
+
+        static OperationTimeout of(AdaptiveTimeout timeout) {
+            Duration tracked = timeout.tracked();
+            return new OperationTimeout(millis(timeout.current()), tracked == null ? null : millis(tracked),
+                    timeout.sampleCount());
+        }
+
+        private static double millis(Duration duration) {
+            return duration.toNanos() / 1e6;
+        }
+    }
+
+    // ========== Internal Helpers ==========
+
+    private AdaptiveTimeout timeout(String serviceName, String operation) {
+        String service = serviceName.toLowerCase();
+        return timeouts.computeIfAbsent(service, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(operation, key -> new AdaptiveTimeout(service, operation, properties, meterRegistry));
+    }
+
+    private static DownstreamTimeoutException expired(String serviceName, String operation) {
+        log.warn("Abandoning {} service call to {} - adaptive timeout expired", serviceName, operation);
+        return new DownstreamTimeoutException(serviceName);
+    }
+}
@@ -0,0 +1,31 @@
+package dev.sharanggupta.customergateway.client;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint ({@code /actuator/timeouts}) showing the timeout each downstream
+ * operation is currently given and the latency it was derived from.
+ */
+@Component
+@Endpoint(id = "timeouts")
+@RequiredArgsConstructor
+public class DownstreamTimeoutsEndpoint {
+
+    private final DownstreamTimeouts timeouts;
+
+    @ReadOperation
+    public Map<String, Map<String, DownstreamTimeouts.OperationTimeout>> timeouts() {
+        return timeouts.current();
+    }
+
+    @ReadOperation
+    public Map<String, DownstreamTimeouts.OperationTimeout> service(@Selector String service) {
+        return timeouts.current().get(service);
+    }
+}
@@ -1,30 +1,75 @@
 package dev.sharanggupta.customergateway.client;
 
+import dev.sharanggupta.customergateway.config.HedgingProperties;
 import dev.sharanggupta.customergateway.config.ServiceProperties;
+import dev.sharanggupta.customergateway.dto.BatchFetchRequest;
 import dev.sharanggupta.customergateway.dto.LoanInfo;
+import dev.sharanggupta.customergateway.support.Hedger;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @Slf4j
 @Component
 public class LoanServiceClient {
 
     private static final String LOAN_URI = "loan/api/{mobileNumber}";
+    private static final String LOAN_BATCH_URI = "loan/api/batch";
+    private static final String FETCH_ROUTE = "loan.fetch.{mobileNumber}";
+    private static final String FETCH_BATCH_ROUTE = "loan.fetch-batch";
+    private static final String DELETE_ROUTE = "loan.delete.{mobileNumber}";
 
     private final WebClient webClient;
+    private final MediaType wireFormat;
+    private final DownstreamRSocket rsocket;
+    private final Hedger hedger;
 
-    public LoanServiceClient(WebClient.Builder builder, ServiceProperties props) {
-        this.webClient = builder.baseUrl(props.loanUrl()).build();
+    public LoanServiceClient(WebClient.Builder builder, ServiceProperties props, DownstreamConnectors connectors,
+                             DownstreamBulkheads bulkheads, DownstreamLimiters limiters, DownstreamDeadlines deadlines,
+                             DownstreamBalancers balancers, DownstreamTimeouts timeouts,
+                             DownstreamRevalidation revalidation, DownstreamRSocket rsocket,
+                             HedgingProperties hedging, MeterRegistry meterRegistry) {
+        this.webClient = builder.clientConnector(connectors.loan())
+                .filter(deadlines.client("Loan")).filter(bulkheads.loan())
+                .filter(limiters.loan()).filter(balancers.loan()).filter(timeouts.client("Loan"))
+                .filter(revalidation.client("Loan"))
+                .baseUrl(props.loanInstances().getFirst().toString()).build();
+        this.wireFormat = props.wireFormat().mediaType();
+        this.rsocket = rsocket;
+        this.hedger = hedging.enabled() ? new Hedger("loan", hedging, meterRegistry) : null;
     }
 
+    /**
+     * Fetches one customer's loan, hedging slow lookups. Batched lookups are coalesced into
+     * {@link #fetchLoans} by the service layer instead, and are neither hedged nor carry an ETag.
+     */
     public Mono<LoanInfo> fetchLoan(String mobileNumber) {
-        return webClient.get()
-                .uri(LOAN_URI, mobileNumber)
-                .retrieve()
-                .bodyToMono(LoanInfo.class)
+        if (hedger != null) {
+            return hedger.hedge(() -> requestLoan(mobileNumber));
+        }
+        return requestLoan(mobileNumber);
+    }
+
+    private Mono<LoanInfo> requestLoan(String mobileNumber) {
+        Mono<LoanInfo> loan = rsocket.enabled()
+                ? rsocket.mono("Loan", "fetch", requester -> requester.route(FETCH_ROUTE, mobileNumber)
+                        .retrieveMono(LoanInfo.class))
+                : webClient.get()
+                        .uri(LOAN_URI, mobileNumber)
+                        .attribute(DownstreamTimeouts.OPERATION, "fetch")
+                        .accept(wireFormat)
+                        .retrieve()
+                        .toEntity(LoanInfo.class)
+                        .mapNotNull(LoanServiceClient::withEtag);
+        return loan
                 .onErrorResume(WebClientResponseException.NotFound.class, e -> {
                     log.debug("No loan found for mobile: {}", mobileNumber);
                     return Mono.empty();
@@ -32,16 +77,49 @@ public class LoanServiceClient {
                 .doOnError(e -> log.error("Error fetching loan for mobile: {}", mobileNumber, e));
     }
 
+    /**
+     * Fetches the loans of many customers in one request. Customers without a loan are absent from the result.
+     */
+    public Flux<LoanInfo> fetchLoans(List<String> mobileNumbers) {
+        Flux<LoanInfo> loans = rsocket.enabled()
+                ? rsocket.flux("Loan", "fetch-batch", requester -> requester.route(FETCH_BATCH_ROUTE)
+                        .data(new BatchFetchRequest(mobileNumbers))
+                        .retrieveFlux(LoanInfo.class))
+                : webClient.post()
+                        .uri(LOAN_BATCH_URI)
+                        .attribute(DownstreamTimeouts.OPERATION, "fetch-batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .bodyValue(new BatchFetchRequest(mobileNumbers))
+                        .retrieve()
+                        .bodyToFlux(LoanInfo.class);
+        return loans
+                .doOnError(e -> log.error("Error fetching loans for {} mobile numbers", mobileNumbers.size(), e));
+    }
+
     public Mono<Void> deleteLoan(String mobileNumber) {
-        return webClient.delete()
-                .uri(LOAN_URI, mobileNumber)
-                .retrieve()
-                .toBodilessEntity()
-                .then()
+        Mono<Void> deletion = rsocket.enabled()
+                ? rsocket.mono("Loan", "delete", requester -> requester.route(DELETE_ROUTE, mobileNumber)
+                        .retrieveMono(Void.class))
+                : webClient.delete()
+                        .uri(LOAN_URI, mobileNumber)
+                        .attribute(DownstreamTimeouts.OPERATION, "delete")
+                        .retrieve()
+                        .toBodilessEntity()
+                        .then();
+        return deletion
                 .onErrorResume(WebClientResponseException.NotFound.class, e -> {
                     log.debug("No loan to delete for mobile: {}", mobileNumber);
                     return Mono.empty();
                 })
                 .doOnError(e -> log.error("Error deleting loan for mobile: {}", mobileNumber, e));
     }
+
+    /**
+     * The looked-up loan with the ETag it was served with, for the profile's composite ETag.
+     */
+    private static LoanInfo withEtag(ResponseEntity<LoanInfo> entity) {
+        LoanInfo body = entity.getBody();
+        return body == null ? null : body.withEtag(entity.getHeaders().getETag());
+    }
 }
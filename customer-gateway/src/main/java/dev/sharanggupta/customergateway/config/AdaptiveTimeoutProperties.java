@@ -0,0 +1,30 @@
+package dev.sharanggupta.customergateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Per-operation timeouts for downstream calls, derived from recent latency. Each
+ * operation of each service gets its own latency tracker built from these settings.
+ *
+ * @param enabled      whether downstream calls are given up on after their timeout
+ * @param percentile   latency percentile (0-100) the timeout is derived from
+ * @param headroom     factor applied to that percentile, so normal jitter never times out
+ * @param minTimeout   lower bound for a timeout
+ * @param maxTimeout   upper bound for a timeout, also used until enough responses were seen
+ * @param minSamples   responses needed in the window before the timeout adapts
+ * @param window       how much recent history the percentile is computed over
+ * @param windowSlices slices the window is divided into when ageing out old samples
+ */
+@ConfigurationProperties(prefix = "gateway.adaptive-timeout")
+public record AdaptiveTimeoutProperties(
+        boolean enabled,
+        double percentile,
+        double headroom,
+        Duration minTimeout,
+        Duration maxTimeout,
+        long minSamples,
+        Duration window,
+        int windowSlices
+) {}
@@ -0,0 +1,25 @@
+package dev.sharanggupta.customergateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Priority admission control for incoming requests.
+ *
+ * @param enabled       whether requests are admitted by priority
+ * @param maxConcurrent requests processed at once; reads may use all of them
+ * @param writeShare    fraction of {@code maxConcurrent} that writes may occupy
+ * @param bulkShare     fraction of {@code maxConcurrent} that batch requests may occupy
+ * @param maxQueued     requests waiting for admission across all classes
+ * @param maxWait       how long a request may wait before it is shed
+ */
+@ConfigurationProperties(prefix = "gateway.admission")
+public record AdmissionProperties(
+        boolean enabled,
+        int maxConcurrent,
+        double writeShare,
+        double bulkShare,
+        int maxQueued,
+        Duration maxWait
+) {}
@@ -0,0 +1,25 @@
+package dev.sharanggupta.customergateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "gateway.batching")
+public record BatchingProperties(
+        Batch account,
+        Batch card,
+        Batch loan
+) {
+    /**
+     * Micro-batching settings for one downstream service.
+     *
+     * @param enabled whether single lookups are coalesced into multi-key requests
+     * @param window  how long the first lookup of a batch waits for others to join
+     * @param maxSize distinct keys that trigger an immediate dispatch
+     */
+    public record Batch(
+            boolean enabled,
+            Duration window,
+            int maxSize
+    ) {}
+}
@@ -0,0 +1,31 @@
+package dev.sharanggupta.customergateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Per-service bulkheads, shared by the service clients and the proxied routes.
+ *
+ * @param enabled whether calls beyond a service's compartment wait or are rejected
+ */
+@ConfigurationProperties(prefix = "gateway.bulkhead")
+public record BulkheadProperties(
+        boolean enabled,
+        Compartment account,
+        Compartment card,
+        Compartment loan
+) {
+    /**
+     * Bulkhead settings for one downstream service.
+     *
+     * @param maxConcurrent calls allowed in flight to the service
+     * @param maxQueued     calls allowed to wait for a slot before being rejected outright
+     * @param maxWait       how long a call may wait for a slot
+     */
+    public record Compartment(
+            int maxConcurrent,
+            int maxQueued,
+            Duration maxWait
+    ) {}
+}
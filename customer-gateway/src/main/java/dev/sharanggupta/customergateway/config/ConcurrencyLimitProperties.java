@@ -0,0 +1,26 @@
+package dev.sharanggupta.customergateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Adaptive concurrency limit applied to every downstream service, for both the
+ * service clients and the proxied routes. Each service adapts its own limit.
+ *
+ * @param enabled      whether calls beyond the limit are shed
+ * @param initialLimit concurrent calls allowed before any latency has been observed
+ * @param minLimit     the limit never shrinks below this
+ * @param maxLimit     the limit never grows beyond this
+ * @param rttTolerance how much slower than the long-term average a call may be before the limit shrinks
+ * @param smoothing    weight of each new estimate (0-1); lower values react more slowly
+ * @param longWindow   samples in the long-term RTT average
+ */
+@ConfigurationProperties(prefix = "gateway.concurrency-limit")
+public record ConcurrencyLimitProperties(
+        boolean enabled,
+        int initialLimit,
+        int minLimit,
+        int maxLimit,
+        double rttTolerance,
+        double smoothing,
+        int longWindow
+) {}
@@ -0,0 +1,8 @@
+package dev.sharanggupta.customergateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "gateway.customer-batch")
+public record CustomerBatchProperties(
+        int concurrency
+) {}
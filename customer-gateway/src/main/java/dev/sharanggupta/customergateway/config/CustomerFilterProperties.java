@@ -0,0 +1,25 @@
+package dev.sharanggupta.customergateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * The Bloom filter of known mobile numbers in front of customer lookups.
+ *
+ * @param enabled                  whether the filter is seeded and consulted at all
+ * @param expectedInsertions       mobile numbers the filter is sized for
+ * @param falsePositiveProbability target false-positive rate at {@code expectedInsertions}
+ * @param refreshInterval          how often the filter is re-seeded from the account service
+ * @param shortCircuit             whether a miss is answered as not found without asking the account
+ *                                 service; turn off when customers are also written elsewhere, so that
+ *                                 misses are confirmed by the account service
+ */
+@ConfigurationProperties(prefix = "gateway.customer-filter")
+public record CustomerFilterProperties(
+        boolean enabled,
+        long expectedInsertions,
+        double falsePositiveProbability,
+        Duration refreshInterval,
+        boolean shortCircuit
+) {}
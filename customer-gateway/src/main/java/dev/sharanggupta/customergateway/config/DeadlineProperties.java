@@ -0,0 +1,17 @@
+package dev.sharanggupta.customergateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * End-to-end request deadlines propagated to the downstream services.
+ *
+ * @param enabled whether requests get a deadline that is sent with every downstream call
+ * @param budget  time a request may take; a shorter {@code X-Request-Timeout-Ms} from the client wins
+ */
+@ConfigurationProperties(prefix = "gateway.deadline")
+public record DeadlineProperties(
+        boolean enabled,
+        Duration budget
+) {}
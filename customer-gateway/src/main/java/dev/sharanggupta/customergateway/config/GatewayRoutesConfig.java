@@ -1,5 +1,11 @@
 package dev.sharanggupta.customergateway.config;
 
+import dev.sharanggupta.customergateway.client.DownstreamBalancers;
+import dev.sharanggupta.customergateway.client.DownstreamBulkheads;
+import dev.sharanggupta.customergateway.client.DownstreamDeadlines;
+import dev.sharanggupta.customergateway.client.DownstreamLimiters;
+import dev.sharanggupta.customergateway.client.DownstreamTimeouts;
+import dev.sharanggupta.customergateway.service.DownstreamResilience;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
@@ -15,12 +21,21 @@ import org.springframework.context.annotation.Configuration;
  *
  * This provides a unified API where cards and loans are accessed as
  * sub-resources of a customer identified by mobile number.
+ *
+ * Each route shares the circuit breaker, bulkhead and adaptive concurrency limit of its
+ * service with the service client. It also sends the remaining request deadline along and
+ * gives up when it expires, gives up earlier when the service takes much longer than it
+ * usually does for that route, and goes to the service instance picked by the load
+ * balancer it shares with the client.
  */
 @Configuration
 public class GatewayRoutesConfig {
 
     @Bean
-    public RouteLocator gatewayRoutes(RouteLocatorBuilder builder, ServiceProperties properties) {
+    public RouteLocator gatewayRoutes(RouteLocatorBuilder builder, ServiceProperties properties,
+                                     DownstreamResilience resilience, DownstreamBulkheads bulkheads,
+                                     DownstreamLimiters limiters, DownstreamDeadlines deadlines,
+                                     DownstreamBalancers balancers, DownstreamTimeouts timeouts) {
         return builder.routes()
 
                 // Card as a sub-resource of customer
@@ -28,21 +43,39 @@ public class GatewayRoutesConfig {
                         .path("/api/customer/{mobileNumber}/card/**")
                         .filters(f -> f.rewritePath(
                                 "/api/customer/(?<mobile>[^/]+)/card(?<segment>/?.*)",
-                                "/card/api/${mobile}${segment}"))
-                        .uri(properties.cardUrl()))
+                                "/card/api/${mobile}${segment}")
+                                .filter(deadlines.route("Card"))
+                                .filter(resilience.card().route())
+                                .filter(bulkheads.cardRoute())
+                                .filter(limiters.cardRoute())
+                                .filter(timeouts.route("Card"))
+                                .filter(balancers.cardRoute()))
+                        .uri(properties.cardInstances().getFirst()))
 
                 // Loan as a sub-resource of customer
                 .route("customer-loan-route", r -> r
                         .path("/api/customer/{mobileNumber}/loan/**")
                         .filters(f -> f.rewritePath(
                                 "/api/customer/(?<mobile>[^/]+)/loan(?<segment>/?.*)",
-                                "/loan/api/${mobile}${segment}"))
-                        .uri(properties.loanUrl()))
+                                "/loan/api/${mobile}${segment}")
+                                .filter(deadlines.route("Loan"))
+                                .filter(resilience.loan().route())
+                                .filter(bulkheads.loanRoute())
+                                .filter(limiters.loanRoute())
+                                .filter(timeouts.route("Loan"))
+                                .filter(balancers.loanRoute()))
+                        .uri(properties.loanInstances().getFirst()))
 
                 // Account service proxy (not nested under customer)
                 .route("account-proxy", r -> r
                         .path("/account/**")
-                        .uri(properties.accountUrl()))
+                        .filters(f -> f.filter(deadlines.route("Account"))
+                                .filter(resilience.account().route())
+                                .filter(bulkheads.accountRoute())
+                                .filter(limiters.accountRoute())
+                                .filter(timeouts.route("Account"))
+                                .filter(balancers.accountRoute()))
+                        .uri(properties.accountInstances().getFirst()))
 
                 .build();
     }
@@ -0,0 +1,30 @@
+package dev.sharanggupta.customergateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Request hedging for single-key downstream reads. Each service gets its own latency
+ * tracker and budget built from these settings.
+ *
+ * @param enabled      whether slow reads are hedged
+ * @param percentile   latency percentile (0-100) after which a hedge is sent
+ * @param minDelay     lower bound for the hedge delay, so fast services are not hedged on jitter
+ * @param minSamples   responses needed in the window before hedging starts
+ * @param budgetRatio  hedges allowed per primary request, e.g. 0.05 for at most 5% extra load
+ * @param maxBurst     hedges that may be saved up while the service is healthy
+ * @param window       how much recent history the percentile is computed over
+ * @param windowSlices slices the window is divided into when ageing out old samples
+ */
+@ConfigurationProperties(prefix = "gateway.hedging")
+public record HedgingProperties(
+        boolean enabled,
+        double percentile,
+        Duration minDelay,
+        long minSamples,
+        double budgetRatio,
+        long maxBurst,
+        Duration window,
+        int windowSlices
+) {}
@@ -0,0 +1,33 @@
+package dev.sharanggupta.customergateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "gateway.http-client")
+public record HttpClientProperties(
+        Pool account,
+        Pool card,
+        Pool loan
+) {
+    /**
+     * Connection pool settings for one downstream service.
+     *
+     * @param maxConnections         connections kept open to the service
+     * @param pendingAcquireMaxCount requests allowed to wait for a connection before failing fast
+     * @param pendingAcquireTimeout  how long a request may wait for a connection
+     * @param maxIdleTime            idle connections older than this are closed
+     * @param maxLifeTime            connections older than this are closed once released
+     * @param evictionInterval       how often idle and expired connections are evicted in the background
+     * @param h2c                    talk HTTP/2 over cleartext (prior knowledge) instead of HTTP/1.1
+     */
+    public record Pool(
+            int maxConnections,
+            int pendingAcquireMaxCount,
+            Duration pendingAcquireTimeout,
+            Duration maxIdleTime,
+            Duration maxLifeTime,
+            Duration evictionInterval,
+            boolean h2c
+    ) {}
+}
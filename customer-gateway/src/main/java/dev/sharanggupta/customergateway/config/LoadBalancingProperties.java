@@ -0,0 +1,25 @@
+package dev.sharanggupta.customergateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Client-side load balancing across the instances of each downstream service, for both
+ * the service clients and the proxied routes. Services with a single instance are
+ * unaffected.
+ *
+ * @param smoothing           weight of each new response in an instance's latency average (0-1)
+ * @param decay               how quickly the latency average of an instance without responses fades
+ * @param consecutiveFailures failures in a row after which an instance is ejected
+ * @param ejectionTime        how long an ejected instance receives no traffic
+ * @param maxEjectionPercent  share of a service's instances that may be ejected at once
+ */
+@ConfigurationProperties(prefix = "gateway.load-balancing")
+public record LoadBalancingProperties(
+        double smoothing,
+        Duration decay,
+        int consecutiveFailures,
+        Duration ejectionTime,
+        int maxEjectionPercent
+) {}
@@ -0,0 +1,12 @@
+package dev.sharanggupta.customergateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "gateway.offboard-queue")
+public record OffboardQueueProperties(
+        int capacity,
+        int workers,
+        Duration statusRetention
+) {}
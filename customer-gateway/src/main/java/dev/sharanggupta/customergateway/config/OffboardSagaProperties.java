@@ -0,0 +1,24 @@
+package dev.sharanggupta.customergateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * The offboarding saga's journal and recovery.
+ *
+ * @param journalPath         file the saga steps are appended to; must survive restarts
+ * @param fsync               whether each journal entry is forced to disk
+ * @param recoveryConcurrency sagas resumed at once
+ * @param recoveryInterval    how often the journal is compacted and unfinished sagas are resumed
+ * @param maxRecoveryAge      age beyond which an unfinished saga is abandoned instead of resumed
+ */
+@ConfigurationProperties(prefix = "gateway.offboard-saga")
+public record OffboardSagaProperties(
+        Path journalPath,
+        boolean fsync,
+        int recoveryConcurrency,
+        Duration recoveryInterval,
+        Duration maxRecoveryAge
+) {}
@@ -0,0 +1,17 @@
+package dev.sharanggupta.customergateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Partial customer profiles when the card or loan lookup is slow.
+ *
+ * @param enabled         whether a profile is returned without the products that missed their budget
+ * @param componentBudget how long the card and loan lookups may take once the account has arrived
+ */
+@ConfigurationProperties(prefix = "gateway.partial-response")
+public record PartialResponseProperties(
+        boolean enabled,
+        Duration componentBudget
+) {}
@@ -0,0 +1,21 @@
+package dev.sharanggupta.customergateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Calls from the service clients to the downstream services over RSocket instead of HTTP.
+ * Each instance is reached on the host of its service URL and the service's RSocket port.
+ * The proxied routes always use HTTP.
+ *
+ * @param enabled     whether the service clients use RSocket
+ * @param accountPort RSocket port of the account service instances
+ * @param cardPort    RSocket port of the card service instances
+ * @param loanPort    RSocket port of the loan service instances
+ */
+@ConfigurationProperties(prefix = "gateway.rsocket")
+public record RSocketTransportProperties(
+        boolean enabled,
+        int accountPort,
+        int cardPort,
+        int loanPort
+) {}
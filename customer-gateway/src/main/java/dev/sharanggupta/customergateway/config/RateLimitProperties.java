@@ -0,0 +1,26 @@
+package dev.sharanggupta.customergateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Set;
+
+/**
+ * Per-client rate limit for the customer API, including the card and loan routes.
+ *
+ * @param enabled       whether requests over the limit are rejected with 429
+ * @param replenishRate requests per second each client may sustain
+ * @param burstCapacity requests a client may send at once after being idle
+ * @param maxClients    clients tracked before idle ones are evicted
+ * @param apiKeyHeader  header identifying a client; the remote address is used when it is absent
+ *                      or does not carry one of {@code apiKeys}
+ * @param apiKeys       API keys issued to clients; only these get a bucket of their own
+ */
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public record RateLimitProperties(
+        boolean enabled,
+        double replenishRate,
+        int burstCapacity,
+        int maxClients,
+        String apiKeyHeader,
+        Set<String> apiKeys
+) {}
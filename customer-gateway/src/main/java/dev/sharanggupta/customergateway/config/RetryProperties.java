@@ -0,0 +1,26 @@
+package dev.sharanggupta.customergateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Budgeted retries of idempotent downstream calls. Each service gets its own budget
+ * built from these settings.
+ *
+ * @param enabled     whether failed idempotent calls are retried
+ * @param maxAttempts attempts per call, including the first
+ * @param baseDelay   shortest backoff before a retry
+ * @param maxDelay    longest backoff before a retry
+ * @param budgetRatio retries allowed per successful call, e.g. 0.1 for at most 10% extra load
+ * @param maxBurst    retries that may be saved up while the service is healthy
+ */
+@ConfigurationProperties(prefix = "gateway.retry")
+public record RetryProperties(
+        boolean enabled,
+        int maxAttempts,
+        Duration baseDelay,
+        Duration maxDelay,
+        double budgetRatio,
+        long maxBurst
+) {}
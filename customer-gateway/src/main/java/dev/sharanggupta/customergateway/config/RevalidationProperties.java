@@ -0,0 +1,15 @@
+package dev.sharanggupta.customergateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Conditional downstream lookups. Each service gets its own cache built from these settings.
+ *
+ * @param enabled    whether lookups are revalidated with {@code If-None-Match} instead of downloaded again
+ * @param maxEntries representations cached per service
+ */
+@ConfigurationProperties(prefix = "gateway.revalidation")
+public record RevalidationProperties(
+        boolean enabled,
+        int maxEntries
+) {}
@@ -1,10 +1,66 @@
 package dev.sharanggupta.customergateway.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.MediaType;
 
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Downstream service locations. Each service is reached at its single {@code *-url}, or
+ * at every instance in {@code *-urls} when that list is set. Instances of one service
+ * differ only in scheme, host and port.
+ *
+ * The service clients exchange customer records with the services in {@code wire-format}.
+ * The gateway's own clients and the proxied routes are unaffected: they get whatever
+ * format they ask for, JSON by default.
+ */
 @ConfigurationProperties(prefix = "services")
 public record ServiceProperties(
         String accountUrl,
         String cardUrl,
-        String loanUrl
-) {}
+        String loanUrl,
+        List<String> accountUrls,
+        List<String> cardUrls,
+        List<String> loanUrls,
+        WireFormat wireFormat
+) {
+
+    public ServiceProperties {
+        if (wireFormat == null) {
+            wireFormat = WireFormat.JSON;
+        }
+    }
+
+    public List<URI> accountInstances() {
+        return instances(accountUrl, accountUrls);
+    }
+
+    public List<URI> cardInstances() {
+        return instances(cardUrl, cardUrls);
+    }
+
+    public List<URI> loanInstances() {
+        return instances(loanUrl, loanUrls);
+    }
+
+    private static List<URI> instances(String url, List<String> urls) {
+        List<String> configured = urls == null || urls.isEmpty() ? List.of(url) : urls;
+        return configured.stream().map(URI::create).toList();
+    }
+
+    public enum WireFormat {
+        JSON(MediaType.APPLICATION_JSON),
+        SMILE(new MediaType("application", "x-jackson-smile"));
+
+        private final MediaType mediaType;
+
+        WireFormat(MediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public MediaType mediaType() {
+            return mediaType;
+        }
+    }
+}
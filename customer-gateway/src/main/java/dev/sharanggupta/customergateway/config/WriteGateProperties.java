@@ -0,0 +1,8 @@
+package dev.sharanggupta.customergateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "gateway.write-gate")
+public record WriteGateProperties(
+        int halfOpenPermits
+) {}
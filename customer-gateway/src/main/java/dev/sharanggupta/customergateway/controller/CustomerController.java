@@ -3,8 +3,13 @@ package dev.sharanggupta.customergateway.controller;
 import dev.sharanggupta.customergateway.annotation.ValidMobileNumber;
 import dev.sharanggupta.customergateway.dto.ApiResponse;
 import dev.sharanggupta.customergateway.dto.CustomerAccount;
+import dev.sharanggupta.customergateway.dto.CustomerBatchRequest;
 import dev.sharanggupta.customergateway.dto.CustomerProfile;
+import dev.sharanggupta.customergateway.dto.CustomerProfileResult;
 import dev.sharanggupta.customergateway.dto.ErrorResponse;
+import dev.sharanggupta.customergateway.dto.OffboardStatus;
+import dev.sharanggupta.customergateway.dto.ProfileField;
+import dev.sharanggupta.customergateway.dto.ProfileSection;
 import dev.sharanggupta.customergateway.exception.ResourceNotFoundException;
 import dev.sharanggupta.customergateway.service.CustomerService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -13,14 +18,21 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Pattern;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+
 @Tag(
     name = "Customer Gateway API",
     description = "Customer-centric API for managing accounts, cards, and loans")
@@ -36,6 +48,11 @@ public class CustomerController {
     private static final String MESSAGE_ONBOARDED = "Customer onboarded successfully";
     private static final String MESSAGE_UPDATED = "Customer details updated successfully";
     private static final String MESSAGE_OFFBOARDED = "Customer offboarded successfully";
+    private static final String PREFER = "Prefer";
+    private static final String PREFERENCE_APPLIED = "Preference-Applied";
+    private static final String RESPOND_ASYNC = "respond-async";
+    private static final String OFFBOARD_REQUESTS_PATH = "/api/customer/offboard/requests/";
+    private static final String FIELDS_MESSAGE = "Fields must be account, card or loan";
 
     private final CustomerService customerService;
 
@@ -51,18 +68,62 @@ public class CustomerController {
                 .then(Mono.just(createResponse(HttpStatus.CREATED, STATUS_CREATED, MESSAGE_ONBOARDED)));
     }
 
-    @Operation(summary = "Get Customer Details", description = "Fetch customer details by mobile number")
+    @Operation(summary = "Get Customer Details",
+            description = "Fetch customer details by mobile number; fields=account,card,loan selects the blocks to include")
     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "OK")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "304",
+            description = "Not Modified since the ETag in If-None-Match")
     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Bad Request",
             content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     @GetMapping("/details/{mobileNumber}")
     public Mono<ResponseEntity<CustomerProfile>> getCustomerDetails(
-            @PathVariable @ValidMobileNumber String mobileNumber) {
-        return customerService.getCustomerDetails(mobileNumber)
-                .map(ResponseEntity::ok)
+            @PathVariable @ValidMobileNumber String mobileNumber,
+            @RequestParam(required = false)
+            List<@Pattern(regexp = ProfileField.PATTERN, message = FIELDS_MESSAGE) String> fields) {
+        return customerService.getCustomerDetails(mobileNumber, ProfileField.of(fields))
+                .map(profile -> ResponseEntity.ok().eTag(profile.etag()).body(profile))
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber)));
     }
 
+    @Operation(summary = "Stream Customer Details",
+            description = "Stream customer details as NDJSON, one section per line as each lookup completes")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "OK",
+            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = ProfileSection.class)))
+    @GetMapping(path = "/details/{mobileNumber}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ProfileSection> streamCustomerDetails(
+            @PathVariable @ValidMobileNumber String mobileNumber,
+            @RequestParam(required = false)
+            List<@Pattern(regexp = ProfileField.PATTERN, message = FIELDS_MESSAGE) String> fields) {
+        return customerService.streamCustomerDetails(mobileNumber, ProfileField.of(fields));
+    }
+
+    @Operation(summary = "Stream Customer Details as Server-Sent Events",
+            description = "Stream customer details as server-sent events named after their section")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "OK",
+            content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                    schema = @Schema(implementation = ProfileSection.class)))
+    @GetMapping(path = "/details/{mobileNumber}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ProfileSection>> streamCustomerDetailsEvents(
+            @PathVariable @ValidMobileNumber String mobileNumber,
+            @RequestParam(required = false)
+            List<@Pattern(regexp = ProfileField.PATTERN, message = FIELDS_MESSAGE) String> fields) {
+        return customerService.streamCustomerDetails(mobileNumber, ProfileField.of(fields))
+                .map(section -> ServerSentEvent.builder(section).event(section.section()).build());
+    }
+
+    @Operation(summary = "Get Customer Details in Batch",
+            description = "Fetch many customers by mobile number, streamed as NDJSON in completion order")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "OK",
+            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = CustomerProfileResult.class)))
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Bad Request",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    @PostMapping(path = "/details:batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CustomerProfileResult> getCustomerDetailsBatch(@Valid @RequestBody CustomerBatchRequest request) {
+        return customerService.getCustomerDetailsBatch(request.mobileNumbers());
+    }
+
     @Operation(summary = "Update Customer", description = "Update customer details")
     @ApiResponses({
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "OK"),
@@ -75,21 +136,58 @@ public class CustomerController {
                 .then(Mono.just(createResponse(HttpStatus.OK, STATUS_OK, MESSAGE_UPDATED)));
     }
 
-    @Operation(summary = "Offboard Customer", description = "Delete customer account")
+    @Operation(summary = "Offboard Customer",
+            description = "Delete customer account; with Prefer: respond-async the deletion is queued and its status can be polled")
     @ApiResponses({
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "OK"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "202", description = "Accepted",
+                content = @Content(schema = @Schema(implementation = OffboardStatus.class))),
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Bad Request",
                 content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "417", description = "Expectation Failed",
+                content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "503", description = "Queue full or write gate closed",
                 content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
     @DeleteMapping("/offboard/{mobileNumber}")
-    public Mono<ResponseEntity<ApiResponse>> offboardCustomer(
-            @PathVariable @ValidMobileNumber String mobileNumber) {
+    public Mono<ResponseEntity<?>> offboardCustomer(
+            @PathVariable @ValidMobileNumber String mobileNumber,
+            @RequestHeader(name = PREFER, required = false) List<String> preferences) {
+        if (prefersAsync(preferences)) {
+            return customerService.submitOffboard(mobileNumber)
+                    .map(status -> ResponseEntity.accepted()
+                            .location(URI.create(OFFBOARD_REQUESTS_PATH + status.requestId()))
+                            .header(PREFERENCE_APPLIED, RESPOND_ASYNC)
+                            .body(status));
+        }
         return customerService.offboardCustomer(mobileNumber)
                 .then(Mono.just(createResponse(HttpStatus.OK, STATUS_OK, MESSAGE_OFFBOARDED)));
     }
 
+    @Operation(summary = "Get Offboarding Status", description = "Progress of an asynchronous offboarding request")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "OK")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Unknown or expired request",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    @GetMapping("/offboard/requests/{requestId}")
+    public Mono<ResponseEntity<OffboardStatus>> getOffboardStatus(@PathVariable String requestId) {
+        return customerService.getOffboardStatus(requestId)
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * Whether the Prefer header (RFC 7240) asks for respond-async. Preferences are
+     * comma-separated and case-insensitive, and may carry a value or parameters.
+     */
+    private static boolean prefersAsync(List<String> preferences) {
+        if (preferences == null) {
+            return false;
+        }
+        return preferences.stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(preference -> preference.split("[=;]", 2)[0].trim())
+                .anyMatch(RESPOND_ASYNC::equalsIgnoreCase);
+    }
+
     private ResponseEntity<ApiResponse> createResponse(HttpStatus httpStatus, String status, String message) {
         return ResponseEntity.status(httpStatus).body(new ApiResponse(status, message));
     }
@@ -0,0 +1,10 @@
+package dev.sharanggupta.customergateway.dto;
+
+import java.util.List;
+
+/**
+ * Body of the downstream services' multi-key lookup endpoints.
+ */
+public record BatchFetchRequest(
+        List<String> mobileNumbers
+) {}
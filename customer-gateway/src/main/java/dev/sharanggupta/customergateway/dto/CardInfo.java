@@ -1,12 +1,22 @@
 package dev.sharanggupta.customergateway.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public record CardInfo(
+        @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+        String mobileNumber,
         String cardNumber,
         String cardType,
         int totalLimit,
         int amountUsed,
-        int availableAmount
-) {}
+        int availableAmount,
+        @JsonIgnore
+        String etag
+) {
+    public CardInfo withEtag(String etag) {
+        return new CardInfo(mobileNumber, cardNumber, cardType, totalLimit, amountUsed, availableAmount, etag);
+    }
+}
@@ -1,5 +1,6 @@
 package dev.sharanggupta.customergateway.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -20,5 +21,8 @@ public record CustomerAccount(
         @Pattern(regexp = "^\\d{10}$", message = "Mobile number must be 10 digits")
         String mobileNumber,
 
-        AccountInfo account
+        AccountInfo account,
+
+        @JsonIgnore
+        String etag
 ) {}
@@ -0,0 +1,16 @@
+package dev.sharanggupta.customergateway.dto;
+
+import dev.sharanggupta.customergateway.annotation.ValidMobileNumber;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record CustomerBatchRequest(
+        @NotEmpty(message = "At least one mobile number is required")
+        @Size(max = CustomerBatchRequest.MAX_MOBILE_NUMBERS,
+                message = "At most " + CustomerBatchRequest.MAX_MOBILE_NUMBERS + " mobile numbers are allowed")
+        List<@ValidMobileNumber String> mobileNumbers
+) {
+    public static final int MAX_MOBILE_NUMBERS = 500;
+}
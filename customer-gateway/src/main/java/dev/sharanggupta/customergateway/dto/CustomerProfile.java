@@ -1,8 +1,22 @@
 package dev.sharanggupta.customergateway.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 
+import java.util.List;
+
+/**
+ * A customer's account with their card and loan, if any.
+ *
+ * {@code degraded} names the products, {@code card} or {@code loan}, whose lookup missed
+ * its latency budget and are therefore missing from this profile even though they may
+ * exist. It is absent when the profile is complete.
+ *
+ * {@code etag} identifies this representation, composed from the ETags of the account,
+ * card and loan it was built from. It is {@code null} when one of them came without one
+ * or the profile is degraded.
+ */
 @Builder(toBuilder = true)
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public record CustomerProfile(
@@ -11,5 +25,8 @@ public record CustomerProfile(
         String mobileNumber,
         AccountInfo account,
         CardInfo card,
-        LoanInfo loan
+        LoanInfo loan,
+        List<String> degraded,
+        @JsonIgnore
+        String etag
 ) {}
@@ -0,0 +1,22 @@
+package dev.sharanggupta.customergateway.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One line of a batch details response: either the profile or the error for a single mobile number.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CustomerProfileResult(
+        String mobileNumber,
+        int status,
+        CustomerProfile profile,
+        String errorMessage
+) {
+    public static CustomerProfileResult found(CustomerProfile profile) {
+        return new CustomerProfileResult(profile.mobileNumber(), 200, profile, null);
+    }
+
+    public static CustomerProfileResult failed(String mobileNumber, int status, String errorMessage) {
+        return new CustomerProfileResult(mobileNumber, status, null, errorMessage);
+    }
+}
@@ -1,12 +1,22 @@
 package dev.sharanggupta.customergateway.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public record LoanInfo(
+        @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+        String mobileNumber,
         String loanNumber,
         String loanType,
         int totalLoan,
         int amountPaid,
-        int outstandingAmount
-) {}
+        int outstandingAmount,
+        @JsonIgnore
+        String etag
+) {
+    public LoanInfo withEtag(String etag) {
+        return new LoanInfo(mobileNumber, loanNumber, loanType, totalLoan, amountPaid, outstandingAmount, etag);
+    }
+}
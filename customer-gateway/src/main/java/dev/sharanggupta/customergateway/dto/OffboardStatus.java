@@ -0,0 +1,40 @@
+package dev.sharanggupta.customergateway.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+/**
+ * Progress of an asynchronous offboarding request.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record OffboardStatus(
+        String requestId,
+        String mobileNumber,
+        State state,
+        String errorMessage,
+        Instant submittedAt,
+        Instant updatedAt
+) {
+    public enum State { QUEUED, RUNNING, SUCCEEDED, FAILED }
+
+    public static OffboardStatus queued(String requestId, String mobileNumber, Instant now) {
+        return new OffboardStatus(requestId, mobileNumber, State.QUEUED, null, now, now);
+    }
+
+    public OffboardStatus running(Instant now) {
+        return new OffboardStatus(requestId, mobileNumber, State.RUNNING, null, submittedAt, now);
+    }
+
+    public OffboardStatus succeeded(Instant now) {
+        return new OffboardStatus(requestId, mobileNumber, State.SUCCEEDED, null, submittedAt, now);
+    }
+
+    public OffboardStatus failed(String errorMessage, Instant now) {
+        return new OffboardStatus(requestId, mobileNumber, State.FAILED, errorMessage, submittedAt, now);
+    }
+
+    public boolean isFinished() {
+        return state == State.SUCCEEDED || state == State.FAILED;
+    }
+}
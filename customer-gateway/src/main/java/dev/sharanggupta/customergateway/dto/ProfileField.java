@@ -0,0 +1,31 @@
+package dev.sharanggupta.customergateway.dto;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A block of a {@link CustomerProfile} that clients select with {@code fields=}. The
+ * customer's name, email and mobile number are always included.
+ */
+public enum ProfileField {
+    ACCOUNT,
+    CARD,
+    LOAN;
+
+    public static final String PATTERN = "account|card|loan";
+
+    /**
+     * The named fields, or all of them when none are named.
+     */
+    public static Set<ProfileField> of(List<String> names) {
+        if (names == null || names.isEmpty()) {
+            return EnumSet.allOf(ProfileField.class);
+        }
+        return names.stream()
+                .map(name -> valueOf(name.toUpperCase(Locale.ROOT)))
+                .collect(Collectors.toCollection(() -> EnumSet.noneOf(ProfileField.class)));
+    }
+}
@@ -0,0 +1,51 @@
+package dev.sharanggupta.customergateway.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * One event of a streamed customer profile. Merging the events' fields gives the
+ * {@link CustomerProfile}.
+ *
+ * The {@code account} section comes first, with the customer's name, email and mobile
+ * number. A {@code card} or {@code loan} section follows as soon as that lookup completes;
+ * it has no {@code card} or {@code loan} when the customer has none. The stream ends with
+ * a {@code complete} section, whose {@code degraded} names the products that missed their
+ * latency budget and were therefore not sent.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProfileSection(
+        String section,
+        String name,
+        String email,
+        String mobileNumber,
+        AccountInfo account,
+        CardInfo card,
+        LoanInfo loan,
+        List<String> degraded
+) {
+    public static final String ACCOUNT = "account";
+    public static final String CARD = "card";
+    public static final String LOAN = "loan";
+    public static final String COMPLETE = "complete";
+
+    public static ProfileSection account(CustomerAccount customerAccount, boolean includeAccount) {
+        return new ProfileSection(ACCOUNT, customerAccount.name(), customerAccount.email(),
+                customerAccount.mobileNumber(), includeAccount ? customerAccount.account() : null,
+                null, null, null);
+    }
+
+    public static ProfileSection card(CardInfo card) {
+        return new ProfileSection(CARD, null, null, null, null, card, null, null);
+    }
+
+    public static ProfileSection loan(LoanInfo loan) {
+        return new ProfileSection(LOAN, null, null, null, null, null, loan, null);
+    }
+
+    public static ProfileSection complete(List<String> degraded) {
+        return new ProfileSection(COMPLETE, null, null, null, null, null, null,
+                degraded.isEmpty() ? null : degraded);
+    }
+}
@@ -0,0 +1,11 @@
+package dev.sharanggupta.customergateway.exception;
+
+/**
+ * A downstream call was rejected because the service's bulkhead and its wait queue were
+ * full. Like any shed call, it is ignored by circuit breakers.
+ */
+public class BulkheadFullException extends DownstreamOverloadedException {
+    public BulkheadFullException(String serviceName) {
+        super(serviceName, "has too many calls in flight");
+    }
+}
@@ -0,0 +1,17 @@
+package dev.sharanggupta.customergateway.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The request ran out of its deadline before a downstream call could complete, so the
+ * call was abandoned or never sent. The time may have been spent anywhere along the
+ * request, so circuit breakers ignore this exception.
+ */
+@ResponseStatus(value = HttpStatus.GATEWAY_TIMEOUT)
+public class DeadlineExceededException extends RuntimeException {
+    public DeadlineExceededException(String serviceName) {
+        super("The request deadline expired before the " + serviceName.toLowerCase()
+                + " service answered. Please try again.");
+    }
+}
@@ -0,0 +1,15 @@
+package dev.sharanggupta.customergateway.exception;
+
+/**
+ * A downstream call was shed by the adaptive concurrency limit. The service itself has
+ * not failed, so circuit breakers ignore this exception.
+ */
+public class DownstreamOverloadedException extends ServiceUnavailableException {
+    public DownstreamOverloadedException(String serviceName) {
+        super(serviceName + " service is at its concurrency limit. Please try again in a few moments.");
+    }
+
+    protected DownstreamOverloadedException(String serviceName, String reason) {
+        super(serviceName + " service " + reason + ". Please try again in a few moments.");
+    }
+}
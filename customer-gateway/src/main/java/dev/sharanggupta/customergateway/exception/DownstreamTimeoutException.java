@@ -0,0 +1,16 @@
+package dev.sharanggupta.customergateway.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * A downstream call took longer than its operation's adaptive timeout. Unlike an expired
+ * request deadline, this is the service being slow, so circuit breakers count it as a
+ * failure.
+ */
+@ResponseStatus(value = HttpStatus.GATEWAY_TIMEOUT)
+public class DownstreamTimeoutException extends RuntimeException {
+    public DownstreamTimeoutException(String serviceName) {
+        super("The " + serviceName.toLowerCase() + " service did not answer in time. Please try again.");
+    }
+}
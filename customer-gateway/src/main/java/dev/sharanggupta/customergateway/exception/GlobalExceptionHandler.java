@@ -51,6 +51,17 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(exchange, HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
     }
 
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<ErrorResponse> handleDeadlineExceededException(DeadlineExceededException ex, ServerWebExchange exchange) {
+        return buildErrorResponse(exchange, HttpStatus.GATEWAY_TIMEOUT, ex.getMessage());
+    }
+
+    @ExceptionHandler(DownstreamTimeoutException.class)
+    public ResponseEntity<ErrorResponse> handleDownstreamTimeoutException(DownstreamTimeoutException ex, ServerWebExchange exchange) {
+        log.warn("Downstream timeout : {}", ex.getMessage());
+        return buildErrorResponse(exchange, HttpStatus.GATEWAY_TIMEOUT, ex.getMessage());
+    }
+
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleResourceNotFoundException(ResourceNotFoundException ex, ServerWebExchange exchange) {
         return buildErrorResponse(exchange, HttpStatus.NOT_FOUND, ex.getMessage());
@@ -0,0 +1,94 @@
+package dev.sharanggupta.customergateway.filter;
+
+import dev.sharanggupta.customergateway.config.AdmissionProperties;
+import dev.sharanggupta.customergateway.support.AdmissionController;
+import dev.sharanggupta.customergateway.support.RequestPriority;
+import dev.sharanggupta.customergateway.support.SlotQueue;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Classifies every request and admits it through the {@link AdmissionController}.
+ *
+ * Health probes bypass admission entirely, so Kubernetes keeps seeing a live pod while it
+ * sheds. Batch lookups are bulk, other reads are reads, and every other method is a write,
+ * which covers the write-gated customer operations and writes through the proxied routes.
+ * Shed requests get 503 with {@code Retry-After}.
+ */
+@Component
+@Slf4j
+public class AdmissionFilter implements WebFilter, Ordered {
+
+    public static final int ORDER = RateLimitFilter.ORDER + 10;
+
+    private static final String HEALTH_PATH = "/actuator/health";
+    private static final String BATCH_DETAILS_PATH = "/api/customer/details:batch";
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final boolean enabled;
+    private final AdmissionController admissionController;
+    private final JsonMapper jsonMapper;
+
+    public AdmissionFilter(AdmissionProperties properties, JsonMapper jsonMapper, MeterRegistry meterRegistry) {
+        this.enabled = properties.enabled();
+        this.admissionController = new AdmissionController(properties, meterRegistry);
+        this.jsonMapper = jsonMapper;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!enabled) {
+            return chain.filter(exchange);
+        }
+        RequestPriority priority = classify(exchange.getRequest());
+        if (priority == RequestPriority.PROBE) {
+            return chain.filter(exchange);
+        }
+        return admissionController.acquire(priority)
+                .doOnDiscard(SlotQueue.Permit.class, SlotQueue.Permit::release)
+                .flatMap(permit -> permit.admitted()
+                        ? chain.filter(exchange).doFinally(signal -> permit.release())
+                        : shed(exchange, priority));
+    }
+
+    // ========== Internal Helpers ==========
+
+    private static RequestPriority classify(ServerHttpRequest request) {
+        String path = request.getPath().value();
+        if (path.startsWith(HEALTH_PATH)) {
+            return RequestPriority.PROBE;
+        }
+        if (path.equals(BATCH_DETAILS_PATH)) {
+            return RequestPriority.BULK;
+        }
+        HttpMethod method = request.getMethod();
+        if (HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method) || HttpMethod.OPTIONS.equals(method)) {
+            return RequestPriority.READ;
+        }
+        return RequestPriority.WRITE;
+    }
+
+    private Mono<Void> shed(ServerWebExchange exchange, RequestPriority priority) {
+        ServerHttpRequest request = exchange.getRequest();
+        log.warn("[Admission] Shedding {} request {} {}", priority.tag(), request.getMethod(), request.getPath());
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        return ErrorResponseWriter.write(exchange, jsonMapper, HttpStatus.SERVICE_UNAVAILABLE,
+                "The gateway is overloaded. Please try again in a few moments.");
+    }
+}
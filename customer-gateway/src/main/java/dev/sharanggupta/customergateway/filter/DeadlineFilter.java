@@ -0,0 +1,68 @@
+package dev.sharanggupta.customergateway.filter;
+
+import dev.sharanggupta.customergateway.config.DeadlineProperties;
+import dev.sharanggupta.customergateway.support.Deadline;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+
+/**
+ * Starts the deadline of every request and puts it into the Reactor context, where the
+ * service clients and proxied routes pick it up to send the remaining time downstream.
+ *
+ * The budget is the configured one, or the {@code X-Request-Timeout-Ms} sent by the
+ * client if that is shorter. Runs before rate limiting and admission, so time spent
+ * waiting for admission counts against it. A request that arrives already expired is
+ * answered with 504 without doing any work. Actuator endpoints get no deadline.
+ */
+@Component
+@Slf4j
+public class DeadlineFilter implements WebFilter, Ordered {
+
+    public static final int ORDER = RateLimitFilter.ORDER - 5;
+
+    private static final String ACTUATOR_PATH = "/actuator";
+
+    private final boolean enabled;
+    private final Duration budget;
+    private final JsonMapper jsonMapper;
+
+    public DeadlineFilter(DeadlineProperties properties, JsonMapper jsonMapper) {
+        this.enabled = properties.enabled();
+        this.budget = properties.budget();
+        this.jsonMapper = jsonMapper;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!enabled || request.getPath().value().startsWith(ACTUATOR_PATH)) {
+            return chain.filter(exchange);
+        }
+
+        Duration requested = Deadline.parse(request.getHeaders().getFirst(Deadline.HEADER));
+        if (requested != null && requested.isZero()) {
+            log.debug("[Deadline] Rejecting {} {} - deadline already expired", request.getMethod(), request.getPath());
+            return ErrorResponseWriter.write(exchange, jsonMapper, HttpStatus.GATEWAY_TIMEOUT,
+                    "The request deadline expired before the gateway received it.");
+        }
+
+        Deadline deadline = Deadline.after(requested != null && requested.compareTo(budget) < 0 ? requested : budget);
+        return chain.filter(exchange)
+                .contextWrite(context -> context.put(Deadline.CONTEXT_KEY, deadline));
+    }
+}
@@ -0,0 +1,34 @@
+package dev.sharanggupta.customergateway.filter;
+
+import dev.sharanggupta.customergateway.dto.ErrorResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+
+/**
+ * Writes the gateway's standard {@link ErrorResponse} body from a WebFilter, where
+ * the controller advice does not apply.
+ */
+final class ErrorResponseWriter {
+
+    private ErrorResponseWriter() {
+    }
+
+    static Mono<Void> write(ServerWebExchange exchange, JsonMapper jsonMapper, HttpStatus status, String message) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        ErrorResponse error = new ErrorResponse(
+                exchange.getRequest().getPath().value(),
+                status,
+                message,
+                LocalDateTime.now());
+        byte[] body = jsonMapper.writeValueAsBytes(error);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
@@ -0,0 +1,116 @@
+package dev.sharanggupta.customergateway.filter;
+
+import dev.sharanggupta.customergateway.config.RateLimitProperties;
+import dev.sharanggupta.customergateway.support.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.InetSocketAddress;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limits the customer API per client without an external store.
+ *
+ * Runs as a WebFilter, so it covers both the controller endpoints and the card and loan
+ * routes proxied under {@code /api/customer/}. Clients are identified by the API key
+ * header when it carries one of the issued keys, and otherwise by the remote address,
+ * so rotating made-up keys neither escapes the limit nor floods the bucket table.
+ * Every response carries
+ * {@code RateLimit-Limit}, {@code RateLimit-Remaining} and {@code RateLimit-Reset}
+ * (seconds until the bucket is full); rejected requests get 429 with {@code Retry-After}.
+ */
+@Component
+@Slf4j
+public class RateLimitFilter implements WebFilter, Ordered {
+
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 10;
+
+    private static final String RATE_LIMIT_LIMIT = "RateLimit-Limit";
+    private static final String RATE_LIMIT_REMAINING = "RateLimit-Remaining";
+    private static final String RATE_LIMIT_RESET = "RateLimit-Reset";
+
+    private static final String CUSTOMER_API_PREFIX = "/api/customer/";
+    private static final String UNKNOWN_CLIENT = "unknown";
+
+    private final boolean enabled;
+    private final String apiKeyHeader;
+    private final Set<String> apiKeys;
+    private final RateLimiter rateLimiter;
+    private final String limitHeaderValue;
+    private final JsonMapper jsonMapper;
+    private final Counter rejected;
+
+    public RateLimitFilter(RateLimitProperties properties, JsonMapper jsonMapper, MeterRegistry meterRegistry) {
+        this.enabled = properties.enabled();
+        this.apiKeyHeader = properties.apiKeyHeader();
+        this.apiKeys = properties.apiKeys() == null ? Set.of() : Set.copyOf(properties.apiKeys());
+        this.rateLimiter = new RateLimiter(properties.replenishRate(), properties.burstCapacity(),
+                properties.maxClients());
+        this.limitHeaderValue = String.valueOf(properties.burstCapacity());
+        this.jsonMapper = jsonMapper;
+        this.rejected = Counter.builder("gateway.rate.limit.rejected")
+                .description("Requests rejected because the client exceeded its rate limit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!enabled || !request.getPath().value().startsWith(CUSTOMER_API_PREFIX)) {
+            return chain.filter(exchange);
+        }
+
+        RateLimiter.Decision decision = rateLimiter.tryAcquire(clientOf(request));
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.set(RATE_LIMIT_LIMIT, limitHeaderValue);
+        headers.set(RATE_LIMIT_REMAINING, String.valueOf(decision.remaining()));
+        headers.set(RATE_LIMIT_RESET, String.valueOf(toSeconds(decision.resetNanos())));
+        if (decision.allowed()) {
+            return chain.filter(exchange);
+        }
+
+        rejected.increment();
+        long retryAfter = Math.max(1, toSeconds(decision.retryAfterNanos()));
+        log.debug("Rate limit exceeded for {} {}", request.getMethod(), request.getPath());
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        return ErrorResponseWriter.write(exchange, jsonMapper, HttpStatus.TOO_MANY_REQUESTS,
+                "Rate limit exceeded. Please retry after " + retryAfter + " seconds.");
+    }
+
+    // ========== Internal Helpers ==========
+
+    private String clientOf(ServerHttpRequest request) {
+        String apiKey = request.getHeaders().getFirst(apiKeyHeader);
+        if (apiKey != null && apiKeys.contains(apiKey)) {
+            return apiKey;
+        }
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress == null || remoteAddress.getAddress() == null) {
+            return UNKNOWN_CLIENT;
+        }
+        return remoteAddress.getAddress().getHostAddress();
+    }
+
+    private static long toSeconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+}
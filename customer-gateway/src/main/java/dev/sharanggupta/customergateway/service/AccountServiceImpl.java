@@ -1,50 +1,75 @@
 package dev.sharanggupta.customergateway.service;
 
 import dev.sharanggupta.customergateway.client.AccountServiceClient;
+import dev.sharanggupta.customergateway.config.BatchingProperties;
 import dev.sharanggupta.customergateway.dto.CustomerAccount;
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import lombok.RequiredArgsConstructor;
+import dev.sharanggupta.customergateway.exception.ResourceNotFoundException;
+import dev.sharanggupta.customergateway.support.BatchLoader;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class AccountServiceImpl implements AccountService {
 
     private static final String SERVICE_NAME = "Account service";
-    private static final String CIRCUIT_BREAKER_NAME = "account_service";
 
     private final AccountServiceClient accountServiceClient;
     private final FallbackHandler fallbackHandler;
+    private final DownstreamResilience resilience;
+    private final BatchLoader<String, CustomerAccount> accountLoader;
+
+    public AccountServiceImpl(AccountServiceClient accountServiceClient, FallbackHandler fallbackHandler,
+                              DownstreamResilience resilience, BatchingProperties batching,
+                              MeterRegistry meterRegistry) {
+        this.accountServiceClient = accountServiceClient;
+        this.fallbackHandler = fallbackHandler;
+        this.resilience = resilience;
+        BatchingProperties.Batch settings = batching.account();
+        this.accountLoader = settings.enabled()
+                ? new BatchLoader<>(mobileNumbers -> resilience.account()
+                                .idempotentBatch(accountServiceClient.fetchAccounts(mobileNumbers)),
+                        CustomerAccount::mobileNumber, settings.window(), settings.maxSize(),
+                        BatchLoader.batchSizeSummary(meterRegistry, "account"))
+                : null;
+    }
 
     @Override
-    @CircuitBreaker(name = CIRCUIT_BREAKER_NAME, fallbackMethod = "fallbackCreateAccount")
     public Mono<Void> createAccount(CustomerAccount customerAccount) {
         log.debug("Creating account for customer: {}", customerAccount.mobileNumber());
-        return accountServiceClient.createAccount(customerAccount);
+        return resilience.account().call(accountServiceClient.createAccount(customerAccount))
+                .onErrorResume(throwable -> fallbackCreateAccount(customerAccount, throwable));
     }
 
+    /**
+     * With batching enabled, concurrent lookups are coalesced into one batch request, which
+     * goes through the circuit breaker and retries as a whole; otherwise each lookup does.
+     */
     @Override
-    @CircuitBreaker(name = CIRCUIT_BREAKER_NAME, fallbackMethod = "fallbackFetchAccountDetails")
     public Mono<CustomerAccount> fetchAccountDetails(String mobileNumber) {
         log.debug("Fetching account details for mobile: {}", mobileNumber);
-        return accountServiceClient.fetchAccount(mobileNumber);
+        Mono<CustomerAccount> account = accountLoader != null
+                ? accountLoader.load(mobileNumber)
+                        .switchIfEmpty(Mono.error(() ->
+                                new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber)))
+                : resilience.account().idempotentCall(accountServiceClient.fetchAccount(mobileNumber));
+        return account.onErrorResume(throwable -> fallbackFetchAccountDetails(mobileNumber, throwable));
     }
 
     @Override
-    @CircuitBreaker(name = CIRCUIT_BREAKER_NAME, fallbackMethod = "fallbackUpdateAccount")
     public Mono<Void> updateAccount(CustomerAccount customerAccount) {
         log.debug("Updating account for customer: {}", customerAccount.mobileNumber());
-        return accountServiceClient.updateAccount(customerAccount);
+        return resilience.account().idempotentCall(accountServiceClient.updateAccount(customerAccount))
+                .onErrorResume(throwable -> fallbackUpdateAccount(customerAccount, throwable));
     }
 
     @Override
-    @CircuitBreaker(name = CIRCUIT_BREAKER_NAME, fallbackMethod = "fallbackDeleteAccount")
     public Mono<Void> deleteAccount(String mobileNumber) {
         log.debug("Deleting account for mobile: {}", mobileNumber);
-        return accountServiceClient.deleteAccount(mobileNumber);
+        return resilience.account().idempotentDelete(accountServiceClient.deleteAccount(mobileNumber))
+                .onErrorResume(throwable -> fallbackDeleteAccount(mobileNumber, throwable));
     }
 
     // ========== Fallback Methods ==========
@@ -1,34 +1,53 @@
 package dev.sharanggupta.customergateway.service;
 
 import dev.sharanggupta.customergateway.client.CardServiceClient;
+import dev.sharanggupta.customergateway.config.BatchingProperties;
 import dev.sharanggupta.customergateway.dto.CardInfo;
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import lombok.AllArgsConstructor;
+import dev.sharanggupta.customergateway.support.BatchLoader;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
 @Service
-@AllArgsConstructor
 @Slf4j
 public class CardServiceImpl implements CardService {
 
-    private static final String CIRCUIT_BREAKER_NAME = "card_service";
+    private static final String SERVICE_NAME = "Card service";
 
     private final CardServiceClient cardServiceClient;
+    private final FallbackHandler fallbackHandler;
+    private final DownstreamResilience resilience;
+    private final BatchLoader<String, CardInfo> cardLoader;
+
+    public CardServiceImpl(CardServiceClient cardServiceClient, FallbackHandler fallbackHandler,
+                           DownstreamResilience resilience, BatchingProperties batching, MeterRegistry meterRegistry) {
+        this.cardServiceClient = cardServiceClient;
+        this.fallbackHandler = fallbackHandler;
+        this.resilience = resilience;
+        BatchingProperties.Batch settings = batching.card();
+        this.cardLoader = settings.enabled()
+                ? new BatchLoader<>(mobileNumbers -> resilience.card()
+                                .idempotentBatch(cardServiceClient.fetchCards(mobileNumbers)),
+                        CardInfo::mobileNumber, settings.window(), settings.maxSize(),
+                        BatchLoader.batchSizeSummary(meterRegistry, "card"))
+                : null;
+    }
 
     @Override
-    @CircuitBreaker(name = CIRCUIT_BREAKER_NAME, fallbackMethod = "fallbackFetchCard")
     public Mono<CardInfo> fetchCard(String mobileNumber) {
         log.debug("Fetching card for mobile: {}", mobileNumber);
-        return cardServiceClient.fetchCard(mobileNumber);
+        Mono<CardInfo> card = cardLoader != null
+                ? cardLoader.load(mobileNumber)
+                : resilience.card().idempotentCall(cardServiceClient.fetchCard(mobileNumber));
+        return card.onErrorResume(throwable -> fallbackFetchCard(mobileNumber, throwable));
     }
 
     @Override
-    @CircuitBreaker(name = CIRCUIT_BREAKER_NAME, fallbackMethod = "fallbackDeleteCard")
     public Mono<Void> deleteCard(String mobileNumber) {
         log.debug("Deleting card for mobile: {}", mobileNumber);
-        return cardServiceClient.deleteCard(mobileNumber);
+        return resilience.card().idempotentDelete(cardServiceClient.deleteCard(mobileNumber))
+                .onErrorResume(throwable -> fallbackDeleteCard(mobileNumber, throwable));
     }
 
     private Mono<CardInfo> fallbackFetchCard(String mobileNumber, Throwable throwable) {
@@ -37,7 +56,7 @@ public class CardServiceImpl implements CardService {
     }
 
     private Mono<Void> fallbackDeleteCard(String mobileNumber, Throwable throwable) {
-        log.warn("Card service unavailable for delete, mobile: {}", mobileNumber, throwable);
-        return Mono.empty();
+        // Offboarding must not delete the account while the card may still exist
+        return fallbackHandler.handle(throwable, SERVICE_NAME, "delete");
     }
 }
@@ -0,0 +1,246 @@
+package dev.sharanggupta.customergateway.service;
+
+import dev.sharanggupta.customergateway.client.AccountServiceClient;
+import dev.sharanggupta.customergateway.config.CustomerFilterProperties;
+import dev.sharanggupta.customergateway.support.CountingBloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Customer Existence Filter - Answers "is this mobile number definitely unknown?" locally.
+ *
+ * A counting Bloom filter of every known mobile number is seeded from the account
+ * service's streaming export and kept current by onboard/offboard calls passing
+ * through the gateway. A periodic re-seed picks up changes made by other gateway
+ * replicas or directly against the account service.
+ *
+ * A miss is answered as not found without a downstream call. Where customers are also
+ * written outside this gateway, {@code short-circuit} can be turned off: a miss is then
+ * only advisory and is confirmed by the account service, and a customer found that way
+ * is added to the filter.
+ *
+ * Offboarded numbers are never removed from the filter: it does not record which numbers
+ * it holds, and removing one it never added would decrement counters owned by other
+ * numbers, creating false negatives. They are remembered as offboarded instead, and
+ * dropped by the next rebuild.
+ *
+ * The filter fails open: until the first seed succeeds, or when disabled, every
+ * number is treated as possibly present and the normal downstream lookup runs.
+ */
+@Component
+@Slf4j
+public class CustomerExistenceFilter {
+
+    private static final String METRIC_PREFIX = "gateway.customer.filter";
+
+    private final AccountServiceClient accountServiceClient;
+    private final CustomerFilterProperties properties;
+
+    private final Counter definiteMisses;
+    private final Counter advisoryMisses;
+    private final Counter confirmedMisses;
+    private final Counter falsePositives;
+    private final Counter staleMisses;
+    private final Object swapLock = new Object();
+    private final Set<String> offboarded = ConcurrentHashMap.newKeySet();
+
+    private volatile CountingBloomFilter filter;
+    private volatile CountingBloomFilter pending;
+    private volatile boolean ready;
+    private volatile Disposable refreshLoop;
+
+    public CustomerExistenceFilter(AccountServiceClient accountServiceClient,
+                                   CustomerFilterProperties properties,
+                                   MeterRegistry meterRegistry) {
+        this.accountServiceClient = accountServiceClient;
+        this.properties = properties;
+        this.filter = newFilter();
+
+        this.definiteMisses = Counter.builder(METRIC_PREFIX + ".definite.misses")
+                .description("Lookups answered as not found without a downstream call")
+                .register(meterRegistry);
+        this.advisoryMisses = Counter.builder(METRIC_PREFIX + ".advisory.misses")
+                .description("Filter misses passed to the account service because short-circuit is off")
+                .register(meterRegistry);
+        this.confirmedMisses = Counter.builder(METRIC_PREFIX + ".confirmed.misses")
+                .description("Advisory misses the account service answered with not found")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder(METRIC_PREFIX + ".false.positives")
+                .description("Lookups the filter passed through that turned out not to exist")
+                .register(meterRegistry);
+        this.staleMisses = Counter.builder(METRIC_PREFIX + ".stale.misses")
+                .description("Filter misses the account service answered with an existing customer")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".expected.fpp", this, f -> f.filter.expectedFalsePositiveProbability())
+                .description("False-positive probability estimated from filter occupancy")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".observed.fpp", this, CustomerExistenceFilter::observedFalsePositiveRate)
+                .description("False positives as a fraction of all lookups for unknown customers")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".ready", this, f -> f.ready ? 1 : 0)
+                .description("Whether the filter has been seeded and is consulted on lookups")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns true only when the filter rules the mobile number out and is trusted to answer
+     * that alone. With short-circuit off, a miss still goes to the account service.
+     */
+    public boolean isDefinitelyAbsent(String mobileNumber) {
+        if (!ready || !misses(mobileNumber)) {
+            return false;
+        }
+        if (!properties.shortCircuit()) {
+            advisoryMisses.increment();
+            return false;
+        }
+        definiteMisses.increment();
+        return true;
+    }
+
+    /**
+     * Records a lookup the account service answered with not found: a false positive if the
+     * filter let it through, a confirmed miss if it was an advisory one.
+     */
+    public void customerNotFound(String mobileNumber) {
+        if (!ready) {
+            return;
+        }
+        if (misses(mobileNumber)) {
+            confirmedMisses.increment();
+        } else {
+            log.debug("Customer filter false positive for mobile: {}", mobileNumber);
+            falsePositives.increment();
+        }
+    }
+
+    /**
+     * Records a customer the account service found, adding them if the filter missed them,
+     * for example because they were onboarded through another gateway replica.
+     */
+    public void customerFound(String mobileNumber) {
+        if (ready && misses(mobileNumber)) {
+            log.debug("Customer filter missed existing mobile: {}", mobileNumber);
+            staleMisses.increment();
+            customerOnboarded(mobileNumber);
+        }
+    }
+
+    public void customerOnboarded(String mobileNumber) {
+        // Under the swap lock, so a refresh cannot swap in a filter that misses this number
+        synchronized (swapLock) {
+            offboarded.remove(mobileNumber);
+            CountingBloomFilter seeding = pending;
+            if (seeding != null) {
+                seeding.add(mobileNumber);
+            }
+            filter.add(mobileNumber);
+        }
+    }
+
+    /**
+     * Rules an offboarded customer out until the next rebuild, which no longer sees them,
+     * without touching the filter's counters.
+     */
+    public void customerOffboarded(String mobileNumber) {
+        synchronized (swapLock) {
+            offboarded.add(mobileNumber);
+        }
+    }
+
+    /**
+     * Rebuilds the filter from the account service export and swaps it in atomically.
+     * On failure the current filter is kept, or the filter stays open if it was never seeded.
+     */
+    public Mono<Void> refresh() {
+        if (!properties.enabled()) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> {
+            CountingBloomFilter seeding = newFilter();
+            Set<String> offboardedBeforeSeed;
+            synchronized (swapLock) {
+                pending = seeding;
+                offboardedBeforeSeed = Set.copyOf(offboarded);
+            }
+            return accountServiceClient.streamMobileNumbers()
+                    .doOnNext(seeding::add)
+                    .count()
+                    .doOnNext(count -> {
+                        synchronized (swapLock) {
+                            filter = seeding;
+                            pending = null;
+                            // Offboarded before the export started, so the new filter lacks them
+                            offboarded.removeAll(offboardedBeforeSeed);
+                        }
+                        ready = true;
+                        log.info("Customer filter seeded with {} mobile numbers, expected false-positive rate {}",
+                                count, seeding.expectedFalsePositiveProbability());
+                    })
+                    .doOnError(e -> log.warn("Customer filter refresh failed, keeping previous state: {}",
+                            e.getMessage()))
+                    .onErrorResume(e -> Mono.empty())
+                    .doFinally(signal -> {
+                        synchronized (swapLock) {
+                            if (pending == seeding) {
+                                pending = null;
+                            }
+                        }
+                    })
+                    .then();
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void startRefreshing() {
+        if (!properties.enabled()) {
+            log.info("Customer filter is disabled");
+            return;
+        }
+        refreshLoop = Flux.interval(Duration.ZERO, properties.refreshInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> refresh())
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stopRefreshing() {
+        Disposable loop = refreshLoop;
+        if (loop != null) {
+            loop.dispose();
+        }
+    }
+
+    // ========== Internal Helpers ==========
+
+    private CountingBloomFilter newFilter() {
+        return CountingBloomFilter.create(properties.expectedInsertions(), properties.falsePositiveProbability());
+    }
+
+    private boolean misses(String mobileNumber) {
+        return !filter.mightContain(mobileNumber) || offboarded.contains(mobileNumber);
+    }
+
+    /**
+     * False positives among the lookups known not to exist: those the filter let through,
+     * short-circuited misses, and advisory misses the account service confirmed.
+     */
+    private double observedFalsePositiveRate() {
+        double fp = falsePositives.count();
+        double total = fp + definiteMisses.count() + confirmedMisses.count();
+        return total == 0 ? 0 : fp / total;
+    }
+}
@@ -2,11 +2,24 @@ package dev.sharanggupta.customergateway.service;
 
 import dev.sharanggupta.customergateway.dto.CustomerAccount;
 import dev.sharanggupta.customergateway.dto.CustomerProfile;
+import dev.sharanggupta.customergateway.dto.CustomerProfileResult;
+import dev.sharanggupta.customergateway.dto.OffboardStatus;
+import dev.sharanggupta.customergateway.dto.ProfileField;
+import dev.sharanggupta.customergateway.dto.ProfileSection;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Set;
+
 public interface CustomerService {
     Mono<Void> onboardCustomer(CustomerAccount customerAccount);
     Mono<CustomerProfile> getCustomerDetails(String mobileNumber);
+    Mono<CustomerProfile> getCustomerDetails(String mobileNumber, Set<ProfileField> fields);
+    Flux<ProfileSection> streamCustomerDetails(String mobileNumber, Set<ProfileField> fields);
+    Flux<CustomerProfileResult> getCustomerDetailsBatch(List<String> mobileNumbers);
     Mono<Void> updateCustomer(CustomerAccount customerAccount);
     Mono<Void> offboardCustomer(String mobileNumber);
+    Mono<OffboardStatus> submitOffboard(String mobileNumber);
+    Mono<OffboardStatus> getOffboardStatus(String requestId);
 }
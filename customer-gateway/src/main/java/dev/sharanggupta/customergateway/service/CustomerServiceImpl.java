@@ -1,92 +1,303 @@
 package dev.sharanggupta.customergateway.service;
 
-import dev.sharanggupta.customergateway.annotation.ProtectedWrite;
+import dev.sharanggupta.customergateway.config.CustomerBatchProperties;
+import dev.sharanggupta.customergateway.config.PartialResponseProperties;
 import dev.sharanggupta.customergateway.dto.CardInfo;
 import dev.sharanggupta.customergateway.dto.CustomerAccount;
 import dev.sharanggupta.customergateway.dto.CustomerProfile;
+import dev.sharanggupta.customergateway.dto.CustomerProfileResult;
 import dev.sharanggupta.customergateway.dto.LoanInfo;
+import dev.sharanggupta.customergateway.dto.OffboardStatus;
+import dev.sharanggupta.customergateway.dto.ProfileField;
+import dev.sharanggupta.customergateway.dto.ProfileSection;
+import dev.sharanggupta.customergateway.exception.ResourceNotFoundException;
+import dev.sharanggupta.customergateway.exception.ServiceUnavailableException;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Customer Service - Orchestrates account, card, and loan services.
  *
- * Write operations (marked with @ProtectedWrite) are automatically protected
- * by the WriteGateAspect, which checks if any circuit breaker is OPEN before
- * allowing the operation to proceed.
+ * Write operations run through the {@link WriteGate}, which checks the circuit breakers
+ * of the services the operation writes to before allowing it to proceed.
  *
- * @see dev.sharanggupta.customergateway.aspect.WriteGateAspect
- * @see dev.sharanggupta.customergateway.annotation.ProtectedWrite
+ * Customer details wait for the card and loan only as long as the partial response
+ * budget allows; a profile without a late product lists it as {@code degraded}. A complete
+ * profile carries an ETag composed from those of its parts, so clients can poll it with
+ * {@code If-None-Match}. Clients may select the blocks they need; the card and loan
+ * services are only called for a profile that includes them. A streamed profile sends
+ * each block as soon as its lookup completes instead of waiting for all of them.
  */
 @Service
 @AllArgsConstructor
 @Slf4j
 public class CustomerServiceImpl implements CustomerService {
 
+    private static final String CARD = "card";
+    private static final String LOAN = "loan";
+    private static final String NO_PRODUCT = "-";
+
+    private static final String[] ACCOUNT_WRITE = {"account_service"};
+    private static final String[] OFFBOARD_WRITE = {"card_service", "loan_service", "account_service"};
+
+    private final WriteGate writeGate;
     private final AccountService accountService;
     private final CardService cardService;
     private final LoanService loanService;
+    private final OffboardSaga offboardSaga;
+    private final OffboardQueue offboardQueue;
+    private final CustomerExistenceFilter customerExistenceFilter;
+    private final CustomerBatchProperties batchProperties;
+    private final PartialResponseProperties partialResponseProperties;
 
     // ========== Write Operations (Protected) ==========
 
     @Override
-    @ProtectedWrite
     public Mono<Void> onboardCustomer(CustomerAccount customerAccount) {
         log.info("Onboarding customer with mobile: {}", customerAccount.mobileNumber());
-        return accountService.createAccount(customerAccount);
+        return writeGate.protect(ACCOUNT_WRITE, () -> accountService.createAccount(customerAccount)
+                .doOnSuccess(ignored -> customerExistenceFilter.customerOnboarded(customerAccount.mobileNumber())));
     }
 
     @Override
-    @ProtectedWrite
     public Mono<Void> updateCustomer(CustomerAccount customerAccount) {
         log.info("Updating customer details for mobile: {}", customerAccount.mobileNumber());
-        return accountService.updateAccount(customerAccount);
+        return writeGate.protect(ACCOUNT_WRITE, () -> accountService.updateAccount(customerAccount));
     }
 
     @Override
-    @ProtectedWrite
     public Mono<Void> offboardCustomer(String mobileNumber) {
         log.info("Offboarding customer with mobile: {}", mobileNumber);
-        return cardService.deleteCard(mobileNumber)
-                .then(loanService.deleteLoan(mobileNumber))
-                .then(accountService.deleteAccount(mobileNumber));
+        return writeGate.protect(OFFBOARD_WRITE, () -> offboard(mobileNumber));
+    }
+
+    /**
+     * Rejects the offboarding up front if a circuit breaker it writes to is open or the
+     * customer filter rules the customer out, then hands it to the background queue. The
+     * write gate, with its half-open permits, is taken again when the offboarding runs.
+     * The returned status is QUEUED; poll it for progress.
+     */
+    @Override
+    public Mono<OffboardStatus> submitOffboard(String mobileNumber) {
+        log.info("Submitting asynchronous offboarding for mobile: {}", mobileNumber);
+        return writeGate.checkOpen(OFFBOARD_WRITE).then(Mono.defer(() -> {
+            if (customerExistenceFilter.isDefinitelyAbsent(mobileNumber)) {
+                return Mono.error(new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber));
+            }
+            return Mono.fromCallable(() -> offboardQueue.submit(mobileNumber,
+                    () -> writeGate.protect(OFFBOARD_WRITE, () -> offboard(mobileNumber))));
+        }));
+    }
+
+    @Override
+    public Mono<OffboardStatus> getOffboardStatus(String requestId) {
+        return Mono.justOrEmpty(offboardQueue.status(requestId))
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Offboarding request", "requestId", requestId)));
     }
 
     // ========== Read Operations ==========
 
     @Override
     public Mono<CustomerProfile> getCustomerDetails(String mobileNumber) {
-        log.info("Fetching customer details for mobile: {}", mobileNumber);
+        return getCustomerDetails(mobileNumber, EnumSet.allOf(ProfileField.class));
+    }
+
+    /**
+     * Fetches a profile with only the given blocks. The account is always looked up, as it
+     * holds the customer's name and email and decides whether the customer exists.
+     */
+    @Override
+    public Mono<CustomerProfile> getCustomerDetails(String mobileNumber, Set<ProfileField> fields) {
+        log.info("Fetching customer details {} for mobile: {}", fields, mobileNumber);
+        if (customerExistenceFilter.isDefinitelyAbsent(mobileNumber)) {
+            log.debug("Customer filter rejected unknown mobile: {}", mobileNumber);
+            return Mono.error(new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber));
+        }
         return accountService.fetchAccountDetails(mobileNumber)
-                .flatMap(customerAccount -> enrichWithCardAndLoan(customerAccount, mobileNumber));
+                .doOnError(ResourceNotFoundException.class,
+                        e -> customerExistenceFilter.customerNotFound(mobileNumber))
+                .doOnNext(customerAccount -> customerExistenceFilter.customerFound(mobileNumber))
+                .flatMap(customerAccount -> enrichWithCardAndLoan(customerAccount, mobileNumber, fields));
+    }
+
+    /**
+     * Streams a profile section by section: the account as soon as it is found, then the
+     * card and loan in the order their lookups complete, then a completion marker listing
+     * the products that missed the partial response budget.
+     */
+    @Override
+    public Flux<ProfileSection> streamCustomerDetails(String mobileNumber, Set<ProfileField> fields) {
+        log.info("Streaming customer details {} for mobile: {}", fields, mobileNumber);
+        if (customerExistenceFilter.isDefinitelyAbsent(mobileNumber)) {
+            log.debug("Customer filter rejected unknown mobile: {}", mobileNumber);
+            return Flux.error(new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber));
+        }
+        return accountService.fetchAccountDetails(mobileNumber)
+                .doOnError(ResourceNotFoundException.class,
+                        e -> customerExistenceFilter.customerNotFound(mobileNumber))
+                .doOnNext(customerAccount -> customerExistenceFilter.customerFound(mobileNumber))
+                .flatMapMany(customerAccount -> Flux.concat(
+                        Mono.just(ProfileSection.account(customerAccount, fields.contains(ProfileField.ACCOUNT))),
+                        streamCardAndLoan(mobileNumber, fields)));
+    }
+
+    /**
+     * Fetches many profiles with at most {@code concurrency} lookups in flight.
+     * Results are emitted in completion order; a failed lookup becomes an error
+     * result for that mobile number instead of failing the whole batch.
+     */
+    @Override
+    public Flux<CustomerProfileResult> getCustomerDetailsBatch(List<String> mobileNumbers) {
+        log.info("Fetching customer details for batch of {} mobile numbers", mobileNumbers.size());
+        return Flux.fromIterable(mobileNumbers)
+                .distinct()
+                .flatMap(mobileNumber -> getCustomerDetails(mobileNumber)
+                                .map(CustomerProfileResult::found)
+                                .switchIfEmpty(Mono.fromSupplier(() -> toFailedResult(mobileNumber,
+                                        new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber))))
+                                .onErrorResume(e -> Mono.just(toFailedResult(mobileNumber, e))),
+                        batchProperties.concurrency());
     }
 
     // ========== Internal Helpers ==========
 
-    private Mono<CustomerProfile> enrichWithCardAndLoan(CustomerAccount customerAccount, String mobileNumber) {
+    private Mono<Void> offboard(String mobileNumber) {
+        return offboardSaga.execute(mobileNumber)
+                .doOnSuccess(ignored -> customerExistenceFilter.customerOffboarded(mobileNumber));
+    }
+
+    private CustomerProfileResult toFailedResult(String mobileNumber, Throwable throwable) {
+        HttpStatus status = switch (throwable) {
+            case ResourceNotFoundException e -> HttpStatus.NOT_FOUND;
+            case ServiceUnavailableException e -> HttpStatus.SERVICE_UNAVAILABLE;
+            case WebClientResponseException e -> Optional.ofNullable(HttpStatus.resolve(e.getStatusCode().value()))
+                    .orElse(HttpStatus.INTERNAL_SERVER_ERROR);
+            default -> HttpStatus.INTERNAL_SERVER_ERROR;
+        };
+        if (status.is5xxServerError()) {
+            log.warn("Batch lookup failed for mobile: {}", mobileNumber, throwable);
+        }
+        return CustomerProfileResult.failed(mobileNumber, status.value(), throwable.getMessage());
+    }
+
+    private Mono<CustomerProfile> enrichWithCardAndLoan(CustomerAccount customerAccount, String mobileNumber,
+                                                        Set<ProfileField> fields) {
         CustomerProfile baseProfile = CustomerProfile.builder()
                 .name(customerAccount.name())
                 .email(customerAccount.email())
                 .mobileNumber(customerAccount.mobileNumber())
-                .account(customerAccount.account())
+                .account(fields.contains(ProfileField.ACCOUNT) ? customerAccount.account() : null)
                 .build();
 
-        Mono<Optional<CardInfo>> cardMono = cardService.fetchCard(mobileNumber)
-                .map(Optional::of)
-                .defaultIfEmpty(Optional.empty());
-
-        Mono<Optional<LoanInfo>> loanMono = loanService.fetchLoan(mobileNumber)
-                .map(Optional::of)
-                .defaultIfEmpty(Optional.empty());
+        Mono<Product<CardInfo>> cardMono = fields.contains(ProfileField.CARD)
+                ? withinBudget(CARD, cardService.fetchCard(mobileNumber), mobileNumber)
+                : Mono.just(new Product<>(CARD, null, false));
+        Mono<Product<LoanInfo>> loanMono = fields.contains(ProfileField.LOAN)
+                ? withinBudget(LOAN, loanService.fetchLoan(mobileNumber), mobileNumber)
+                : Mono.just(new Product<>(LOAN, null, false));
 
         return Mono.zip(cardMono, loanMono)
-                .map(tuple -> baseProfile.toBuilder()
-                        .card(tuple.getT1().orElse(null))
-                        .loan(tuple.getT2().orElse(null))
-                        .build());
+                .map(tuple -> {
+                    List<String> degraded = Stream.of(tuple.getT1(), tuple.getT2())
+                            .filter(Product::late)
+                            .map(Product::name)
+                            .toList();
+                    CardInfo card = tuple.getT1().value();
+                    LoanInfo loan = tuple.getT2().value();
+                    return baseProfile.toBuilder()
+                            .card(card)
+                            .loan(loan)
+                            .degraded(degraded.isEmpty() ? null : degraded)
+                            .etag(degraded.isEmpty() ? compositeEtag(customerAccount, card, loan) : null)
+                            .build();
+                });
+    }
+
+    private Flux<ProfileSection> streamCardAndLoan(String mobileNumber, Set<ProfileField> fields) {
+        Mono<Product<ProfileSection>> cardMono = fields.contains(ProfileField.CARD)
+                ? withinBudget(CARD, cardService.fetchCard(mobileNumber), mobileNumber)
+                        .map(product -> product.map(ProfileSection::card))
+                : Mono.empty();
+        Mono<Product<ProfileSection>> loanMono = fields.contains(ProfileField.LOAN)
+                ? withinBudget(LOAN, loanService.fetchLoan(mobileNumber), mobileNumber)
+                        .map(product -> product.map(ProfileSection::loan))
+                : Mono.empty();
+
+        return Flux.merge(cardMono, loanMono)
+                .publish(products -> Flux.merge(
+                        products.filter(product -> !product.late()).map(Product::value),
+                        products.filter(Product::late)
+                                .map(Product::name)
+                                .collectList()
+                                .map(ProfileSection::complete)));
+    }
+
+    /**
+     * Waits for a card or loan lookup for at most the component budget. A lookup that
+     * misses it is reported as late but is not cancelled: it keeps running in the
+     * background until it completes or the request deadline expires, so its outcome and
+     * latency still reach the circuit breaker, the hedging delay and the concurrency limit.
+     */
+    private <T> Mono<Product<T>> withinBudget(String name, Mono<T> lookup, String mobileNumber) {
+        Mono<Product<T>> product = lookup
+                .map(value -> new Product<>(name, value, false))
+                .defaultIfEmpty(new Product<>(name, null, false));
+        if (!partialResponseProperties.enabled()) {
+            return product;
+        }
+        return Mono.deferContextual(context -> {
+            Mono<Product<T>> shared = product.cache();
+            shared.contextWrite(context).subscribe(ignored -> { },
+                    e -> log.debug("Late {} lookup failed for mobile: {}", name, mobileNumber, e));
+            return shared.timeout(partialResponseProperties.componentBudget(), Mono.fromSupplier(() -> {
+                log.warn("Returning profile without {} for mobile: {} - lookup missed its {} budget",
+                        name, mobileNumber, partialResponseProperties.componentBudget());
+                return new Product<>(name, null, true);
+            }));
+        });
+    }
+
+    /**
+     * Composes the profile's ETag from the ETags of the account, card and loan, with
+     * {@value #NO_PRODUCT} for a product the customer does not have. A part that came
+     * without an ETag, for example from a batch lookup, leaves the profile without one.
+     */
+    private static String compositeEtag(CustomerAccount account, CardInfo card, LoanInfo loan) {
+        String cardTag = card == null ? NO_PRODUCT : opaqueTag(card.etag());
+        String loanTag = loan == null ? NO_PRODUCT : opaqueTag(loan.etag());
+        String accountTag = opaqueTag(account.etag());
+        if (accountTag == null || cardTag == null || loanTag == null) {
+            return null;
+        }
+        return "\"" + accountTag + "." + cardTag + "." + loanTag + "\"";
+    }
+
+    private static String opaqueTag(String etag) {
+        if (etag == null || etag.startsWith("W/") || etag.length() < 2) {
+            return null;
+        }
+        return etag.substring(1, etag.length() - 1);
+    }
+
+    /**
+     * The outcome of a card or loan lookup: its value, if any, and whether it was too late.
+     */
+    private record Product<T>(String name, T value, boolean late) {
+
+        <R> Product<R> map(Function<T, R> mapper) {
+            return new Product<>(name, late ? null : mapper.apply(value), late);
+        }
     }
 }
@@ -0,0 +1,164 @@
+package dev.sharanggupta.customergateway.service;
+
+import dev.sharanggupta.customergateway.config.RetryProperties;
+import dev.sharanggupta.customergateway.exception.ResourceNotFoundException;
+import dev.sharanggupta.customergateway.exception.ServiceUnavailableException;
+import dev.sharanggupta.customergateway.support.Retrier;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * The resilience pipeline of each downstream service, built from plain Reactor operators
+ * rather than annotations: a call runs through the service's circuit breaker with
+ * {@code transformDeferred}, and idempotent calls are first retried within the service's
+ * retry budget. The circuit breaker sees one call however many attempts it took.
+ *
+ * Failures, including calls rejected by an open circuit breaker, reach the caller, which
+ * applies its fallback with {@code onErrorResume}. Proxied routes go through the same
+ * circuit breakers, so a service failing behind its routes also trips the breaker its
+ * client and the write gate depend on.
+ */
+@Component
+public class DownstreamResilience {
+
+    private final Pipeline account;
+    private final Pipeline card;
+    private final Pipeline loan;
+
+    public DownstreamResilience(RetryProperties properties, CircuitBreakerRegistry circuitBreakerRegistry,
+                                MeterRegistry meterRegistry) {
+        this.account = pipeline("account", "Account service", "account_service", properties,
+                circuitBreakerRegistry, meterRegistry);
+        this.card = pipeline("card", "Card service", "card_service", properties,
+                circuitBreakerRegistry, meterRegistry);
+        this.loan = pipeline("loan", "Loan service", "loan_service", properties,
+                circuitBreakerRegistry, meterRegistry);
+    }
+
+    public Pipeline account() {
+        return account;
+    }
+
+    public Pipeline card() {
+        return card;
+    }
+
+    public Pipeline loan() {
+        return loan;
+    }
+
+    private static Pipeline pipeline(String service, String serviceName, String circuitBreakerName,
+                                     RetryProperties properties, CircuitBreakerRegistry circuitBreakerRegistry,
+                                     MeterRegistry meterRegistry) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(circuitBreakerName);
+        Retrier retrier = properties.enabled()
+                ? new Retrier(service, properties, circuitBreaker, meterRegistry)
+                : null;
+        return new Pipeline(serviceName, circuitBreaker, retrier);
+    }
+
+    public static final class Pipeline {
+
+        private final String serviceName;
+        private final CircuitBreaker circuitBreaker;
+        private final Retrier retrier;
+
+        private Pipeline(String serviceName, CircuitBreaker circuitBreaker, Retrier retrier) {
+            this.serviceName = serviceName;
+            this.circuitBreaker = circuitBreaker;
+            this.retrier = retrier;
+        }
+
+        /**
+         * Runs a call through the circuit breaker without retrying it.
+         */
+        public <T> Mono<T> call(Mono<T> call) {
+            return call.transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+        }
+
+        /**
+         * Runs an idempotent call through the circuit breaker, retrying it within the retry
+         * budget. Only reads, updates and deletes qualify: a create that timed out may already
+         * have succeeded.
+         */
+        public <T> Mono<T> idempotentCall(Mono<T> call) {
+            return call(retrier == null ? call : retrier.retry(call));
+        }
+
+        /**
+         * Runs an idempotent multi-key lookup like {@link #idempotentCall}, so that the circuit
+         * breaker sees one call for the whole batch rather than one per key in it. The results
+         * are collected before they are passed on.
+         */
+        public <T> Flux<T> idempotentBatch(Flux<T> batch) {
+            return idempotentCall(batch.collectList()).flatMapIterable(Function.identity());
+        }
+
+        /**
+         * Runs a delete like {@link #idempotentCall}, except that a retry finding nothing to
+         * delete succeeds: an earlier attempt may have deleted it before its response was lost.
+         * A not found on the first attempt still reaches the caller.
+         */
+        public Mono<Void> idempotentDelete(Mono<Void> deletion) {
+            if (retrier == null) {
+                return call(deletion);
+            }
+            return Mono.defer(() -> {
+                AtomicBoolean attempted = new AtomicBoolean();
+                Mono<Void> attempt = Mono.defer(() -> attempted.getAndSet(true)
+                        ? deletion.onErrorResume(Pipeline::isNotFound, notFound -> Mono.empty())
+                        : deletion);
+                return call(retrier.retry(attempt));
+            });
+        }
+
+        /**
+         * Runs proxied route calls through the circuit breaker. The service's response is
+         * passed on unchanged, but a 5xx status counts as a failure. While the breaker is
+         * open, calls fail with 503 without reaching the service.
+         */
+        public GatewayFilter route() {
+            return (exchange, chain) -> Mono.defer(() -> {
+                if (!circuitBreaker.tryAcquirePermission()) {
+                    return Mono.error(new ServiceUnavailableException(
+                            serviceName + " is currently unavailable. Please try again later."));
+                }
+                long start = circuitBreaker.getCurrentTimestamp();
+                return chain.filter(exchange)
+                        .doOnSuccess(done -> {
+                            HttpStatusCode status = exchange.getResponse().getStatusCode();
+                            if (status != null && status.is5xxServerError()) {
+                                circuitBreaker.onError(elapsedSince(start), circuitBreaker.getTimestampUnit(),
+                                        new ResponseStatusException(status, serviceName + " responded " + status));
+                            } else {
+                                circuitBreaker.onSuccess(elapsedSince(start), circuitBreaker.getTimestampUnit());
+                            }
+                        })
+                        .doOnError(e -> circuitBreaker.onError(elapsedSince(start),
+                                circuitBreaker.getTimestampUnit(), e))
+                        .doOnCancel(circuitBreaker::releasePermission);
+            });
+        }
+
+        private long elapsedSince(long start) {
+            return circuitBreaker.getCurrentTimestamp() - start;
+        }
+
+        private static boolean isNotFound(Throwable throwable) {
+            return throwable instanceof ResourceNotFoundException
+                    || throwable instanceof WebClientResponseException.NotFound;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package dev.sharanggupta.customergateway.service;
 
+import dev.sharanggupta.customergateway.exception.DeadlineExceededException;
+import dev.sharanggupta.customergateway.exception.DownstreamOverloadedException;
 import dev.sharanggupta.customergateway.exception.ResourceNotFoundException;
 import dev.sharanggupta.customergateway.exception.ServiceUnavailableException;
 import lombok.extern.slf4j.Slf4j;
@@ -10,11 +12,13 @@ import reactor.core.publisher.Mono;
 /**
  * Handles fallback logic for circuit breaker protected methods.
  *
- * Circuit breakers call fallback methods for ALL exceptions, regardless of
- * ignore-exceptions configuration. This handler decides the appropriate
- * response based on exception type:
+ * Fallbacks are attached with onErrorResume after the circuit breaker operator, so
+ * they see ALL exceptions, regardless of ignore-exceptions configuration. This
+ * handler decides the appropriate response based on exception type:
  *
  * - Business exceptions (4xx responses, ResourceNotFoundException): Propagate as-is
+ * - Load shedding (DownstreamOverloadedException): Propagate as-is, already a 503
+ * - Expired deadlines (DeadlineExceededException): Propagate as-is, already a 504
  * - Infrastructure exceptions (connection, timeout, 5xx): Convert to 503
  */
 @Component
@@ -36,6 +40,16 @@ public class FallbackHandler {
             return Mono.error(throwable);
         }
 
+        // Shed calls never reached the service, so there is nothing to log as a failure
+        if (throwable instanceof DownstreamOverloadedException) {
+            return Mono.error(throwable);
+        }
+
+        // The request ran out of time; the service may be perfectly healthy
+        if (throwable instanceof DeadlineExceededException) {
+            return Mono.error(throwable);
+        }
+
         // Infrastructure exceptions indicate service unavailability
         log.error("{} {} failed due to service unavailability", serviceName, operation, throwable);
         return Mono.error(new ServiceUnavailableException(
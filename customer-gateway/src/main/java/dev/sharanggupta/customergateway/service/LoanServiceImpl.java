@@ -1,34 +1,53 @@
 package dev.sharanggupta.customergateway.service;
 
 import dev.sharanggupta.customergateway.client.LoanServiceClient;
+import dev.sharanggupta.customergateway.config.BatchingProperties;
 import dev.sharanggupta.customergateway.dto.LoanInfo;
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import lombok.AllArgsConstructor;
+import dev.sharanggupta.customergateway.support.BatchLoader;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
 @Service
-@AllArgsConstructor
 @Slf4j
 public class LoanServiceImpl implements LoanService {
 
-    private static final String CIRCUIT_BREAKER_NAME = "loan_service";
+    private static final String SERVICE_NAME = "Loan service";
 
     private final LoanServiceClient loanServiceClient;
+    private final FallbackHandler fallbackHandler;
+    private final DownstreamResilience resilience;
+    private final BatchLoader<String, LoanInfo> loanLoader;
+
+    public LoanServiceImpl(LoanServiceClient loanServiceClient, FallbackHandler fallbackHandler,
+                           DownstreamResilience resilience, BatchingProperties batching, MeterRegistry meterRegistry) {
+        this.loanServiceClient = loanServiceClient;
+        this.fallbackHandler = fallbackHandler;
+        this.resilience = resilience;
+        BatchingProperties.Batch settings = batching.loan();
+        this.loanLoader = settings.enabled()
+                ? new BatchLoader<>(mobileNumbers -> resilience.loan()
+                                .idempotentBatch(loanServiceClient.fetchLoans(mobileNumbers)),
+                        LoanInfo::mobileNumber, settings.window(), settings.maxSize(),
+                        BatchLoader.batchSizeSummary(meterRegistry, "loan"))
+                : null;
+    }
 
     @Override
-    @CircuitBreaker(name = CIRCUIT_BREAKER_NAME, fallbackMethod = "fallbackFetchLoan")
     public Mono<LoanInfo> fetchLoan(String mobileNumber) {
         log.debug("Fetching loan for mobile: {}", mobileNumber);
-        return loanServiceClient.fetchLoan(mobileNumber);
+        Mono<LoanInfo> loan = loanLoader != null
+                ? loanLoader.load(mobileNumber)
+                : resilience.loan().idempotentCall(loanServiceClient.fetchLoan(mobileNumber));
+        return loan.onErrorResume(throwable -> fallbackFetchLoan(mobileNumber, throwable));
     }
 
     @Override
-    @CircuitBreaker(name = CIRCUIT_BREAKER_NAME, fallbackMethod = "fallbackDeleteLoan")
     public Mono<Void> deleteLoan(String mobileNumber) {
         log.debug("Deleting loan for mobile: {}", mobileNumber);
-        return loanServiceClient.deleteLoan(mobileNumber);
+        return resilience.loan().idempotentDelete(loanServiceClient.deleteLoan(mobileNumber))
+                .onErrorResume(throwable -> fallbackDeleteLoan(mobileNumber, throwable));
     }
 
     private Mono<LoanInfo> fallbackFetchLoan(String mobileNumber, Throwable throwable) {
@@ -37,7 +56,7 @@ public class LoanServiceImpl implements LoanService {
     }
 
     private Mono<Void> fallbackDeleteLoan(String mobileNumber, Throwable throwable) {
-        log.warn("Loan service unavailable for delete, mobile: {}", mobileNumber, throwable);
-        return Mono.empty();
+        // Offboarding must not delete the account while the loan may still exist
+        return fallbackHandler.handle(throwable, SERVICE_NAME, "delete");
     }
 }
@@ -0,0 +1,166 @@
+package dev.sharanggupta.customergateway.service;
+
+import dev.sharanggupta.customergateway.config.OffboardQueueProperties;
+import dev.sharanggupta.customergateway.dto.OffboardStatus;
+import dev.sharanggupta.customergateway.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Offboard Queue - Runs offboarding requests in the background with bounded concurrency.
+ *
+ * Requests wait in a bounded FIFO queue and are started by at most {@code workers}
+ * concurrent offboardings; when the queue is full new requests are rejected with 503
+ * instead of piling up. Nothing blocks a thread: a finishing offboarding starts the
+ * next queued one. Each offboarding is started on its own scheduler task, so a backlog
+ * of offboardings that fail at once is worked through without nesting one inside the
+ * other on the stack.
+ *
+ * The status of each request can be polled until {@code status-retention} after it
+ * finished; expired statuses are dropped when requests are submitted or polled. The
+ * queue is in-process only, so queued requests are lost on restart; requests already
+ * running are covered by the offboarding saga journal.
+ */
+@Component
+@Slf4j
+public class OffboardQueue {
+
+    private static final String METRIC_PREFIX = "gateway.offboard.queue";
+
+    private final OffboardQueueProperties properties;
+    private final Clock clock = Clock.systemUTC();
+    private final Queue<Task> queue;
+    private final AtomicInteger active = new AtomicInteger();
+    private final Map<String, OffboardStatus> statuses = new ConcurrentHashMap<>();
+    private final AtomicLong lastPrunedAt = new AtomicLong();
+    private final Counter rejected;
+
+    private record Task(String requestId, Instant submittedAt, Supplier<Mono<Void>> offboard) {}
+
+    public OffboardQueue(OffboardQueueProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.capacity());
+
+        Gauge.builder(METRIC_PREFIX + ".depth", queue, Queue::size)
+                .description("Offboarding requests waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".oldest.age", this, OffboardQueue::oldestQueuedAgeSeconds)
+                .description("Seconds the oldest queued offboarding request has been waiting")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".active", active, AtomicInteger::get)
+                .description("Offboarding requests currently running")
+                .register(meterRegistry);
+        this.rejected = Counter.builder(METRIC_PREFIX + ".rejected")
+                .description("Offboarding requests rejected because the queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues an offboarding and returns its initial status, or fails with 503 if the queue is full.
+     */
+    public OffboardStatus submit(String mobileNumber, Supplier<Mono<Void>> offboard) {
+        pruneFinished();
+        Instant now = clock.instant();
+        OffboardStatus status = OffboardStatus.queued(UUID.randomUUID().toString(), mobileNumber, now);
+        statuses.put(status.requestId(), status);
+
+        if (!queue.offer(new Task(status.requestId(), now, offboard))) {
+            statuses.remove(status.requestId());
+            rejected.increment();
+            throw new ServiceUnavailableException(
+                    "Too many offboarding requests are pending. Please try again in a few moments.");
+        }
+        log.info("Queued offboarding {} for mobile: {}", status.requestId(), mobileNumber);
+        drain();
+        return status;
+    }
+
+    public Optional<OffboardStatus> status(String requestId) {
+        pruneFinished();
+        return Optional.ofNullable(statuses.get(requestId));
+    }
+
+    // ========== Internal Helpers ==========
+
+    /**
+     * Starts queued tasks while fewer than {@code workers} are running. After giving back a
+     * slot it re-checks the queue, so a task offered concurrently is never left behind.
+     */
+    private void drain() {
+        while (true) {
+            int running = active.get();
+            if (running >= properties.workers()) {
+                return;
+            }
+            if (!active.compareAndSet(running, running + 1)) {
+                continue;
+            }
+            Task task = queue.poll();
+            if (task != null) {
+                start(task);
+                continue;
+            }
+            active.decrementAndGet();
+            if (queue.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    private void start(Task task) {
+        update(task.requestId(), status -> status.running(clock.instant()));
+        Mono.defer(task.offboard())
+                .subscribeOn(Schedulers.boundedElastic())
+                .doFinally(signal -> {
+                    active.decrementAndGet();
+                    drain();
+                })
+                .subscribe(
+                        null,
+                        e -> {
+                            log.warn("Offboarding {} failed: {}", task.requestId(), e.getMessage());
+                            update(task.requestId(), status -> status.failed(e.getMessage(), clock.instant()));
+                        },
+                        () -> update(task.requestId(), status -> status.succeeded(clock.instant())));
+    }
+
+    private void update(String requestId, UnaryOperator<OffboardStatus> change) {
+        statuses.computeIfPresent(requestId, (id, status) -> change.apply(status));
+    }
+
+    private void pruneFinished() {
+        long now = clock.millis();
+        long last = lastPrunedAt.get();
+        Duration retention = properties.statusRetention();
+        if (now - last < retention.toMillis() / 2 || !lastPrunedAt.compareAndSet(last, now)) {
+            return;
+        }
+        Instant cutoff = clock.instant().minus(retention);
+        statuses.values().removeIf(status -> status.isFinished() && status.updatedAt().isBefore(cutoff));
+    }
+
+    private double oldestQueuedAgeSeconds() {
+        Task oldest = queue.peek();
+        return oldest == null ? 0 : Duration.between(oldest.submittedAt(), clock.instant()).toMillis() / 1000.0;
+    }
+}
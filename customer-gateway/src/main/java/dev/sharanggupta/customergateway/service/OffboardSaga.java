@@ -0,0 +1,215 @@
+package dev.sharanggupta.customergateway.service;
+
+import dev.sharanggupta.customergateway.config.OffboardSagaProperties;
+import dev.sharanggupta.customergateway.exception.ResourceNotFoundException;
+import dev.sharanggupta.customergateway.support.SagaJournal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Offboard Saga - Deletes a customer's card, loan and account as one recoverable unit.
+ *
+ * Card and loan are deleted in parallel; the account is deleted only after both have
+ * succeeded, so a customer whose offboarding failed part-way is still visible and can
+ * be offboarded again. Every completed step is appended to a local journal before the
+ * next one starts.
+ *
+ * On startup, and every {@code recovery-interval} after, the journal is compacted and
+ * sagas without a terminal step are resumed from their first unfinished step. All
+ * deletes are idempotent, so re-running a step that completed downstream but was not
+ * journalled is harmless. A saga that fails with a business error (e.g. the customer
+ * does not exist) is aborted instead of resumed.
+ *
+ * Only sagas whose process stopped mid-way are resumed. A saga that fails or is
+ * cancelled while running has already been answered with an error, so it is recorded
+ * as failed and left for the client to retry; finishing it later would delete a
+ * customer the client was told is still there. Journal entries with an unknown step
+ * are skipped with a warning rather than failing the whole recovery pass.
+ *
+ * A saga started more than {@code max-recovery-age} ago is abandoned rather than
+ * resumed: the customer may have been onboarded again since, and rolling the old
+ * offboarding forward would delete the new customer.
+ */
+@Component
+@Slf4j
+public class OffboardSaga {
+
+    enum Step { STARTED, CARD_DELETED, LOAN_DELETED, ACCOUNT_DELETED, ABORTED, FAILED, ABANDONED }
+
+    private static final Set<String> TERMINAL_STEPS = Set.of(Step.ACCOUNT_DELETED.name(), Step.ABORTED.name(),
+            Step.FAILED.name(), Step.ABANDONED.name());
+
+    private final AccountService accountService;
+    private final CardService cardService;
+    private final LoanService loanService;
+    private final OffboardSagaProperties properties;
+    private final SagaJournal journal;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final Counter abandoned;
+    private volatile Disposable recoveryLoop;
+
+    public OffboardSaga(AccountService accountService,
+                        CardService cardService,
+                        LoanService loanService,
+                        OffboardSagaProperties properties,
+                        MeterRegistry meterRegistry) throws IOException {
+        this.accountService = accountService;
+        this.cardService = cardService;
+        this.loanService = loanService;
+        this.properties = properties;
+        this.journal = new SagaJournal(properties.journalPath(), properties.fsync());
+        this.abandoned = Counter.builder("gateway.offboard.saga.abandoned")
+                .description("Unfinished offboard sagas abandoned because they exceeded the recovery age")
+                .register(meterRegistry);
+    }
+
+    public Mono<Void> execute(String mobileNumber) {
+        return Mono.defer(() -> {
+            String sagaId = UUID.randomUUID().toString();
+            return tracked(sagaId, record(sagaId, Step.STARTED, mobileNumber)
+                    .then(run(sagaId, mobileNumber, EnumSet.noneOf(Step.class)))
+                    .onErrorResume(e -> !isBusinessError(e), e -> fail(sagaId, mobileNumber, e.getMessage())
+                            .then(Mono.error(e)))
+                    .doOnCancel(() -> fail(sagaId, mobileNumber, "cancelled").subscribe(null,
+                            e -> log.error("Could not record offboard saga {} as failed", sagaId, e))));
+        });
+    }
+
+    /**
+     * Compacts the journal and resumes every saga that has not reached a terminal step,
+     * abandoning those older than the recovery age.
+     */
+    public Mono<Void> recover() {
+        return Mono.fromCallable(() -> journal.retainUnfinished(TERMINAL_STEPS))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(unfinished -> Flux.fromIterable(unfinished.entrySet()))
+                .filter(saga -> !inFlight.contains(saga.getKey()))
+                .flatMap(saga -> isStale(saga.getValue())
+                                ? abandon(saga.getKey(), saga.getValue())
+                                : resume(saga.getKey(), saga.getValue()),
+                        properties.recoveryConcurrency())
+                .then();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void startRecovering() {
+        recoveryLoop = Flux.interval(Duration.ZERO, properties.recoveryInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> recover()
+                        .doOnError(e -> log.error("Offboard saga recovery failed", e))
+                        .onErrorResume(e -> Mono.empty()))
+                .subscribe();
+    }
+
+    @PreDestroy
+    void closeJournal() throws IOException {
+        Disposable loop = recoveryLoop;
+        if (loop != null) {
+            loop.dispose();
+        }
+        journal.close();
+    }
+
+    // ========== Internal Helpers ==========
+
+    private boolean isStale(List<SagaJournal.Entry> entries) {
+        Instant startedAt = entries.getFirst().timestamp();
+        return startedAt.isBefore(Instant.now().minus(properties.maxRecoveryAge()));
+    }
+
+    private Mono<Void> abandon(String sagaId, List<SagaJournal.Entry> entries) {
+        String mobileNumber = entries.getFirst().key();
+        log.warn("Abandoning offboard saga {} for mobile: {} - started at {}, more than {} ago, completed steps: {}",
+                sagaId, mobileNumber, entries.getFirst().timestamp(), properties.maxRecoveryAge(),
+                entries.stream().map(SagaJournal.Entry::step).toList());
+        abandoned.increment();
+        return record(sagaId, Step.ABANDONED, mobileNumber);
+    }
+
+    private Mono<Void> fail(String sagaId, String mobileNumber, String reason) {
+        log.warn("Offboard saga {} for mobile: {} failed and will not be resumed: {}", sagaId, mobileNumber, reason);
+        return record(sagaId, Step.FAILED, mobileNumber);
+    }
+
+    private Mono<Void> resume(String sagaId, List<SagaJournal.Entry> entries) {
+        String mobileNumber = entries.getFirst().key();
+        Set<Step> completed = entries.stream()
+                .flatMap(entry -> parseStep(entry).stream())
+                .collect(Collectors.toCollection(() -> EnumSet.noneOf(Step.class)));
+        log.info("Resuming offboard saga {} for mobile: {}, completed steps: {}", sagaId, mobileNumber, completed);
+        return tracked(sagaId, run(sagaId, mobileNumber, completed))
+                .onErrorResume(e -> {
+                    log.warn("Offboard saga {} for mobile: {} is still unfinished: {}", sagaId, mobileNumber, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Optional<Step> parseStep(SagaJournal.Entry entry) {
+        try {
+            return Optional.of(Step.valueOf(entry.step()));
+        } catch (IllegalArgumentException e) {
+            log.warn("Skipping offboard saga {} journal entry with unknown step: {}", entry.sagaId(), entry.step());
+            return Optional.empty();
+        }
+    }
+
+    private Mono<Void> run(String sagaId, String mobileNumber, Set<Step> completed) {
+        Mono<Void> card = completed.contains(Step.CARD_DELETED)
+                ? Mono.empty()
+                : cardService.deleteCard(mobileNumber).then(record(sagaId, Step.CARD_DELETED, mobileNumber));
+        Mono<Void> loan = completed.contains(Step.LOAN_DELETED)
+                ? Mono.empty()
+                : loanService.deleteLoan(mobileNumber).then(record(sagaId, Step.LOAN_DELETED, mobileNumber));
+
+        return Mono.whenDelayError(card, loan)
+                .onErrorMap(Exceptions::isMultiple, e -> Exceptions.unwrapMultiple(e).getFirst())
+                .then(Mono.defer(() -> accountService.deleteAccount(mobileNumber)))
+                .then(record(sagaId, Step.ACCOUNT_DELETED, mobileNumber))
+                .onErrorResume(this::isBusinessError, e -> record(sagaId, Step.ABORTED, mobileNumber)
+                        .then(Mono.error(e)));
+    }
+
+    private Mono<Void> tracked(String sagaId, Mono<Void> saga) {
+        return saga
+                .doFirst(() -> inFlight.add(sagaId))
+                .doOnTerminate(() -> inFlight.remove(sagaId))
+                .doOnCancel(() -> inFlight.remove(sagaId));
+    }
+
+    private Mono<Void> record(String sagaId, Step step, String mobileNumber) {
+        return Mono.fromCallable(() -> {
+                    journal.append(new SagaJournal.Entry(Instant.now(), sagaId, step.name(), mobileNumber));
+                    return step;
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    private boolean isBusinessError(Throwable throwable) {
+        return throwable instanceof ResourceNotFoundException
+                || (throwable instanceof WebClientResponseException webClientException
+                        && webClientException.getStatusCode().is4xxClientError());
+    }
+}
@@ -2,6 +2,19 @@ package dev.sharanggupta.customergateway.service;
 
 import reactor.core.publisher.Mono;
 
+import java.util.function.Supplier;
+
 public interface WriteGate {
-    Mono<Void> checkWriteAllowed();
+
+    /**
+     * Runs the write if the given circuit breakers allow it, otherwise fails with
+     * ServiceUnavailableException. An empty list means every circuit breaker.
+     */
+    <T> Mono<T> protect(String[] circuitBreakers, Supplier<Mono<T>> write);
+
+    /**
+     * Fails with ServiceUnavailableException if any of the given circuit breakers is open,
+     * without taking a half-open permit. For writes that will run later under {@link #protect}.
+     */
+    Mono<Void> checkOpen(String[] circuitBreakers);
 }
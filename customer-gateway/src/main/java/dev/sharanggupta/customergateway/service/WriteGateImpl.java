@@ -1,47 +1,201 @@
 package dev.sharanggupta.customergateway.service;
 
+import dev.sharanggupta.customergateway.config.WriteGateProperties;
 import dev.sharanggupta.customergateway.exception.ServiceUnavailableException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
-import java.util.Optional;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
+/**
+ * Write Gate backed by an incrementally maintained bitmask of circuit breaker states.
+ *
+ * Each circuit breaker is assigned one bit in the low half of the mask (set while it is
+ * OPEN or FORCED_OPEN) and the matching bit in the high half (set while it is HALF_OPEN).
+ * The bits are updated from Resilience4j state-transition and reset events, so a write
+ * only performs a single volatile read instead of scanning the registry.
+ *
+ * A write is rejected if any circuit breaker it depends on is open. While a dependency is
+ * half-open, at most {@code half-open-permits} writes depending on it may be in flight, so
+ * recovery is probed by a trickle of writes instead of being blocked outright.
+ *
+ * Events for one breaker may be delivered out of order across threads. Every update
+ * therefore writes the bits from the breaker's current state and re-reads the state
+ * afterwards, repeating until the two agree, so the mask always converges to the
+ * latest state.
+ */
 @Service
-@AllArgsConstructor
 @Slf4j
 public class WriteGateImpl implements WriteGate {
 
-    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private static final int MAX_CIRCUIT_BREAKERS = Integer.SIZE;
+    private static final long ALL_CIRCUIT_BREAKERS = 0xFFFF_FFFFL;
+
+    private final int halfOpenPermits;
+    private final AtomicLong stateMask = new AtomicLong();
+    private final AtomicInteger nextBit = new AtomicInteger();
+    private final AtomicIntegerArray inFlightByBit = new AtomicIntegerArray(MAX_CIRCUIT_BREAKERS);
+    private final Map<String, Integer> bitsByName = new ConcurrentHashMap<>();
+    private final Map<String, CircuitBreaker> currentByName = new ConcurrentHashMap<>();
+    private final Set<CircuitBreaker> subscribed = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private final String[] namesByBit = new String[MAX_CIRCUIT_BREAKERS];
+    private final String[] openMessagesByBit = new String[MAX_CIRCUIT_BREAKERS];
+    private final String[] halfOpenMessagesByBit = new String[MAX_CIRCUIT_BREAKERS];
+
+    public WriteGateImpl(CircuitBreakerRegistry circuitBreakerRegistry, WriteGateProperties properties) {
+        this.halfOpenPermits = properties.halfOpenPermits();
+        circuitBreakerRegistry.getEventPublisher()
+                .onEntryAdded(event -> track(event.getAddedEntry()))
+                .onEntryReplaced(event -> track(event.getNewEntry()));
+        circuitBreakerRegistry.getAllCircuitBreakers().forEach(this::track);
+    }
 
     @Override
-    public Mono<Void> checkWriteAllowed() {
+    public <T> Mono<T> protect(String[] circuitBreakers, Supplier<Mono<T>> write) {
         return Mono.defer(() -> {
-            Optional<String> openCircuit = findOpenCircuitBreaker();
-
-            if (openCircuit.isPresent()) {
-                String circuitName = openCircuit.get();
-                String errorMessage = String.format(
-                    "Write operations are blocked because the %s circuit breaker is open. " +
-                    "This prevents partial updates across services. Please try again in a few moments.",
-                    circuitName
-                );
-                log.warn("[WriteGate] Blocking write operation - circuit breaker '{}' is open", circuitName);
-                return Mono.error(new ServiceUnavailableException(errorMessage));
+            long dependencies = dependencyMask(circuitBreakers);
+            long state = stateMask.get();
+
+            long open = state & dependencies;
+            if (open != 0) {
+                return rejectOpen(open);
             }
-            return Mono.empty();
+
+            long halfOpen = (state >>> MAX_CIRCUIT_BREAKERS) & dependencies;
+            if (halfOpen == 0) {
+                return Mono.defer(write);
+            }
+            return trickle(halfOpen, write);
         });
     }
 
-    private Optional<String> findOpenCircuitBreaker() {
-        return circuitBreakerRegistry.getAllCircuitBreakers().stream()
-                .filter(cb -> cb.getState() == CircuitBreaker.State.OPEN
-                        || cb.getState() == CircuitBreaker.State.HALF_OPEN
-                        || cb.getState() == CircuitBreaker.State.FORCED_OPEN)
-                .map(CircuitBreaker::getName)
-                .findFirst();
+    @Override
+    public Mono<Void> checkOpen(String[] circuitBreakers) {
+        return Mono.defer(() -> {
+            long open = stateMask.get() & dependencyMask(circuitBreakers);
+            return open == 0 ? Mono.empty() : rejectOpen(open);
+        });
+    }
+
+    // ========== Internal Helpers ==========
+
+    private <T> Mono<T> rejectOpen(long open) {
+        int bit = Long.numberOfTrailingZeros(open);
+        log.warn("[WriteGate] Blocking write operation - circuit breaker '{}' is open", namesByBit[bit]);
+        return Mono.error(new ServiceUnavailableException(openMessagesByBit[bit]));
+    }
+
+    /**
+     * Takes one permit per half-open dependency for the duration of the write,
+     * or rejects the write if any of them has no permit left.
+     */
+    private <T> Mono<T> trickle(long halfOpen, Supplier<Mono<T>> write) {
+        long acquired = 0;
+        for (long remaining = halfOpen; remaining != 0; remaining &= remaining - 1) {
+            int bit = Long.numberOfTrailingZeros(remaining);
+            if (!tryAcquire(bit)) {
+                release(acquired);
+                log.warn("[WriteGate] Blocking write operation - circuit breaker '{}' is half-open and has no free permits",
+                        namesByBit[bit]);
+                return Mono.error(new ServiceUnavailableException(halfOpenMessagesByBit[bit]));
+            }
+            acquired |= 1L << bit;
+        }
+        long held = acquired;
+        return Mono.defer(write).doFinally(signal -> release(held));
+    }
+
+    private boolean tryAcquire(int bit) {
+        while (true) {
+            int inFlight = inFlightByBit.get(bit);
+            if (inFlight >= halfOpenPermits) {
+                return false;
+            }
+            if (inFlightByBit.compareAndSet(bit, inFlight, inFlight + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void release(long bits) {
+        for (long remaining = bits; remaining != 0; remaining &= remaining - 1) {
+            inFlightByBit.decrementAndGet(Long.numberOfTrailingZeros(remaining));
+        }
+    }
+
+    private long dependencyMask(String[] circuitBreakers) {
+        if (circuitBreakers.length == 0) {
+            return ALL_CIRCUIT_BREAKERS;
+        }
+        long mask = 0;
+        for (String name : circuitBreakers) {
+            mask |= 1L << bitsByName.computeIfAbsent(name, this::assignBit);
+        }
+        return mask;
+    }
+
+    private void track(CircuitBreaker circuitBreaker) {
+        int bit = bitsByName.computeIfAbsent(circuitBreaker.getName(), this::assignBit);
+        currentByName.put(circuitBreaker.getName(), circuitBreaker);
+        if (subscribed.add(circuitBreaker)) {
+            circuitBreaker.getEventPublisher()
+                    .onStateTransition(event -> onStateChange(circuitBreaker, bit))
+                    .onReset(event -> onStateChange(circuitBreaker, bit));
+        }
+        refresh(circuitBreaker, bit);
+    }
+
+    private void onStateChange(CircuitBreaker circuitBreaker, int bit) {
+        // A breaker replaced in the registry must no longer drive its old bit
+        if (currentByName.get(circuitBreaker.getName()) == circuitBreaker) {
+            refresh(circuitBreaker, bit);
+        }
+    }
+
+    private int assignBit(String name) {
+        int bit = nextBit.getAndIncrement();
+        if (bit >= MAX_CIRCUIT_BREAKERS) {
+            throw new IllegalStateException("Write gate supports at most " + MAX_CIRCUIT_BREAKERS + " circuit breakers");
+        }
+        namesByBit[bit] = name;
+        openMessagesByBit[bit] = "Write operations are blocked because the " + name + " circuit breaker is open. " +
+                "This prevents partial updates across services. Please try again in a few moments.";
+        halfOpenMessagesByBit[bit] = "Write operations are limited because the " + name + " circuit breaker is " +
+                "recovering. Please try again in a few moments.";
+        return bit;
+    }
+
+    /**
+     * Writes the bits from the breaker's current state, then re-checks that state.
+     * A concurrent transition that raced with this write is caught by the re-check.
+     */
+    void refresh(CircuitBreaker circuitBreaker, int bit) {
+        long openBit = 1L << bit;
+        long halfOpenBit = 1L << (bit + MAX_CIRCUIT_BREAKERS);
+        while (true) {
+            long stateBits = stateBits(circuitBreaker.getState(), openBit, halfOpenBit);
+            stateMask.getAndUpdate(mask -> (mask & ~(openBit | halfOpenBit)) | stateBits);
+            if (stateBits(circuitBreaker.getState(), openBit, halfOpenBit) == stateBits) {
+                return;
+            }
+        }
+    }
+
+    private static long stateBits(CircuitBreaker.State state, long openBit, long halfOpenBit) {
+        return switch (state) {
+            case OPEN, FORCED_OPEN -> openBit;
+            case HALF_OPEN -> halfOpenBit;
+            default -> 0;
+        };
     }
 }
@@ -0,0 +1,116 @@
+package dev.sharanggupta.customergateway.support;
+
+import dev.sharanggupta.customergateway.config.AdaptiveTimeoutProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Times out one operation of one downstream service after a timeout derived from its own
+ * recent latency: the tracked percentile times {@code headroom}, clamped between
+ * {@code min-timeout} and {@code max-timeout}. Until {@code min-samples} responses have
+ * been seen in the window, the timeout is {@code max-timeout}.
+ *
+ * A call that times out is recorded at the timeout it was given. During a brownout the
+ * percentile therefore climbs towards the current timeout and the headroom lets the
+ * timeout grow with it, up to {@code max-timeout}, instead of cutting off every call.
+ */
+public final class AdaptiveTimeout {
+
+    private static final String METRIC_PREFIX = "gateway.timeout";
+
+    private final double percentile;
+    private final double headroom;
+    private final Duration minTimeout;
+    private final Duration maxTimeout;
+    private final long minSamples;
+    private final LatencyTracker latencies;
+    private final Counter expired;
+
+    public AdaptiveTimeout(String service, String operation, AdaptiveTimeoutProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.percentile = properties.percentile();
+        this.headroom = properties.headroom();
+        this.minTimeout = properties.minTimeout();
+        this.maxTimeout = properties.maxTimeout();
+        this.minSamples = properties.minSamples();
+        this.latencies = new LatencyTracker(properties.window(), properties.windowSlices());
+        this.expired = Counter.builder(METRIC_PREFIX + ".expired")
+                .description("Downstream calls given up on after their adaptive timeout")
+                .tag("service", service)
+                .tag("operation", operation)
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".current", this, timeout -> timeout.current().toNanos() / 1e6)
+                .description("Current timeout in milliseconds, derived from recent response latency")
+                .tag("service", service)
+                .tag("operation", operation)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    public <T> Mono<T> apply(Mono<T> call, Supplier<? extends Throwable> onTimeout) {
+        return Mono.defer(() -> {
+            Duration timeout = current();
+            long start = System.nanoTime();
+            return call.doOnSuccess(result -> latencies.record(System.nanoTime() - start))
+                    .timeout(timeout, Mono.defer(() -> {
+                        latencies.record(timeout.toNanos());
+                        expired.increment();
+                        return Mono.error(onTimeout.get());
+                    }));
+        });
+    }
+
+    /**
+     * Times a stream up to its first element, or its end if it has none: the counterpart of
+     * an HTTP exchange, which ends with the response headers rather than the whole body.
+     */
+    public <T> Flux<T> applyToFirst(Flux<T> stream, Supplier<? extends Throwable> onTimeout) {
+        return Flux.defer(() -> {
+            Duration timeout = current();
+            long start = System.nanoTime();
+            AtomicBoolean answered = new AtomicBoolean();
+            Runnable recordAnswer = () -> {
+                if (answered.compareAndSet(false, true)) {
+                    latencies.record(System.nanoTime() - start);
+                }
+            };
+            return stream.doOnNext(first -> recordAnswer.run())
+                    .doOnComplete(recordAnswer)
+                    .timeout(Mono.delay(timeout), next -> Mono.never(), Flux.defer(() -> {
+                        latencies.record(timeout.toNanos());
+                        expired.increment();
+                        return Flux.error(onTimeout.get());
+                    }));
+        });
+    }
+
+    public Duration current() {
+        Duration tracked = tracked();
+        if (tracked == null) {
+            return maxTimeout;
+        }
+        Duration timeout = Duration.ofNanos((long) (tracked.toNanos() * headroom));
+        if (timeout.compareTo(minTimeout) < 0) {
+            return minTimeout;
+        }
+        return timeout.compareTo(maxTimeout) > 0 ? maxTimeout : timeout;
+    }
+
+    /**
+     * The tracked latency percentile, or {@code null} while there are too few samples.
+     */
+    public Duration tracked() {
+        return latencies.percentile(percentile, minSamples);
+    }
+
+    public long sampleCount() {
+        return latencies.sampleCount();
+    }
+}
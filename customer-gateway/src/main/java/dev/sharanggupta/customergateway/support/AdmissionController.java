@@ -0,0 +1,84 @@
+package dev.sharanggupta.customergateway.support;
+
+import dev.sharanggupta.customergateway.config.AdmissionProperties;
+import dev.sharanggupta.customergateway.support.SlotQueue.Permit;
+import dev.sharanggupta.customergateway.support.SlotQueue.Rejection;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admits requests by priority once the gateway is saturated.
+ *
+ * Each class may occupy only its share of {@code max-concurrent}: reads all of it, writes
+ * and batch requests less. A request arriving while its class is at its share waits in a
+ * per-class LIFO queue: the newest waiter is admitted first, because it is the one whose
+ * client is most likely still waiting, while the oldest ones run into {@code max-wait} and
+ * are shed. When a slot frees up, the highest class with a waiter gets it. If the queue is
+ * full, a waiter of a lower class is displaced to make room; otherwise the newcomer is shed.
+ * The queueing itself is done by a {@link SlotQueue}.
+ *
+ * Probes are never queued or counted.
+ */
+public final class AdmissionController {
+
+    private static final String METRIC_PREFIX = "gateway.admission";
+    private static final List<RequestPriority> QUEUED_CLASSES = List.of(
+            RequestPriority.READ, RequestPriority.WRITE, RequestPriority.BULK);
+
+    private final Map<RequestPriority, Map<Rejection, Counter>> shed = new EnumMap<>(RequestPriority.class);
+    private final SlotQueue<RequestPriority> slots;
+
+    public AdmissionController(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        int maxConcurrent = properties.maxConcurrent();
+        Map<RequestPriority, Integer> capacity = new EnumMap<>(RequestPriority.class);
+        capacity.put(RequestPriority.READ, maxConcurrent);
+        capacity.put(RequestPriority.WRITE, share(maxConcurrent, properties.writeShare()));
+        capacity.put(RequestPriority.BULK, share(maxConcurrent, properties.bulkShare()));
+        this.slots = new SlotQueue<>(QUEUED_CLASSES, capacity::get, properties.maxQueued(), properties.maxWait(),
+                SlotQueue.Order.LIFO, (priority, reason) -> shed.get(priority).get(reason).increment());
+
+        for (RequestPriority priority : QUEUED_CLASSES) {
+            Map<Rejection, Counter> counters = new EnumMap<>(Rejection.class);
+            for (Rejection reason : Rejection.values()) {
+                counters.put(reason, Counter.builder(METRIC_PREFIX + ".shed")
+                        .description("Requests shed by admission control")
+                        .tag("class", priority.tag())
+                        .tag("reason", reason.tag())
+                        .register(meterRegistry));
+            }
+            shed.put(priority, counters);
+            Gauge.builder(METRIC_PREFIX + ".queued", slots, queue -> queue.queued(priority))
+                    .description("Requests waiting for admission")
+                    .tag("class", priority.tag())
+                    .register(meterRegistry);
+        }
+        Gauge.builder(METRIC_PREFIX + ".in.flight", slots, SlotQueue::inFlight)
+                .description("Requests currently admitted")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Emits a permit once the request is admitted, which must be released when the request
+     * completes, or {@link Permit#REJECTED} if it was shed. A permit emitted to a subscriber
+     * that has already cancelled is discarded; callers release it with
+     * {@code doOnDiscard(Permit.class, Permit::release)}.
+     */
+    public Mono<Permit> acquire(RequestPriority priority) {
+        if (priority == RequestPriority.PROBE) {
+            return Mono.just(Permit.UNCOUNTED);
+        }
+        return slots.acquire(priority);
+    }
+
+    // ========== Internal Helpers ==========
+
+    private static int share(int maxConcurrent, double fraction) {
+        return Math.max(1, (int) (maxConcurrent * fraction));
+    }
+}
@@ -0,0 +1,164 @@
+package dev.sharanggupta.customergateway.support;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Coalesces individual key lookups into multi-key requests, DataLoader style.
+ *
+ * The first lookup of a batch opens a window; every lookup arriving before the window
+ * closes (or before {@code maxSize} distinct keys are pending) joins the same downstream
+ * request. Results are matched back to callers by key: a caller whose key is missing
+ * from the response completes empty, and a failed request fails every caller in it.
+ *
+ * A caller that cancels before the batch is dispatched leaves it, and its key is dropped
+ * once no other caller waits for it. The downstream request runs with the earliest
+ * {@link Deadline} of the callers in the batch, so it is never allowed to outlast the
+ * most impatient of them.
+ */
+public final class BatchLoader<K, V> {
+
+    private final Function<List<K>, Flux<V>> batchFetcher;
+    private final Function<V, K> keyExtractor;
+    private final Duration window;
+    private final int maxSize;
+    private final DistributionSummary batchSizes;
+    private final Scheduler scheduler = Schedulers.parallel();
+
+    private final Object lock = new Object();
+    private Map<K, List<Waiter<V>>> pending = new LinkedHashMap<>();
+    private Disposable scheduledFlush;
+
+    private record Waiter<V>(Sinks.One<V> sink, Deadline deadline) {}
+
+    public BatchLoader(Function<List<K>, Flux<V>> batchFetcher,
+                       Function<V, K> keyExtractor,
+                       Duration window,
+                       int maxSize,
+                       DistributionSummary batchSizes) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+        this.batchFetcher = batchFetcher;
+        this.keyExtractor = keyExtractor;
+        this.window = window;
+        this.maxSize = maxSize;
+        this.batchSizes = batchSizes;
+    }
+
+    /**
+     * Histogram of distinct keys per downstream request, tagged with the target service.
+     */
+    public static DistributionSummary batchSizeSummary(MeterRegistry meterRegistry, String service) {
+        return DistributionSummary.builder("gateway.batch.size")
+                .description("Distinct keys per coalesced downstream request")
+                .tag("service", service)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public Mono<V> load(K key) {
+        return Mono.deferContextual(context -> {
+            Waiter<V> waiter = new Waiter<>(Sinks.one(), Deadline.current(context));
+            Map<K, List<Waiter<V>>> fullBatch = null;
+            synchronized (lock) {
+                boolean opensWindow = pending.isEmpty();
+                pending.computeIfAbsent(key, k -> new ArrayList<>(1)).add(waiter);
+                if (pending.size() >= maxSize) {
+                    fullBatch = takePending();
+                } else if (opensWindow) {
+                    scheduledFlush = scheduler.schedule(this::flush, window.toNanos(), TimeUnit.NANOSECONDS);
+                }
+            }
+            if (fullBatch != null) {
+                dispatch(fullBatch);
+            }
+            return waiter.sink().asMono().doOnCancel(() -> leave(key, waiter));
+        });
+    }
+
+    // ========== Internal Helpers ==========
+
+    /**
+     * Removes a cancelled caller from the pending batch. A caller whose batch was already
+     * dispatched is left alone; its result is simply not delivered.
+     */
+    private void leave(K key, Waiter<V> waiter) {
+        synchronized (lock) {
+            List<Waiter<V>> waiting = pending.get(key);
+            if (waiting == null || !waiting.remove(waiter)) {
+                return;
+            }
+            if (waiting.isEmpty()) {
+                pending.remove(key);
+            }
+            if (pending.isEmpty() && scheduledFlush != null) {
+                scheduledFlush.dispose();
+                scheduledFlush = null;
+            }
+        }
+    }
+
+    private void flush() {
+        Map<K, List<Waiter<V>>> batch;
+        synchronized (lock) {
+            batch = takePending();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    /**
+     * Must be called while holding {@link #lock}.
+     */
+    private Map<K, List<Waiter<V>>> takePending() {
+        Map<K, List<Waiter<V>>> batch = pending;
+        pending = new LinkedHashMap<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.dispose();
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(Map<K, List<Waiter<V>>> batch) {
+        batchSizes.record(batch.size());
+        Deadline earliest = batch.values().stream()
+                .flatMap(List::stream)
+                .map(Waiter::deadline)
+                .filter(Objects::nonNull)
+                .min(Comparator.comparing(Deadline::remaining))
+                .orElse(null);
+        // Reactor serialises the signals below, so the map needs no further synchronisation
+        Flux.defer(() -> batchFetcher.apply(List.copyOf(batch.keySet())))
+                .contextWrite(context -> earliest == null ? context : context.put(Deadline.CONTEXT_KEY, earliest))
+                .subscribe(
+                        value -> {
+                            List<Waiter<V>> waiting = batch.remove(keyExtractor.apply(value));
+                            if (waiting != null) {
+                                waiting.forEach(waiter -> waiter.sink().tryEmitValue(value));
+                            }
+                        },
+                        error -> batch.values().forEach(waiting ->
+                                waiting.forEach(waiter -> waiter.sink().tryEmitError(error))),
+                        () -> batch.values().forEach(waiting ->
+                                waiting.forEach(waiter -> waiter.sink().tryEmitEmpty())));
+    }
+}
@@ -0,0 +1,65 @@
+package dev.sharanggupta.customergateway.support;
+
+import dev.sharanggupta.customergateway.config.BulkheadProperties;
+import dev.sharanggupta.customergateway.support.SlotQueue.Permit;
+import dev.sharanggupta.customergateway.support.SlotQueue.Rejection;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caps the calls one downstream service may have in flight, so a slow service holds at
+ * most its own compartment of the gateway's capacity instead of all of it.
+ *
+ * A call beyond {@code max-concurrent} waits in a FIFO queue of at most
+ * {@code max-queued} calls for up to {@code max-wait}, which absorbs short bursts. When
+ * the queue is full or the wait runs out, the call is rejected. Waiting never blocks a
+ * thread: a queued call is resumed by whichever call frees its slot. The queueing itself
+ * is done by a {@link SlotQueue} with the service as its only class.
+ */
+public final class Bulkhead {
+
+    private static final String METRIC_PREFIX = "gateway.bulkhead";
+
+    private final String service;
+    private final Map<Rejection, Counter> rejected = new EnumMap<>(Rejection.class);
+    private final SlotQueue<String> slots;
+
+    public Bulkhead(String service, BulkheadProperties.Compartment compartment, MeterRegistry meterRegistry) {
+        this.service = service;
+        this.slots = new SlotQueue<>(List.of(service), type -> compartment.maxConcurrent(),
+                compartment.maxQueued(), compartment.maxWait(), SlotQueue.Order.FIFO,
+                (type, reason) -> rejected.get(reason).increment());
+
+        for (Rejection reason : List.of(Rejection.QUEUE_FULL, Rejection.TIMEOUT)) {
+            rejected.put(reason, Counter.builder(METRIC_PREFIX + ".rejected")
+                    .description("Downstream calls rejected by the bulkhead")
+                    .tag("service", service)
+                    .tag("reason", reason.tag())
+                    .register(meterRegistry));
+        }
+        Gauge.builder(METRIC_PREFIX + ".in.flight", slots, SlotQueue::inFlight)
+                .description("Downstream calls holding a bulkhead slot")
+                .tag("service", service)
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".queued", slots, queue -> queue.queued(service))
+                .description("Downstream calls waiting for a bulkhead slot")
+                .tag("service", service)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Emits a permit once the call may proceed, which must be released when the call
+     * completes, or {@link Permit#REJECTED} if it was rejected. A permit emitted to a
+     * subscriber that has already cancelled is discarded; callers release it with
+     * {@code doOnDiscard(Permit.class, Permit::release)}.
+     */
+    public Mono<Permit> acquire() {
+        return slots.acquire(service);
+    }
+}
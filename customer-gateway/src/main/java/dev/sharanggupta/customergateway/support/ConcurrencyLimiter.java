@@ -0,0 +1,159 @@
+package dev.sharanggupta.customergateway.support;
+
+import dev.sharanggupta.customergateway.config.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive concurrency limit for one downstream service, after Netflix's Gradient2.
+ *
+ * Every completed call contributes its round-trip time. A long-term exponential average
+ * of those RTTs is the service's baseline; when recent calls take longer than
+ * {@code rtt-tolerance} times the baseline, requests are queueing somewhere and the limit
+ * shrinks proportionally (by at most half per sample). Otherwise it grows by roughly the
+ * square root of the current limit. Updates are smoothed so a single outlier barely moves it.
+ *
+ * Transport errors count as drops and back the limit off multiplicatively. The limit only
+ * grows while at least half of it is in use, so an idle service does not build up headroom
+ * it has never been tested with.
+ */
+public final class ConcurrencyLimiter {
+
+    private static final String METRIC_PREFIX = "gateway.concurrency";
+    private static final int LONG_RTT_WARMUP = 10;
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final String service;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final double longRttFactor;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRttNanos;
+    private long samples;
+
+    public ConcurrencyLimiter(String service, ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.service = service;
+        this.minLimit = properties.minLimit();
+        this.maxLimit = properties.maxLimit();
+        this.rttTolerance = properties.rttTolerance();
+        this.smoothing = properties.smoothing();
+        this.longRttFactor = 2.0 / (properties.longWindow() + 1);
+        this.estimatedLimit = properties.initialLimit();
+        this.limit = properties.initialLimit();
+
+        this.rejected = Counter.builder(METRIC_PREFIX + ".rejected")
+                .description("Downstream calls shed because the concurrency limit was reached")
+                .tag("service", service)
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".limit", this, limiter -> limiter.limit)
+                .description("Current adaptive concurrency limit")
+                .tag("service", service)
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".in.flight", inFlight, AtomicInteger::get)
+                .description("Downstream calls currently in flight")
+                .tag("service", service)
+                .register(meterRegistry);
+    }
+
+    public String service() {
+        return service;
+    }
+
+    /**
+     * Admits a call if fewer than the current limit are in flight.
+     *
+     * @return a permit that must be released exactly once, or {@code null} if the call is shed
+     */
+    public Permit tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(System.nanoTime(), current + 1);
+            }
+        }
+    }
+
+    // ========== Internal Helpers ==========
+
+    private synchronized void onSample(long rttNanos, int inFlightAtStart, boolean dropped) {
+        if (dropped) {
+            update(estimatedLimit * DROP_BACKOFF);
+            return;
+        }
+
+        samples++;
+        if (samples <= LONG_RTT_WARMUP) {
+            longRttNanos += (rttNanos - longRttNanos) / samples;
+        } else {
+            longRttNanos += (rttNanos - longRttNanos) * longRttFactor;
+        }
+        // After a sustained slowdown the baseline has crept up; let it recover faster once calls are quick again
+        if (longRttNanos / rttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        if (inFlightAtStart < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / Math.max(1, rttNanos)));
+        double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        update(estimatedLimit * (1 - smoothing) + target * smoothing);
+    }
+
+    private void update(double newLimit) {
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    /**
+     * One admitted call. Completion feeds its latency into the limit; a cancelled call
+     * only frees its slot, since its round trip was never observed in full.
+     */
+    public final class Permit {
+
+        private final long startNanos;
+        private final int inFlightAtStart;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long startNanos, int inFlightAtStart) {
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        public void success() {
+            release(true, false);
+        }
+
+        public void dropped() {
+            release(true, true);
+        }
+
+        public void ignore() {
+            release(false, false);
+        }
+
+        private void release(boolean sample, boolean dropped) {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            inFlight.decrementAndGet();
+            if (sample) {
+                onSample(System.nanoTime() - startNanos, inFlightAtStart, dropped);
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package dev.sharanggupta.customergateway.support;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe counting Bloom filter with 4-bit counters packed sixteen to a long.
+ *
+ * Unlike a plain Bloom filter, keys can be removed again. A counter that reaches
+ * its maximum value saturates and is never decremented afterwards, so removals can
+ * only ever produce stale positives, never false negatives.
+ *
+ * All updates are lock-free (CAS on the containing word).
+ */
+public final class CountingBloomFilter {
+
+    private static final int BITS_PER_COUNTER = 4;
+    private static final int COUNTERS_PER_WORD = Long.SIZE / BITS_PER_COUNTER;
+    private static final long COUNTER_MASK = (1L << BITS_PER_COUNTER) - 1;
+    private static final long MAX_COUNT = COUNTER_MASK;
+
+    private final AtomicLongArray words;
+    private final int numCounters;
+    private final int numHashes;
+    private final AtomicLong nonZeroCounters = new AtomicLong();
+
+    private CountingBloomFilter(int numCounters, int numHashes) {
+        this.numCounters = numCounters;
+        this.numHashes = numHashes;
+        this.words = new AtomicLongArray((numCounters + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD);
+    }
+
+    /**
+     * Sizes a filter for the expected number of keys and target false-positive probability.
+     */
+    public static CountingBloomFilter create(long expectedInsertions, double falsePositiveProbability) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive");
+        }
+        if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("falsePositiveProbability must be between 0 and 1");
+        }
+        double ln2 = Math.log(2);
+        long counters = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (ln2 * ln2));
+        int numCounters = (int) Math.min(Integer.MAX_VALUE - COUNTERS_PER_WORD, Math.max(COUNTERS_PER_WORD, counters));
+        int numHashes = (int) Math.max(1, Math.round((double) numCounters / expectedInsertions * ln2));
+        return new CountingBloomFilter(numCounters, numHashes);
+    }
+
+    public void add(String key) {
+        long hash = hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < numHashes; i++) {
+            increment(index(h1, h2, i));
+        }
+    }
+
+    public void remove(String key) {
+        if (!mightContain(key)) {
+            return;
+        }
+        long hash = hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < numHashes; i++) {
+            decrement(index(h1, h2, i));
+        }
+    }
+
+    public boolean mightContain(String key) {
+        long hash = hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < numHashes; i++) {
+            if (counterAt(index(h1, h2, i)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Estimates the current false-positive probability from the fraction of non-zero counters.
+     */
+    public double expectedFalsePositiveProbability() {
+        return Math.pow((double) nonZeroCounters.get() / numCounters, numHashes);
+    }
+
+    public int numCounters() {
+        return numCounters;
+    }
+
+    public int numHashes() {
+        return numHashes;
+    }
+
+    // ========== Internal Helpers ==========
+
+    private int index(int h1, int h2, int i) {
+        int combined = h1 + i * h2;
+        return (combined & Integer.MAX_VALUE) % numCounters;
+    }
+
+    private long counterAt(int counterIndex) {
+        long word = words.get(counterIndex / COUNTERS_PER_WORD);
+        return (word >>> shift(counterIndex)) & COUNTER_MASK;
+    }
+
+    private void increment(int counterIndex) {
+        int wordIndex = counterIndex / COUNTERS_PER_WORD;
+        int shift = shift(counterIndex);
+        while (true) {
+            long word = words.get(wordIndex);
+            long count = (word >>> shift) & COUNTER_MASK;
+            if (count == MAX_COUNT) {
+                return;
+            }
+            if (words.compareAndSet(wordIndex, word, word + (1L << shift))) {
+                if (count == 0) {
+                    nonZeroCounters.incrementAndGet();
+                }
+                return;
+            }
+        }
+    }
+
+    private void decrement(int counterIndex) {
+        int wordIndex = counterIndex / COUNTERS_PER_WORD;
+        int shift = shift(counterIndex);
+        while (true) {
+            long word = words.get(wordIndex);
+            long count = (word >>> shift) & COUNTER_MASK;
+            if (count == 0 || count == MAX_COUNT) {
+                return;
+            }
+            if (words.compareAndSet(wordIndex, word, word - (1L << shift))) {
+                if (count == 1) {
+                    nonZeroCounters.decrementAndGet();
+                }
+                return;
+            }
+        }
+    }
+
+    private static int shift(int counterIndex) {
+        return (counterIndex % COUNTERS_PER_WORD) * BITS_PER_COUNTER;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 fmix64 avalanche step.
+     */
+    private static long hash64(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93fe53e63b9L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,67 @@
+package dev.sharanggupta.customergateway.support;
+
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+
+/**
+ * The point in time by which a request must be answered.
+ *
+ * It travels between services as {@value #HEADER}: the milliseconds the receiver has
+ * left, rather than a wall-clock instant, so hops need not agree on the time. Each hop
+ * converts it to a local {@link System#nanoTime()} instant on arrival and sends what is
+ * left of it with every downstream call. Within the gateway it is kept in the Reactor
+ * context under {@link #CONTEXT_KEY}.
+ */
+public final class Deadline {
+
+    public static final String HEADER = "X-Request-Timeout-Ms";
+    public static final Class<Deadline> CONTEXT_KEY = Deadline.class;
+
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static Deadline after(Duration budget) {
+        return new Deadline(System.nanoTime() + budget.toNanos());
+    }
+
+    /**
+     * Reads a {@value #HEADER} value, or returns null when it is absent or malformed.
+     * Negative values are treated as already expired.
+     */
+    public static Duration parse(String headerValue) {
+        if (headerValue == null) {
+            return null;
+        }
+        try {
+            return Duration.ofMillis(Math.max(0, Long.parseLong(headerValue.trim())));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The deadline of the current request, or null outside of one.
+     */
+    public static Deadline current(ContextView context) {
+        return context.getOrDefault(CONTEXT_KEY, null);
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, expiresAtNanos - System.nanoTime()));
+    }
+
+    public boolean expired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * The remaining time as a {@value #HEADER} value for the next hop.
+     */
+    public String headerValue() {
+        return String.valueOf(remaining().toMillis());
+    }
+}
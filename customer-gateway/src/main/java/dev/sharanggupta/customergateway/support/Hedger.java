@@ -0,0 +1,123 @@
+package dev.sharanggupta.customergateway.support;
+
+import dev.sharanggupta.customergateway.config.HedgingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hedges idempotent reads against one downstream service.
+ *
+ * The call is sent once; if no response has arrived after the tracked latency percentile,
+ * an identical second call is sent and whichever answers first wins, cancelling the other.
+ * While both are in flight a failure of either one (for example a hedge shed by the
+ * concurrency limit) leaves the other to answer; the call only fails once no request is
+ * left that could still answer.
+ * Hedges are paid for from a token budget: every primary call deposits {@code budget-ratio}
+ * tokens and every hedge spends one, so hedging never adds more than that fraction of
+ * extra load, even while the whole service is slow.
+ *
+ * Hedging stays off until the tracker has seen {@code min-samples} responses in its window.
+ */
+public final class Hedger {
+
+    private static final String METRIC_PREFIX = "gateway.hedge";
+
+    private final double percentile;
+    private final long minSamples;
+    private final Duration minDelay;
+    private final TokenBudget budget;
+    private final LatencyTracker latencies;
+    private final Counter sent;
+    private final Counter won;
+
+    public Hedger(String service, HedgingProperties properties, MeterRegistry meterRegistry) {
+        this.percentile = properties.percentile();
+        this.minSamples = properties.minSamples();
+        this.minDelay = properties.minDelay();
+        this.budget = new TokenBudget(properties.budgetRatio(), properties.maxBurst(), 0);
+        this.latencies = new LatencyTracker(properties.window(), properties.windowSlices());
+        this.sent = Counter.builder(METRIC_PREFIX + ".sent")
+                .description("Hedge requests sent because the primary request was slow")
+                .tag("service", service)
+                .register(meterRegistry);
+        this.won = Counter.builder(METRIC_PREFIX + ".won")
+                .description("Hedge requests that answered before the primary request")
+                .tag("service", service)
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".delay", this, hedger -> {
+                    Duration delay = hedger.hedgeDelay();
+                    return delay == null ? Double.NaN : delay.toNanos() / 1e6;
+                })
+                .description("Current hedge delay in milliseconds, derived from recent response latency")
+                .tag("service", service)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    public <T> Mono<T> hedge(Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            budget.deposit();
+            Duration delay = hedgeDelay();
+            if (delay == null) {
+                return timed(call, true);
+            }
+            AtomicInteger inFlight = new AtomicInteger(1);
+            Mono<T> primary = timed(call, true)
+                    .onErrorResume(e -> outlived(inFlight, e));
+            Mono<T> hedge = Mono.delay(delay)
+                    .flatMap(tick -> {
+                        if (!budget.tryWithdraw()) {
+                            return Mono.never();
+                        }
+                        sent.increment();
+                        inFlight.incrementAndGet();
+                        return timed(call, false)
+                                .doOnSuccess(result -> won.increment())
+                                .onErrorResume(e -> outlived(inFlight, e));
+                    });
+            return Mono.firstWithSignal(primary, hedge);
+        });
+    }
+
+    // ========== Internal Helpers ==========
+
+    private Duration hedgeDelay() {
+        Duration tracked = latencies.percentile(percentile, minSamples);
+        if (tracked == null) {
+            return null;
+        }
+        return tracked.compareTo(minDelay) < 0 ? minDelay : tracked;
+    }
+
+    /**
+     * Swallows the failure of one request while the other one may still answer, and
+     * passes it on once it was the last request in flight.
+     */
+    private static <T> Mono<T> outlived(AtomicInteger inFlight, Throwable error) {
+        return inFlight.decrementAndGet() > 0 ? Mono.never() : Mono.error(error);
+    }
+
+    /**
+     * Records the latency of calls that terminate. A primary cancelled because its hedge won
+     * records the time it had been waiting as a lower bound of its latency, so slow responses
+     * keep counting towards the hedge delay instead of vanishing from the window; a cancelled
+     * hedge started late and says nothing about the latency, so it is not recorded.
+     */
+    private <T> Mono<T> timed(Supplier<Mono<T>> call, boolean recordCancel) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.get().doFinally(signal -> {
+                if (signal != SignalType.CANCEL || recordCancel) {
+                    latencies.record(System.nanoTime() - start);
+                }
+            });
+        });
+    }
+}
@@ -0,0 +1,96 @@
+package dev.sharanggupta.customergateway.support;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.time.Duration;
+
+/**
+ * Sliding-window latency distribution backed by HdrHistogram.
+ *
+ * Recordings go to a lock-free {@link Recorder}. Once per slice the interval histogram is
+ * swapped out and merged with the previous slices into a fresh snapshot, so percentile
+ * queries always read an immutable histogram covering roughly the last {@code window}.
+ * The roll happens lazily on the first query after a slice has elapsed; no background
+ * thread is needed.
+ */
+public final class LatencyTracker {
+
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final Histogram[] slices;
+    private final long sliceNanos;
+    private final Object rollLock = new Object();
+
+    private int nextSlice;
+    private volatile long lastRollNanos;
+    private volatile Histogram snapshot = new Histogram(SIGNIFICANT_DIGITS);
+
+    /**
+     * @param window     how much recent history percentiles are computed over
+     * @param sliceCount how many slices the window is divided into; more slices age out old samples more smoothly
+     */
+    public LatencyTracker(Duration window, int sliceCount) {
+        if (sliceCount < 1) {
+            throw new IllegalArgumentException("sliceCount must be at least 1");
+        }
+        this.slices = new Histogram[sliceCount];
+        this.sliceNanos = window.toNanos() / sliceCount;
+        this.lastRollNanos = System.nanoTime();
+    }
+
+    public void record(long nanos) {
+        recorder.recordValue(Math.max(0, nanos));
+    }
+
+    /**
+     * Latency at the given percentile (0-100) over the window, or {@code null} if fewer
+     * than {@code minSamples} responses have been recorded in it.
+     */
+    public Duration percentile(double percentile, long minSamples) {
+        Histogram current = current();
+        if (current.getTotalCount() < minSamples) {
+            return null;
+        }
+        return Duration.ofNanos(current.getValueAtPercentile(percentile));
+    }
+
+    public long sampleCount() {
+        return current().getTotalCount();
+    }
+
+    private Histogram current() {
+        long now = System.nanoTime();
+        if (now - lastRollNanos >= sliceNanos) {
+            roll(now);
+        }
+        return snapshot;
+    }
+
+    private void roll(long now) {
+        synchronized (rollLock) {
+            if (now - lastRollNanos < sliceNanos) {
+                return;
+            }
+            slices[nextSlice] = recorder.getIntervalHistogram();
+            nextSlice = (nextSlice + 1) % slices.length;
+
+            // Slices that were skipped while nobody queried are stale and must not linger
+            long elapsedSlices = Math.min((now - lastRollNanos) / sliceNanos, slices.length);
+            for (long i = 1; i < elapsedSlices; i++) {
+                slices[nextSlice] = null;
+                nextSlice = (nextSlice + 1) % slices.length;
+            }
+
+            Histogram merged = new Histogram(SIGNIFICANT_DIGITS);
+            for (Histogram slice : slices) {
+                if (slice != null) {
+                    merged.add(slice);
+                }
+            }
+            snapshot = merged;
+            lastRollNanos = now;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package dev.sharanggupta.customergateway.support;
+
+import dev.sharanggupta.customergateway.config.LoadBalancingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks an instance of one downstream service for each call with power-of-two-choices:
+ * two random instances are compared and the cheaper one wins, which spreads load almost
+ * as well as checking every instance but never herds all calls onto the same one.
+ *
+ * An instance's cost is its peak-sensitive latency average (after Finagle's PeakEwma)
+ * multiplied by the calls it has outstanding. A response slower than the average
+ * replaces it at once; faster ones pull it down by {@code smoothing} of the difference.
+ * The average also decays while an instance receives no responses, so a slow instance is
+ * eventually tried again. An instance without any responses yet costs nothing and is
+ * tried first.
+ *
+ * Instances that fail {@code consecutive-failures} times in a row are ejected for
+ * {@code ejection-time}, unless that would eject more than {@code max-ejection-percent}
+ * of the service. When every candidate is ejected, all instances are considered again
+ * rather than failing the call.
+ */
+@Slf4j
+public final class LoadBalancer {
+
+    private static final String METRIC_PREFIX = "gateway.balancer";
+
+    private final String service;
+    private final Instance[] instances;
+    private final double decayNanos;
+    private final double smoothing;
+    private final int consecutiveFailures;
+    private final long ejectionNanos;
+    private final int maxEjected;
+    private final Counter ejections;
+
+    public LoadBalancer(String service, List<URI> uris, LoadBalancingProperties properties,
+                        MeterRegistry meterRegistry) {
+        if (uris.isEmpty()) {
+            throw new IllegalArgumentException("At least one " + service + " instance is required");
+        }
+        this.service = service;
+        this.instances = uris.stream().map(Instance::new).toArray(Instance[]::new);
+        this.decayNanos = properties.decay().toNanos();
+        this.smoothing = properties.smoothing();
+        this.consecutiveFailures = properties.consecutiveFailures();
+        this.ejectionNanos = properties.ejectionTime().toNanos();
+        this.maxEjected = instances.length * properties.maxEjectionPercent() / 100;
+
+        this.ejections = Counter.builder(METRIC_PREFIX + ".ejections")
+                .description("Instances ejected after consecutive failures")
+                .tag("service", service)
+                .register(meterRegistry);
+        for (Instance instance : instances) {
+            Gauge.builder(METRIC_PREFIX + ".outstanding", instance.outstanding, AtomicInteger::get)
+                    .description("Calls in flight to one downstream instance")
+                    .tag("service", service)
+                    .tag("instance", instance.uri.getAuthority())
+                    .register(meterRegistry);
+        }
+    }
+
+    public boolean balancing() {
+        return instances.length > 1;
+    }
+
+    /**
+     * Chooses an instance for one call.
+     *
+     * @return a selection that must be released exactly once
+     */
+    public Selection select() {
+        long now = System.nanoTime();
+        Instance chosen = instances.length == 1 ? instances[0] : choose(now);
+        chosen.outstanding.incrementAndGet();
+        return new Selection(chosen, now);
+    }
+
+    // ========== Internal Helpers ==========
+
+    private Instance choose(long now) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.length);
+        int second = random.nextInt(instances.length - 1);
+        if (second >= first) {
+            second++;
+        }
+        Instance a = instances[first];
+        Instance b = instances[second];
+        boolean aAvailable = !a.ejected(now);
+        boolean bAvailable = !b.ejected(now);
+        if (aAvailable != bAvailable) {
+            return aAvailable ? a : b;
+        }
+        if (!aAvailable) {
+            // Both drawn instances are out; fall back to the best of the rest, or of everything
+            Instance best = cheapest(now, true);
+            return best != null ? best : cheapest(now, false);
+        }
+        return cheaper(a, b, now);
+    }
+
+    private Instance cheapest(long now, boolean availableOnly) {
+        Instance best = null;
+        for (Instance instance : instances) {
+            if (availableOnly && instance.ejected(now)) {
+                continue;
+            }
+            best = best == null ? instance : cheaper(best, instance, now);
+        }
+        return best;
+    }
+
+    private static Instance cheaper(Instance a, Instance b, long now) {
+        double costA = a.cost(now);
+        double costB = b.cost(now);
+        if (costA != costB) {
+            return costA < costB ? a : b;
+        }
+        return a.outstanding.get() <= b.outstanding.get() ? a : b;
+    }
+
+    private synchronized void onFailure(Instance instance, long now) {
+        if (++instance.failures < consecutiveFailures || instance.ejected(now)) {
+            return;
+        }
+        int ejected = 0;
+        for (Instance other : instances) {
+            if (other.ejected(now)) {
+                ejected++;
+            }
+        }
+        if (ejected >= maxEjected) {
+            return;
+        }
+        instance.failures = 0;
+        instance.ejectedUntil = now + ejectionNanos;
+        ejections.increment();
+        log.warn("Ejecting {} instance {} for {}ms after {} consecutive failures",
+                service, instance.uri.getAuthority(), ejectionNanos / 1_000_000, consecutiveFailures);
+    }
+
+    private final class Instance {
+
+        private final URI uri;
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        private double ewmaNanos;
+        private long stampNanos;
+        private int failures;
+        private volatile long ejectedUntil;
+
+        private Instance(URI uri) {
+            this.uri = uri;
+            this.stampNanos = System.nanoTime();
+        }
+
+        private boolean ejected(long now) {
+            long until = ejectedUntil;
+            return until != 0 && now - until < 0;
+        }
+
+        private synchronized double cost(long now) {
+            return decayed(now) * (outstanding.get() + 1);
+        }
+
+        private synchronized void observe(long rttNanos, long now) {
+            double decayed = decayed(now);
+            ewmaNanos = rttNanos > decayed ? rttNanos : decayed + (rttNanos - decayed) * smoothing;
+            stampNanos = now;
+        }
+
+        private double decayed(long now) {
+            return ewmaNanos * Math.exp(-(now - stampNanos) / decayNanos);
+        }
+    }
+
+    /**
+     * One call to the chosen instance. A completed call feeds its latency into the
+     * instance's average; a failed one counts towards ejection; a cancelled one only
+     * stops being outstanding.
+     */
+    public final class Selection {
+
+        private final Instance instance;
+        private final long startNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Selection(Instance instance, long startNanos) {
+            this.instance = instance;
+            this.startNanos = startNanos;
+        }
+
+        public URI uri() {
+            return instance.uri;
+        }
+
+        public void success() {
+            if (release()) {
+                long now = System.nanoTime();
+                instance.observe(now - startNanos, now);
+                synchronized (LoadBalancer.this) {
+                    instance.failures = 0;
+                }
+            }
+        }
+
+        public void failure() {
+            if (release()) {
+                long now = System.nanoTime();
+                instance.observe(now - startNanos, now);
+                onFailure(instance, now);
+            }
+        }
+
+        public void ignore() {
+            release();
+        }
+
+        private boolean release() {
+            if (!released.compareAndSet(false, true)) {
+                return false;
+            }
+            instance.outstanding.decrementAndGet();
+            return true;
+        }
+    }
+}
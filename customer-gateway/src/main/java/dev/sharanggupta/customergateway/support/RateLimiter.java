@@ -0,0 +1,114 @@
+package dev.sharanggupta.customergateway.support;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client token bucket using the generic cell rate algorithm (GCRA).
+ *
+ * Each client's bucket is a single {@link AtomicLong} holding its theoretical arrival time:
+ * the instant at which the bucket would be full again. A request moves it forward by one
+ * emission interval with a CAS and is allowed if it stays within the burst tolerance, so a
+ * check is one map lookup and usually one CAS, without locks or timers.
+ *
+ * A bucket whose theoretical arrival time has passed is full and therefore
+ * indistinguishable from a missing one, so it can be dropped at any time. When more than
+ * {@code maxClients} buckets exist, those idle ones are swept; if every bucket is still
+ * active, new clients share a single overflow bucket instead of growing the map.
+ */
+public final class RateLimiter {
+
+    private static final long MIN_SWEEP_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final int burstCapacity;
+    private final int maxClients;
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong overflow = new AtomicLong(System.nanoTime());
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private volatile long nextSweepNanos = System.nanoTime();
+
+    /**
+     * @param replenishRate requests per second a client may sustain
+     * @param burstCapacity requests a client may send at once after being idle
+     * @param maxClients    buckets kept before idle ones are swept
+     */
+    public RateLimiter(double replenishRate, int burstCapacity, int maxClients) {
+        if (replenishRate <= 0 || burstCapacity < 1) {
+            throw new IllegalArgumentException("replenishRate must be positive and burstCapacity at least 1");
+        }
+        this.emissionIntervalNanos = Math.max(1, Math.round(1_000_000_000L / replenishRate));
+        this.burstToleranceNanos = emissionIntervalNanos * burstCapacity;
+        this.burstCapacity = burstCapacity;
+        this.maxClients = maxClients;
+    }
+
+    /**
+     * Outcome of one check.
+     *
+     * @param allowed         whether the request may proceed
+     * @param remaining       requests the client could still send right now
+     * @param resetNanos      time until the bucket is full again
+     * @param retryAfterNanos time until the next request would be allowed; zero if allowed
+     */
+    public record Decision(boolean allowed, int remaining, long resetNanos, long retryAfterNanos) {}
+
+    public int burstCapacity() {
+        return burstCapacity;
+    }
+
+    public Decision tryAcquire(String client) {
+        long now = System.nanoTime();
+        AtomicLong bucket = bucketFor(client, now);
+        while (true) {
+            long tat = bucket.get();
+            long pending = Math.max(0, tat - now);
+            long backlog = pending + emissionIntervalNanos;
+            if (backlog > burstToleranceNanos) {
+                return new Decision(false, 0, pending, backlog - burstToleranceNanos);
+            }
+            long newTat = now + backlog;
+            if (bucket.compareAndSet(tat, newTat)) {
+                int remaining = (int) ((burstToleranceNanos - backlog) / emissionIntervalNanos);
+                return new Decision(true, remaining, backlog, 0);
+            }
+        }
+    }
+
+    // ========== Internal Helpers ==========
+
+    private AtomicLong bucketFor(String client, long now) {
+        AtomicLong bucket = buckets.get(client);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxClients) {
+            sweep(now);
+            if (buckets.size() >= maxClients) {
+                return overflow;
+            }
+        }
+        return buckets.computeIfAbsent(client, key -> new AtomicLong(now));
+    }
+
+    /**
+     * Drops buckets that have fully replenished. A request racing with the removal may
+     * update a bucket that is no longer in the map; the client then gets one extra request.
+     * Sweeps run at most once per second, so a flood of new clients cannot turn every
+     * check into a full scan.
+     */
+    private void sweep(long now) {
+        if (now - nextSweepNanos < 0 || !sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            buckets.entrySet().removeIf(entry -> entry.getValue().get() - now <= 0);
+            nextSweepNanos = now + MIN_SWEEP_INTERVAL_NANOS;
+        } finally {
+            sweeping.set(false);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package dev.sharanggupta.customergateway.support;
+
+/**
+ * Admission classes, from most to least important. Under overload the lowest
+ * classes are shed first.
+ */
+public enum RequestPriority {
+    /** Liveness and readiness probes; always admitted. */
+    PROBE,
+    /** Single-customer reads. */
+    READ,
+    /** Writes guarded by the write gate. */
+    WRITE,
+    /** Batch requests that fan out to many downstream calls. */
+    BULK;
+
+    private final String tag = name().toLowerCase();
+
+    public String tag() {
+        return tag;
+    }
+}
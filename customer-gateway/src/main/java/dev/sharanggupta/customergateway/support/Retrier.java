@@ -0,0 +1,135 @@
+package dev.sharanggupta.customergateway.support;
+
+import dev.sharanggupta.customergateway.config.RetryProperties;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.rsocket.exceptions.Retryable;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries idempotent calls to one downstream service within a retry budget.
+ *
+ * Only failures that a second attempt may not hit are retried: connection errors, RSocket
+ * errors marked retryable, and {@code 502}/{@code 503} answers. Retries are paid for from
+ * a {@link TokenBudget}: every successful call deposits {@code budget-ratio} tokens and
+ * every retry spends one, so during an outage retries stop as soon as the saved-up tokens
+ * are gone instead of multiplying the load on a struggling service. A retry is also denied unless the
+ * service's circuit breaker is closed, and when its backoff would outlast the request
+ * deadline.
+ *
+ * Backoff uses decorrelated jitter: each delay is drawn between {@code base-delay} and
+ * three times the previous one, capped at {@code max-delay}, so that clients which failed
+ * together do not retry together.
+ */
+public final class Retrier {
+
+    private static final String METRIC_PREFIX = "gateway.retry";
+    private static final String DENIED_BUDGET = "budget";
+    private static final String DENIED_CIRCUIT = "circuit_not_closed";
+    private static final String DENIED_DEADLINE = "deadline";
+
+    private final CircuitBreaker circuitBreaker;
+    private final int maxAttempts;
+    private final long baseDelayNanos;
+    private final long maxDelayNanos;
+    private final TokenBudget budget;
+    private final Counter granted;
+    private final Counter deniedByBudget;
+    private final Counter deniedByCircuit;
+    private final Counter deniedByDeadline;
+
+    public Retrier(String service, RetryProperties properties, CircuitBreaker circuitBreaker,
+                   MeterRegistry meterRegistry) {
+        this.circuitBreaker = circuitBreaker;
+        this.maxAttempts = properties.maxAttempts();
+        this.baseDelayNanos = properties.baseDelay().toNanos();
+        this.maxDelayNanos = properties.maxDelay().toNanos();
+        this.budget = new TokenBudget(properties.budgetRatio(), properties.maxBurst(), properties.maxBurst());
+        this.granted = Counter.builder(METRIC_PREFIX + ".granted")
+                .description("Retries sent after a failed downstream call")
+                .tag("service", service)
+                .register(meterRegistry);
+        this.deniedByBudget = denied(service, DENIED_BUDGET, meterRegistry);
+        this.deniedByCircuit = denied(service, DENIED_CIRCUIT, meterRegistry);
+        this.deniedByDeadline = denied(service, DENIED_DEADLINE, meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".budget", budget, TokenBudget::available)
+                .description("Retries currently available in the retry budget")
+                .tag("service", service)
+                .register(meterRegistry);
+    }
+
+    public <T> Mono<T> retry(Mono<T> call) {
+        return Mono.deferContextual(context -> {
+            Deadline deadline = Deadline.current(context);
+            Backoff backoff = new Backoff();
+            return call.doOnSuccess(result -> budget.deposit())
+                    .retryWhen(Retry.from(signals -> signals.concatMap(signal -> {
+                        Throwable failure = signal.failure();
+                        if (!isRetryable(failure) || signal.totalRetries() + 1 >= maxAttempts) {
+                            return Mono.error(failure);
+                        }
+                        if (circuitBreaker.getState() != CircuitBreaker.State.CLOSED) {
+                            deniedByCircuit.increment();
+                            return Mono.error(failure);
+                        }
+                        Duration delay = backoff.next();
+                        if (deadline != null && deadline.remaining().compareTo(delay) <= 0) {
+                            deniedByDeadline.increment();
+                            return Mono.error(failure);
+                        }
+                        if (!budget.tryWithdraw()) {
+                            deniedByBudget.increment();
+                            return Mono.error(failure);
+                        }
+                        granted.increment();
+                        return Mono.delay(delay);
+                    })));
+        });
+    }
+
+    // ========== Internal Helpers ==========
+
+    private static Counter denied(String service, String reason, MeterRegistry meterRegistry) {
+        return Counter.builder(METRIC_PREFIX + ".denied")
+                .description("Retries not sent after a failed downstream call")
+                .tag("service", service)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static boolean isRetryable(Throwable failure) {
+        if (failure instanceof WebClientRequestException || failure instanceof IOException
+                || failure instanceof Retryable) {
+            return true;
+        }
+        if (failure instanceof WebClientResponseException response) {
+            int status = response.getStatusCode().value();
+            return status == HttpStatus.BAD_GATEWAY.value() || status == HttpStatus.SERVICE_UNAVAILABLE.value();
+        }
+        return false;
+    }
+
+    /**
+     * Decorrelated jitter backoff for the retries of one call.
+     */
+    private final class Backoff {
+
+        private long previousNanos = baseDelayNanos;
+
+        private Duration next() {
+            long upper = Math.max(baseDelayNanos + 1, Math.min(maxDelayNanos, previousNanos * 3));
+            previousNanos = ThreadLocalRandom.current().nextLong(baseDelayNanos, upper);
+            return Duration.ofNanos(previousNanos);
+        }
+    }
+}
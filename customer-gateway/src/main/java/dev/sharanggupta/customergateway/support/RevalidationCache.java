@@ -0,0 +1,81 @@
+package dev.sharanggupta.customergateway.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The last representation received for each downstream resource, kept with its ETag so it
+ * can be revalidated with {@code If-None-Match} instead of downloaded again.
+ *
+ * An entry is only ever served after the service has confirmed it with a 304, so entries
+ * never go stale and need no expiry. The cache holds at most {@code maxEntries}; storing
+ * another evicts an arbitrary entry, whose next lookup is then a plain one.
+ */
+public final class RevalidationCache {
+
+    private static final String METRIC_PREFIX = "gateway.revalidation";
+
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Counter notModified;
+    private final Counter modified;
+
+    /**
+     * A cached representation.
+     *
+     * @param etag        the strong ETag the service sent with it
+     * @param contentType its content type, as sent by the service
+     * @param body        its encoded body
+     */
+    public record Entry(String etag, String contentType, byte[] body) {}
+
+    public RevalidationCache(String service, int maxEntries, MeterRegistry meterRegistry) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1");
+        }
+        this.maxEntries = maxEntries;
+        this.notModified = Counter.builder(METRIC_PREFIX + ".not.modified")
+                .description("Lookups the service answered with 304, served from the cached representation")
+                .tag("service", service)
+                .register(meterRegistry);
+        this.modified = Counter.builder(METRIC_PREFIX + ".modified")
+                .description("Revalidated lookups whose representation had changed")
+                .tag("service", service)
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".entries", entries, Map::size)
+                .description("Representations currently cached for revalidation")
+                .tag("service", service)
+                .register(meterRegistry);
+    }
+
+    public Entry get(String key) {
+        return entries.get(key);
+    }
+
+    public void put(String key, Entry entry) {
+        if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+            Iterator<String> keys = entries.keySet().iterator();
+            if (keys.hasNext()) {
+                entries.remove(keys.next());
+            }
+        }
+        entries.put(key, entry);
+    }
+
+    public void remove(String key) {
+        entries.remove(key);
+    }
+
+    public void recordNotModified() {
+        notModified.increment();
+    }
+
+    public void recordModified() {
+        modified.increment();
+    }
+}
@@ -0,0 +1,159 @@
+package dev.sharanggupta.customergateway.support;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Append-only, line-oriented journal of saga steps.
+ *
+ * Each step is one tab-separated line: timestamp, saga id, step, key. Lines are only
+ * ever appended (and optionally fsynced) while the application runs. A line torn by a
+ * crash mid-write is cut off when the journal is opened, so the next entry starts on a
+ * line of its own instead of being merged into the torn one; any other malformed line is
+ * skipped on read. {@link #retainUnfinished} compacts the file by atomically replacing it
+ * with the entries of sagas that have not reached a terminal step.
+ */
+public final class SagaJournal implements Closeable {
+
+    private static final String SEPARATOR = "\t";
+
+    private final Path path;
+    private final boolean fsync;
+    private FileChannel channel;
+
+    public record Entry(Instant timestamp, String sagaId, String step, String key) {
+
+        String toLine() {
+            return String.join(SEPARATOR, timestamp.toString(), sagaId, step, key) + "\n";
+        }
+
+        static Entry parse(String line) {
+            String[] fields = line.split(SEPARATOR, -1);
+            if (fields.length != 4) {
+                return null;
+            }
+            try {
+                return new Entry(Instant.parse(fields[0]), fields[1], fields[2], fields[3]);
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+    }
+
+    public SagaJournal(Path path, boolean fsync) throws IOException {
+        this.path = path.toAbsolutePath();
+        this.fsync = fsync;
+        Files.createDirectories(this.path.getParent());
+        if (Files.exists(this.path)) {
+            truncateTornLine(this.path);
+        }
+        this.channel = open(this.path);
+    }
+
+    public synchronized void append(Entry entry) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(entry.toLine().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+
+    public synchronized List<Entry> readAll() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            Entry entry = Entry.parse(line);
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Rewrites the journal with only the sagas that have no entry in {@code terminalSteps}
+     * and returns their entries grouped by saga id, in journal order.
+     */
+    public synchronized Map<String, List<Entry>> retainUnfinished(Set<String> terminalSteps) throws IOException {
+        Map<String, List<Entry>> bySaga = new LinkedHashMap<>();
+        for (Entry entry : readAll()) {
+            bySaga.computeIfAbsent(entry.sagaId(), id -> new ArrayList<>()).add(entry);
+        }
+        bySaga.values().removeIf(entries -> entries.stream().anyMatch(e -> terminalSteps.contains(e.step())));
+
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        StringBuilder content = new StringBuilder();
+        bySaga.values().forEach(entries -> entries.forEach(e -> content.append(e.toLine())));
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        channel.close();
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = open(path);
+        return bySaga;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Cuts the file back to just after its last newline, dropping a line whose write was
+     * interrupted.
+     */
+    private static void truncateTornLine(Path path) throws IOException {
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer chunk = ByteBuffer.allocate(4096);
+            long end = file.size();
+            while (end > 0) {
+                long start = Math.max(0, end - chunk.capacity());
+                chunk.clear().limit((int) (end - start));
+                while (chunk.hasRemaining()) {
+                    if (file.read(chunk, start + chunk.position()) < 0) {
+                        break;
+                    }
+                }
+                for (int i = chunk.position() - 1; i >= 0; i--) {
+                    if (chunk.get(i) == '\n') {
+                        truncate(file, start + i + 1);
+                        return;
+                    }
+                }
+                end = start;
+            }
+            truncate(file, 0);
+        }
+    }
+
+    private static void truncate(FileChannel file, long size) throws IOException {
+        if (size < file.size()) {
+            file.truncate(size);
+            file.force(true);
+        }
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,260 @@
+package dev.sharanggupta.customergateway.support;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Hands out a bounded number of slots and lets callers wait for one without blocking a
+ * thread. Shared by the admission controller and the downstream bulkheads.
+ *
+ * Callers belong to a class, listed highest first, and each class may hold at most its own
+ * capacity of the slots in flight. A caller arriving while its class is at capacity waits
+ * in that class's queue for up to {@code max-wait}; all queues together hold at most
+ * {@code max-queued} waiters. When a slot frees up, the highest class with a waiter that
+ * fits gets it, taking the newest waiter first in {@link Order#LIFO} order and the oldest
+ * in {@link Order#FIFO} order. If the queues are full, the oldest waiter of a lower class
+ * is displaced to make room; otherwise the newcomer is rejected. A waiter whose subscriber
+ * cancels leaves its queue.
+ *
+ * @param <C> the caller class
+ */
+public final class SlotQueue<C> {
+
+    public enum Order { FIFO, LIFO }
+
+    public enum Rejection {
+        QUEUE_FULL, TIMEOUT, DISPLACED;
+
+        private final String tag = name().toLowerCase();
+
+        public String tag() {
+            return tag;
+        }
+    }
+
+    private final List<C> classes;
+    private final Map<C, Integer> capacity = new HashMap<>();
+    private final Map<C, ArrayDeque<Waiter<C>>> queues = new HashMap<>();
+    private final int maxQueued;
+    private final Duration maxWait;
+    private final Order order;
+    private final BiConsumer<C, Rejection> onRejected;
+    private final Scheduler scheduler = Schedulers.parallel();
+    private final Object lock = new Object();
+
+    private int inFlight;
+    private int queued;
+
+    /**
+     * @param classes    caller classes, highest first
+     * @param capacity   slots each class may have in flight, counting those of every class
+     * @param onRejected called with the class of every rejected caller and the reason, outside the lock
+     */
+    public SlotQueue(List<C> classes, ToIntFunction<C> capacity, int maxQueued, Duration maxWait,
+                     Order order, BiConsumer<C, Rejection> onRejected) {
+        this.classes = List.copyOf(classes);
+        this.maxQueued = maxQueued;
+        this.maxWait = maxWait;
+        this.order = order;
+        this.onRejected = onRejected;
+        for (C type : this.classes) {
+            this.capacity.put(type, capacity.applyAsInt(type));
+            this.queues.put(type, new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Emits a permit once a slot is free, which must be released when the caller is done,
+     * or {@link Permit#REJECTED} if the caller was rejected. A permit emitted to a
+     * subscriber that has already cancelled is discarded; callers release it with
+     * {@code doOnDiscard(Permit.class, Permit::release)}.
+     */
+    public Mono<Permit> acquire(C type) {
+        return Mono.create(sink -> {
+            Waiter<C> waiter = new Waiter<>(type, sink);
+            Waiter<C> displaced = null;
+            boolean admitted = false;
+            boolean enqueued = false;
+            synchronized (lock) {
+                if (inFlight < capacity.get(type)) {
+                    inFlight++;
+                    admitted = true;
+                } else {
+                    if (queued >= maxQueued) {
+                        displaced = displaceBelow(type);
+                    }
+                    if (queued < maxQueued) {
+                        if (order == Order.LIFO) {
+                            queues.get(type).addFirst(waiter);
+                        } else {
+                            queues.get(type).addLast(waiter);
+                        }
+                        queued++;
+                        enqueued = true;
+                    }
+                }
+            }
+            if (displaced != null) {
+                reject(displaced, Rejection.DISPLACED);
+            }
+            if (admitted) {
+                sink.success(new Permit(this));
+            } else if (!enqueued) {
+                onRejected.accept(type, Rejection.QUEUE_FULL);
+                sink.success(Permit.REJECTED);
+            } else {
+                sink.onCancel(() -> cancel(waiter));
+                waiter.timer = scheduler.schedule(() -> expire(waiter), maxWait.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    public int inFlight() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    public int queued(C type) {
+        synchronized (lock) {
+            return queues.get(type).size();
+        }
+    }
+
+    // ========== Internal Helpers ==========
+
+    private void release() {
+        List<Waiter<C>> admitted = new ArrayList<>(1);
+        synchronized (lock) {
+            inFlight--;
+            for (C type : classes) {
+                ArrayDeque<Waiter<C>> queue = queues.get(type);
+                while (!queue.isEmpty() && inFlight < capacity.get(type)) {
+                    Waiter<C> waiter = queue.pollFirst();
+                    waiter.done = true;
+                    queued--;
+                    inFlight++;
+                    admitted.add(waiter);
+                }
+            }
+        }
+        for (Waiter<C> waiter : admitted) {
+            disposeTimer(waiter);
+            waiter.sink.success(new Permit(this));
+        }
+    }
+
+    /**
+     * Removes the oldest waiter of the lowest class below {@code type}, if any.
+     */
+    private Waiter<C> displaceBelow(C type) {
+        for (int i = classes.size() - 1; i > classes.indexOf(type); i--) {
+            ArrayDeque<Waiter<C>> queue = queues.get(classes.get(i));
+            Waiter<C> oldest = order == Order.LIFO ? queue.pollLast() : queue.pollFirst();
+            if (oldest != null) {
+                oldest.done = true;
+                queued--;
+                return oldest;
+            }
+        }
+        return null;
+    }
+
+    private void expire(Waiter<C> waiter) {
+        if (dequeue(waiter)) {
+            onRejected.accept(waiter.type, Rejection.TIMEOUT);
+            waiter.sink.success(Permit.REJECTED);
+        }
+    }
+
+    private void cancel(Waiter<C> waiter) {
+        if (dequeue(waiter)) {
+            disposeTimer(waiter);
+        }
+    }
+
+    private boolean dequeue(Waiter<C> waiter) {
+        synchronized (lock) {
+            if (waiter.done) {
+                return false;
+            }
+            waiter.done = true;
+            queues.get(waiter.type).remove(waiter);
+            queued--;
+            return true;
+        }
+    }
+
+    private void reject(Waiter<C> waiter, Rejection reason) {
+        disposeTimer(waiter);
+        onRejected.accept(waiter.type, reason);
+        waiter.sink.success(Permit.REJECTED);
+    }
+
+    /**
+     * The timer is set just after the waiter is queued, so it may still be missing here;
+     * a timer that fires for a waiter that is already done does nothing.
+     */
+    private static void disposeTimer(Waiter<?> waiter) {
+        Disposable timer = waiter.timer;
+        if (timer != null) {
+            timer.dispose();
+        }
+    }
+
+    /**
+     * A slot held by one caller. Releasing it more than once has no effect.
+     */
+    public static final class Permit {
+
+        /** Returned for rejected callers; holds no slot. */
+        public static final Permit REJECTED = new Permit(null);
+
+        /** Returned for callers that are let through without taking a slot. */
+        public static final Permit UNCOUNTED = new Permit(null);
+
+        private final SlotQueue<?> slots;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(SlotQueue<?> slots) {
+            this.slots = slots;
+        }
+
+        public boolean admitted() {
+            return this != REJECTED;
+        }
+
+        public void release() {
+            if (slots != null && released.compareAndSet(false, true)) {
+                slots.release();
+            }
+        }
+    }
+
+    private static final class Waiter<C> {
+
+        private final C type;
+        private final MonoSink<Permit> sink;
+        private volatile Disposable timer;
+        private boolean done;
+
+        private Waiter(C type, MonoSink<Permit> sink) {
+            this.type = type;
+            this.sink = sink;
+        }
+    }
+}
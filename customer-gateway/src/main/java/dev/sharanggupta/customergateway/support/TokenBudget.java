@@ -0,0 +1,46 @@
+package dev.sharanggupta.customergateway.support;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A budget for extra downstream calls, such as hedges or retries, earned by ordinary ones.
+ *
+ * Every ordinary call deposits {@code ratio} of a token and every extra call spends a
+ * whole one, so extra calls never exceed that fraction of the ordinary traffic. At most
+ * {@code maxTokens} can be saved up. Tokens are held in millionths so that fractional
+ * deposits need no locking.
+ */
+public final class TokenBudget {
+
+    private static final long TOKEN = 1_000_000L;
+
+    private final long tokensPerDeposit;
+    private final long maxTokens;
+    private final AtomicLong tokens;
+
+    public TokenBudget(double ratio, long maxTokens, long initialTokens) {
+        this.tokensPerDeposit = Math.round(ratio * TOKEN);
+        this.maxTokens = maxTokens * TOKEN;
+        this.tokens = new AtomicLong(Math.min(maxTokens, initialTokens) * TOKEN);
+    }
+
+    public void deposit() {
+        tokens.getAndUpdate(current -> Math.min(maxTokens, current + tokensPerDeposit));
+    }
+
+    public boolean tryWithdraw() {
+        while (true) {
+            long current = tokens.get();
+            if (current < TOKEN) {
+                return false;
+            }
+            if (tokens.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+        }
+    }
+
+    public double available() {
+        return (double) tokens.get() / TOKEN;
+    }
+}
@@ -0,0 +1,181 @@
+package dev.sharanggupta.customergateway;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Tests for the adaptive downstream timeouts.
+ *
+ * An operation's timeout adapts after five responses and never drops below 200ms. Until
+ * then calls may take up to two seconds, well within the request deadline. Recent latency
+ * is re-read every 100ms, so a timeout adapts shortly after the responses that shape it.
+ */
+@TestPropertySource(properties = {
+        "test.context.id=AdaptiveTimeoutEndToEndTest",
+        "gateway.adaptive-timeout.min-samples=5",
+        "gateway.adaptive-timeout.min-timeout=200ms",
+        "gateway.adaptive-timeout.max-timeout=2s",
+        "gateway.adaptive-timeout.window=5s",
+        "gateway.adaptive-timeout.window-slices=50",
+        "gateway.hedging.enabled=false",
+        "gateway.partial-response.enabled=false"
+})
+class AdaptiveTimeoutEndToEndTest extends BaseEndToEndTest {
+
+    private static final String CARD_ROUTE = "/api/customer/" + VALID_MOBILE + "/card";
+    private static final String LOAN_ROUTE = "/api/customer/" + VALID_MOBILE + "/loan";
+    private static final int SLOW_RESPONSE_MS = 1500;
+    private static final int USUAL_RESPONSES = 5;
+    private static final double MAX_TIMEOUT_MS = 2000;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Nested
+    @DisplayName("When an operation's usual latency is known")
+    class KnownLatency {
+
+        @Test
+        @DisplayName("gives up on a proxied call that takes much longer with 504")
+        void timesOutSlowRouteCall() {
+            // Given
+            givenUsualResponses(CARD_ROUTE);
+            double expiredBefore = expired("card", "GET customer-card-route");
+            givenSlowCardService(VALID_MOBILE);
+
+            // When / Then
+            client.get()
+                    .uri(CARD_ROUTE)
+                    .exchange()
+                    .expectStatus().isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+            assertThat(expired("card", "GET customer-card-route")).isEqualTo(expiredBefore + 1);
+        }
+
+        @Test
+        @DisplayName("gives up on a slow client lookup and falls back")
+        void timesOutSlowClientCall() {
+            // Given
+            givenCustomerExistsWithAllProducts(VALID_MOBILE);
+            for (int i = 0; i < USUAL_RESPONSES; i++) {
+                client.get()
+                        .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                        .exchange()
+                        .expectStatus().isOk();
+            }
+            awaitAdapted("account", "fetch");
+            double expiredBefore = expired("account", "fetch");
+            givenSlowAccountService(VALID_MOBILE);
+
+            // When / Then
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+            assertThat(expired("account", "fetch")).isEqualTo(expiredBefore + 1);
+        }
+
+        @Test
+        @DisplayName("shows the current timeout on the actuator endpoint")
+        void exposesCurrentTimeouts() {
+            // Given
+            givenUsualResponses(CARD_ROUTE);
+
+            // When / Then
+            client.get()
+                    .uri("/actuator/timeouts/card")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$['GET customer-card-route'].timeoutMs").value(Number.class, timeoutMs ->
+                            assertThat(timeoutMs.doubleValue()).isBetween(200.0, MAX_TIMEOUT_MS - 1))
+                    .jsonPath("$['GET customer-card-route'].trackedMs").isNumber()
+                    .jsonPath("$['GET customer-card-route'].samples").isNumber();
+        }
+    }
+
+    @Nested
+    @DisplayName("When an operation has too few responses to go by")
+    class UnknownLatency {
+
+        @Test
+        @DisplayName("waits up to the maximum timeout")
+        void waitsUpToMaxTimeout() {
+            // Given
+            loanService.stubFor(get(urlEqualTo("/loan/api/" + VALID_MOBILE))
+                    .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/json")
+                            .withBody("{\"loanNumber\":\"123456789012\",\"mobileNumber\":\"" + VALID_MOBILE + "\"}")
+                            .withFixedDelay(SLOW_RESPONSE_MS)));
+
+            // When / Then
+            client.get()
+                    .uri(LOAN_ROUTE)
+                    .exchange()
+                    .expectStatus().isOk();
+        }
+    }
+
+    // ========== Helpers ==========
+
+    /**
+     * Given: The card route has answered quickly often enough for its timeout to adapt.
+     */
+    private void givenUsualResponses(String path) {
+        stubCardFetchSuccess(VALID_MOBILE);
+        for (int i = 0; i < USUAL_RESPONSES; i++) {
+            client.get()
+                    .uri(path)
+                    .exchange()
+                    .expectStatus().isOk();
+        }
+        awaitAdapted("card", "GET customer-card-route");
+    }
+
+    /**
+     * Given: The card service answers far slower than it has so far.
+     */
+    private void givenSlowCardService(String mobile) {
+        cardService.stubFor(get(urlEqualTo("/card/api/" + mobile))
+                .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/json")
+                        .withBody("{\"cardNumber\":\"1234567890123456\",\"mobileNumber\":\"" + mobile + "\"}")
+                        .withFixedDelay(SLOW_RESPONSE_MS)));
+    }
+
+    /**
+     * Given: The account service answers far slower than it has so far.
+     */
+    private void givenSlowAccountService(String mobile) {
+        accountService.stubFor(get(urlEqualTo("/account/api/" + mobile))
+                .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/json")
+                        .withBody("{\"name\":\"" + VALID_NAME + "\",\"mobileNumber\":\"" + mobile + "\"}")
+                        .withFixedDelay(SLOW_RESPONSE_MS)));
+    }
+
+    private void awaitAdapted(String service, String operation) {
+        await().atMost(Duration.ofSeconds(2)).until(() -> meterRegistry.get("gateway.timeout.current")
+                .tag("service", service)
+                .tag("operation", operation)
+                .gauge()
+                .value() < MAX_TIMEOUT_MS);
+    }
+
+    private double expired(String service, String operation) {
+        return meterRegistry.get("gateway.timeout.expired")
+                .tag("service", service)
+                .tag("operation", operation)
+                .counter()
+                .count();
+    }
+}
@@ -0,0 +1,100 @@
+package dev.sharanggupta.customergateway;
+
+import dev.sharanggupta.customergateway.config.AdaptiveTimeoutProperties;
+import dev.sharanggupta.customergateway.support.AdaptiveTimeout;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for deriving a timeout from recent latency without a Spring context.
+ *
+ * The timeout is twice the 99th percentile, between 50ms and one second, and adapts after
+ * three responses. Recent latency is re-read every 50ms.
+ */
+class AdaptiveTimeoutTest {
+
+    private static final Duration MIN_TIMEOUT = Duration.ofMillis(50);
+    private static final Duration MAX_TIMEOUT = Duration.ofSeconds(1);
+    private static final Duration SLICE = Duration.ofMillis(50);
+
+    private final AdaptiveTimeout timeout = new AdaptiveTimeout("card", "fetch",
+            new AdaptiveTimeoutProperties(true, 99, 2.0, MIN_TIMEOUT, MAX_TIMEOUT, 3, SLICE.multipliedBy(40), 40),
+            new SimpleMeterRegistry());
+
+    @Nested
+    @DisplayName("Before enough responses were seen")
+    class TooFewSamples {
+
+        @Test
+        @DisplayName("uses the maximum timeout")
+        void usesMaxTimeout() {
+            // Given
+            respondAfter(Duration.ofMillis(1), 2);
+
+            // When / Then
+            assertThat(timeout.current()).isEqualTo(MAX_TIMEOUT);
+        }
+    }
+
+    @Nested
+    @DisplayName("Once enough responses were seen")
+    class EnoughSamples {
+
+        @Test
+        @DisplayName("never drops below the minimum timeout")
+        void clampsToMinTimeout() {
+            // Given
+            respondAfter(Duration.ofMillis(1), 3);
+
+            // When / Then
+            assertThat(timeout.current()).isEqualTo(MIN_TIMEOUT);
+        }
+
+        @Test
+        @DisplayName("gives the tracked latency its headroom")
+        void appliesHeadroom() {
+            // Given
+            respondAfter(Duration.ofMillis(100), 3);
+
+            // When / Then
+            assertThat(timeout.current()).isBetween(Duration.ofMillis(200), Duration.ofMillis(300));
+        }
+
+        @Test
+        @DisplayName("fails a call that outlasts the timeout")
+        void failsSlowCall() {
+            // Given
+            respondAfter(Duration.ofMillis(1), 3);
+
+            // When / Then
+            assertThatThrownBy(() -> timeout.apply(Mono.delay(Duration.ofMillis(500)), TimeoutException::new).block())
+                    .hasCauseInstanceOf(TimeoutException.class);
+        }
+    }
+
+    // ========== Helpers ==========
+
+    /**
+     * Given: The operation has answered the given number of times after the given delay,
+     * long enough ago for the responses to be taken into account.
+     */
+    private void respondAfter(Duration delay, int times) {
+        for (int i = 0; i < times; i++) {
+            timeout.apply(Mono.delay(delay), TimeoutException::new).block();
+        }
+        try {
+            Thread.sleep(SLICE.multipliedBy(2).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
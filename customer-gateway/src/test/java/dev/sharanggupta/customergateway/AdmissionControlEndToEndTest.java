@@ -0,0 +1,176 @@
+package dev.sharanggupta.customergateway;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Tests for priority admission control.
+ *
+ * The gateway admits four requests at once: reads may use all four slots, writes three
+ * and batch requests one. Slow reads fill the slots, then requests of each class show
+ * who is still admitted and who is shed.
+ */
+@TestPropertySource(properties = {
+        "test.context.id=AdmissionControlEndToEndTest",
+        "gateway.admission.max-concurrent=4",
+        "gateway.admission.write-share=0.75",
+        "gateway.admission.bulk-share=0.25",
+        "gateway.admission.max-wait=300ms",
+        "gateway.admission.max-queued=10"
+})
+class AdmissionControlEndToEndTest extends BaseEndToEndTest {
+
+    private static final String SLOW_MOBILE = "1111111111";
+    private static final int SLOW_RESPONSE_MS = 1500;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<CompletableFuture<HttpStatus>> slowReads = new ArrayList<>();
+
+    @AfterEach
+    void awaitSlowReads() {
+        slowReads.forEach(CompletableFuture::join);
+        slowReads.clear();
+    }
+
+    @Nested
+    @DisplayName("When every slot is taken")
+    class Saturated {
+
+        @Test
+        @DisplayName("still answers health probes")
+        void answersProbes() {
+            // Given
+            givenSlowReadsInFlight(4);
+
+            // When / Then
+            client.get()
+                    .uri("/actuator/health/liveness")
+                    .exchange()
+                    .expectStatus().isOk();
+        }
+
+        @Test
+        @DisplayName("sheds a read that waits longer than max-wait with 503 and Retry-After")
+        void shedsReadAfterMaxWait() {
+            // Given
+            givenSlowReadsInFlight(4);
+            double shedBefore = shed("read", "timeout");
+
+            // When / Then
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)
+                    .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "1");
+            assertThat(shed("read", "timeout")).isEqualTo(shedBefore + 1);
+        }
+    }
+
+    @Nested
+    @DisplayName("When the gateway is partly busy")
+    class PartlyBusy {
+
+        @Test
+        @DisplayName("sheds writes while reads are still admitted")
+        void shedsWritesBeforeReads() {
+            // Given
+            givenCustomerExistsWithAllProducts(VALID_MOBILE);
+            givenOnboardWillSucceed();
+            givenSlowReadsInFlight(3);
+
+            // When / Then
+            client.post()
+                    .uri(ONBOARD_PATH)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(createOnboardRequest(VALID_NAME, VALID_EMAIL, VALID_MOBILE))
+                    .exchange()
+                    .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().isOk();
+        }
+
+        @Test
+        @DisplayName("sheds batch requests first")
+        void shedsBulkFirst() {
+            // Given
+            givenCustomerExistsWithAllProducts(VALID_MOBILE);
+            givenSlowReadsInFlight(1);
+            double shedBefore = shed("bulk", "timeout");
+
+            // When / Then
+            client.post()
+                    .uri(DETAILS_PATH + ":batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue("{\"mobileNumbers\":[\"%s\"]}".formatted(VALID_MOBILE))
+                    .exchange()
+                    .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().isOk();
+            assertThat(shed("bulk", "timeout")).isEqualTo(shedBefore + 1);
+        }
+    }
+
+    // ========== Helpers ==========
+
+    /**
+     * Given: {@code count} reads of a slow customer occupy admission slots.
+     */
+    private void givenSlowReadsInFlight(int count) {
+        accountService.stubFor(get(urlEqualTo("/account/api/" + SLOW_MOBILE))
+                .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/json")
+                        .withBody("""
+                                {"name":"%s","email":"%s","mobileNumber":"%s","account":{"accountNumber":"%s"}}
+                                """.formatted(VALID_NAME, VALID_EMAIL, SLOW_MOBILE, ACCOUNT_NUMBER))
+                        .withFixedDelay(SLOW_RESPONSE_MS)));
+        stubCardFetchNotFound(SLOW_MOBILE);
+        stubLoanFetchNotFound(SLOW_MOBILE);
+        for (int i = 0; i < count; i++) {
+            slowReads.add(Mono.fromCallable(() -> HttpStatus.valueOf(client.get()
+                            .uri(DETAILS_PATH + "/" + SLOW_MOBILE)
+                            .exchange()
+                            .expectBody(String.class)
+                            .returnResult()
+                            .getStatus()
+                            .value()))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .toFuture());
+        }
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> meterRegistry.get("gateway.admission.in.flight").gauge().value() >= count);
+    }
+
+    private double shed(String requestClass, String reason) {
+        return meterRegistry.get("gateway.admission.shed")
+                .tag("class", requestClass)
+                .tag("reason", reason)
+                .counter()
+                .count();
+    }
+}
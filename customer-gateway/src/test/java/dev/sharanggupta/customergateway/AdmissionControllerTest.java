@@ -0,0 +1,129 @@
+package dev.sharanggupta.customergateway;
+
+import dev.sharanggupta.customergateway.config.AdmissionProperties;
+import dev.sharanggupta.customergateway.support.AdmissionController;
+import dev.sharanggupta.customergateway.support.RequestPriority;
+import dev.sharanggupta.customergateway.support.SlotQueue.Permit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the admission queue order without a Spring context.
+ *
+ * A single slot is held while other requests queue up, so the order in which they are
+ * admitted or shed can be observed when the slot is released.
+ */
+class AdmissionControllerTest {
+
+    private static final Duration LONG_WAIT = Duration.ofSeconds(30);
+
+    @Nested
+    @DisplayName("When requests of one class queue up")
+    class SameClass {
+
+        @Test
+        @DisplayName("admits the newest waiter first")
+        void admitsNewestFirst() {
+            // Given
+            AdmissionController controller = controller(10);
+            Permit holder = controller.acquire(RequestPriority.READ).block();
+            CompletableFuture<Permit> older = controller.acquire(RequestPriority.READ).toFuture();
+            CompletableFuture<Permit> newer = controller.acquire(RequestPriority.READ).toFuture();
+
+            // When
+            holder.release();
+
+            // Then
+            assertThat(newer).isCompletedWithValueMatching(Permit::admitted);
+            assertThat(older).isNotDone();
+            newer.join().release();
+            assertThat(older).isCompletedWithValueMatching(Permit::admitted);
+        }
+    }
+
+    @Nested
+    @DisplayName("When classes compete for a slot")
+    class MixedClasses {
+
+        @Test
+        @DisplayName("admits the higher class even if it arrived later")
+        void admitsHigherClassFirst() {
+            // Given
+            AdmissionController controller = controller(10);
+            Permit holder = controller.acquire(RequestPriority.READ).block();
+            CompletableFuture<Permit> write = controller.acquire(RequestPriority.WRITE).toFuture();
+            CompletableFuture<Permit> read = controller.acquire(RequestPriority.READ).toFuture();
+
+            // When
+            holder.release();
+
+            // Then
+            assertThat(read).isCompletedWithValueMatching(Permit::admitted);
+            assertThat(write).isNotDone();
+        }
+
+        @Test
+        @DisplayName("displaces a lower-class waiter when the queue is full")
+        void displacesLowerClass() {
+            // Given
+            AdmissionController controller = controller(1);
+            controller.acquire(RequestPriority.READ).block();
+            CompletableFuture<Permit> bulk = controller.acquire(RequestPriority.BULK).toFuture();
+
+            // When
+            CompletableFuture<Permit> read = controller.acquire(RequestPriority.READ).toFuture();
+
+            // Then
+            assertThat(bulk).isCompletedWithValue(Permit.REJECTED);
+            assertThat(read).isNotDone();
+        }
+
+        @Test
+        @DisplayName("sheds the newcomer when only higher classes are queued")
+        void shedsNewcomerWithoutLowerClass() {
+            // Given
+            AdmissionController controller = controller(1);
+            controller.acquire(RequestPriority.READ).block();
+            CompletableFuture<Permit> read = controller.acquire(RequestPriority.READ).toFuture();
+
+            // When
+            CompletableFuture<Permit> bulk = controller.acquire(RequestPriority.BULK).toFuture();
+
+            // Then
+            assertThat(bulk).isCompletedWithValue(Permit.REJECTED);
+            assertThat(read).isNotDone();
+        }
+    }
+
+    @Nested
+    @DisplayName("When a waiter gives up")
+    class Cancellation {
+
+        @Test
+        @DisplayName("frees its place in the queue")
+        void freesQueuePlace() {
+            // Given
+            AdmissionController controller = controller(1);
+            controller.acquire(RequestPriority.READ).block();
+            controller.acquire(RequestPriority.READ).subscribe().dispose();
+
+            // When
+            CompletableFuture<Permit> next = controller.acquire(RequestPriority.READ).toFuture();
+
+            // Then
+            assertThat(next).isNotDone();
+        }
+    }
+
+    private AdmissionController controller(int maxQueued) {
+        return new AdmissionController(new AdmissionProperties(true, 1, 1.0, 1.0, maxQueued, LONG_WAIT),
+                new SimpleMeterRegistry());
+    }
+}
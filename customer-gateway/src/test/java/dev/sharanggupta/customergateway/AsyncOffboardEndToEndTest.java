@@ -0,0 +1,223 @@
+package dev.sharanggupta.customergateway;
+
+import dev.sharanggupta.customergateway.dto.OffboardStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+
+import java.time.Duration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.delete;
+import static com.github.tomakehurst.wiremock.client.WireMock.deleteRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Tests for asynchronous offboarding.
+ *
+ * Verifies that "Prefer: respond-async" returns 202 with a pollable status resource,
+ * that the status follows the offboarding to its outcome, and that the bounded queue
+ * rejects requests once it is full.
+ */
+@TestPropertySource(properties = {
+        "test.context.id=AsyncOffboardEndToEndTest",
+        "gateway.offboard-queue.capacity=1",
+        "gateway.offboard-queue.workers=1",
+        "resilience4j.circuitbreaker.configs.default.sliding-window-size=100",
+        "resilience4j.circuitbreaker.configs.default.minimum-number-of-calls=50",
+        "resilience4j.circuitbreaker.configs.default.failure-rate-threshold=100",
+        "resilience4j.circuitbreaker.configs.default.wait-duration-in-open-state=60s"
+})
+class AsyncOffboardEndToEndTest extends BaseEndToEndTest {
+
+    private static final String SLOW_MOBILE = "6666666666";
+    private static final String QUEUED_MOBILE = "7777777777";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Nested
+    @DisplayName("When offboarding asynchronously")
+    class Async {
+
+        @Test
+        @DisplayName("returns 202 with a status resource that reaches SUCCEEDED")
+        void acceptsAndSucceeds() {
+            // Given
+            givenAllDeletesWillSucceed(VALID_MOBILE);
+
+            // When
+            EntityExchangeResult<OffboardStatus> accepted = submitAsyncOffboard(VALID_MOBILE);
+
+            // Then
+            assertThat(accepted.getResponseHeaders().getFirst("Preference-Applied")).isEqualTo("respond-async");
+            String location = accepted.getResponseHeaders().getLocation().toString();
+            assertThat(location).endsWith(accepted.getResponseBody().requestId());
+            awaitState(location, OffboardStatus.State.SUCCEEDED);
+        }
+
+        @Test
+        @DisplayName("reports FAILED with the error when a deletion fails")
+        void reportsFailure() {
+            // Given
+            cardService.stubFor(delete(urlEqualTo("/card/api/" + VALID_MOBILE))
+                    .willReturn(aResponse().withStatus(503)));
+            stubLoanDeleteSuccess(VALID_MOBILE);
+            stubAccountDeleteSuccess(VALID_MOBILE);
+
+            // When
+            String location = submitAsyncOffboard(VALID_MOBILE).getResponseHeaders().getLocation().toString();
+
+            // Then
+            OffboardStatus status = awaitState(location, OffboardStatus.State.FAILED);
+            assertThat(status.errorMessage()).containsIgnoringCase("unavailable");
+        }
+
+        @Test
+        @DisplayName("returns 404 for an unknown request")
+        void unknownRequest() {
+            client.get()
+                    .uri(OFFBOARD_PATH + "/requests/does-not-exist")
+                    .exchange()
+                    .expectStatus().isNotFound();
+        }
+    }
+
+    @Nested
+    @DisplayName("When the Prefer header carries several preferences")
+    class PreferParsing {
+
+        @Test
+        @DisplayName("queues the offboarding when respond-async is among them")
+        void queuesWithRespondAsyncAmongOthers() {
+            // Given
+            givenAllDeletesWillSucceed(VALID_MOBILE);
+
+            // When & Then
+            client.delete()
+                    .uri(OFFBOARD_PATH + "/" + VALID_MOBILE)
+                    .header("Prefer", "Respond-Async, wait=10")
+                    .exchange()
+                    .expectStatus().isAccepted()
+                    .expectHeader().valueEquals("Preference-Applied", "respond-async");
+        }
+
+        @Test
+        @DisplayName("offboards synchronously when respond-async is not among them")
+        void offboardsSynchronouslyOtherwise() {
+            // Given
+            givenAllDeletesWillSucceed(VALID_MOBILE);
+
+            // When & Then
+            client.delete()
+                    .uri(OFFBOARD_PATH + "/" + VALID_MOBILE)
+                    .header("Prefer", "return=minimal")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.statusMessage").isEqualTo(MESSAGE_OFFBOARDED);
+        }
+    }
+
+    @Nested
+    @DisplayName("When a circuit breaker opens")
+    class WriteGate {
+
+        @Test
+        @DisplayName("rejects the request with 503 while it is open")
+        void rejectsWhileOpen() {
+            // Given
+            circuitBreakerRegistry.circuitBreaker("card_service").transitionToForcedOpenState();
+
+            // When & Then
+            client.delete()
+                    .uri(OFFBOARD_PATH + "/" + VALID_MOBILE)
+                    .header("Prefer", "respond-async")
+                    .exchange()
+                    .expectStatus().isEqualTo(503);
+        }
+
+        @Test
+        @DisplayName("checks the write gate again when a queued offboarding starts")
+        void checksGateWhenQueuedOffboardingStarts() {
+            // Given: one offboarding running and one waiting
+            givenSlowDeletes(SLOW_MOBILE);
+            givenAllDeletesWillSucceed(QUEUED_MOBILE);
+            submitAsyncOffboard(SLOW_MOBILE);
+            String queued = submitAsyncOffboard(QUEUED_MOBILE).getResponseHeaders().getLocation().toString();
+
+            // When
+            circuitBreakerRegistry.circuitBreaker("loan_service").transitionToForcedOpenState();
+
+            // Then
+            OffboardStatus status = awaitState(queued, OffboardStatus.State.FAILED);
+            assertThat(status.errorMessage()).contains("loan_service circuit breaker is open");
+            loanService.verify(0, deleteRequestedFor(urlEqualTo("/loan/api/" + QUEUED_MOBILE)));
+        }
+    }
+
+    @Nested
+    @DisplayName("When the queue is full")
+    class QueueFull {
+
+        @Test
+        @DisplayName("rejects further requests with 503 and exports the backlog")
+        void rejectsWhenFull() {
+            // Given: one offboarding running and one waiting
+            givenSlowDeletes(SLOW_MOBILE);
+            givenAllDeletesWillSucceed(QUEUED_MOBILE);
+            submitAsyncOffboard(SLOW_MOBILE);
+            String queued = submitAsyncOffboard(QUEUED_MOBILE).getResponseHeaders().getLocation().toString();
+
+            // When & Then
+            client.delete()
+                    .uri(OFFBOARD_PATH + "/" + VALID_MOBILE)
+                    .header("Prefer", "respond-async")
+                    .exchange()
+                    .expectStatus().isEqualTo(503);
+
+            assertThat(meterRegistry.get("gateway.offboard.queue.depth").gauge().value()).isEqualTo(1);
+            assertThat(meterRegistry.get("gateway.offboard.queue.rejected").counter().count()).isPositive();
+
+            // And: the queued request still runs once the worker is free
+            awaitState(queued, OffboardStatus.State.SUCCEEDED);
+        }
+    }
+
+    // ========== Helpers ==========
+
+    private EntityExchangeResult<OffboardStatus> submitAsyncOffboard(String mobile) {
+        return client.delete()
+                .uri(OFFBOARD_PATH + "/" + mobile)
+                .header("Prefer", "respond-async")
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectBody(OffboardStatus.class)
+                .returnResult();
+    }
+
+    private OffboardStatus awaitState(String location, OffboardStatus.State expected) {
+        return await().atMost(Duration.ofSeconds(10))
+                .until(() -> client.get()
+                                .uri(location)
+                                .exchange()
+                                .expectStatus().isOk()
+                                .expectBody(OffboardStatus.class)
+                                .returnResult()
+                                .getResponseBody(),
+                        status -> status.state() == expected);
+    }
+
+    private void givenSlowDeletes(String mobile) {
+        cardService.stubFor(delete(urlEqualTo("/card/api/" + mobile))
+                .willReturn(aResponse().withStatus(204).withFixedDelay(1500)));
+        stubLoanDeleteSuccess(mobile);
+        stubAccountDeleteSuccess(mobile);
+    }
+}
@@ -14,6 +14,9 @@ import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
@@ -59,6 +62,7 @@ public abstract class BaseEndToEndTest {
     protected static WireMockServer accountService;
     protected static WireMockServer cardService;
     protected static WireMockServer loanService;
+    protected static Path offboardSagaJournal;
 
     @Autowired
     protected CircuitBreakerRegistry circuitBreakerRegistry;
@@ -68,6 +72,11 @@ public abstract class BaseEndToEndTest {
 
     protected WebTestClient client;
 
+    @BeforeAll
+    static void createOffboardSagaJournal() throws IOException {
+        offboardSagaJournal = Files.createTempDirectory("gateway-e2e").resolve("offboard-saga.journal");
+    }
+
     @BeforeAll
     static void startWireMockServers() {
         accountService = new WireMockServer(WireMockConfiguration.wireMockConfig().dynamicPort());
@@ -93,6 +102,7 @@ public abstract class BaseEndToEndTest {
         registry.add("services.account-url", () -> "http://localhost:" + accountService.port());
         registry.add("services.card-url", () -> "http://localhost:" + cardService.port());
         registry.add("services.loan-url", () -> "http://localhost:" + loanService.port());
+        registry.add("gateway.offboard-saga.journal-path", () -> offboardSagaJournal.toString());
     }
 
     @BeforeEach
@@ -0,0 +1,92 @@
+package dev.sharanggupta.customergateway;
+
+import dev.sharanggupta.customergateway.support.BatchLoader;
+import dev.sharanggupta.customergateway.support.Deadline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the batch loader without a Spring context.
+ *
+ * The fetcher echoes every key it is asked for and records the keys and the deadline
+ * each batch was dispatched with.
+ */
+class BatchLoaderTest {
+
+    private static final Duration WINDOW = Duration.ofMillis(100);
+
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+    private final List<Duration> deadlines = new CopyOnWriteArrayList<>();
+
+    @Nested
+    @DisplayName("When a caller cancels before the batch is sent")
+    class Cancelled {
+
+        @Test
+        @DisplayName("leaves its key out of the batch")
+        void dropsCancelledKey() {
+            // Given
+            BatchLoader<String, String> loader = loader();
+            Disposable cancelled = loader.load("cancelled").subscribe();
+
+            // When
+            cancelled.dispose();
+            String value = loader.load("kept").block();
+
+            // Then
+            assertThat(value).isEqualTo("kept");
+            assertThat(batches).containsExactly(List.of("kept"));
+        }
+    }
+
+    @Nested
+    @DisplayName("When callers have request deadlines")
+    class Deadlines {
+
+        @Test
+        @DisplayName("dispatches the batch with the earliest of them")
+        void usesEarliestDeadline() {
+            // Given
+            BatchLoader<String, String> loader = loader();
+
+            // When
+            Flux.merge(
+                            loader.load("patient").contextWrite(context ->
+                                    context.put(Deadline.CONTEXT_KEY, Deadline.after(Duration.ofSeconds(30)))),
+                            loader.load("impatient").contextWrite(context ->
+                                    context.put(Deadline.CONTEXT_KEY, Deadline.after(Duration.ofSeconds(2)))),
+                            loader.load("unbounded"))
+                    .blockLast();
+
+            // Then
+            assertThat(batches).hasSize(1);
+            assertThat(deadlines).singleElement()
+                    .satisfies(remaining -> assertThat(remaining).isLessThanOrEqualTo(Duration.ofSeconds(2)));
+        }
+    }
+
+    // ========== Helpers ==========
+
+    private BatchLoader<String, String> loader() {
+        return new BatchLoader<>(keys -> Flux.deferContextual(context -> {
+                    batches.add(keys);
+                    Deadline deadline = Deadline.current(context);
+                    if (deadline != null) {
+                        deadlines.add(deadline.remaining());
+                    }
+                    return Flux.fromIterable(keys);
+                }),
+                key -> key, WINDOW, 10,
+                BatchLoader.batchSizeSummary(new SimpleMeterRegistry(), "test"));
+    }
+}
@@ -0,0 +1,221 @@
+package dev.sharanggupta.customergateway;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Tests for the per-service bulkheads and the circuit breakers on the proxied routes.
+ *
+ * The card bulkhead admits one call and lets one more wait for up to half a second; the
+ * account bulkhead is left at its default, so a stuck card service must not hold up
+ * account calls.
+ */
+@TestPropertySource(properties = {
+        "test.context.id=BulkheadEndToEndTest",
+        "gateway.bulkhead.card.max-concurrent=1",
+        "gateway.bulkhead.card.max-queued=1",
+        "gateway.bulkhead.card.max-wait=500ms",
+        "resilience4j.circuitbreaker.configs.default.minimum-number-of-calls=2",
+        "resilience4j.circuitbreaker.configs.default.sliding-window-size=2"
+})
+class BulkheadEndToEndTest extends BaseEndToEndTest {
+
+    private static final String CARD_ROUTE = "/api/customer/" + VALID_MOBILE + "/card";
+    private static final int SLOW_RESPONSE_MS = 1500;
+    private static final int BRIEF_RESPONSE_MS = 100;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void awaitSlowCalls() {
+        // A slow call still holding the card bulkhead must not spill into the next test
+        await().atMost(Duration.ofSeconds(5)).until(() -> meterRegistry.get("gateway.bulkhead.in.flight")
+                .tag("service", "card").gauge().value() == 0);
+    }
+
+    @Nested
+    @DisplayName("When a service's bulkhead is full")
+    class FullBulkhead {
+
+        @Test
+        @DisplayName("queues a call until a slot frees up")
+        void queuesCallBriefly() {
+            // Given
+            givenCardLookupTakes(BRIEF_RESPONSE_MS);
+
+            // When
+            List<HttpStatus> statuses = getConcurrently(CARD_ROUTE, 2);
+
+            // Then
+            assertThat(statuses).containsOnly(HttpStatus.OK);
+        }
+
+        @Test
+        @DisplayName("rejects calls beyond its queue or its wait with 503")
+        void rejectsExcessCalls() {
+            // Given
+            givenCardLookupTakes(SLOW_RESPONSE_MS);
+            double queueFullBefore = rejected("queue_full");
+            double timedOutBefore = rejected("timeout");
+
+            // When
+            List<HttpStatus> statuses = getConcurrently(CARD_ROUTE, 3);
+
+            // Then
+            assertThat(statuses).containsExactlyInAnyOrder(
+                    HttpStatus.OK, HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.SERVICE_UNAVAILABLE);
+            assertThat(rejected("queue_full")).isEqualTo(queueFullBefore + 1);
+            assertThat(rejected("timeout")).isEqualTo(timedOutBefore + 1);
+            assertThat(circuitBreakerRegistry.circuitBreaker("card_service").getState())
+                    .isEqualTo(CircuitBreaker.State.CLOSED);
+        }
+
+        @Test
+        @DisplayName("rejects excess lookups of the service client too")
+        void rejectsExcessClientCalls() {
+            // Given
+            givenCustomerExistsWithAllProducts(VALID_MOBILE);
+            givenCardLookupTakes(SLOW_RESPONSE_MS);
+            double rejectedBefore = rejected("queue_full") + rejected("timeout");
+
+            // When
+            List<HttpStatus> statuses = getConcurrently(DETAILS_PATH + "/" + VALID_MOBILE, 3);
+
+            // Then
+            assertThat(statuses).containsOnly(HttpStatus.OK);
+            assertThat(rejected("queue_full") + rejected("timeout")).isGreaterThan(rejectedBefore);
+        }
+
+        @Test
+        @DisplayName("leaves other services unaffected")
+        void isolatesOtherServices() {
+            // Given
+            givenCardLookupTakes(SLOW_RESPONSE_MS);
+            stubAccountFetchSuccess(VALID_MOBILE);
+            Mono.fromCallable(() -> statusOf(CARD_ROUTE)).subscribeOn(Schedulers.boundedElastic()).subscribe();
+            await().until(() -> !cardService.getAllServeEvents().isEmpty());
+
+            // When / Then
+            client.get()
+                    .uri("/account/api/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().isOk();
+        }
+    }
+
+    @Nested
+    @DisplayName("When a service fails behind its proxied route")
+    class FailingRoute {
+
+        @Test
+        @DisplayName("opens the service's circuit breaker and stops calling it")
+        void opensCircuitBreaker() {
+            // Given
+            cardService.stubFor(get(urlEqualTo("/card/api/" + VALID_MOBILE))
+                    .willReturn(aResponse().withStatus(500)));
+
+            // When
+            for (int i = 0; i < 2; i++) {
+                client.get()
+                        .uri(CARD_ROUTE)
+                        .exchange()
+                        .expectStatus().isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+
+            // Then
+            assertThat(circuitBreakerRegistry.circuitBreaker("card_service").getState())
+                    .isEqualTo(CircuitBreaker.State.OPEN);
+            client.get()
+                    .uri(CARD_ROUTE)
+                    .exchange()
+                    .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+            cardService.verify(2, getRequestedFor(urlEqualTo("/card/api/" + VALID_MOBILE)));
+        }
+    }
+
+    @Nested
+    @DisplayName("Metrics")
+    class Metrics {
+
+        @Test
+        @DisplayName("records a latency histogram per route")
+        void recordsRouteHistogram() {
+            // Given
+            givenCardLookupTakes(0);
+
+            // When
+            client.get()
+                    .uri(CARD_ROUTE)
+                    .exchange()
+                    .expectStatus().isOk();
+
+            // Then
+            Timer timer = meterRegistry.get("spring.cloud.gateway.requests")
+                    .tag("routeId", "customer-card-route")
+                    .timer();
+            assertThat(timer.takeSnapshot().histogramCounts()).isNotEmpty();
+        }
+    }
+
+    // ========== Helpers ==========
+
+    /**
+     * Given: The card service answers after the given delay.
+     */
+    private void givenCardLookupTakes(int delayMs) {
+        cardService.stubFor(get(urlEqualTo("/card/api/" + VALID_MOBILE))
+                .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/json")
+                        .withBody("""
+                                {"cardNumber":"1234567890123456","mobileNumber":"%s","cardType":"Credit Card",
+                                 "totalLimit":100000,"amountUsed":5000,"availableAmount":95000}
+                                """.formatted(VALID_MOBILE))
+                        .withFixedDelay(delayMs)));
+    }
+
+    private List<HttpStatus> getConcurrently(String path, int count) {
+        return Flux.range(0, count)
+                .flatMap(i -> Mono.fromCallable(() -> statusOf(path)).subscribeOn(Schedulers.boundedElastic()), count)
+                .collectList()
+                .block();
+    }
+
+    private HttpStatus statusOf(String path) {
+        return HttpStatus.valueOf(client.get()
+                .uri(path)
+                .exchange()
+                .expectBody(String.class)
+                .returnResult()
+                .getStatus()
+                .value());
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.get("gateway.bulkhead.rejected")
+                .tag("service", "card")
+                .tag("reason", reason)
+                .counter()
+                .count();
+    }
+}
@@ -0,0 +1,169 @@
+package dev.sharanggupta.customergateway;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Tests for the adaptive downstream concurrency limit.
+ *
+ * The limit is pinned to a single call per service, so a second concurrent call to a
+ * slow service must be shed with 503 on both the service client and the proxied routes,
+ * without counting against the circuit breaker.
+ */
+@TestPropertySource(properties = {
+        "test.context.id=ConcurrencyLimitEndToEndTest",
+        "gateway.concurrency-limit.initial-limit=1",
+        "gateway.concurrency-limit.min-limit=1",
+        "gateway.concurrency-limit.max-limit=1",
+        "resilience4j.circuitbreaker.configs.default.minimum-number-of-calls=1",
+        "resilience4j.circuitbreaker.configs.default.sliding-window-size=1"
+})
+class ConcurrencyLimitEndToEndTest extends BaseEndToEndTest {
+
+    private static final int SLOW_RESPONSE_MS = 1000;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Nested
+    @DisplayName("When a proxied route is at its limit")
+    class ProxiedRoutes {
+
+        @Test
+        @DisplayName("sheds the excess request with 503")
+        void shedsExcessRouteRequest() {
+            // Given
+            givenCardLookupIsSlow(VALID_MOBILE);
+            double rejectedBefore = rejected("card");
+
+            // When
+            List<HttpStatus> statuses = getConcurrently("/api/customer/" + VALID_MOBILE + "/card", 2);
+
+            // Then
+            assertThat(statuses).containsExactlyInAnyOrder(HttpStatus.OK, HttpStatus.SERVICE_UNAVAILABLE);
+            assertThat(rejected("card")).isEqualTo(rejectedBefore + 1);
+        }
+    }
+
+    @Nested
+    @DisplayName("When a service client is at its limit")
+    class ServiceClients {
+
+        @Test
+        @DisplayName("sheds the excess lookup with 503 and leaves the circuit breaker closed")
+        void shedsExcessClientCall() {
+            // Given
+            givenCustomerExistsWithAllProducts(VALID_MOBILE);
+            givenAccountLookupIsSlow(VALID_MOBILE);
+
+            // When
+            List<HttpStatus> statuses = getConcurrently(DETAILS_PATH + "/" + VALID_MOBILE, 2);
+
+            // Then
+            assertThat(statuses).containsExactlyInAnyOrder(HttpStatus.OK, HttpStatus.SERVICE_UNAVAILABLE);
+            assertThat(circuitBreakerRegistry.circuitBreaker("account_service").getState())
+                    .isEqualTo(CircuitBreaker.State.CLOSED);
+        }
+
+        @Test
+        @DisplayName("explains that the service is at its concurrency limit")
+        void explainsShedding() {
+            // Given
+            givenCustomerExistsWithAllProducts(VALID_MOBILE);
+            givenAccountLookupIsSlow(VALID_MOBILE);
+            CompletableFuture<HttpStatus> first = Mono.fromCallable(() -> statusOf(DETAILS_PATH + "/" + VALID_MOBILE))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .toFuture();
+            await().until(() -> !accountService.getAllServeEvents().isEmpty());
+
+            // When / Then
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)
+                    .expectBody()
+                    .jsonPath("$.errorMessage").value(message ->
+                            assertThat(message.toString()).contains("concurrency limit"));
+            assertThat(first.join()).isEqualTo(HttpStatus.OK);
+        }
+    }
+
+    @Nested
+    @DisplayName("Metrics")
+    class Metrics {
+
+        @Test
+        @DisplayName("publishes the current limit and in-flight calls per service")
+        void publishesLimitMetrics() {
+            for (String service : new String[]{"account", "card", "loan"}) {
+                assertThat(meterRegistry.get("gateway.concurrency.limit").tag("service", service).gauge().value())
+                        .isEqualTo(1.0);
+                assertThat(meterRegistry.find("gateway.concurrency.in.flight").tag("service", service).gauge())
+                        .isNotNull();
+            }
+        }
+    }
+
+    // ========== Helpers ==========
+
+    private List<HttpStatus> getConcurrently(String path, int count) {
+        return Flux.range(0, count)
+                .flatMap(i -> Mono.fromCallable(() -> statusOf(path)).subscribeOn(Schedulers.boundedElastic()), count)
+                .collectList()
+                .block();
+    }
+
+    private HttpStatus statusOf(String path) {
+        return HttpStatus.valueOf(client.get()
+                .uri(path)
+                .exchange()
+                .expectBody(String.class)
+                .returnResult()
+                .getStatus()
+                .value());
+    }
+
+    private double rejected(String service) {
+        return meterRegistry.get("gateway.concurrency.rejected").tag("service", service).counter().count();
+    }
+
+    /**
+     * Given: The card service takes a second to answer.
+     */
+    private void givenCardLookupIsSlow(String mobile) {
+        cardService.stubFor(get(urlEqualTo("/card/api/" + mobile))
+                .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/json")
+                        .withBody("{\"mobileNumber\":\"%s\"}".formatted(mobile))
+                        .withFixedDelay(SLOW_RESPONSE_MS)));
+    }
+
+    /**
+     * Given: The account service takes a second to answer.
+     */
+    private void givenAccountLookupIsSlow(String mobile) {
+        accountService.stubFor(get(urlEqualTo("/account/api/" + mobile))
+                .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/json")
+                        .withBody("""
+                                {"name":"%s","email":"%s","mobileNumber":"%s","account":{"accountNumber":"%s"}}
+                                """.formatted(VALID_NAME, VALID_EMAIL, mobile, ACCOUNT_NUMBER))
+                        .withFixedDelay(SLOW_RESPONSE_MS)));
+    }
+}
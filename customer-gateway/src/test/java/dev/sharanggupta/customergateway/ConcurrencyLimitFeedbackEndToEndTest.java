@@ -0,0 +1,81 @@
+package dev.sharanggupta.customergateway;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for how downstream answers feed back into the adaptive concurrency limit.
+ *
+ * Over HTTP a 5xx completes the exchange normally, yet it must shrink the limit just as
+ * a connection failure does, on the service client and on the proxied routes alike.
+ */
+@TestPropertySource(properties = {
+        "test.context.id=ConcurrencyLimitFeedbackEndToEndTest",
+        "gateway.concurrency-limit.initial-limit=50",
+        "gateway.concurrency-limit.min-limit=1",
+        "gateway.hedging.enabled=false",
+        "resilience4j.circuitbreaker.configs.default.sliding-window-size=100",
+        "resilience4j.circuitbreaker.configs.default.minimum-number-of-calls=50",
+        "resilience4j.circuitbreaker.configs.default.failure-rate-threshold=100"
+})
+class ConcurrencyLimitFeedbackEndToEndTest extends BaseEndToEndTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Nested
+    @DisplayName("When a service answers with 500")
+    class ServerError {
+
+        @Test
+        @DisplayName("shrinks the limit of the service client")
+        void shrinksClientLimit() {
+            // Given
+            accountService.stubFor(get(urlEqualTo("/account/api/" + VALID_MOBILE))
+                    .willReturn(aResponse().withStatus(500)));
+            double limitBefore = limit("account");
+
+            // When
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().is5xxServerError();
+
+            // Then
+            assertThat(limit("account")).isLessThan(limitBefore);
+        }
+
+        @Test
+        @DisplayName("shrinks the limit of the proxied route")
+        void shrinksRouteLimit() {
+            // Given
+            cardService.stubFor(get(urlEqualTo("/card/api/" + VALID_MOBILE))
+                    .willReturn(aResponse().withStatus(500)));
+            double limitBefore = limit("card");
+
+            // When
+            client.get()
+                    .uri("/api/customer/" + VALID_MOBILE + "/card")
+                    .exchange()
+                    .expectStatus().isEqualTo(500);
+
+            // Then
+            assertThat(limit("card")).isLessThan(limitBefore);
+        }
+    }
+
+    // ========== Helpers ==========
+
+    private double limit(String service) {
+        return meterRegistry.get("gateway.concurrency.limit").tag("service", service).gauge().value();
+    }
+}
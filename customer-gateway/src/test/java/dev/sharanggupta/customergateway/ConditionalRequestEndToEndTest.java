@@ -0,0 +1,177 @@
+package dev.sharanggupta.customergateway;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for conditional GETs: the gateway revalidates what it has fetched with
+ * {@code If-None-Match}, and customer details carry an ETag composed from the services'.
+ */
+@TestPropertySource(properties = {
+        "test.context.id=ConditionalRequestEndToEndTest",
+        "gateway.revalidation.enabled=true"
+})
+class ConditionalRequestEndToEndTest extends BaseEndToEndTest {
+
+    private static final String ACCOUNT_ETAG = "\"a1\"";
+    private static final String CARD_ETAG = "\"c1\"";
+    private static final String LOAN_ETAG = "\"l1\"";
+    private static final String PROFILE_ETAG = "\"a1.c1.l1\"";
+
+    @Nested
+    @DisplayName("When a client polls customer details")
+    class ClientPolling {
+
+        @Test
+        @DisplayName("returns an ETag composed from the services' ETags")
+        void returnsCompositeETag() {
+            // Given
+            givenServicesAnswerWithETags(VALID_MOBILE);
+
+            // When / Then
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().valueEquals(HttpHeaders.ETAG, PROFILE_ETAG)
+                    .expectBody()
+                    .jsonPath("$.name").isEqualTo(VALID_NAME)
+                    .jsonPath("$.etag").doesNotExist();
+        }
+
+        @Test
+        @DisplayName("answers an unchanged profile with an empty 304")
+        void answersNotModified() {
+            // Given
+            givenServicesAnswerWithETags(VALID_MOBILE);
+
+            // When / Then
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .ifNoneMatch(PROFILE_ETAG)
+                    .exchange()
+                    .expectStatus().isNotModified()
+                    .expectBody().isEmpty();
+        }
+
+        @Test
+        @DisplayName("returns the new profile once a product has changed")
+        void returnsChangedProfile() {
+            // Given
+            givenServicesAnswerWithETags(VALID_MOBILE);
+            cardService.stubFor(get(urlEqualTo("/card/api/" + VALID_MOBILE))
+                    .atPriority(1)
+                    .willReturn(okWithETag("\"c2\"", """
+                            {"mobileNumber": "%s", "cardNumber": "1234567890123456", "cardType": "Debit Card",
+                             "totalLimit": 100000, "amountUsed": 5000, "availableAmount": 95000}
+                            """.formatted(VALID_MOBILE))));
+
+            // When / Then
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .ifNoneMatch(PROFILE_ETAG)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().valueEquals(HttpHeaders.ETAG, "\"a1.c2.l1\"")
+                    .expectBody()
+                    .jsonPath("$.card.cardType").isEqualTo("Debit Card");
+        }
+
+        @Test
+        @DisplayName("marks a product the customer does not have in the ETag")
+        void marksMissingProduct() {
+            // Given
+            givenServicesAnswerWithETags(VALID_MOBILE);
+            stubCardFetchNotFound(VALID_MOBILE);
+
+            // When / Then
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().valueEquals(HttpHeaders.ETAG, "\"a1.-.l1\"");
+        }
+    }
+
+    @Nested
+    @DisplayName("When the gateway fetches a record it has fetched before")
+    class Revalidation {
+
+        @Test
+        @DisplayName("revalidates it with If-None-Match and serves its copy on a 304")
+        void revalidatesWithServices() {
+            // Given
+            givenServicesAnswerWithETags(VALID_MOBILE);
+            client.get().uri(DETAILS_PATH + "/" + VALID_MOBILE).exchange().expectStatus().isOk();
+
+            // When
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().valueEquals(HttpHeaders.ETAG, PROFILE_ETAG)
+                    .expectBody()
+                    .jsonPath("$.account.accountNumber").isEqualTo(ACCOUNT_NUMBER)
+                    .jsonPath("$.card.cardNumber").isEqualTo("1234567890123456")
+                    .jsonPath("$.loan.loanNumber").isEqualTo("123456789012");
+
+            // Then
+            accountService.verify(getRequestedFor(urlEqualTo("/account/api/" + VALID_MOBILE))
+                    .withHeader(HttpHeaders.IF_NONE_MATCH, equalTo(ACCOUNT_ETAG)));
+            cardService.verify(getRequestedFor(urlEqualTo("/card/api/" + VALID_MOBILE))
+                    .withHeader(HttpHeaders.IF_NONE_MATCH, equalTo(CARD_ETAG)));
+            loanService.verify(getRequestedFor(urlEqualTo("/loan/api/" + VALID_MOBILE))
+                    .withHeader(HttpHeaders.IF_NONE_MATCH, equalTo(LOAN_ETAG)));
+            assertThat(cardService.findAll(getRequestedFor(urlEqualTo("/card/api/" + VALID_MOBILE)))).hasSize(2);
+        }
+    }
+
+    // ========== Helpers ==========
+
+    /**
+     * Stubs every service to answer with an ETag, and with an empty 304 when asked with it.
+     */
+    private void givenServicesAnswerWithETags(String mobile) {
+        stubWithETag(accountService, "/account/api/" + mobile, ACCOUNT_ETAG, """
+                {"name": "%s", "email": "%s", "mobileNumber": "%s",
+                 "account": {"accountNumber": "%s", "accountType": "Savings", "branchAddress": "123 Main Street"}}
+                """.formatted(VALID_NAME, VALID_EMAIL, mobile, ACCOUNT_NUMBER));
+        stubWithETag(cardService, "/card/api/" + mobile, CARD_ETAG, """
+                {"mobileNumber": "%s", "cardNumber": "1234567890123456", "cardType": "Credit Card",
+                 "totalLimit": 100000, "amountUsed": 5000, "availableAmount": 95000}
+                """.formatted(mobile));
+        stubWithETag(loanService, "/loan/api/" + mobile, LOAN_ETAG, """
+                {"mobileNumber": "%s", "loanNumber": "123456789012", "loanType": "Home Loan",
+                 "totalLoan": 500000, "amountPaid": 100000, "outstandingAmount": 400000}
+                """.formatted(mobile));
+    }
+
+    private static void stubWithETag(WireMockServer service, String path, String etag, String body) {
+        service.stubFor(get(urlEqualTo(path))
+                .willReturn(okWithETag(etag, body)));
+        service.stubFor(get(urlEqualTo(path))
+                .withHeader(HttpHeaders.IF_NONE_MATCH, equalTo(etag))
+                .atPriority(2)
+                .willReturn(aResponse().withStatus(304).withHeader(HttpHeaders.ETAG, etag)));
+    }
+
+    private static ResponseDefinitionBuilder okWithETag(String etag, String body) {
+        return aResponse()
+                .withStatus(200)
+                .withHeader("Content-Type", "application/json")
+                .withHeader(HttpHeaders.ETAG, etag)
+                .withBody(body);
+    }
+}
@@ -0,0 +1,145 @@
+package dev.sharanggupta.customergateway;
+
+import dev.sharanggupta.customergateway.dto.CustomerProfileResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the batch customer details endpoint.
+ *
+ * Verifies that every requested mobile number gets exactly one result line and that
+ * a failure for one customer does not affect the others in the same batch.
+ */
+@TestPropertySource(properties = {
+        "test.context.id=CustomerBatchEndToEndTest",
+        "resilience4j.circuitbreaker.configs.default.sliding-window-size=100",
+        "resilience4j.circuitbreaker.configs.default.minimum-number-of-calls=50",
+        "resilience4j.circuitbreaker.configs.default.failure-rate-threshold=100",
+        "resilience4j.circuitbreaker.configs.default.wait-duration-in-open-state=60s"
+})
+class CustomerBatchEndToEndTest extends BaseEndToEndTest {
+
+    private static final String BATCH_PATH = DETAILS_PATH + ":batch";
+    private static final String ACCOUNT_ONLY_MOBILE = "2222222222";
+    private static final String UNAVAILABLE_MOBILE = "3333333333";
+
+    @Nested
+    @DisplayName("When fetching several customers at once")
+    class MixedBatch {
+
+        @Test
+        @DisplayName("returns one result per customer with failures isolated")
+        void returnsOneResultPerCustomer() {
+            // Given
+            givenCustomerExistsWithAllProducts(VALID_MOBILE);
+            givenCustomerExistsWithAccountOnly(ACCOUNT_ONLY_MOBILE);
+            givenCustomerDoesNotExist(NON_EXISTENT_MOBILE);
+            stubAccountFetchUnavailable(UNAVAILABLE_MOBILE);
+
+            // When
+            Map<String, CustomerProfileResult> results = fetchBatch(
+                    VALID_MOBILE, ACCOUNT_ONLY_MOBILE, NON_EXISTENT_MOBILE, UNAVAILABLE_MOBILE);
+
+            // Then
+            assertThat(results).hasSize(4);
+
+            assertThat(results.get(VALID_MOBILE).status()).isEqualTo(200);
+            assertThat(results.get(VALID_MOBILE).profile().card()).isNotNull();
+            assertThat(results.get(VALID_MOBILE).profile().loan()).isNotNull();
+
+            assertThat(results.get(ACCOUNT_ONLY_MOBILE).status()).isEqualTo(200);
+            assertThat(results.get(ACCOUNT_ONLY_MOBILE).profile().card()).isNull();
+
+            assertThat(results.get(NON_EXISTENT_MOBILE).status()).isEqualTo(404);
+            assertThat(results.get(NON_EXISTENT_MOBILE).profile()).isNull();
+
+            assertThat(results.get(UNAVAILABLE_MOBILE).status()).isEqualTo(503);
+            assertThat(results.get(UNAVAILABLE_MOBILE).errorMessage()).isNotBlank();
+        }
+
+        @Test
+        @DisplayName("looks up a repeated mobile number only once")
+        void deduplicatesMobileNumbers() {
+            // Given
+            givenCustomerExistsWithAllProducts(VALID_MOBILE);
+
+            // When
+            List<CustomerProfileResult> results = fetchBatchLines(VALID_MOBILE, VALID_MOBILE, VALID_MOBILE);
+
+            // Then
+            assertThat(results).hasSize(1);
+            assertThat(results.getFirst().status()).isEqualTo(200);
+        }
+    }
+
+    @Nested
+    @DisplayName("Input validation")
+    class InputValidation {
+
+        @Test
+        @DisplayName("rejects an empty batch")
+        void rejectsEmptyBatch() {
+            client.post()
+                    .uri(BATCH_PATH)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(Map.of("mobileNumbers", List.of()))
+                    .exchange()
+                    .expectStatus().isBadRequest();
+        }
+
+        @Test
+        @DisplayName("rejects an oversized batch")
+        void rejectsOversizedBatch() {
+            client.post()
+                    .uri(BATCH_PATH)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(Map.of("mobileNumbers", Collections.nCopies(501, VALID_MOBILE)))
+                    .exchange()
+                    .expectStatus().isBadRequest();
+        }
+
+        @Test
+        @DisplayName("rejects an invalid mobile number")
+        void rejectsInvalidMobileNumber() {
+            client.post()
+                    .uri(BATCH_PATH)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(Map.of("mobileNumbers", List.of(VALID_MOBILE, "12345")))
+                    .exchange()
+                    .expectStatus().isBadRequest();
+        }
+    }
+
+    // ========== Helpers ==========
+
+    private Map<String, CustomerProfileResult> fetchBatch(String... mobileNumbers) {
+        return fetchBatchLines(mobileNumbers).stream()
+                .collect(Collectors.toMap(CustomerProfileResult::mobileNumber, Function.identity()));
+    }
+
+    private List<CustomerProfileResult> fetchBatchLines(String... mobileNumbers) {
+        return client.post()
+                .uri(BATCH_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(Map.of("mobileNumbers", List.of(mobileNumbers)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(CustomerProfileResult.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+    }
+}
@@ -0,0 +1,106 @@
+package dev.sharanggupta.customergateway;
+
+import dev.sharanggupta.customergateway.service.CustomerExistenceFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the customer existence filter with short-circuit off.
+ *
+ * A customer onboarded through another gateway replica is unknown to this filter until
+ * the next refresh, so a miss is confirmed by the account service.
+ */
+@TestPropertySource(properties = {
+        "test.context.id=CustomerExistenceFilterAdvisoryEndToEndTest",
+        "gateway.customer-filter.expected-insertions=1000",
+        "gateway.customer-filter.short-circuit=false"
+})
+class CustomerExistenceFilterAdvisoryEndToEndTest extends BaseEndToEndTest {
+
+    private static final String ONBOARDED_ELSEWHERE_MOBILE = "5555555555";
+
+    @Autowired
+    private CustomerExistenceFilter customerExistenceFilter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Nested
+    @DisplayName("When the filter misses a number")
+    class Miss {
+
+        @Test
+        @DisplayName("finds a customer onboarded elsewhere and adds them to the filter")
+        void findsCustomerOnboardedElsewhere() {
+            // Given
+            givenFilterSeededWith(VALID_MOBILE);
+            givenCustomerExistsWithAllProducts(ONBOARDED_ELSEWHERE_MOBILE);
+
+            double staleMissesBefore = count("stale.misses");
+
+            // When
+            client.get()
+                    .uri(DETAILS_PATH + "/" + ONBOARDED_ELSEWHERE_MOBILE)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.mobileNumber").isEqualTo(ONBOARDED_ELSEWHERE_MOBILE);
+            client.get()
+                    .uri(DETAILS_PATH + "/" + ONBOARDED_ELSEWHERE_MOBILE)
+                    .exchange()
+                    .expectStatus().isOk();
+
+            // Then
+            assertThat(count("stale.misses")).isEqualTo(staleMissesBefore + 1);
+        }
+
+        @Test
+        @DisplayName("confirms an unknown customer with the account service")
+        void confirmsUnknownCustomer() {
+            // Given
+            givenFilterSeededWith(VALID_MOBILE);
+            givenCustomerDoesNotExist(NON_EXISTENT_MOBILE);
+            double definiteMissesBefore = count("definite.misses");
+            double advisoryMissesBefore = count("advisory.misses");
+            double confirmedMissesBefore = count("confirmed.misses");
+
+            // When
+            client.get()
+                    .uri(DETAILS_PATH + "/" + NON_EXISTENT_MOBILE)
+                    .exchange()
+                    .expectStatus().isNotFound();
+
+            // Then
+            accountService.verify(getRequestedFor(urlEqualTo("/account/api/" + NON_EXISTENT_MOBILE)));
+            assertThat(count("definite.misses")).isEqualTo(definiteMissesBefore);
+            assertThat(count("advisory.misses")).isEqualTo(advisoryMissesBefore + 1);
+            assertThat(count("confirmed.misses")).isEqualTo(confirmedMissesBefore + 1);
+        }
+    }
+
+    // ========== Given Helpers ==========
+
+    private void givenFilterSeededWith(String... mobileNumbers) {
+        accountService.stubFor(get(urlEqualTo("/account/api/mobile-numbers"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", MediaType.TEXT_PLAIN_VALUE)
+                        .withBody(String.join("\n", mobileNumbers) + "\n")));
+        customerExistenceFilter.refresh().block();
+    }
+
+    private double count(String counter) {
+        return meterRegistry.get("gateway.customer.filter." + counter).counter().count();
+    }
+}
@@ -0,0 +1,217 @@
+package dev.sharanggupta.customergateway;
+
+import dev.sharanggupta.customergateway.service.CustomerExistenceFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.exactly;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+
+/**
+ * Tests for the customer existence filter in front of the details endpoint.
+ *
+ * Verifies that numbers the filter has never seen are rejected without a downstream
+ * call, that known numbers still go to the account service, and that onboard/offboard
+ * keep the filter current between refreshes.
+ */
+@TestPropertySource(properties = {
+        "test.context.id=CustomerExistenceFilterEndToEndTest",
+        "gateway.customer-filter.expected-insertions=1000",
+        "resilience4j.circuitbreaker.configs.default.sliding-window-size=100",
+        "resilience4j.circuitbreaker.configs.default.minimum-number-of-calls=50",
+        "resilience4j.circuitbreaker.configs.default.failure-rate-threshold=100",
+        "resilience4j.circuitbreaker.configs.default.wait-duration-in-open-state=60s"
+})
+class CustomerExistenceFilterEndToEndTest extends BaseEndToEndTest {
+
+    private static final String ONBOARDED_MOBILE = "5555555555";
+
+    @Autowired
+    private CustomerExistenceFilter customerExistenceFilter;
+
+    @Nested
+    @DisplayName("When the filter has been seeded")
+    class Seeded {
+
+        @Test
+        @DisplayName("rejects an unknown customer without calling the account service")
+        void rejectsUnknownCustomerWithoutDownstreamCall() {
+            // Given
+            givenFilterSeededWith(VALID_MOBILE);
+            givenCustomerDoesNotExist(NON_EXISTENT_MOBILE);
+
+            // When & Then
+            client.get()
+                    .uri(DETAILS_PATH + "/" + NON_EXISTENT_MOBILE)
+                    .exchange()
+                    .expectStatus().isNotFound();
+
+            accountService.verify(exactly(0), getRequestedFor(urlEqualTo("/account/api/" + NON_EXISTENT_MOBILE)));
+        }
+
+        @Test
+        @DisplayName("fetches a known customer from downstream services")
+        void fetchesKnownCustomer() {
+            // Given
+            givenFilterSeededWith(VALID_MOBILE);
+            givenCustomerExistsWithAllProducts(VALID_MOBILE);
+
+            // When & Then
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.mobileNumber").isEqualTo(VALID_MOBILE);
+        }
+
+        @Test
+        @DisplayName("lets a newly onboarded customer through before the next refresh")
+        void admitsOnboardedCustomer() {
+            // Given
+            givenFilterSeededWith(VALID_MOBILE);
+            givenOnboardWillSucceed();
+            givenCustomerExistsWithAccountOnly(ONBOARDED_MOBILE);
+
+            // When
+            client.post()
+                    .uri(ONBOARD_PATH)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(createOnboardRequest(VALID_NAME, VALID_EMAIL, ONBOARDED_MOBILE))
+                    .exchange()
+                    .expectStatus().isCreated();
+
+            // Then
+            client.get()
+                    .uri(DETAILS_PATH + "/" + ONBOARDED_MOBILE)
+                    .exchange()
+                    .expectStatus().isOk();
+        }
+
+        @Test
+        @DisplayName("rejects an offboarded customer without calling the account service")
+        void rejectsOffboardedCustomer() {
+            // Given
+            givenFilterSeededWith(VALID_MOBILE);
+            givenAllDeletesWillSucceed(VALID_MOBILE);
+
+            // When
+            client.delete()
+                    .uri(OFFBOARD_PATH + "/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().isOk();
+
+            // Then
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().isNotFound();
+
+            accountService.verify(exactly(0), getRequestedFor(urlEqualTo("/account/api/" + VALID_MOBILE)));
+        }
+    }
+
+    @Nested
+    @DisplayName("When an offboarded customer is onboarded again")
+    class Reonboarded {
+
+        @Test
+        @DisplayName("lets them through before the next refresh")
+        void admitsReonboardedCustomer() {
+            // Given
+            givenFilterSeededWith(VALID_MOBILE);
+            givenAllDeletesWillSucceed(VALID_MOBILE);
+            client.delete()
+                    .uri(OFFBOARD_PATH + "/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().isOk();
+            givenOnboardWillSucceed();
+            givenCustomerExistsWithAccountOnly(VALID_MOBILE);
+
+            // When
+            client.post()
+                    .uri(ONBOARD_PATH)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(createOnboardRequest(VALID_NAME, VALID_EMAIL, VALID_MOBILE))
+                    .exchange()
+                    .expectStatus().isCreated();
+
+            // Then
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().isOk();
+        }
+
+        @Test
+        @DisplayName("still rejects them after a refresh that no longer sees them")
+        void rejectsOffboardedCustomerAfterRefresh() {
+            // Given
+            givenFilterSeededWith(VALID_MOBILE);
+            givenAllDeletesWillSucceed(VALID_MOBILE);
+            client.delete()
+                    .uri(OFFBOARD_PATH + "/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().isOk();
+
+            // When
+            givenFilterSeededWith(ONBOARDED_MOBILE);
+
+            // Then
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().isNotFound();
+
+            accountService.verify(exactly(0), getRequestedFor(urlEqualTo("/account/api/" + VALID_MOBILE)));
+        }
+    }
+
+    @Nested
+    @DisplayName("When the filter cannot be seeded")
+    class SeedFailed {
+
+        @Test
+        @DisplayName("keeps serving lookups from the previous filter")
+        void keepsPreviousFilterOnFailedRefresh() {
+            // Given
+            givenFilterSeededWith(VALID_MOBILE);
+            accountService.resetAll();
+            accountService.stubFor(get(urlEqualTo("/account/api/mobile-numbers"))
+                    .willReturn(aResponse().withStatus(503)));
+            customerExistenceFilter.refresh().block();
+            givenCustomerExistsWithAllProducts(VALID_MOBILE);
+
+            // When & Then
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().isOk();
+
+            client.get()
+                    .uri(DETAILS_PATH + "/" + NON_EXISTENT_MOBILE)
+                    .exchange()
+                    .expectStatus().isNotFound();
+
+            accountService.verify(exactly(0), getRequestedFor(urlEqualTo("/account/api/" + NON_EXISTENT_MOBILE)));
+        }
+    }
+
+    // ========== Given Helpers ==========
+
+    private void givenFilterSeededWith(String... mobileNumbers) {
+        accountService.stubFor(get(urlEqualTo("/account/api/mobile-numbers"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", MediaType.TEXT_PLAIN_VALUE)
+                        .withBody(String.join("\n", mobileNumbers) + "\n")));
+        customerExistenceFilter.refresh().block();
+    }
+}
@@ -14,6 +14,8 @@ class CustomerGatewayApplicationTests {
         registry.add("services.account-url", () -> "http://localhost:8080");
         registry.add("services.card-url", () -> "http://localhost:9000");
         registry.add("services.loan-url", () -> "http://localhost:8090");
+        registry.add("gateway.offboard-saga.journal-path",
+                () -> System.getProperty("java.io.tmpdir") + "/customer-gateway-context-test/offboard-saga.journal");
     }
 
     @Test
@@ -0,0 +1,158 @@
+package dev.sharanggupta.customergateway;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the request deadline sent to the downstream services.
+ *
+ * The gateway budget is three seconds. Clients may ask for less with
+ * {@code X-Request-Timeout-Ms}; every downstream call carries the time left, and no
+ * downstream work is started once it has run out.
+ */
+@TestPropertySource(properties = {
+        "test.context.id=DeadlineEndToEndTest",
+        "gateway.deadline.budget=3s"
+})
+class DeadlineEndToEndTest extends BaseEndToEndTest {
+
+    private static final String DEADLINE_HEADER = "X-Request-Timeout-Ms";
+    private static final long BUDGET_MS = 3000;
+    private static final int SLOW_RESPONSE_MS = 2000;
+
+    @Nested
+    @DisplayName("When a request has time left")
+    class WithinDeadline {
+
+        @Test
+        @DisplayName("sends the remaining gateway budget to the services")
+        void sendsRemainingBudget() {
+            // Given
+            givenCustomerExistsWithAllProducts(VALID_MOBILE);
+
+            // When
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().isOk();
+
+            // Then
+            assertThat(deadlineSentTo(accountService, "/account/api/" + VALID_MOBILE)).isBetween(1L, BUDGET_MS);
+            assertThat(deadlineSentTo(cardService, "/card/api/" + VALID_MOBILE)).isBetween(1L, BUDGET_MS);
+            assertThat(deadlineSentTo(loanService, "/loan/api/" + VALID_MOBILE)).isBetween(1L, BUDGET_MS);
+        }
+
+        @Test
+        @DisplayName("sends a shorter deadline from the client instead of the budget")
+        void honoursClientDeadline() {
+            // Given
+            givenCustomerExistsWithAllProducts(VALID_MOBILE);
+
+            // When
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .header(DEADLINE_HEADER, "1000")
+                    .exchange()
+                    .expectStatus().isOk();
+
+            // Then
+            assertThat(deadlineSentTo(accountService, "/account/api/" + VALID_MOBILE)).isBetween(1L, 1000L);
+        }
+
+        @Test
+        @DisplayName("sends the deadline through the proxied card route")
+        void sendsDeadlineThroughRoutes() {
+            // Given
+            stubCardFetchSuccess(VALID_MOBILE);
+
+            // When
+            client.get()
+                    .uri("/api/customer/" + VALID_MOBILE + "/card")
+                    .header(DEADLINE_HEADER, "1000")
+                    .exchange()
+                    .expectStatus().isOk();
+
+            // Then
+            assertThat(deadlineSentTo(cardService, "/card/api/" + VALID_MOBILE)).isBetween(1L, 1000L);
+        }
+    }
+
+    @Nested
+    @DisplayName("When the deadline runs out")
+    class Expired {
+
+        @Test
+        @DisplayName("rejects a request that arrives expired without calling any service")
+        void rejectsExpiredRequest() {
+            // Given
+            givenCustomerExistsWithAllProducts(VALID_MOBILE);
+
+            // When / Then
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .header(DEADLINE_HEADER, "0")
+                    .exchange()
+                    .expectStatus().isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+            assertNoDownstreamWork();
+        }
+
+        @Test
+        @DisplayName("answers 504 once a slow service uses it up and never calls the next one")
+        void stopsAfterSlowService() {
+            // Given
+            givenSlowAccountService(VALID_MOBILE);
+            stubCardFetchSuccess(VALID_MOBILE);
+            stubLoanFetchSuccess(VALID_MOBILE);
+
+            // When / Then
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .header(DEADLINE_HEADER, "300")
+                    .exchange()
+                    .expectStatus().isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+            cardService.verify(0, anyRequestedFor(anyUrl()));
+            loanService.verify(0, anyRequestedFor(anyUrl()));
+        }
+    }
+
+    // ========== Helpers ==========
+
+    /**
+     * Given: The account service answers after the client's deadline.
+     */
+    private void givenSlowAccountService(String mobile) {
+        accountService.stubFor(get(urlEqualTo("/account/api/" + mobile))
+                .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/json")
+                        .withBody("""
+                                {"name":"%s","email":"%s","mobileNumber":"%s","account":{"accountNumber":"%s"}}
+                                """.formatted(VALID_NAME, VALID_EMAIL, mobile, ACCOUNT_NUMBER))
+                        .withFixedDelay(SLOW_RESPONSE_MS)));
+    }
+
+    private long deadlineSentTo(WireMockServer service, String path) {
+        List<LoggedRequest> requests = service.findAll(getRequestedFor(urlEqualTo(path)));
+        assertThat(requests).hasSize(1);
+        return Long.parseLong(requests.getFirst().getHeader(DEADLINE_HEADER));
+    }
+
+    private void assertNoDownstreamWork() {
+        accountService.verify(0, anyRequestedFor(anyUrl()));
+        cardService.verify(0, anyRequestedFor(anyUrl()));
+        loanService.verify(0, anyRequestedFor(anyUrl()));
+    }
+}
@@ -0,0 +1,113 @@
+package dev.sharanggupta.customergateway;
+
+import dev.sharanggupta.customergateway.client.AccountServiceClient;
+import dev.sharanggupta.customergateway.client.CardServiceClient;
+import dev.sharanggupta.customergateway.client.LoanServiceClient;
+import dev.sharanggupta.customergateway.dto.CardInfo;
+import dev.sharanggupta.customergateway.dto.CustomerAccount;
+import dev.sharanggupta.customergateway.dto.LoanInfo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalToJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the multi-key lookup methods of the downstream service clients.
+ *
+ * Verifies that each client sends all mobile numbers in a single request and
+ * decodes the NDJSON stream, keeping the mobile number needed to match results.
+ */
+@TestPropertySource(properties = "test.context.id=DownstreamBatchClientEndToEndTest")
+class DownstreamBatchClientEndToEndTest extends BaseEndToEndTest {
+
+    private static final String OTHER_MOBILE = "2222222222";
+    private static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private AccountServiceClient accountServiceClient;
+
+    @Autowired
+    private CardServiceClient cardServiceClient;
+
+    @Autowired
+    private LoanServiceClient loanServiceClient;
+
+    @Test
+    @DisplayName("fetches many accounts in one request")
+    void fetchesAccountsInOneRequest() {
+        accountService.stubFor(post(urlEqualTo("/account/api/batch"))
+                .withRequestBody(equalToJson("""
+                        {"mobileNumbers": ["%s", "%s", "%s"]}
+                        """.formatted(VALID_MOBILE, OTHER_MOBILE, NON_EXISTENT_MOBILE)))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", NDJSON)
+                        .withBody("""
+                                {"name":"%s","email":"%s","mobileNumber":"%s","account":{"accountNumber":"1"}}
+                                {"name":"%s","email":"%s","mobileNumber":"%s","account":{"accountNumber":"2"}}
+                                """.formatted(VALID_NAME, VALID_EMAIL, VALID_MOBILE,
+                                VALID_NAME, VALID_EMAIL, OTHER_MOBILE))));
+
+        List<CustomerAccount> accounts = accountServiceClient
+                .fetchAccounts(List.of(VALID_MOBILE, OTHER_MOBILE, NON_EXISTENT_MOBILE))
+                .collectList()
+                .block();
+
+        assertThat(accounts)
+                .extracting(CustomerAccount::mobileNumber)
+                .containsExactly(VALID_MOBILE, OTHER_MOBILE);
+    }
+
+    @Test
+    @DisplayName("fetches many cards and loans in one request each")
+    void fetchesCardsAndLoansInOneRequestEach() {
+        cardService.stubFor(post(urlEqualTo("/card/api/batch"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", NDJSON)
+                        .withBody("""
+                                {"mobileNumber":"%s","cardNumber":"1111","cardType":"Credit Card","totalLimit":100,"amountUsed":0,"availableAmount":100}
+                                """.formatted(OTHER_MOBILE))));
+        loanService.stubFor(post(urlEqualTo("/loan/api/batch"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", NDJSON)
+                        .withBody("""
+                                {"mobileNumber":"%s","loanNumber":"2222","loanType":"Home Loan","totalLoan":100,"amountPaid":0,"outstandingAmount":100}
+                                """.formatted(VALID_MOBILE))));
+
+        List<CardInfo> cards = cardServiceClient.fetchCards(List.of(VALID_MOBILE, OTHER_MOBILE))
+                .collectList()
+                .block();
+        List<LoanInfo> loans = loanServiceClient.fetchLoans(List.of(VALID_MOBILE, OTHER_MOBILE))
+                .collectList()
+                .block();
+
+        assertThat(cards).extracting(CardInfo::mobileNumber).containsExactly(OTHER_MOBILE);
+        assertThat(loans).extracting(LoanInfo::mobileNumber).containsExactly(VALID_MOBILE);
+    }
+
+    @Test
+    @DisplayName("does not expose the card and loan mobile number in the customer profile")
+    void doesNotRepeatMobileNumberInProfileSections() {
+        givenCustomerExistsWithAllProducts(VALID_MOBILE);
+
+        client.get()
+                .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.mobileNumber").isEqualTo(VALID_MOBILE)
+                .jsonPath("$.card.cardNumber").exists()
+                .jsonPath("$.card.mobileNumber").doesNotExist()
+                .jsonPath("$.loan.mobileNumber").doesNotExist();
+    }
+}
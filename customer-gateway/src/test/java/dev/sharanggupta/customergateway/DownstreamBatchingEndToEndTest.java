@@ -0,0 +1,200 @@
+package dev.sharanggupta.customergateway;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+import static com.github.tomakehurst.wiremock.client.WireMock.exactly;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.moreThanOrExactly;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for transparent micro-batching of downstream lookups.
+ *
+ * With batching enabled, concurrent details requests must reach the downstream
+ * services as multi-key requests and every caller must still get its own profile,
+ * while the circuit breaker sees each batch request as a single call.
+ */
+@TestPropertySource(properties = {
+        "test.context.id=DownstreamBatchingEndToEndTest",
+        "gateway.batching.account.enabled=true",
+        "gateway.batching.account.window=200ms",
+        "gateway.batching.card.enabled=true",
+        "gateway.batching.card.window=200ms",
+        "gateway.batching.card.max-size=3",
+        "gateway.batching.loan.enabled=true",
+        "gateway.batching.loan.window=200ms",
+        "resilience4j.circuitbreaker.configs.default.sliding-window-size=100",
+        "resilience4j.circuitbreaker.configs.default.minimum-number-of-calls=50",
+        "resilience4j.circuitbreaker.configs.default.failure-rate-threshold=100"
+})
+class DownstreamBatchingEndToEndTest extends BaseEndToEndTest {
+
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String MISSING_MOBILE = "5999999999";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Nested
+    @DisplayName("When many customers are looked up concurrently")
+    class ConcurrentLookups {
+
+        @Test
+        @DisplayName("coalesces the lookups into multi-key requests")
+        void coalescesLookups() {
+            // Given
+            List<String> mobiles = mobileNumbers(6);
+            givenBatchEndpointsKnow(mobiles);
+
+            // When
+            List<HttpStatus> statuses = fetchDetailsConcurrently(mobiles);
+
+            // Then
+            assertThat(statuses).containsOnly(HttpStatus.OK);
+            accountService.verify(exactly(0), getRequestedFor(anyUrl()));
+            cardService.verify(exactly(0), getRequestedFor(anyUrl()));
+            loanService.verify(exactly(0), getRequestedFor(anyUrl()));
+            accountService.verify(exactly(1), postRequestedFor(urlEqualTo("/account/api/batch")));
+            loanService.verify(exactly(1), postRequestedFor(urlEqualTo("/loan/api/batch")));
+        }
+
+        @Test
+        @DisplayName("dispatches early once the max batch size is reached")
+        void dispatchesOnMaxSize() {
+            // Given
+            List<String> mobiles = mobileNumbers(6);
+            givenBatchEndpointsKnow(mobiles);
+
+            // When
+            fetchDetailsConcurrently(mobiles);
+
+            // Then
+            cardService.verify(moreThanOrExactly(2), postRequestedFor(urlEqualTo("/card/api/batch")));
+        }
+
+        @Test
+        @DisplayName("reports not found only for the customer missing from the batch response")
+        void demultiplexesMissingKeys() {
+            // Given
+            List<String> mobiles = mobileNumbers(3);
+            givenBatchEndpointsKnow(mobiles);
+
+            // When
+            List<HttpStatus> statuses = fetchDetailsConcurrently(List.of(mobiles.get(0), MISSING_MOBILE, mobiles.get(1)));
+
+            // Then
+            assertThat(statuses).containsExactlyInAnyOrder(HttpStatus.OK, HttpStatus.OK, HttpStatus.NOT_FOUND);
+        }
+
+        @Test
+        @DisplayName("publishes batch size histograms per service")
+        void publishesBatchSizeHistograms() {
+            // Given
+            List<String> mobiles = mobileNumbers(2);
+            givenBatchEndpointsKnow(mobiles);
+
+            // When
+            fetchDetailsConcurrently(mobiles);
+
+            // Then
+            DistributionSummary accountBatches = meterRegistry.find("gateway.batch.size")
+                    .tag("service", "account")
+                    .summary();
+            assertThat(accountBatches).isNotNull();
+            assertThat(accountBatches.count()).isPositive();
+            assertThat(accountBatches.max()).isGreaterThanOrEqualTo(2);
+        }
+    }
+
+    @Nested
+    @DisplayName("When a batch request fails")
+    class FailedBatch {
+
+        @Test
+        @DisplayName("counts one circuit breaker failure for the whole batch")
+        void countsOneBreakerFailure() {
+            // Given
+            List<String> mobiles = mobileNumbers(3);
+            givenBatchEndpointsKnow(mobiles);
+            accountService.stubFor(post(urlEqualTo("/account/api/batch")).willReturn(aResponse().withStatus(500)));
+            CircuitBreaker.Metrics metrics = circuitBreakerRegistry.circuitBreaker("account_service").getMetrics();
+            int failedBefore = metrics.getNumberOfFailedCalls();
+
+            // When
+            List<HttpStatus> statuses = fetchDetailsConcurrently(mobiles);
+
+            // Then
+            assertThat(statuses).doesNotContain(HttpStatus.OK);
+            accountService.verify(exactly(1), postRequestedFor(urlEqualTo("/account/api/batch")));
+            assertThat(metrics.getNumberOfFailedCalls()).isEqualTo(failedBefore + 1);
+        }
+    }
+
+    // ========== Helpers ==========
+
+    private List<String> mobileNumbers(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> "400000000" + i)
+                .toList();
+    }
+
+    private List<HttpStatus> fetchDetailsConcurrently(List<String> mobiles) {
+        return Flux.fromIterable(mobiles)
+                .flatMap(mobile -> Mono.fromCallable(() -> HttpStatus.valueOf(client.get()
+                                        .uri(DETAILS_PATH + "/" + mobile)
+                                        .exchange()
+                                        .expectBody(String.class)
+                                        .returnResult()
+                                        .getStatus()
+                                        .value()))
+                                .subscribeOn(Schedulers.boundedElastic()),
+                        mobiles.size())
+                .collectList()
+                .block();
+    }
+
+    /**
+     * Given: The account, card and loan batch endpoints return a record for every given mobile number.
+     */
+    private void givenBatchEndpointsKnow(List<String> mobiles) {
+        StringBuilder accounts = new StringBuilder();
+        StringBuilder cards = new StringBuilder();
+        StringBuilder loans = new StringBuilder();
+        for (String mobile : mobiles) {
+            accounts.append("""
+                    {"name":"%s","email":"%s","mobileNumber":"%s","account":{"accountNumber":"%s"}}
+                    """.formatted(VALID_NAME, VALID_EMAIL, mobile, ACCOUNT_NUMBER));
+            cards.append("""
+                    {"mobileNumber":"%s","cardNumber":"1111","cardType":"Credit Card","totalLimit":100,"amountUsed":0,"availableAmount":100}
+                    """.formatted(mobile));
+            loans.append("""
+                    {"mobileNumber":"%s","loanNumber":"2222","loanType":"Home Loan","totalLoan":100,"amountPaid":0,"outstandingAmount":100}
+                    """.formatted(mobile));
+        }
+        accountService.stubFor(post(urlEqualTo("/account/api/batch"))
+                .willReturn(aResponse().withStatus(200).withHeader("Content-Type", NDJSON).withBody(accounts.toString())));
+        cardService.stubFor(post(urlEqualTo("/card/api/batch"))
+                .willReturn(aResponse().withStatus(200).withHeader("Content-Type", NDJSON).withBody(cards.toString())));
+        loanService.stubFor(post(urlEqualTo("/loan/api/batch"))
+                .willReturn(aResponse().withStatus(200).withHeader("Content-Type", NDJSON).withBody(loans.toString())));
+    }
+}
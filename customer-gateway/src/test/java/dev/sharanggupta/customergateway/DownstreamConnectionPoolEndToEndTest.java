@@ -0,0 +1,75 @@
+package dev.sharanggupta.customergateway;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the dedicated downstream connection pools.
+ *
+ * The card service is configured for h2c; account and loan stay on HTTP/1.1. Verifies
+ * the negotiated protocol per service and that each pool publishes its own metrics.
+ */
+@TestPropertySource(properties = {
+        "test.context.id=DownstreamConnectionPoolEndToEndTest",
+        "gateway.http-client.card.h2c=true"
+})
+class DownstreamConnectionPoolEndToEndTest extends BaseEndToEndTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Nested
+    @DisplayName("When fetching customer details")
+    class FetchingDetails {
+
+        @Test
+        @DisplayName("talks h2c only to the services configured for it")
+        void usesConfiguredProtocolPerService() {
+            // Given
+            givenCustomerExistsWithAllProducts(VALID_MOBILE);
+
+            // When
+            fetchDetails();
+
+            // Then
+            assertThat(cardService.getAllServeEvents().getFirst().getRequest().getProtocol()).isEqualTo("HTTP/2.0");
+            assertThat(loanService.getAllServeEvents().getFirst().getRequest().getProtocol()).isEqualTo("HTTP/1.1");
+            assertThat(accountService.getAllServeEvents().getFirst().getRequest().getProtocol()).isEqualTo("HTTP/1.1");
+        }
+
+        @Test
+        @DisplayName("publishes metrics for each downstream pool")
+        void publishesPoolMetrics() {
+            // Given
+            givenCustomerExistsWithAllProducts(VALID_MOBILE);
+
+            // When
+            fetchDetails();
+
+            // Then
+            for (String pool : new String[]{"account", "card", "loan"}) {
+                assertThat(meterRegistry.find("gateway.downstream.pool.max.allocated")
+                        .tag("service", pool)
+                        .gauges())
+                        .as("pool metrics for %s", pool)
+                        .isNotEmpty();
+            }
+        }
+    }
+
+    private void fetchDetails() {
+        client.get()
+                .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.card.cardNumber").exists()
+                .jsonPath("$.loan.loanNumber").exists();
+    }
+}
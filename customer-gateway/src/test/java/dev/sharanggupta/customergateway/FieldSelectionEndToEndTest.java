@@ -0,0 +1,114 @@
+package dev.sharanggupta.customergateway;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.anyRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@code fields=} on customer details: only the selected blocks are returned,
+ * and the services behind unselected products are not called.
+ */
+@TestPropertySource(properties = "test.context.id=FieldSelectionEndToEndTest")
+class FieldSelectionEndToEndTest extends BaseEndToEndTest {
+
+    @Nested
+    @DisplayName("When a client selects fields")
+    class SelectedFields {
+
+        @Test
+        @DisplayName("returns only the account without calling the card and loan services")
+        void returnsAccountOnly() {
+            // Given
+            stubAccountFetchSuccess(VALID_MOBILE);
+            stubCardFetchSuccess(VALID_MOBILE);
+            stubLoanFetchSuccess(VALID_MOBILE);
+
+            // When
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE + "?fields=account")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.name").isEqualTo(VALID_NAME)
+                    .jsonPath("$.account.accountNumber").isEqualTo(ACCOUNT_NUMBER)
+                    .jsonPath("$.card").doesNotExist()
+                    .jsonPath("$.loan").doesNotExist()
+                    .jsonPath("$.degradedServices").doesNotExist();
+
+            // Then
+            assertThat(cardService.findAll(anyRequestedFor(anyUrl()))).isEmpty();
+            assertThat(loanService.findAll(anyRequestedFor(anyUrl()))).isEmpty();
+        }
+
+        @Test
+        @DisplayName("omits the account block when it is not selected")
+        void omitsAccount() {
+            // Given
+            stubAccountFetchSuccess(VALID_MOBILE);
+            stubCardFetchSuccess(VALID_MOBILE);
+            stubLoanFetchSuccess(VALID_MOBILE);
+
+            // When
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE + "?fields=card")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.name").isEqualTo(VALID_NAME)
+                    .jsonPath("$.account").doesNotExist()
+                    .jsonPath("$.card.cardNumber").exists()
+                    .jsonPath("$.loan").doesNotExist();
+
+            // Then
+            assertThat(loanService.findAll(anyRequestedFor(anyUrl()))).isEmpty();
+        }
+
+        @Test
+        @DisplayName("accepts a comma-separated list of fields")
+        void acceptsCommaSeparatedFields() {
+            // Given
+            stubAccountFetchSuccess(VALID_MOBILE);
+            stubCardFetchSuccess(VALID_MOBILE);
+            stubLoanFetchSuccess(VALID_MOBILE);
+
+            // When / Then
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE + "?fields=account,loan")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.account.accountNumber").isEqualTo(ACCOUNT_NUMBER)
+                    .jsonPath("$.card").doesNotExist()
+                    .jsonPath("$.loan.loanNumber").exists();
+            assertThat(cardService.findAll(anyRequestedFor(anyUrl()))).isEmpty();
+        }
+
+        @Test
+        @DisplayName("still returns 404 for an unknown customer")
+        void returnsNotFoundForUnknownCustomer() {
+            // Given
+            stubAccountFetchNotFound(NON_EXISTENT_MOBILE);
+
+            // When / Then
+            client.get()
+                    .uri(DETAILS_PATH + "/" + NON_EXISTENT_MOBILE + "?fields=card")
+                    .exchange()
+                    .expectStatus().isNotFound();
+        }
+
+        @Test
+        @DisplayName("rejects an unknown field with 400")
+        void rejectsUnknownField() {
+            // When / Then
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE + "?fields=account,balance")
+                    .exchange()
+                    .expectStatus().isBadRequest();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package dev.sharanggupta.customergateway;
+
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.exactly;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Tests for hedged downstream reads.
+ *
+ * After a warm-up that gives every service a latency history, a card lookup that hangs
+ * must be answered by a hedge sent after the tracked percentile, while fast lookups
+ * must never be hedged.
+ */
+@TestPropertySource(properties = {
+        "test.context.id=HedgedRequestEndToEndTest",
+        "gateway.hedging.enabled=true",
+        "gateway.hedging.percentile=50",
+        "gateway.hedging.min-delay=200ms",
+        "gateway.hedging.min-samples=5",
+        "gateway.hedging.budget-ratio=1.0",
+        "gateway.hedging.window=10s",
+        "gateway.hedging.window-slices=50"
+})
+class HedgedRequestEndToEndTest extends BaseEndToEndTest {
+
+    private static final int WARM_UP_REQUESTS = 10;
+    private static final int SLOW_REPLICA_DELAY_MS = 5000;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void warmUp() {
+        givenCustomerExistsWithAllProducts(VALID_MOBILE);
+        IntStream.range(0, WARM_UP_REQUESTS).forEach(i -> fetchDetails());
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> !Double.isNaN(hedgeDelay("card")) && !Double.isNaN(hedgeDelay("loan")));
+    }
+
+    @Nested
+    @DisplayName("When one replica answers slowly")
+    class SlowReplica {
+
+        @Test
+        @DisplayName("answers from the hedge instead of waiting for the slow request")
+        void hedgeWins() {
+            // Given
+            givenNextCardLookupHangs(VALID_MOBILE);
+            double sentBefore = counter("gateway.hedge.sent", "card");
+            double wonBefore = counter("gateway.hedge.won", "card");
+
+            // When
+            long start = System.nanoTime();
+            fetchDetails();
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+            // Then
+            assertThat(elapsed).isLessThan(Duration.ofMillis(SLOW_REPLICA_DELAY_MS));
+            cardService.verify(exactly(2), getRequestedFor(urlEqualTo("/card/api/" + VALID_MOBILE)));
+            assertThat(counter("gateway.hedge.sent", "card")).isEqualTo(sentBefore + 1);
+            assertThat(counter("gateway.hedge.won", "card")).isEqualTo(wonBefore + 1);
+        }
+    }
+
+    @Nested
+    @DisplayName("When every service answers quickly")
+    class FastServices {
+
+        @Test
+        @DisplayName("sends no hedges")
+        void noHedges() {
+            // Given
+            double sentBefore = counter("gateway.hedge.sent", "loan");
+            accountService.resetRequests();
+            loanService.resetRequests();
+
+            // When
+            fetchDetails();
+
+            // Then
+            accountService.verify(exactly(1), getRequestedFor(urlEqualTo("/account/api/" + VALID_MOBILE)));
+            loanService.verify(exactly(1), getRequestedFor(urlEqualTo("/loan/api/" + VALID_MOBILE)));
+            assertThat(counter("gateway.hedge.sent", "loan")).isEqualTo(sentBefore);
+        }
+    }
+
+    // ========== Helpers ==========
+
+    private void fetchDetails() {
+        client.get()
+                .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.card.cardNumber").exists();
+    }
+
+    /**
+     * Given: The next card lookup hits a replica that hangs; every later lookup is fast.
+     */
+    private void givenNextCardLookupHangs(String mobile) {
+        cardService.resetAll();
+        String body = """
+                {"cardNumber":"1234567890123456","mobileNumber":"%s","cardType":"Credit Card",
+                 "totalLimit":100000,"amountUsed":5000,"availableAmount":95000}
+                """.formatted(mobile);
+        cardService.stubFor(get(urlEqualTo("/card/api/" + mobile))
+                .inScenario("slow replica")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willSetStateTo("recovered")
+                .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/json")
+                        .withBody(body).withFixedDelay(SLOW_REPLICA_DELAY_MS)));
+        cardService.stubFor(get(urlEqualTo("/card/api/" + mobile))
+                .inScenario("slow replica")
+                .whenScenarioStateIs("recovered")
+                .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/json")
+                        .withBody(body)));
+    }
+
+    private double counter(String name, String service) {
+        return meterRegistry.get(name).tag("service", service).counter().count();
+    }
+
+    private double hedgeDelay(String service) {
+        Gauge gauge = meterRegistry.find("gateway.hedge.delay").tag("service", service).gauge();
+        return gauge == null ? Double.NaN : gauge.value();
+    }
+}
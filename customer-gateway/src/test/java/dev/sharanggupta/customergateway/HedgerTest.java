@@ -0,0 +1,101 @@
+package dev.sharanggupta.customergateway;
+
+import dev.sharanggupta.customergateway.config.HedgingProperties;
+import dev.sharanggupta.customergateway.support.Hedger;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Tests for the hedger without a Spring context.
+ *
+ * A warm-up of instant calls gives the tracker its minimum samples, so once the window has
+ * rolled every later call is hedged after {@link #MIN_DELAY}. The first request of a call is the primary, the
+ * second one the hedge.
+ */
+class HedgerTest {
+
+    private static final Duration MIN_DELAY = Duration.ofMillis(10);
+    private static final int MIN_SAMPLES = 5;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Hedger hedger = new Hedger("test",
+            new HedgingProperties(true, 90, MIN_DELAY, MIN_SAMPLES, 1.0, 100, Duration.ofSeconds(10), 100),
+            meterRegistry);
+
+    @BeforeEach
+    void warmUp() {
+        IntStream.range(0, MIN_SAMPLES).forEach(i -> hedger.hedge(() -> Mono.just("warm-up")).block());
+        await().atMost(Duration.ofSeconds(2)).until(() -> !Double.isNaN(hedgeDelayMillis()));
+    }
+
+    @Nested
+    @DisplayName("When the primary fails while the hedge is in flight")
+    class PrimaryFails {
+
+        @Test
+        @DisplayName("answers from the hedge")
+        void hedgeAnswers() {
+            // When
+            String result = hedger.hedge(requests(
+                    Mono.delay(Duration.ofMillis(100)).then(Mono.error(new IllegalStateException("primary"))),
+                    Mono.delay(Duration.ofMillis(300)).thenReturn("hedge"))).block();
+
+            // Then
+            assertThat(result).isEqualTo("hedge");
+        }
+
+        @Test
+        @DisplayName("fails once the hedge fails too")
+        void failsWithLastError() {
+            // When / Then
+            assertThatThrownBy(() -> hedger.hedge(requests(
+                    Mono.delay(Duration.ofMillis(100)).then(Mono.<String>error(new IllegalStateException("primary"))),
+                    Mono.delay(Duration.ofMillis(300)).then(Mono.error(new IllegalStateException("hedge"))))).block())
+                    .hasMessage("hedge");
+        }
+    }
+
+    @Nested
+    @DisplayName("When the hedge wins")
+    class HedgeWins {
+
+        @Test
+        @DisplayName("counts the time the cancelled primary waited towards the hedge delay")
+        void recordsCancelledPrimary() {
+            // When
+            IntStream.range(0, MIN_SAMPLES).forEach(i ->
+                    hedger.hedge(requests(Mono.never(), Mono.just("hedge"))).block());
+
+            // Then
+            await().atMost(Duration.ofSeconds(2)).until(() -> hedgeDelayMillis() > MIN_DELAY.toMillis());
+        }
+    }
+
+    // ========== Helpers ==========
+
+    private double hedgeDelayMillis() {
+        return meterRegistry.get("gateway.hedge.delay").gauge().value();
+    }
+
+    /**
+     * Answers the first request of a call with {@code primary} and the second with {@code hedge}.
+     */
+    private static Supplier<Mono<String>> requests(Mono<String> primary, Mono<String> hedge) {
+        AtomicInteger sent = new AtomicInteger();
+        return () -> sent.getAndIncrement() == 0 ? primary : hedge;
+    }
+}
@@ -0,0 +1,176 @@
+package dev.sharanggupta.customergateway;
+
+import dev.sharanggupta.customergateway.config.LoadBalancingProperties;
+import dev.sharanggupta.customergateway.support.LoadBalancer;
+import dev.sharanggupta.customergateway.support.LoadBalancer.Selection;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for instance selection without a Spring context.
+ *
+ * With two instances both are compared on every call, so the choice is fully determined
+ * by their latencies, outstanding calls and ejections.
+ */
+class LoadBalancerTest {
+
+    private static final URI FIRST = URI.create("http://first:8080");
+    private static final URI SECOND = URI.create("http://second:8080");
+    private static final int CONSECUTIVE_FAILURES = 3;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Nested
+    @DisplayName("When instances have no latency history")
+    class NoHistory {
+
+        @Test
+        @DisplayName("spreads outstanding calls evenly")
+        void spreadsOutstandingCalls() {
+            // Given
+            LoadBalancer balancer = balancer(Duration.ofSeconds(30));
+
+            // When
+            List<URI> chosen = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                chosen.add(balancer.select().uri());
+            }
+
+            // Then
+            assertThat(chosen).filteredOn(FIRST::equals).hasSize(5);
+            assertThat(chosen).filteredOn(SECOND::equals).hasSize(5);
+        }
+    }
+
+    @Nested
+    @DisplayName("When one instance is slower")
+    class SlowInstance {
+
+        @Test
+        @DisplayName("sends every call to the faster one")
+        void prefersFasterInstance() throws InterruptedException {
+            // Given
+            LoadBalancer balancer = balancer(Duration.ofSeconds(30));
+            completeOneCallEach(balancer, SECOND, Duration.ofMillis(20));
+
+            // When
+            List<URI> chosen = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                Selection selection = balancer.select();
+                chosen.add(selection.uri());
+                selection.success();
+            }
+
+            // Then
+            assertThat(chosen).containsOnly(FIRST);
+        }
+    }
+
+    @Nested
+    @DisplayName("When an instance keeps failing")
+    class FailingInstance {
+
+        @Test
+        @DisplayName("ejects it after consecutive failures")
+        void ejectsFailingInstance() throws InterruptedException {
+            // Given
+            LoadBalancer balancer = balancer(Duration.ofSeconds(30));
+            failUntilEjected(balancer, SECOND);
+
+            // When
+            List<URI> chosen = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                chosen.add(balancer.select().uri());
+            }
+
+            // Then
+            assertThat(chosen).containsOnly(FIRST);
+            assertThat(ejections()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("sends calls to it again once the ejection time has passed")
+        void returnsAfterEjectionTime() throws InterruptedException {
+            // Given
+            LoadBalancer balancer = balancer(Duration.ofMillis(50));
+            failUntilEjected(balancer, SECOND);
+
+            // When
+            Thread.sleep(100);
+            List<URI> chosen = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                chosen.add(balancer.select().uri());
+            }
+
+            // Then
+            assertThat(chosen).contains(SECOND);
+        }
+
+        @Test
+        @DisplayName("never ejects more than the allowed share of instances")
+        void limitsEjectedShare() {
+            // Given
+            LoadBalancer balancer = balancer(Duration.ofSeconds(30));
+
+            // When
+            for (int i = 0; i < 20; i++) {
+                balancer.select().failure();
+            }
+
+            // Then
+            assertThat(ejections()).isEqualTo(1);
+        }
+    }
+
+    // ========== Helpers ==========
+
+    private LoadBalancer balancer(Duration ejectionTime) {
+        return new LoadBalancer("card", List.of(FIRST, SECOND),
+                new LoadBalancingProperties(0.3, Duration.ofSeconds(10), CONSECUTIVE_FAILURES, ejectionTime, 50),
+                meterRegistry);
+    }
+
+    /**
+     * Given: Each instance has answered once, the slow one after the given delay.
+     */
+    private void completeOneCallEach(LoadBalancer balancer, URI slow, Duration delay) throws InterruptedException {
+        for (int i = 0; i < 2; i++) {
+            Selection selection = balancer.select();
+            if (selection.uri().equals(slow)) {
+                Thread.sleep(delay.toMillis());
+            }
+            selection.success();
+        }
+    }
+
+    /**
+     * Given: The failing instance has failed often enough in a row to be ejected. It fails
+     * fast, so it stays the cheaper instance until then.
+     */
+    private void failUntilEjected(LoadBalancer balancer, URI failing) throws InterruptedException {
+        for (int i = 0; i < 100 && ejections() == 0; i++) {
+            Selection selection = balancer.select();
+            if (selection.uri().equals(failing)) {
+                selection.failure();
+            } else {
+                Thread.sleep(5);
+                selection.success();
+            }
+        }
+        assertThat(ejections()).isEqualTo(1);
+    }
+
+    private double ejections() {
+        return meterRegistry.get("gateway.balancer.ejections").tag("service", "card").counter().count();
+    }
+}
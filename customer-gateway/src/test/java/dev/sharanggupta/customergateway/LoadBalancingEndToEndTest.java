@@ -0,0 +1,196 @@
+package dev.sharanggupta.customergateway;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Tests for client-side load balancing across several instances of a service.
+ *
+ * Every service gets a second WireMock instance. Each scenario uses a different service,
+ * so the latencies and ejections one scenario leaves behind cannot steer another. Calls
+ * are sent in concurrent bursts, so the outstanding calls on one instance push some of
+ * them to the other whatever latencies earlier calls have recorded.
+ */
+@TestPropertySource(properties = {
+        "test.context.id=LoadBalancingEndToEndTest",
+        "gateway.load-balancing.consecutive-failures=3"
+})
+class LoadBalancingEndToEndTest extends BaseEndToEndTest {
+
+    private static final int SLOW_RESPONSE_MS = 300;
+    private static final int CONCURRENT_REQUESTS = 10;
+
+    private static WireMockServer secondAccountService;
+    private static WireMockServer secondCardService;
+    private static WireMockServer secondLoanService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeAll
+    static void startSecondInstances() {
+        secondAccountService = new WireMockServer(WireMockConfiguration.wireMockConfig().dynamicPort());
+        secondCardService = new WireMockServer(WireMockConfiguration.wireMockConfig().dynamicPort());
+        secondLoanService = new WireMockServer(WireMockConfiguration.wireMockConfig().dynamicPort());
+        secondAccountService.start();
+        secondCardService.start();
+        secondLoanService.start();
+    }
+
+    @AfterAll
+    static void stopSecondInstances() {
+        secondAccountService.stop();
+        secondCardService.stop();
+        secondLoanService.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureInstances(DynamicPropertyRegistry registry) {
+        registry.add("services.account-urls[0]", () -> "http://localhost:" + accountService.port());
+        registry.add("services.account-urls[1]", () -> "http://localhost:" + secondAccountService.port());
+        registry.add("services.card-urls[0]", () -> "http://localhost:" + cardService.port());
+        registry.add("services.card-urls[1]", () -> "http://localhost:" + secondCardService.port());
+        registry.add("services.loan-urls[0]", () -> "http://localhost:" + loanService.port());
+        registry.add("services.loan-urls[1]", () -> "http://localhost:" + secondLoanService.port());
+    }
+
+    @BeforeEach
+    void resetSecondInstances() {
+        secondAccountService.resetAll();
+        secondCardService.resetAll();
+        secondLoanService.resetAll();
+    }
+
+    @Nested
+    @DisplayName("When instances are equally fast")
+    class EqualInstances {
+
+        @Test
+        @DisplayName("spreads concurrent proxied calls across them")
+        void spreadsConcurrentCalls() {
+            // Given
+            givenSlowCard(cardService, VALID_MOBILE);
+            givenSlowCard(secondCardService, VALID_MOBILE);
+
+            // When
+            List<HttpStatus> statuses = getConcurrently("/api/customer/" + VALID_MOBILE + "/card");
+
+            // Then
+            assertThat(statuses).containsOnly(HttpStatus.OK);
+            assertThat(cardCalls(cardService)).isGreaterThanOrEqualTo(CONCURRENT_REQUESTS / 4);
+            assertThat(cardCalls(secondCardService)).isGreaterThanOrEqualTo(CONCURRENT_REQUESTS / 4);
+        }
+    }
+
+    @Nested
+    @DisplayName("When one instance keeps failing")
+    class FailingInstance {
+
+        @Test
+        @DisplayName("ejects it and sends every later proxied call to the healthy one")
+        void ejectsFailingInstance() {
+            // Given
+            givenSlowAccount(accountService, VALID_MOBILE);
+            secondAccountService.stubFor(get(urlEqualTo("/account/api/" + VALID_MOBILE))
+                    .willReturn(aResponse().withStatus(503)));
+            await().atMost(Duration.ofSeconds(10)).until(() -> {
+                getConcurrently("/account/api/" + VALID_MOBILE);
+                return ejections("account") == 1;
+            });
+            // The failures also count against the service's circuit breaker, which this test is not about
+            circuitBreakerRegistry.circuitBreaker("account_service").reset();
+            accountService.resetRequests();
+            secondAccountService.resetRequests();
+
+            // When
+            for (int i = 0; i < 5; i++) {
+                client.get()
+                        .uri("/account/api/" + VALID_MOBILE)
+                        .exchange()
+                        .expectStatus().isOk();
+            }
+
+            // Then
+            accountService.verify(5, getRequestedFor(urlEqualTo("/account/api/" + VALID_MOBILE)));
+            secondAccountService.verify(0, getRequestedFor(urlEqualTo("/account/api/" + VALID_MOBILE)));
+        }
+    }
+
+    // ========== Helpers ==========
+
+    /**
+     * Given: A card instance answers after a short delay.
+     */
+    private void givenSlowCard(WireMockServer instance, String mobile) {
+        instance.stubFor(get(urlEqualTo("/card/api/" + mobile))
+                .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/json")
+                        .withBody("""
+                                {"cardNumber":"1234567890123456","mobileNumber":"%s","cardType":"Credit Card",
+                                 "totalLimit":100000,"amountUsed":5000,"availableAmount":95000}
+                                """.formatted(mobile))
+                        .withFixedDelay(SLOW_RESPONSE_MS)));
+    }
+
+    /**
+     * Given: An account instance answers after a short delay.
+     */
+    private void givenSlowAccount(WireMockServer instance, String mobile) {
+        instance.stubFor(get(urlEqualTo("/account/api/" + mobile))
+                .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/json")
+                        .withBody("""
+                                {"name":"%s","email":"%s","mobileNumber":"%s","account":{"accountNumber":"%s"}}
+                                """.formatted(VALID_NAME, VALID_EMAIL, mobile, ACCOUNT_NUMBER))
+                        .withFixedDelay(SLOW_RESPONSE_MS)));
+    }
+
+    private List<HttpStatus> getConcurrently(String path) {
+        return Flux.range(0, CONCURRENT_REQUESTS)
+                .flatMap(i -> Mono.fromCallable(() -> statusOf(path)).subscribeOn(Schedulers.boundedElastic()),
+                        CONCURRENT_REQUESTS)
+                .collectList()
+                .block();
+    }
+
+    private HttpStatus statusOf(String path) {
+        return HttpStatus.valueOf(client.get()
+                .uri(path)
+                .exchange()
+                .expectBody(String.class)
+                .returnResult()
+                .getStatus()
+                .value());
+    }
+
+    private int cardCalls(WireMockServer instance) {
+        return instance.findAll(getRequestedFor(urlEqualTo("/card/api/" + VALID_MOBILE))).size();
+    }
+
+    private double ejections(String service) {
+        return meterRegistry.get("gateway.balancer.ejections").tag("service", service).counter().count();
+    }
+}
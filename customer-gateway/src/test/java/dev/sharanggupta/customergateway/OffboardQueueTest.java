@@ -0,0 +1,81 @@
+package dev.sharanggupta.customergateway;
+
+import dev.sharanggupta.customergateway.config.OffboardQueueProperties;
+import dev.sharanggupta.customergateway.dto.OffboardStatus;
+import dev.sharanggupta.customergateway.service.OffboardQueue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Tests for the offboard queue without a Spring context.
+ *
+ * A single worker is held by an offboarding that only finishes when the test says so,
+ * so a backlog can be built up behind it and observed as it drains.
+ */
+class OffboardQueueTest {
+
+    private static final int BACKLOG = 5000;
+
+    @Nested
+    @DisplayName("When queued offboardings fail at once")
+    class ImmediateFailures {
+
+        @Test
+        @DisplayName("drains the whole backlog")
+        void drainsBacklog() {
+            // Given
+            OffboardQueue queue = queue(BACKLOG + 1, Duration.ofHours(1));
+            Sinks.Empty<Void> holder = Sinks.empty();
+            queue.submit("1234567890", holder::asMono);
+            List<String> requestIds = new ArrayList<>();
+            for (int i = 0; i < BACKLOG; i++) {
+                requestIds.add(queue.submit("1234567890",
+                        () -> Mono.error(new IllegalStateException("rejected"))).requestId());
+            }
+
+            // When
+            holder.tryEmitEmpty();
+
+            // Then
+            await().atMost(Duration.ofSeconds(10)).until(() -> requestIds.stream()
+                    .allMatch(id -> queue.status(id).map(OffboardStatus::isFinished).orElse(false)));
+            assertThat(queue.status(requestIds.getLast()).map(OffboardStatus::state))
+                    .contains(OffboardStatus.State.FAILED);
+        }
+    }
+
+    @Nested
+    @DisplayName("When no new offboardings arrive")
+    class Idle {
+
+        @Test
+        @DisplayName("drops finished statuses past their retention on read")
+        void prunesOnRead() {
+            // Given
+            OffboardQueue queue = queue(10, Duration.ofMillis(100));
+
+            // When
+            String requestId = queue.submit("1234567890", Mono::empty).requestId();
+
+            // Then: only finished statuses are dropped
+            await().atMost(Duration.ofSeconds(2)).until(() -> queue.status(requestId).isEmpty());
+        }
+    }
+
+    // ========== Helpers ==========
+
+    private static OffboardQueue queue(int capacity, Duration statusRetention) {
+        return new OffboardQueue(new OffboardQueueProperties(capacity, 1, statusRetention), new SimpleMeterRegistry());
+    }
+}
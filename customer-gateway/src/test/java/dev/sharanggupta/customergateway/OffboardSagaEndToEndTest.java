@@ -0,0 +1,235 @@
+package dev.sharanggupta.customergateway;
+
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import dev.sharanggupta.customergateway.service.OffboardSaga;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.delete;
+import static com.github.tomakehurst.wiremock.client.WireMock.deleteRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.exactly;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the offboarding saga.
+ *
+ * Verifies that card and loan are deleted in parallel, that the account is only
+ * deleted after both, that a saga which failed in-process is left for the client to
+ * retry, and that sagas cut short by a restart are resumed from the journal unless
+ * they are older than the recovery age.
+ */
+@TestPropertySource(properties = {
+        "test.context.id=OffboardSagaEndToEndTest",
+        "resilience4j.circuitbreaker.configs.default.sliding-window-size=100",
+        "resilience4j.circuitbreaker.configs.default.minimum-number-of-calls=50",
+        "resilience4j.circuitbreaker.configs.default.failure-rate-threshold=100",
+        "resilience4j.circuitbreaker.configs.default.wait-duration-in-open-state=60s"
+})
+class OffboardSagaEndToEndTest extends BaseEndToEndTest {
+
+    private static final int DELETE_DELAY_MS = 1000;
+    private static final String OTHER_MOBILE = "1234567891";
+
+    @Autowired
+    private OffboardSaga offboardSaga;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Nested
+    @DisplayName("When all deletions succeed")
+    class AllDeletionsSucceed {
+
+        @Test
+        @DisplayName("deletes card and loan in parallel before the account")
+        void deletesCardAndLoanInParallelBeforeAccount() {
+            // Given
+            givenCardAndLoanDeletesTakeOneSecond(VALID_MOBILE);
+            stubAccountDeleteSuccess(VALID_MOBILE);
+
+            // When
+            Instant start = Instant.now();
+            client.delete()
+                    .uri(OFFBOARD_PATH + "/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().isOk();
+            Duration elapsed = Duration.between(start, Instant.now());
+
+            // Then
+            assertThat(elapsed).isLessThan(Duration.ofMillis(2 * DELETE_DELAY_MS - 100));
+            Instant accountDeleted = loggedDate(accountService.getAllServeEvents());
+            assertThat(accountDeleted)
+                    .isAfterOrEqualTo(loggedDate(cardService.getAllServeEvents()).plusMillis(DELETE_DELAY_MS))
+                    .isAfterOrEqualTo(loggedDate(loanService.getAllServeEvents()).plusMillis(DELETE_DELAY_MS));
+        }
+    }
+
+    @Nested
+    @DisplayName("When a deletion fails part-way")
+    class PartialFailure {
+
+        @Test
+        @DisplayName("keeps the account and leaves the saga for the client to retry")
+        void keepsAccountAndDoesNotResume() {
+            // Given
+            cardService.stubFor(delete(urlEqualTo("/card/api/" + VALID_MOBILE))
+                    .willReturn(aResponse().withStatus(503)));
+            stubLoanDeleteSuccess(VALID_MOBILE);
+            stubAccountDeleteSuccess(VALID_MOBILE);
+
+            // When
+            client.delete()
+                    .uri(OFFBOARD_PATH + "/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().isEqualTo(503);
+
+            // Then: the account is untouched
+            accountService.verify(exactly(0), deleteRequestedFor(urlEqualTo("/account/api/" + VALID_MOBILE)));
+
+            // When: the card service recovers and recovery runs
+            cardService.resetAll();
+            stubCardDeleteSuccess(VALID_MOBILE);
+            offboardSaga.recover().block();
+
+            // Then: the customer the client was told is still there is not deleted behind its back
+            cardService.verify(exactly(0), deleteRequestedFor(urlEqualTo("/card/api/" + VALID_MOBILE)));
+            accountService.verify(exactly(0), deleteRequestedFor(urlEqualTo("/account/api/" + VALID_MOBILE)));
+
+            // When: the client retries
+            client.delete()
+                    .uri(OFFBOARD_PATH + "/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().isOk();
+
+            // Then
+            accountService.verify(exactly(1), deleteRequestedFor(urlEqualTo("/account/api/" + VALID_MOBILE)));
+        }
+    }
+
+    @Nested
+    @DisplayName("When the gateway restarts with an unfinished saga")
+    class Restart {
+
+        @Test
+        @DisplayName("resumes from the first unfinished step")
+        void resumesFromJournal() throws IOException {
+            // Given: a previous process deleted the card and then crashed
+            givenAllDeletesWillSucceed(VALID_MOBILE);
+            givenJournalContains(
+                    "crashed-saga\tSTARTED\t" + VALID_MOBILE,
+                    "crashed-saga\tCARD_DELETED\t" + VALID_MOBILE);
+
+            // When
+            offboardSaga.recover().block();
+
+            // Then
+            cardService.verify(exactly(0), deleteRequestedFor(urlEqualTo("/card/api/" + VALID_MOBILE)));
+            loanService.verify(exactly(1), deleteRequestedFor(urlEqualTo("/loan/api/" + VALID_MOBILE)));
+            accountService.verify(exactly(1), deleteRequestedFor(urlEqualTo("/account/api/" + VALID_MOBILE)));
+        }
+
+        @Test
+        @DisplayName("skips journal entries with an unknown step and resumes the other sagas")
+        void skipsUnknownSteps() throws IOException {
+            // Given: one saga with an entry this version does not know, and another unfinished saga
+            givenAllDeletesWillSucceed(VALID_MOBILE);
+            givenAllDeletesWillSucceed(OTHER_MOBILE);
+            givenJournalContains(
+                    "future-saga\tSTARTED\t" + VALID_MOBILE,
+                    "future-saga\tCARD_ARCHIVED\t" + VALID_MOBILE,
+                    "other-saga\tSTARTED\t" + OTHER_MOBILE);
+
+            // When
+            offboardSaga.recover().block();
+
+            // Then
+            accountService.verify(exactly(1), deleteRequestedFor(urlEqualTo("/account/api/" + VALID_MOBILE)));
+            accountService.verify(exactly(1), deleteRequestedFor(urlEqualTo("/account/api/" + OTHER_MOBILE)));
+        }
+
+        @Test
+        @DisplayName("abandons a saga older than the recovery age instead of resuming it")
+        void abandonsStaleSaga() throws IOException {
+            // Given: a saga stalled two days ago, and the customer has since onboarded again
+            givenAllDeletesWillSucceed(VALID_MOBILE);
+            givenJournalContainsFrom(Instant.now().minus(Duration.ofDays(2)),
+                    "stale-saga\tSTARTED\t" + VALID_MOBILE,
+                    "stale-saga\tCARD_DELETED\t" + VALID_MOBILE);
+            double abandonedBefore = abandonedSagas();
+
+            // When
+            offboardSaga.recover().block();
+            offboardSaga.recover().block();
+
+            // Then
+            loanService.verify(exactly(0), deleteRequestedFor(urlEqualTo("/loan/api/" + VALID_MOBILE)));
+            accountService.verify(exactly(0), deleteRequestedFor(urlEqualTo("/account/api/" + VALID_MOBILE)));
+            assertThat(abandonedSagas()).isEqualTo(abandonedBefore + 1);
+            assertThat(Files.readString(offboardSagaJournal)).doesNotContain("stale-saga");
+        }
+
+        @Test
+        @DisplayName("drops finished sagas from the journal")
+        void compactsFinishedSagas() throws IOException {
+            // Given
+            givenJournalContains(
+                    "finished-saga\tSTARTED\t" + VALID_MOBILE,
+                    "finished-saga\tCARD_DELETED\t" + VALID_MOBILE,
+                    "finished-saga\tLOAN_DELETED\t" + VALID_MOBILE,
+                    "finished-saga\tACCOUNT_DELETED\t" + VALID_MOBILE);
+
+            // When
+            offboardSaga.recover().block();
+
+            // Then
+            assertThat(Files.readString(offboardSagaJournal)).doesNotContain("finished-saga");
+            accountService.verify(exactly(0), deleteRequestedFor(urlEqualTo("/account/api/" + VALID_MOBILE)));
+        }
+    }
+
+    // ========== Helpers ==========
+
+    private void givenCardAndLoanDeletesTakeOneSecond(String mobile) {
+        cardService.stubFor(delete(urlEqualTo("/card/api/" + mobile))
+                .willReturn(aResponse().withStatus(204).withFixedDelay(DELETE_DELAY_MS)));
+        loanService.stubFor(delete(urlEqualTo("/loan/api/" + mobile))
+                .willReturn(aResponse().withStatus(204).withFixedDelay(DELETE_DELAY_MS)));
+    }
+
+    /**
+     * Given: The journal holds these "sagaId, step, mobile" lines from an earlier run.
+     */
+    private void givenJournalContains(String... lines) throws IOException {
+        givenJournalContainsFrom(Instant.now(), lines);
+    }
+
+    private void givenJournalContainsFrom(Instant timestamp, String... lines) throws IOException {
+        offboardSaga.recover().block();
+        StringBuilder content = new StringBuilder();
+        for (String line : lines) {
+            content.append(timestamp).append('\t').append(line).append('\n');
+        }
+        Files.writeString(offboardSagaJournal, content, StandardOpenOption.APPEND);
+    }
+
+    private double abandonedSagas() {
+        return meterRegistry.get("gateway.offboard.saga.abandoned").counter().count();
+    }
+
+    private static Instant loggedDate(List<ServeEvent> serveEvents) {
+        return serveEvents.getFirst().getRequest().getLoggedDate().toInstant();
+    }
+}
@@ -0,0 +1,126 @@
+package dev.sharanggupta.customergateway;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Tests for partial customer profiles.
+ *
+ * The card and loan lookups have 300ms once the account has arrived. A slow card
+ * service misses that budget, so the profile is returned without the card.
+ */
+@TestPropertySource(properties = {
+        "test.context.id=PartialResponseEndToEndTest",
+        "gateway.partial-response.component-budget=300ms"
+})
+class PartialResponseEndToEndTest extends BaseEndToEndTest {
+
+    private static final int SLOW_RESPONSE_MS = 1500;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Nested
+    @DisplayName("When every product arrives within its budget")
+    class OnTime {
+
+        @Test
+        @DisplayName("returns the complete profile without a degraded list")
+        void returnsCompleteProfile() {
+            // Given
+            givenCustomerExistsWithAllProducts(VALID_MOBILE);
+
+            // When / Then
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.card.cardNumber").exists()
+                    .jsonPath("$.loan.loanNumber").exists()
+                    .jsonPath("$.degraded").doesNotExist();
+        }
+    }
+
+    @Nested
+    @DisplayName("When a product misses its budget")
+    class Late {
+
+        @AfterEach
+        void awaitLateResults() {
+            // A late lookup must not land in the next test's circuit breaker metrics
+            await().atMost(Duration.ofSeconds(5)).until(() -> meterRegistry.get("gateway.concurrency.in.flight")
+                    .tag("service", "card").gauge().value() == 0);
+        }
+
+        @Test
+        @DisplayName("returns the profile without it and lists it as degraded")
+        void returnsPartialProfile() {
+            // Given
+            stubAccountFetchSuccess(VALID_MOBILE);
+            givenSlowCardService(VALID_MOBILE);
+            stubLoanFetchSuccess(VALID_MOBILE);
+            long start = System.nanoTime();
+
+            // When / Then
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.account.accountNumber").isEqualTo(ACCOUNT_NUMBER)
+                    .jsonPath("$.loan.loanNumber").exists()
+                    .jsonPath("$.card").doesNotExist()
+                    .jsonPath("$.degraded[0]").isEqualTo("card");
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(SLOW_RESPONSE_MS));
+        }
+
+        @Test
+        @DisplayName("still consumes the late result instead of cancelling it")
+        void consumesLateResult() {
+            // Given
+            stubAccountFetchSuccess(VALID_MOBILE);
+            givenSlowCardService(VALID_MOBILE);
+            stubLoanFetchSuccess(VALID_MOBILE);
+
+            // When
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().isOk();
+
+            // Then
+            await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                    assertThat(circuitBreakerRegistry.circuitBreaker("card_service")
+                            .getMetrics().getNumberOfSuccessfulCalls()).isEqualTo(1));
+        }
+    }
+
+    // ========== Helpers ==========
+
+    /**
+     * Given: The card service answers long after the component budget.
+     */
+    private void givenSlowCardService(String mobile) {
+        cardService.stubFor(get(urlEqualTo("/card/api/" + mobile))
+                .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/json")
+                        .withBody("""
+                                {"cardNumber":"1234567890123456","mobileNumber":"%s","cardType":"Credit Card",
+                                 "totalLimit":100000,"amountUsed":5000,"availableAmount":95000}
+                                """.formatted(mobile))
+                        .withFixedDelay(SLOW_RESPONSE_MS)));
+    }
+}
@@ -0,0 +1,324 @@
+package dev.sharanggupta.customergateway;
+
+import dev.sharanggupta.customergateway.client.AccountServiceClient;
+import dev.sharanggupta.customergateway.client.DownstreamRSocket;
+import dev.sharanggupta.customergateway.dto.CustomerAccount;
+import dev.sharanggupta.customergateway.exception.DeadlineExceededException;
+import dev.sharanggupta.customergateway.support.Deadline;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.rsocket.core.RSocketServer;
+import io.rsocket.exceptions.CustomRSocketException;
+import io.rsocket.transport.netty.server.CloseableChannel;
+import io.rsocket.transport.netty.server.TcpServerTransport;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.JacksonCborDecoder;
+import org.springframework.http.codec.cbor.JacksonCborEncoder;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.rsocket.RSocketStrategies;
+import org.springframework.messaging.rsocket.annotation.support.RSocketMessageHandler;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.anyRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Tests for calling the downstream services over RSocket.
+ *
+ * Each service is played by an in-process RSocket server answering the routes the real
+ * service serves. The existence filter is seeded over RSocket with {@link #VALID_MOBILE}
+ * and {@link #STALE_MOBILE}; the account service no longer knows the latter.
+ */
+@TestPropertySource(properties = {
+        "test.context.id=RSocketTransportEndToEndTest",
+        "gateway.rsocket.enabled=true",
+        "gateway.hedging.enabled=false",
+        "gateway.partial-response.enabled=false"
+})
+class RSocketTransportEndToEndTest extends BaseEndToEndTest {
+
+    private static final String STALE_MOBILE = "5555555555";
+
+    private static final RSocketStrategies STRATEGIES = RSocketStrategies.builder()
+            .encoders(encoders -> encoders.add(new JacksonCborEncoder()))
+            .decoders(decoders -> decoders.add(new JacksonCborDecoder()))
+            .build();
+
+    private static final AtomicReference<Map<String, Object>> createdAccount = new AtomicReference<>();
+    private static final AtomicBoolean accountSlow = new AtomicBoolean();
+    private static final AtomicBoolean accountCallCancelled = new AtomicBoolean();
+    private static final AtomicBoolean accountStreamCancelled = new AtomicBoolean();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AccountServiceClient accountServiceClient;
+
+    private static CloseableChannel accountServer;
+    private static CloseableChannel cardServer;
+    private static CloseableChannel loanServer;
+
+    @BeforeAll
+    static void startRSocketServers() {
+        accountServer = startServer(new AccountRoutes());
+        cardServer = startServer(new CardRoutes());
+        loanServer = startServer(new LoanRoutes());
+    }
+
+    @AfterAll
+    static void stopRSocketServers() {
+        accountServer.dispose();
+        cardServer.dispose();
+        loanServer.dispose();
+    }
+
+    @DynamicPropertySource
+    static void configureRSocketPorts(DynamicPropertyRegistry registry) {
+        registry.add("gateway.rsocket.account-port", () -> accountServer.address().getPort());
+        registry.add("gateway.rsocket.card-port", () -> cardServer.address().getPort());
+        registry.add("gateway.rsocket.loan-port", () -> loanServer.address().getPort());
+    }
+
+    @BeforeEach
+    void resetRoutes() {
+        createdAccount.set(null);
+        accountSlow.set(false);
+        accountCallCancelled.set(false);
+        accountStreamCancelled.set(false);
+    }
+
+    @Nested
+    @DisplayName("When fetching customer details")
+    class Fetch {
+
+        @Test
+        @DisplayName("gets every product over RSocket instead of HTTP")
+        void fetchesOverRSocket() {
+            // When / Then
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.name").isEqualTo(VALID_NAME)
+                    .jsonPath("$.account.accountNumber").isEqualTo(ACCOUNT_NUMBER)
+                    .jsonPath("$.card.cardNumber").isEqualTo("1234567890123456")
+                    .jsonPath("$.loan.loanNumber").isEqualTo("123456789012");
+            accountService.verify(0, anyRequestedFor(anyUrl()));
+            cardService.verify(0, anyRequestedFor(anyUrl()));
+            loanService.verify(0, anyRequestedFor(anyUrl()));
+        }
+
+        @Test
+        @DisplayName("returns 404 when the account service no longer knows the customer")
+        void returnsNotFound() {
+            // When / Then
+            client.get()
+                    .uri(DETAILS_PATH + "/" + STALE_MOBILE)
+                    .exchange()
+                    .expectStatus().isNotFound();
+        }
+
+        @Test
+        @DisplayName("does not shrink the concurrency limit for a not found")
+        void keepsLimitOnNotFound() {
+            // Given
+            double limitBefore = accountLimit();
+
+            // When
+            for (int i = 0; i < 3; i++) {
+                client.get()
+                        .uri(DETAILS_PATH + "/" + STALE_MOBILE)
+                        .exchange()
+                        .expectStatus().isNotFound();
+            }
+
+            // Then
+            assertThat(accountLimit()).isGreaterThanOrEqualTo(limitBefore);
+        }
+
+        @Test
+        @DisplayName("cancels the call on the service when the request deadline expires")
+        void cancelsOnService() {
+            // Given
+            accountSlow.set(true);
+
+            // When
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .header("X-Request-Timeout-Ms", "200")
+                    .exchange()
+                    .expectStatus().is5xxServerError();
+
+            // Then
+            await().atMost(Duration.ofSeconds(2)).untilTrue(accountCallCancelled);
+        }
+    }
+
+    @Nested
+    @DisplayName("When streaming a batch lookup")
+    class Stream {
+
+        @Test
+        @DisplayName("cancels the stream on the service when the request deadline expires")
+        void cancelsStreamOnDeadline() {
+            // Given
+            accountSlow.set(true);
+
+            // When
+            Flux<CustomerAccount> accounts = accountServiceClient.fetchAccounts(List.of(VALID_MOBILE, STALE_MOBILE))
+                    .contextWrite(context -> context.put(Deadline.CONTEXT_KEY, Deadline.after(Duration.ofMillis(300))));
+
+            // Then
+            assertThatThrownBy(accounts::blockLast).isInstanceOf(DeadlineExceededException.class);
+            await().atMost(Duration.ofSeconds(2)).untilTrue(accountStreamCancelled);
+        }
+
+        @Test
+        @DisplayName("holds a bulkhead place until the stream ends and times it as its own operation")
+        void protectsStream() {
+            // Given
+            accountSlow.set(true);
+
+            // When
+            Disposable stream = accountServiceClient.fetchAccounts(List.of(VALID_MOBILE, STALE_MOBILE)).subscribe();
+
+            // Then
+            await().atMost(Duration.ofSeconds(2)).until(() -> accountBulkheadInFlight() == 1);
+            stream.dispose();
+            await().atMost(Duration.ofSeconds(2)).until(() -> accountBulkheadInFlight() == 0);
+            assertThat(meterRegistry.find("gateway.timeout.current")
+                    .tag("service", "account").tag("operation", "fetch-batch").gauge()).isNotNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("When onboarding a customer")
+    class Onboard {
+
+        @Test
+        @DisplayName("creates the account over RSocket")
+        void createsOverRSocket() {
+            // When
+            client.post()
+                    .uri(ONBOARD_PATH)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(createOnboardRequest(VALID_NAME, VALID_EMAIL, "2345678901"))
+                    .exchange()
+                    .expectStatus().isCreated();
+
+            // Then
+            assertThat(createdAccount.get()).containsEntry("mobileNumber", "2345678901");
+            accountService.verify(0, anyRequestedFor(anyUrl()));
+        }
+    }
+
+    // ========== Helpers ==========
+
+    private double accountBulkheadInFlight() {
+        return meterRegistry.get("gateway.bulkhead.in.flight").tag("service", "account").gauge().value();
+    }
+
+    private double accountLimit() {
+        return meterRegistry.get("gateway.concurrency.limit").tag("service", "account").gauge().value();
+    }
+
+    private static CloseableChannel startServer(Object routes) {
+        RSocketMessageHandler handler = new RSocketMessageHandler();
+        handler.setRSocketStrategies(STRATEGIES);
+        handler.setHandlers(List.of(routes));
+        handler.afterPropertiesSet();
+        return RSocketServer.create(handler.responder())
+                .bind(TcpServerTransport.create("localhost", 0))
+                .block();
+    }
+
+    private static CustomRSocketException notFound(String message) {
+        return new CustomRSocketException(DownstreamRSocket.ERROR_CODE_BASE + 404, message);
+    }
+
+    /**
+     * The account service's routes: knows only {@link #VALID_MOBILE}.
+     */
+    static class AccountRoutes {
+
+        @MessageMapping("account.mobile-numbers")
+        public Flux<String> mobileNumbers() {
+            return Flux.just(VALID_MOBILE, STALE_MOBILE);
+        }
+
+        @MessageMapping("account.fetch.{mobileNumber}")
+        public Mono<Map<String, Object>> fetch(@DestinationVariable String mobileNumber) {
+            if (accountSlow.get()) {
+                return Mono.<Map<String, Object>>never().doOnCancel(() -> accountCallCancelled.set(true));
+            }
+            if (!VALID_MOBILE.equals(mobileNumber)) {
+                return Mono.error(notFound("Customer not found with the given input data mobileNumber : '" + mobileNumber + "'"));
+            }
+            return Mono.just(Map.of(
+                    "name", VALID_NAME,
+                    "email", VALID_EMAIL,
+                    "mobileNumber", mobileNumber,
+                    "account", Map.of("accountNumber", ACCOUNT_NUMBER, "accountType", "Savings",
+                            "branchAddress", "123 Main Street")));
+        }
+
+        @MessageMapping("account.fetch-batch")
+        public Flux<Map<String, Object>> fetchBatch() {
+            Flux<Map<String, Object>> first = Flux.just(Map.of(
+                    "name", VALID_NAME, "email", VALID_EMAIL, "mobileNumber", VALID_MOBILE,
+                    "account", Map.of("accountNumber", ACCOUNT_NUMBER)));
+            return accountSlow.get()
+                    ? first.concatWith(Flux.<Map<String, Object>>never().doOnCancel(() -> accountStreamCancelled.set(true)))
+                    : first;
+        }
+
+        @MessageMapping("account.create")
+        public Mono<Void> create(Map<String, Object> customer) {
+            createdAccount.set(customer);
+            return Mono.empty();
+        }
+    }
+
+    static class CardRoutes {
+
+        @MessageMapping("card.fetch.{mobileNumber}")
+        public Mono<Map<String, Object>> fetch(@DestinationVariable String mobileNumber) {
+            return Mono.just(Map.of(
+                    "cardNumber", "1234567890123456", "mobileNumber", mobileNumber, "cardType", "Credit Card",
+                    "totalLimit", 100000, "amountUsed", 5000, "availableAmount", 95000));
+        }
+    }
+
+    static class LoanRoutes {
+
+        @MessageMapping("loan.fetch.{mobileNumber}")
+        public Mono<Map<String, Object>> fetch(@DestinationVariable String mobileNumber) {
+            return Mono.just(Map.of(
+                    "loanNumber", "123456789012", "mobileNumber", mobileNumber, "loanType", "Home Loan",
+                    "totalLoan", 500000, "amountPaid", 100000, "outstandingAmount", 400000));
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package dev.sharanggupta.customergateway;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the per-client rate limit on the customer API.
+ *
+ * Clients may burst three requests and then replenish far slower than the test runs,
+ * so the fourth request of a client is always rejected. Each test uses its own issued
+ * API key to start from a full bucket; requests with unknown keys share the bucket of
+ * their remote address.
+ */
+@TestPropertySource(properties = {
+        "test.context.id=RateLimitEndToEndTest",
+        "gateway.rate-limit.replenish-rate=0.01",
+        "gateway.rate-limit.burst-capacity=3",
+        "gateway.rate-limit.api-keys=" + RateLimitEndToEndTest.API_KEYS
+})
+class RateLimitEndToEndTest extends BaseEndToEndTest {
+
+    static final String API_KEYS = "key-1,key-2,key-3,key-4,key-5,key-6,key-7,key-8,key-9,key-10";
+
+    private static final String API_KEY_HEADER = "X-API-Key";
+    private static final AtomicInteger nextApiKey = new AtomicInteger();
+    private static final int BURST_CAPACITY = 3;
+
+    @Nested
+    @DisplayName("When a client stays within its burst")
+    class WithinLimit {
+
+        @Test
+        @DisplayName("serves every request and counts down the remaining requests")
+        void countsDownRemaining() {
+            // Given
+            String apiKey = newApiKey();
+            givenCustomerExistsWithAllProducts(VALID_MOBILE);
+
+            for (int remaining = BURST_CAPACITY - 1; remaining >= 0; remaining--) {
+                // When / Then
+                fetchDetails(apiKey)
+                        .expectStatus().isOk()
+                        .expectHeader().valueEquals("RateLimit-Limit", String.valueOf(BURST_CAPACITY))
+                        .expectHeader().valueEquals("RateLimit-Remaining", String.valueOf(remaining))
+                        .expectHeader().exists("RateLimit-Reset");
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("When a client exceeds its burst")
+    class OverLimit {
+
+        @Test
+        @DisplayName("rejects the excess request with 429 and Retry-After")
+        void rejectsExcessRequest() {
+            // Given
+            String apiKey = newApiKey();
+            givenCustomerExistsWithAllProducts(VALID_MOBILE);
+            exhaust(apiKey);
+
+            // When / Then
+            fetchDetails(apiKey)
+                    .expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+                    .expectHeader().valueEquals("RateLimit-Remaining", "0")
+                    .expectHeader().value(HttpHeaders.RETRY_AFTER, retryAfter ->
+                            assertThat(Long.parseLong(retryAfter)).isPositive())
+                    .expectBody()
+                    .jsonPath("$.errorMessage").value(message ->
+                            assertThat(message.toString()).contains("Rate limit exceeded"));
+            accountService.verify(BURST_CAPACITY, getRequestedFor(urlEqualTo("/account/api/" + VALID_MOBILE)));
+        }
+
+        @Test
+        @DisplayName("limits the proxied card route with the same bucket")
+        void limitsProxiedRoutes() {
+            // Given
+            String apiKey = newApiKey();
+            givenCustomerExistsWithAllProducts(VALID_MOBILE);
+            exhaust(apiKey);
+
+            // When / Then
+            client.get()
+                    .uri("/api/customer/" + VALID_MOBILE + "/card")
+                    .header(API_KEY_HEADER, apiKey)
+                    .exchange()
+                    .expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        }
+
+        @Test
+        @DisplayName("keeps serving other clients")
+        void isolatesClients() {
+            // Given
+            givenCustomerExistsWithAllProducts(VALID_MOBILE);
+            exhaust(newApiKey());
+
+            // When / Then
+            fetchDetails(newApiKey()).expectStatus().isOk();
+        }
+
+        @Test
+        @DisplayName("limits unknown API keys by the remote address")
+        void limitsUnknownKeysByAddress() {
+            // Given
+            givenCustomerExistsWithAllProducts(VALID_MOBILE);
+            for (int i = 0; i < BURST_CAPACITY; i++) {
+                fetchDetails(UUID.randomUUID().toString()).expectStatus().isOk();
+            }
+
+            // When / Then
+            fetchDetails(UUID.randomUUID().toString())
+                    .expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+            fetchDetails(newApiKey()).expectStatus().isOk();
+        }
+
+        @Test
+        @DisplayName("never limits the actuator endpoints")
+        void skipsActuator() {
+            // Given
+            exhaust(newApiKey());
+
+            // When / Then
+            client.get()
+                    .uri("/actuator/health/liveness")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().doesNotExist("RateLimit-Limit");
+        }
+    }
+
+    // ========== Helpers ==========
+
+    private String newApiKey() {
+        return API_KEYS.split(",")[nextApiKey.getAndIncrement()];
+    }
+
+    private void exhaust(String apiKey) {
+        for (int i = 0; i < BURST_CAPACITY; i++) {
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .header(API_KEY_HEADER, apiKey)
+                    .exchange()
+                    .expectHeader().exists("RateLimit-Remaining");
+        }
+    }
+
+    private WebTestClient.ResponseSpec fetchDetails(String apiKey) {
+        return client.get()
+                .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                .header(API_KEY_HEADER, apiKey)
+                .exchange();
+    }
+}
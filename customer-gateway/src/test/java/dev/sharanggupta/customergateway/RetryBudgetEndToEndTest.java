@@ -0,0 +1,213 @@
+package dev.sharanggupta.customergateway;
+
+import com.github.tomakehurst.wiremock.http.Fault;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.delete;
+import static com.github.tomakehurst.wiremock.client.WireMock.deleteRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for budgeted retries of downstream calls.
+ *
+ * Each service may save up a single retry, and earns half of one per successful call, so
+ * two successful calls always refill the budget and a failing service spends it at once.
+ */
+@TestPropertySource(properties = {
+        "test.context.id=RetryBudgetEndToEndTest",
+        "gateway.retry.budget-ratio=0.5",
+        "gateway.retry.max-burst=1",
+        "gateway.retry.base-delay=10ms",
+        "gateway.retry.max-delay=20ms"
+})
+class RetryBudgetEndToEndTest extends BaseEndToEndTest {
+
+    private static final String FLAKY_MOBILE = "1111111111";
+    private static final String DOWN_MOBILE = "2222222222";
+    private static final String LOST_MOBILE = "3333333333";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Nested
+    @DisplayName("When the budget has a retry left")
+    class WithinBudget {
+
+        @Test
+        @DisplayName("retries a transient failure and serves the request")
+        void retriesTransientFailure() {
+            // Given
+            givenRetryBudgetIsFull();
+            givenNextAccountFetchFails(FLAKY_MOBILE);
+            stubCardFetchNotFound(FLAKY_MOBILE);
+            stubLoanFetchNotFound(FLAKY_MOBILE);
+            double grantedBefore = granted();
+
+            // When / Then
+            client.get()
+                    .uri(DETAILS_PATH + "/" + FLAKY_MOBILE)
+                    .exchange()
+                    .expectStatus().isOk();
+            accountService.verify(2, getRequestedFor(urlEqualTo("/account/api/" + FLAKY_MOBILE)));
+            assertThat(granted()).isEqualTo(grantedBefore + 1);
+        }
+    }
+
+    @Nested
+    @DisplayName("When a deleted customer's response is lost")
+    class LostDelete {
+
+        @Test
+        @DisplayName("treats a retried delete that finds the account gone as offboarded")
+        void retriedDeleteNotFoundSucceeds() {
+            // Given
+            givenRetryBudgetIsFull();
+            stubCardDeleteSuccess(LOST_MOBILE);
+            stubLoanDeleteSuccess(LOST_MOBILE);
+            givenAccountDeleteResponseIsLost(LOST_MOBILE);
+
+            // When / Then
+            client.delete()
+                    .uri(OFFBOARD_PATH + "/" + LOST_MOBILE)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.statusMessage").isEqualTo(MESSAGE_OFFBOARDED);
+            accountService.verify(2, deleteRequestedFor(urlEqualTo("/account/api/" + LOST_MOBILE)));
+        }
+
+        @Test
+        @DisplayName("still reports a customer not found on the first delete")
+        void firstDeleteNotFoundFails() {
+            // Given
+            stubCardDeleteSuccess(NON_EXISTENT_MOBILE);
+            stubLoanDeleteSuccess(NON_EXISTENT_MOBILE);
+            stubAccountDeleteNotFound(NON_EXISTENT_MOBILE);
+
+            // When / Then
+            client.delete()
+                    .uri(OFFBOARD_PATH + "/" + NON_EXISTENT_MOBILE)
+                    .exchange()
+                    .expectStatus().isNotFound();
+        }
+    }
+
+    @Nested
+    @DisplayName("When a service keeps failing")
+    class Outage {
+
+        @Test
+        @DisplayName("stops retrying once the budget is spent")
+        void stopsRetryingWhenBudgetSpent() {
+            // Given
+            stubAccountFetchUnavailable(DOWN_MOBILE);
+            double deniedBefore = denied("budget");
+
+            // When
+            for (int i = 0; i < 3; i++) {
+                client.get()
+                        .uri(DETAILS_PATH + "/" + DOWN_MOBILE)
+                        .exchange()
+                        .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+            }
+
+            // Then
+            assertThat(accountService.findAll(getRequestedFor(urlEqualTo("/account/api/" + DOWN_MOBILE))))
+                    .hasSizeLessThanOrEqualTo(4);
+            assertThat(denied("budget")).isGreaterThanOrEqualTo(deniedBefore + 2);
+        }
+
+        @Test
+        @DisplayName("does not retry while the circuit breaker is not closed")
+        void skipsRetryUnlessCircuitClosed() {
+            // Given
+            givenRetryBudgetIsFull();
+            stubAccountFetchUnavailable(DOWN_MOBILE);
+            CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("account_service");
+            circuitBreaker.transitionToOpenState();
+            circuitBreaker.transitionToHalfOpenState();
+            double deniedBefore = denied("circuit_not_closed");
+
+            // When / Then
+            client.get()
+                    .uri(DETAILS_PATH + "/" + DOWN_MOBILE)
+                    .exchange()
+                    .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+            accountService.verify(1, getRequestedFor(urlEqualTo("/account/api/" + DOWN_MOBILE)));
+            assertThat(denied("circuit_not_closed")).isEqualTo(deniedBefore + 1);
+        }
+    }
+
+    // ========== Helpers ==========
+
+    /**
+     * Given: Two successful account lookups have refilled the account retry budget.
+     */
+    private void givenRetryBudgetIsFull() {
+        givenCustomerExistsWithAllProducts(VALID_MOBILE);
+        for (int i = 0; i < 2; i++) {
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().isOk();
+        }
+    }
+
+    /**
+     * Given: The next account lookup fails with 503; every later one succeeds.
+     */
+    private void givenNextAccountFetchFails(String mobile) {
+        accountService.stubFor(get(urlEqualTo("/account/api/" + mobile))
+                .inScenario("flaky account")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willSetStateTo("recovered")
+                .willReturn(aResponse().withStatus(503)));
+        accountService.stubFor(get(urlEqualTo("/account/api/" + mobile))
+                .inScenario("flaky account")
+                .whenScenarioStateIs("recovered")
+                .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/json")
+                        .withBody("""
+                                {"name":"%s","email":"%s","mobileNumber":"%s","account":{"accountNumber":"%s"}}
+                                """.formatted(VALID_NAME, VALID_EMAIL, mobile, ACCOUNT_NUMBER))));
+    }
+
+    /**
+     * Given: The first account delete deletes the customer but the connection is reset
+     * before the response arrives; every later one finds nothing to delete.
+     */
+    private void givenAccountDeleteResponseIsLost(String mobile) {
+        accountService.stubFor(delete(urlEqualTo("/account/api/" + mobile))
+                .inScenario("lost delete")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willSetStateTo("deleted")
+                .willReturn(aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER)));
+        accountService.stubFor(delete(urlEqualTo("/account/api/" + mobile))
+                .inScenario("lost delete")
+                .whenScenarioStateIs("deleted")
+                .willReturn(aResponse().withStatus(404)));
+    }
+
+    private double granted() {
+        return meterRegistry.get("gateway.retry.granted").tag("service", "account").counter().count();
+    }
+
+    private double denied(String reason) {
+        return meterRegistry.get("gateway.retry.denied")
+                .tag("service", "account")
+                .tag("reason", reason)
+                .counter()
+                .count();
+    }
+}
@@ -0,0 +1,48 @@
+package dev.sharanggupta.customergateway;
+
+import dev.sharanggupta.customergateway.support.SagaJournal;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Tests for the saga journal file without a Spring context.
+ */
+class SagaJournalTest {
+
+    @TempDir
+    private Path directory;
+
+    @Nested
+    @DisplayName("When the last line was torn by a crash")
+    class TornLine {
+
+        @Test
+        @DisplayName("keeps the first entry appended after reopening")
+        void keepsEntryAfterTornLine() throws IOException {
+            // Given
+            Path path = directory.resolve("saga.journal");
+            Files.writeString(path, Instant.now() + "\tsaga-1\tSTARTED\t1234567890\n"
+                    + Instant.now() + "\tsaga-1\tCARD_DEL");
+
+            // When
+            try (SagaJournal journal = new SagaJournal(path, false)) {
+                journal.append(new SagaJournal.Entry(Instant.now(), "saga-2", "STARTED", "1234567891"));
+
+                // Then
+                assertThat(journal.readAll())
+                        .extracting(SagaJournal.Entry::sagaId, SagaJournal.Entry::step)
+                        .containsExactly(tuple("saga-1", "STARTED"), tuple("saga-2", "STARTED"));
+            }
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package dev.sharanggupta.customergateway;
+
+import dev.sharanggupta.customergateway.dto.ProfileSection;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Tests for streamed customer profiles.
+ *
+ * The loan service answers after 800ms, within the 1200ms budget, so the account and card
+ * sections must reach the client before it. A card answering after 2000ms misses the budget
+ * and is only named in the completion marker.
+ */
+@TestPropertySource(properties = {
+        "test.context.id=StreamingProfileEndToEndTest",
+        "gateway.partial-response.component-budget=1200ms"
+})
+class StreamingProfileEndToEndTest extends BaseEndToEndTest {
+
+    private static final int SLOW_LOAN_MS = 800;
+    private static final int LATE_CARD_MS = 2000;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Nested
+    @DisplayName("When streaming as NDJSON")
+    class Ndjson {
+
+        @Test
+        @DisplayName("emits each section as its lookup completes, then a completion marker")
+        void emitsSectionsInCompletionOrder() {
+            // Given
+            stubAccountFetchSuccess(VALID_MOBILE);
+            stubCardFetchSuccess(VALID_MOBILE);
+            givenSlowLoanService(VALID_MOBILE);
+
+            // When
+            List<ProfileSection> sections = streamSections(VALID_MOBILE);
+
+            // Then
+            assertThat(sections).extracting(ProfileSection::section)
+                    .containsExactly("account", "card", "loan", "complete");
+            assertThat(sections.get(0).name()).isEqualTo(VALID_NAME);
+            assertThat(sections.get(0).account().accountNumber()).isEqualTo(ACCOUNT_NUMBER);
+            assertThat(sections.get(1).card().cardNumber()).isNotNull();
+            assertThat(sections.get(2).loan().loanNumber()).isNotNull();
+            assertThat(sections.get(3).degraded()).isNull();
+        }
+
+        @Test
+        @DisplayName("sends the account before the slowest lookup completes")
+        void sendsAccountFirst() {
+            // Given
+            stubAccountFetchSuccess(VALID_MOBILE);
+            stubCardFetchSuccess(VALID_MOBILE);
+            givenSlowLoanService(VALID_MOBILE);
+            long start = System.nanoTime();
+
+            // When
+            ProfileSection first = client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .accept(MediaType.APPLICATION_NDJSON)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .returnResult(ProfileSection.class)
+                    .getResponseBody()
+                    .blockFirst();
+
+            // Then
+            assertThat(first.section()).isEqualTo("account");
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(SLOW_LOAN_MS));
+        }
+
+        @Test
+        @DisplayName("sends a product section without the product when the customer has none")
+        void sendsEmptySectionForMissingProduct() {
+            // Given
+            stubAccountFetchSuccess(VALID_MOBILE);
+            stubCardFetchNotFound(VALID_MOBILE);
+            stubLoanFetchSuccess(VALID_MOBILE);
+
+            // When
+            List<ProfileSection> sections = streamSections(VALID_MOBILE);
+
+            // Then
+            assertThat(sections).extracting(ProfileSection::section)
+                    .containsExactlyInAnyOrder("account", "card", "loan", "complete");
+            assertThat(sections).filteredOn(section -> section.section().equals("card"))
+                    .singleElement()
+                    .satisfies(section -> assertThat(section.card()).isNull());
+        }
+
+        @Test
+        @DisplayName("only streams the selected fields")
+        void streamsSelectedFields() {
+            // Given
+            stubAccountFetchSuccess(VALID_MOBILE);
+
+            // When
+            List<ProfileSection> sections = streamSections(VALID_MOBILE + "?fields=account");
+
+            // Then
+            assertThat(sections).extracting(ProfileSection::section).containsExactly("account", "complete");
+            assertThat(cardService.findAll(anyRequestedFor(anyUrl()))).isEmpty();
+            assertThat(loanService.findAll(anyRequestedFor(anyUrl()))).isEmpty();
+        }
+
+        @Test
+        @DisplayName("returns 404 for an unknown customer")
+        void returnsNotFoundForUnknownCustomer() {
+            // Given
+            stubAccountFetchNotFound(NON_EXISTENT_MOBILE);
+
+            // When / Then
+            client.get()
+                    .uri(DETAILS_PATH + "/" + NON_EXISTENT_MOBILE)
+                    .accept(MediaType.APPLICATION_NDJSON)
+                    .exchange()
+                    .expectStatus().isNotFound();
+        }
+    }
+
+    @Nested
+    @DisplayName("When a product misses its budget")
+    class Late {
+
+        @AfterEach
+        void awaitLateResults() {
+            // A late lookup must not land in the next test's circuit breaker metrics
+            await().atMost(Duration.ofSeconds(5)).until(() -> meterRegistry.get("gateway.concurrency.in.flight")
+                    .tag("service", "card").gauge().value() == 0);
+        }
+
+        @Test
+        @DisplayName("leaves out its section and names it in the completion marker")
+        void namesLateProductInCompletion() {
+            // Given
+            stubAccountFetchSuccess(VALID_MOBILE);
+            givenLateCardService(VALID_MOBILE);
+            stubLoanFetchSuccess(VALID_MOBILE);
+
+            // When
+            List<ProfileSection> sections = streamSections(VALID_MOBILE);
+
+            // Then
+            assertThat(sections).extracting(ProfileSection::section).containsExactly("account", "loan", "complete");
+            assertThat(sections.get(2).degraded()).containsExactly("card");
+        }
+    }
+
+    @Nested
+    @DisplayName("When streaming as server-sent events")
+    class ServerSentEvents {
+
+        @Test
+        @DisplayName("names each event after its section")
+        void namesEventsAfterSections() {
+            // Given
+            stubAccountFetchSuccess(VALID_MOBILE);
+            stubCardFetchSuccess(VALID_MOBILE);
+            givenSlowLoanService(VALID_MOBILE);
+
+            // When
+            List<ServerSentEvent<ProfileSection>> events = client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .accept(MediaType.TEXT_EVENT_STREAM)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                    .returnResult(new ParameterizedTypeReference<ServerSentEvent<ProfileSection>>() { })
+                    .getResponseBody()
+                    .collectList()
+                    .block();
+
+            // Then
+            assertThat(events).extracting(ServerSentEvent::event)
+                    .containsExactly("account", "card", "loan", "complete");
+            assertThat(events.get(0).data().mobileNumber()).isEqualTo(VALID_MOBILE);
+        }
+    }
+
+    @Nested
+    @DisplayName("When a client asks for JSON")
+    class Json {
+
+        @Test
+        @DisplayName("still returns the whole profile at once")
+        void returnsWholeProfile() {
+            // Given
+            stubAccountFetchSuccess(VALID_MOBILE);
+            stubCardFetchSuccess(VALID_MOBILE);
+            stubLoanFetchSuccess(VALID_MOBILE);
+
+            // When / Then
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .accept(MediaType.APPLICATION_JSON)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                    .expectBody()
+                    .jsonPath("$.account.accountNumber").isEqualTo(ACCOUNT_NUMBER)
+                    .jsonPath("$.card.cardNumber").exists()
+                    .jsonPath("$.loan.loanNumber").exists();
+        }
+    }
+
+    // ========== Helpers ==========
+
+    private List<ProfileSection> streamSections(String pathAndQuery) {
+        return client.get()
+                .uri(DETAILS_PATH + "/" + pathAndQuery)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(ProfileSection.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+    }
+
+    /**
+     * Given: The loan service answers slowly but within the component budget.
+     */
+    private void givenSlowLoanService(String mobile) {
+        loanService.stubFor(get(urlEqualTo("/loan/api/" + mobile))
+                .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/json")
+                        .withBody("""
+                                {"mobileNumber":"%s","loanNumber":"123456789012","loanType":"Home Loan",
+                                 "totalLoan":500000,"amountPaid":100000,"outstandingAmount":400000}
+                                """.formatted(mobile))
+                        .withFixedDelay(SLOW_LOAN_MS)));
+    }
+
+    /**
+     * Given: The card service answers long after the component budget.
+     */
+    private void givenLateCardService(String mobile) {
+        cardService.stubFor(get(urlEqualTo("/card/api/" + mobile))
+                .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/json")
+                        .withBody("""
+                                {"cardNumber":"1234567890123456","mobileNumber":"%s","cardType":"Credit Card",
+                                 "totalLimit":100000,"amountUsed":5000,"availableAmount":95000}
+                                """.formatted(mobile))
+                        .withFixedDelay(LATE_CARD_MS)));
+    }
+}
@@ -0,0 +1,136 @@
+package dev.sharanggupta.customergateway;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the binary wire format between the gateway and the services.
+ *
+ * The service clients exchange customer records as Smile, while the gateway's own
+ * clients keep getting JSON.
+ */
+@TestPropertySource(properties = {
+        "test.context.id=WireFormatEndToEndTest",
+        "services.wire-format=smile"
+})
+class WireFormatEndToEndTest extends BaseEndToEndTest {
+
+    private static final String SMILE = "application/x-jackson-smile";
+    private static final SmileMapper SMILE_MAPPER = new SmileMapper();
+
+    @Nested
+    @DisplayName("When fetching customer details")
+    class Fetch {
+
+        @Test
+        @DisplayName("asks every service for Smile")
+        void asksForSmile() {
+            // Given
+            givenCustomerExistsWithAllProducts(VALID_MOBILE);
+
+            // When
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().isOk();
+
+            // Then
+            accountService.verify(getRequestedFor(urlEqualTo("/account/api/" + VALID_MOBILE))
+                    .withHeader("Accept", equalTo(SMILE)));
+            cardService.verify(getRequestedFor(urlEqualTo("/card/api/" + VALID_MOBILE))
+                    .withHeader("Accept", equalTo(SMILE)));
+            loanService.verify(getRequestedFor(urlEqualTo("/loan/api/" + VALID_MOBILE))
+                    .withHeader("Accept", equalTo(SMILE)));
+        }
+
+        @Test
+        @DisplayName("reads Smile answers and responds with JSON")
+        void readsSmileAnswers() {
+            // Given
+            givenCustomerAnswersInSmile(VALID_MOBILE);
+
+            // When / Then
+            client.get()
+                    .uri(DETAILS_PATH + "/" + VALID_MOBILE)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                    .expectBody()
+                    .jsonPath("$.name").isEqualTo(VALID_NAME)
+                    .jsonPath("$.account.accountNumber").isEqualTo(ACCOUNT_NUMBER)
+                    .jsonPath("$.card.cardNumber").isEqualTo("1234567890123456")
+                    .jsonPath("$.loan.loanNumber").isEqualTo("123456789012");
+        }
+    }
+
+    @Nested
+    @DisplayName("When onboarding a customer")
+    class Onboard {
+
+        @Test
+        @DisplayName("sends the new account as Smile")
+        void sendsSmile() {
+            // Given
+            givenOnboardWillSucceed();
+
+            // When
+            client.post()
+                    .uri(ONBOARD_PATH)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(createOnboardRequest(VALID_NAME, VALID_EMAIL, VALID_MOBILE))
+                    .exchange()
+                    .expectStatus().isCreated();
+
+            // Then
+            accountService.verify(postRequestedFor(urlEqualTo("/account/api"))
+                    .withHeader("Content-Type", equalTo(SMILE)));
+            byte[] sent = accountService.findAll(postRequestedFor(urlEqualTo("/account/api"))).getFirst().getBody();
+            JsonNode account = SMILE_MAPPER.readTree(sent);
+            assertThat(account.get("mobileNumber").asString()).isEqualTo(VALID_MOBILE);
+        }
+    }
+
+    // ========== Helpers ==========
+
+    /**
+     * Given: Every service answers with the customer's records encoded as Smile.
+     */
+    private void givenCustomerAnswersInSmile(String mobile) {
+        stubSmile(accountService, "/account/api/" + mobile, Map.of(
+                "name", VALID_NAME,
+                "email", VALID_EMAIL,
+                "mobileNumber", mobile,
+                "account", Map.of("accountNumber", ACCOUNT_NUMBER, "accountType", "Savings",
+                        "branchAddress", "123 Main Street")));
+        stubSmile(cardService, "/card/api/" + mobile, Map.of(
+                "cardNumber", "1234567890123456", "mobileNumber", mobile, "cardType", "Credit Card",
+                "totalLimit", 100000, "amountUsed", 5000, "availableAmount", 95000));
+        stubSmile(loanService, "/loan/api/" + mobile, Map.of(
+                "loanNumber", "123456789012", "mobileNumber", mobile, "loanType", "Home Loan",
+                "totalLoan", 500000, "amountPaid", 100000, "outstandingAmount", 400000));
+    }
+
+    private void stubSmile(WireMockServer service, String path, Map<String, ?> body) {
+        service.stubFor(get(urlEqualTo(path))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", SMILE)
+                        .withBody(SMILE_MAPPER.writeValueAsBytes(body))));
+    }
+}
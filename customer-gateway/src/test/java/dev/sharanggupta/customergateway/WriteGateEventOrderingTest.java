@@ -0,0 +1,263 @@
+package dev.sharanggupta.customergateway;
+
+import dev.sharanggupta.customergateway.config.WriteGateProperties;
+import dev.sharanggupta.customergateway.exception.ServiceUnavailableException;
+import dev.sharanggupta.customergateway.service.WriteGate;
+import dev.sharanggupta.customergateway.service.WriteGateImpl;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.circuitbreaker.IllegalStateTransitionException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Tests for the event-driven write gate without a Spring context.
+ *
+ * The gate keeps its state from circuit breaker events, which can be delivered on
+ * different threads in a different order than the transitions happened. These tests
+ * verify that the gate still settles on the breakers' actual states, and that writes
+ * are only held back by the circuit breakers they declare.
+ */
+class WriteGateEventOrderingTest {
+
+    private static final int ROUNDS = 200;
+    private static final int THREADS = 8;
+    private static final int TRANSITIONS_PER_THREAD = 50;
+    private static final int HALF_OPEN_PERMITS = 1;
+    private static final String[] ALL = {};
+
+    private final CircuitBreakerRegistry registry = CircuitBreakerRegistry.ofDefaults();
+    private final WriteGate writeGate = new WriteGateImpl(registry, new WriteGateProperties(HALF_OPEN_PERMITS));
+
+    @Nested
+    @DisplayName("When transitions race across threads")
+    class RacingTransitions {
+
+        @Test
+        @DisplayName("converges to the final circuit breaker state")
+        void convergesToFinalState() throws InterruptedException {
+            CircuitBreaker circuitBreaker = registry.circuitBreaker("account_service");
+
+            for (int round = 0; round < ROUNDS; round++) {
+                // When
+                transitionConcurrently(circuitBreaker);
+
+                // Then
+                assertGateMatches(circuitBreaker.getState());
+            }
+        }
+
+        @Test
+        @DisplayName("converges when several circuit breakers change at once")
+        void convergesAcrossCircuitBreakers() throws InterruptedException {
+            CircuitBreaker account = registry.circuitBreaker("account_service");
+            CircuitBreaker card = registry.circuitBreaker("card_service");
+
+            for (int round = 0; round < ROUNDS; round++) {
+                // When
+                transitionConcurrently(account, card);
+
+                // Then
+                assertGateMatches(isBlocking(account.getState()) || isBlocking(card.getState()));
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("When the registry changes")
+    class RegistryChanges {
+
+        @Test
+        @DisplayName("tracks circuit breakers created after the gate")
+        void tracksAddedCircuitBreakers() {
+            // Given
+            CircuitBreaker loan = registry.circuitBreaker("loan_service");
+
+            // When
+            loan.transitionToOpenState();
+
+            // Then
+            StepVerifier.create(writeGate.protect(ALL, Mono::empty))
+                    .expectErrorMatches(error -> error instanceof ServiceUnavailableException
+                            && error.getMessage().contains("loan_service circuit breaker"))
+                    .verify();
+        }
+
+        @Test
+        @DisplayName("allows writes again after a reset")
+        void allowsWritesAfterReset() {
+            // Given
+            CircuitBreaker card = registry.circuitBreaker("card_service");
+            card.transitionToForcedOpenState();
+            assertGateMatches(true);
+
+            // When
+            card.reset();
+
+            // Then
+            assertGateMatches(false);
+        }
+
+        @Test
+        @DisplayName("tracks a circuit breaker that replaces an existing one")
+        void tracksReplacedCircuitBreaker() {
+            // Given
+            CircuitBreaker original = registry.circuitBreaker("account_service");
+            original.transitionToOpenState();
+
+            // When
+            CircuitBreaker replacement = CircuitBreaker.ofDefaults("account_service");
+            registry.replace("account_service", replacement);
+
+            // Then
+            assertGateMatches(false);
+            original.transitionToHalfOpenState();
+            assertGateMatches(false);
+            replacement.transitionToOpenState();
+            assertGateMatches(true);
+        }
+    }
+
+    @Nested
+    @DisplayName("When writes declare their dependencies")
+    class ScopedWrites {
+
+        @Test
+        @DisplayName("allows a write whose dependencies are closed while another breaker is open")
+        void ignoresUnrelatedOpenCircuitBreaker() {
+            // Given
+            registry.circuitBreaker("loan_service").transitionToOpenState();
+
+            // When & Then
+            StepVerifier.create(writeGate.protect(new String[]{"account_service"}, () -> Mono.just("written")))
+                    .expectNext("written")
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("blocks a write when one of its dependencies is open")
+        void blocksOnOpenDependency() {
+            // Given
+            registry.circuitBreaker("card_service").transitionToOpenState();
+
+            // When & Then
+            StepVerifier.create(writeGate.protect(new String[]{"account_service", "card_service"}, Mono::empty))
+                    .expectErrorMatches(error -> error.getMessage().contains("card_service circuit breaker is open"))
+                    .verify();
+        }
+
+        @Test
+        @DisplayName("lets only a limited number of writes through a half-open dependency")
+        void tricklesThroughHalfOpenDependency() {
+            // Given
+            CircuitBreaker account = registry.circuitBreaker("account_service");
+            account.transitionToOpenState();
+            account.transitionToHalfOpenState();
+            String[] dependencies = {"account_service"};
+            Sinks.Empty<Void> firstWrite = Sinks.empty();
+
+            // When: the first write holds the only permit
+            Disposable inFlight = writeGate.protect(dependencies, firstWrite::asMono).subscribe();
+
+            // Then: a second concurrent write is rejected
+            StepVerifier.create(writeGate.protect(dependencies, Mono::empty))
+                    .expectErrorMatches(error -> error.getMessage().contains("account_service circuit breaker is recovering"))
+                    .verify();
+
+            // And: the permit is returned once the first write completes
+            firstWrite.tryEmitEmpty();
+            inFlight.dispose();
+            StepVerifier.create(writeGate.protect(dependencies, Mono::empty))
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("returns the half-open permit when a write is cancelled")
+        void releasesPermitOnCancel() {
+            // Given
+            CircuitBreaker account = registry.circuitBreaker("account_service");
+            account.transitionToOpenState();
+            account.transitionToHalfOpenState();
+            String[] dependencies = {"account_service"};
+
+            // When
+            writeGate.protect(dependencies, Mono::never).subscribe().dispose();
+
+            // Then
+            StepVerifier.create(writeGate.protect(dependencies, Mono::empty))
+                    .verifyComplete();
+        }
+    }
+
+    // ========== Helpers ==========
+
+    private void transitionConcurrently(CircuitBreaker... circuitBreakers) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Thread thread = Thread.ofPlatform().start(() -> {
+                awaitQuietly(start);
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int j = 0; j < TRANSITIONS_PER_THREAD; j++) {
+                    randomTransition(circuitBreakers[random.nextInt(circuitBreakers.length)], random.nextInt(5));
+                }
+            });
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private void randomTransition(CircuitBreaker circuitBreaker, int choice) {
+        try {
+            switch (choice) {
+                case 0 -> circuitBreaker.transitionToOpenState();
+                case 1 -> circuitBreaker.transitionToHalfOpenState();
+                case 2 -> circuitBreaker.transitionToClosedState();
+                case 3 -> circuitBreaker.transitionToForcedOpenState();
+                default -> circuitBreaker.reset();
+            }
+        } catch (IllegalStateTransitionException ignored) {
+            // Another thread moved the breaker first; that is the race under test.
+        }
+    }
+
+    private void assertGateMatches(CircuitBreaker.State state) {
+        assertGateMatches(isBlocking(state));
+    }
+
+    private void assertGateMatches(boolean blocked) {
+        if (blocked) {
+            StepVerifier.create(writeGate.protect(ALL, Mono::empty))
+                    .expectError(ServiceUnavailableException.class)
+                    .verify();
+        } else {
+            StepVerifier.create(writeGate.protect(ALL, Mono::empty))
+                    .verifyComplete();
+        }
+    }
+
+    private static boolean isBlocking(CircuitBreaker.State state) {
+        return state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package dev.sharanggupta.customergateway.benchmark;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.spring6.circuitbreaker.configure.CircuitBreakerAspect;
+import io.github.resilience4j.spring6.circuitbreaker.configure.CircuitBreakerConfigurationProperties;
+import io.github.resilience4j.spring6.circuitbreaker.configure.ReactorCircuitBreakerAspectExt;
+import io.github.resilience4j.spring6.fallback.FallbackDecorators;
+import io.github.resilience4j.spring6.fallback.FallbackExecutor;
+import io.github.resilience4j.spring6.fallback.ReactorFallbackDecorator;
+import io.github.resilience4j.spring6.spelresolver.DefaultSpelResolver;
+import io.github.resilience4j.spring6.spelresolver.SpelResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-call cost of a circuit breaker applied through the
+ * {@code @CircuitBreaker} annotation and an AOP proxy against the same breaker applied
+ * with {@code transformDeferred(CircuitBreakerOperator.of(...))}, as the service
+ * implementations now do. Both paths are measured with a closed breaker and with a
+ * forced-open one, where every call ends in the fallback.
+ *
+ * The GC profiler reports allocations per call ({@code gc.alloc.rate.norm}).
+ *
+ * Run with: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=dev.sharanggupta.customergateway.benchmark.ResiliencePipelineBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResiliencePipelineBenchmark {
+
+    private static final String CLOSED = "closed";
+    private static final String OPEN = "open";
+    private static final String FALLBACK = "fallback";
+
+    private AnnotatedService annotated;
+    private CircuitBreaker closedBreaker;
+    private CircuitBreaker openBreaker;
+
+    @Setup
+    public void setUp() {
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.ofDefaults();
+        closedBreaker = registry.circuitBreaker(CLOSED);
+        openBreaker = registry.circuitBreaker(OPEN);
+        openBreaker.transitionToForcedOpenState();
+
+        SpelResolver spelResolver = new DefaultSpelResolver(new SpelExpressionParser(),
+                new DefaultParameterNameDiscoverer(), new DefaultListableBeanFactory());
+        FallbackExecutor fallbackExecutor = new FallbackExecutor(spelResolver,
+                new FallbackDecorators(List.of(new ReactorFallbackDecorator())));
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new AnnotatedService());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new CircuitBreakerAspect(new CircuitBreakerConfigurationProperties(), registry,
+                List.of(new ReactorCircuitBreakerAspectExt()), fallbackExecutor, spelResolver));
+        annotated = proxyFactory.getProxy();
+    }
+
+    @Benchmark
+    public String annotationClosed() {
+        return annotated.closed("1234567890").block();
+    }
+
+    @Benchmark
+    public String operatorClosed() {
+        return fetch("1234567890")
+                .transformDeferred(CircuitBreakerOperator.of(closedBreaker))
+                .onErrorResume(throwable -> Mono.just(FALLBACK))
+                .block();
+    }
+
+    @Benchmark
+    public String annotationOpen() {
+        return annotated.open("1234567890").block();
+    }
+
+    @Benchmark
+    public String operatorOpen() {
+        return fetch("1234567890")
+                .transformDeferred(CircuitBreakerOperator.of(openBreaker))
+                .onErrorResume(throwable -> Mono.just(FALLBACK))
+                .block();
+    }
+
+    private static Mono<String> fetch(String mobileNumber) {
+        return Mono.just(mobileNumber);
+    }
+
+    /**
+     * The annotation-driven style the service implementations used to follow.
+     */
+    public static class AnnotatedService {
+
+        @io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker(name = CLOSED, fallbackMethod = "fallback")
+        public Mono<String> closed(String mobileNumber) {
+            return fetch(mobileNumber);
+        }
+
+        @io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker(name = OPEN, fallbackMethod = "fallback")
+        public Mono<String> open(String mobileNumber) {
+            return fetch(mobileNumber);
+        }
+
+        public Mono<String> fallback(String mobileNumber, Throwable throwable) {
+            return Mono.just(FALLBACK);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ResiliencePipelineBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
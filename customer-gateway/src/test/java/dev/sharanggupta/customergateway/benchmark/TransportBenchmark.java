@@ -0,0 +1,210 @@
+package dev.sharanggupta.customergateway.benchmark;
+
+import dev.sharanggupta.customergateway.dto.CardInfo;
+import dev.sharanggupta.customergateway.dto.CustomerAccount;
+import dev.sharanggupta.customergateway.dto.LoanInfo;
+import io.rsocket.core.RSocketServer;
+import io.rsocket.transport.netty.server.CloseableChannel;
+import io.rsocket.transport.netty.server.TcpServerTransport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.cbor.JacksonCborDecoder;
+import org.springframework.http.codec.cbor.JacksonCborEncoder;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.messaging.rsocket.RSocketStrategies;
+import org.springframework.messaging.rsocket.annotation.support.RSocketMessageHandler;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.NettyOutbound;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.netty.resources.ConnectionProvider;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load-tests the customer details fan-out (account, card and loan fetched concurrently)
+ * over each downstream transport, with sixteen callers at once.
+ *
+ * The services are played by in-process servers that answer with pre-encoded records,
+ * so the measured time is the transport and decoding: HTTP/1.1 from a connection pool,
+ * HTTP/2 streams over cleartext connections (h2c), and one multiplexed RSocket
+ * connection per service.
+ *
+ * Run with: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=dev.sharanggupta.customergateway.benchmark.TransportBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(16)
+public class TransportBenchmark {
+
+    private static final String MOBILE = "1234567890";
+
+    @Param({"http1", "h2c", "rsocket"})
+    private String transport;
+
+    private DisposableServer httpServer;
+    private ConnectionProvider connectionProvider;
+    private WebClient webClient;
+    private CloseableChannel rsocketServer;
+    private RSocketRequester requester;
+
+    @Setup
+    public void setUp() {
+        if ("rsocket".equals(transport)) {
+            RSocketStrategies strategies = RSocketStrategies.builder()
+                    .encoders(encoders -> encoders.add(new JacksonCborEncoder()))
+                    .decoders(decoders -> decoders.add(new JacksonCborDecoder()))
+                    .build();
+            RSocketMessageHandler handler = new RSocketMessageHandler();
+            handler.setRSocketStrategies(strategies);
+            handler.setHandlers(List.of(new Routes(new CBORMapper())));
+            handler.afterPropertiesSet();
+            rsocketServer = RSocketServer.create(handler.responder())
+                    .bind(TcpServerTransport.create("localhost", 0))
+                    .block();
+            requester = RSocketRequester.builder()
+                    .rsocketStrategies(strategies)
+                    .tcp("localhost", rsocketServer.address().getPort());
+            return;
+        }
+        HttpProtocol protocol = "h2c".equals(transport) ? HttpProtocol.H2C : HttpProtocol.HTTP11;
+        Routes routes = new Routes(JsonMapper.builder().build());
+        httpServer = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                .route(r -> r
+                        .get("/account/api/{mobileNumber}", (request, response) -> json(response, routes.account))
+                        .get("/card/api/{mobileNumber}", (request, response) -> json(response, routes.card))
+                        .get("/loan/api/{mobileNumber}", (request, response) -> json(response, routes.loan)))
+                .bindNow();
+        connectionProvider = ConnectionProvider.builder("benchmark").maxConnections(200).build();
+        webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider).protocol(protocol)))
+                .baseUrl("http://localhost:" + httpServer.port())
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (requester != null) {
+            requester.dispose();
+            rsocketServer.dispose();
+        }
+        if (httpServer != null) {
+            httpServer.disposeNow();
+            connectionProvider.dispose();
+        }
+    }
+
+    @Benchmark
+    public Object details() {
+        if (requester != null) {
+            return Mono.zip(
+                    requester.route("account.fetch.{mobileNumber}", MOBILE).retrieveMono(CustomerAccount.class),
+                    requester.route("card.fetch.{mobileNumber}", MOBILE).retrieveMono(CardInfo.class),
+                    requester.route("loan.fetch.{mobileNumber}", MOBILE).retrieveMono(LoanInfo.class)).block();
+        }
+        return Mono.zip(
+                fetch("account/api/{mobileNumber}", CustomerAccount.class),
+                fetch("card/api/{mobileNumber}", CardInfo.class),
+                fetch("loan/api/{mobileNumber}", LoanInfo.class)).block();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TransportBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+    // ========== Helpers ==========
+
+    private <T> Mono<T> fetch(String uri, Class<T> type) {
+        return webClient.get()
+                .uri(uri, MOBILE)
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(type);
+    }
+
+    private static NettyOutbound json(HttpServerResponse response, byte[] body) {
+        return response.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .sendByteArray(Mono.just(body));
+    }
+
+    /**
+     * The services' records, encoded once. RSocket sends the bytes as they are.
+     */
+    static final class Routes {
+
+        final byte[] account;
+        final byte[] card;
+        final byte[] loan;
+
+        Routes(ObjectMapper mapper) {
+            Map<String, Object> accountDetails = new LinkedHashMap<>();
+            accountDetails.put("accountNumber", "00010012345678901");
+            accountDetails.put("accountType", "Savings");
+            accountDetails.put("branchAddress", "123 Main Street, New York");
+            Map<String, Object> customer = new LinkedHashMap<>();
+            customer.put("name", "John Doe");
+            customer.put("email", "john@example.com");
+            customer.put("mobileNumber", MOBILE);
+            customer.put("account", accountDetails);
+            this.account = mapper.writeValueAsBytes(customer);
+            this.card = mapper.writeValueAsBytes(Map.of("mobileNumber", MOBILE, "cardNumber", "1234567890123456",
+                    "cardType", "Credit Card", "totalLimit", 100000, "amountUsed", 5000, "availableAmount", 95000));
+            this.loan = mapper.writeValueAsBytes(Map.of("mobileNumber", MOBILE, "loanNumber", "123456789012",
+                    "loanType", "Home Loan", "totalLoan", 500000, "amountPaid", 100000, "outstandingAmount", 400000));
+        }
+
+        @MessageMapping("account.fetch.{mobileNumber}")
+        public byte[] account() {
+            return account;
+        }
+
+        @MessageMapping("card.fetch.{mobileNumber}")
+        public byte[] card() {
+            return card;
+        }
+
+        @MessageMapping("loan.fetch.{mobileNumber}")
+        public byte[] loan() {
+            return loan;
+        }
+    }
+}
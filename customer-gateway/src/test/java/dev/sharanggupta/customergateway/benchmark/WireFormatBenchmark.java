@@ -0,0 +1,131 @@
+package dev.sharanggupta.customergateway.benchmark;
+
+import dev.sharanggupta.customergateway.dto.CardInfo;
+import dev.sharanggupta.customergateway.dto.CustomerAccount;
+import dev.sharanggupta.customergateway.dto.LoanInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares JSON and Smile for the records exchanged during one customer details fan-out:
+ * the services encode the customer, card and loan, and the gateway decodes them.
+ *
+ * The encoded size of each format is printed once during setup.
+ *
+ * Run with: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=dev.sharanggupta.customergateway.benchmark.WireFormatBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"json", "smile"})
+    private String format;
+
+    private ObjectMapper mapper;
+    private Map<String, Object> customer;
+    private Map<String, Object> card;
+    private Map<String, Object> loan;
+    private byte[] encodedCustomer;
+    private byte[] encodedCard;
+    private byte[] encodedLoan;
+
+    @Setup
+    public void setUp() {
+        mapper = "smile".equals(format) ? new SmileMapper() : JsonMapper.builder().build();
+        customer = customer();
+        card = card();
+        loan = loan();
+        encodedCustomer = mapper.writeValueAsBytes(customer);
+        encodedCard = mapper.writeValueAsBytes(card);
+        encodedLoan = mapper.writeValueAsBytes(loan);
+        System.out.printf("%n%s: %d bytes per fan-out (customer %d, card %d, loan %d)%n", format,
+                encodedCustomer.length + encodedCard.length + encodedLoan.length,
+                encodedCustomer.length, encodedCard.length, encodedLoan.length);
+    }
+
+    @Benchmark
+    public void encode(Blackhole blackhole) {
+        blackhole.consume(mapper.writeValueAsBytes(customer));
+        blackhole.consume(mapper.writeValueAsBytes(card));
+        blackhole.consume(mapper.writeValueAsBytes(loan));
+    }
+
+    @Benchmark
+    public void decode(Blackhole blackhole) {
+        blackhole.consume(mapper.readValue(encodedCustomer, CustomerAccount.class));
+        blackhole.consume(mapper.readValue(encodedCard, CardInfo.class));
+        blackhole.consume(mapper.readValue(encodedLoan, LoanInfo.class));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WireFormatBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+    // ========== Payloads ==========
+
+    /**
+     * The records as the services send them, field for field.
+     */
+    private static Map<String, Object> customer() {
+        Map<String, Object> account = new LinkedHashMap<>();
+        account.put("accountNumber", "00010012345678901");
+        account.put("accountType", "Savings");
+        account.put("branchAddress", "123 Main Street, New York");
+        Map<String, Object> customer = new LinkedHashMap<>();
+        customer.put("name", "John Doe");
+        customer.put("email", "john@example.com");
+        customer.put("mobileNumber", "1234567890");
+        customer.put("account", account);
+        return customer;
+    }
+
+    private static Map<String, Object> card() {
+        Map<String, Object> card = new LinkedHashMap<>();
+        card.put("mobileNumber", "1234567890");
+        card.put("cardNumber", "1234567890123456");
+        card.put("cardType", "Credit Card");
+        card.put("totalLimit", 100000);
+        card.put("amountUsed", 5000);
+        card.put("availableAmount", 95000);
+        return card;
+    }
+
+    private static Map<String, Object> loan() {
+        Map<String, Object> loan = new LinkedHashMap<>();
+        loan.put("mobileNumber", "1234567890");
+        loan.put("loanNumber", "123456789012");
+        loan.put("loanType", "Home Loan");
+        loan.put("totalLoan", 500000);
+        loan.put("amountPaid", 100000);
+        loan.put("outstandingAmount", 400000);
+        return loan;
+    }
+}
@@ -0,0 +1,108 @@
+package dev.sharanggupta.customergateway.benchmark;
+
+import dev.sharanggupta.customergateway.config.WriteGateProperties;
+import dev.sharanggupta.customergateway.service.WriteGate;
+import dev.sharanggupta.customergateway.service.WriteGateImpl;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Compares the registry-scanning write gate with the event-driven one on the hot path,
+ * where every circuit breaker is closed and the write is allowed.
+ *
+ * Run with: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=dev.sharanggupta.customergateway.benchmark.WriteGateBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class WriteGateBenchmark {
+
+    private static final String[] ALL = {};
+
+    @Param({"3", "32"})
+    private int circuitBreakerCount;
+
+    private WriteGate scanningGate;
+    private WriteGate eventDrivenGate;
+
+    @Setup
+    public void setUp() {
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.ofDefaults();
+        for (int i = 0; i < circuitBreakerCount; i++) {
+            registry.circuitBreaker("service_" + i);
+        }
+        scanningGate = new ScanningWriteGate(registry);
+        eventDrivenGate = new WriteGateImpl(registry, new WriteGateProperties(1));
+    }
+
+    @Benchmark
+    public Object scanningGate() {
+        return scanningGate.protect(ALL, Mono::empty).block();
+    }
+
+    @Benchmark
+    public Object eventDrivenGate() {
+        return eventDrivenGate.protect(ALL, Mono::empty).block();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WriteGateBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+    /**
+     * The previous implementation: streams over every registered circuit breaker on each check.
+     */
+    private record ScanningWriteGate(CircuitBreakerRegistry circuitBreakerRegistry) implements WriteGate {
+
+        @Override
+        public <T> Mono<T> protect(String[] circuitBreakers, Supplier<Mono<T>> write) {
+            return Mono.defer(() -> {
+                Optional<String> openCircuit = circuitBreakerRegistry.getAllCircuitBreakers().stream()
+                        .filter(cb -> cb.getState() == CircuitBreaker.State.OPEN
+                                || cb.getState() == CircuitBreaker.State.HALF_OPEN
+                                || cb.getState() == CircuitBreaker.State.FORCED_OPEN)
+                        .map(CircuitBreaker::getName)
+                        .findFirst();
+                if (openCircuit.isPresent()) {
+                    return Mono.error(new IllegalStateException(String.format(
+                            "Write operations are blocked because the %s circuit breaker is open.",
+                            openCircuit.get())));
+                }
+                return write.get();
+            });
+        }
+
+        @Override
+        public Mono<Void> checkOpen(String[] circuitBreakers) {
+            return protect(circuitBreakers, Mono::empty);
+        }
+    }
+}
@@ -29,8 +29,23 @@ build_service() {
     echo "✓ $service_name service built successfully"
 }
 
+# The services carry copies of the same deadline filter, one per package; fail before
+# building if any of them has drifted from the account copy
+check_shared_copies() {
+    local reference="$ROOT_DIR/account/src/main/java/dev/sharanggupta/account/config/DeadlineFilter.java"
+    for service in card loan; do
+        local copy="$ROOT_DIR/$service/src/main/java/dev/sharanggupta/$service/config/DeadlineFilter.java"
+        diff -q <(grep -v '^package ' "$reference") <(grep -v '^package ' "$copy") > /dev/null || {
+            echo "❌ $service DeadlineFilter differs from the account copy"
+            exit 1
+        }
+    done
+}
+
 echo "Building Docker images for EazyBank microservices..."
 
+check_shared_copies
+
 build_service "account" "Account"
 build_service "card" "Card"
 build_service "loan" "Loan"
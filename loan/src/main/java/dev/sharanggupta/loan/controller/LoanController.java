@@ -1,5 +1,6 @@
 package dev.sharanggupta.loan.controller;
 
+import dev.sharanggupta.loan.dto.BatchFetchRequest;
 import dev.sharanggupta.loan.dto.ErrorResponseDto;
 import dev.sharanggupta.loan.dto.LoanCreateRequest;
 import dev.sharanggupta.loan.dto.LoanDto;
@@ -14,20 +15,36 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Pattern;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
 @Tag(name = "Loan REST APIs", description = "REST APIs to CREATE, UPDATE, FETCH and DELETE loan details")
 @RestController
-@RequestMapping(path = "/api", produces = MediaType.APPLICATION_JSON_VALUE)
+@RequestMapping(path = "/api", produces = {MediaType.APPLICATION_JSON_VALUE, LoanController.APPLICATION_SMILE_VALUE})
 @Validated
 @AllArgsConstructor
 public class LoanController {
 
+    /**
+     * Binary Smile is produced only for callers that ask for it, such as the gateway;
+     * everyone else gets JSON.
+     */
+    static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    private static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
     private static final String STATUS_201 = "201";
     private static final String MESSAGE_201 = "Loan created successfully";
     private static final String MOBILE_NUMBER_PATTERN = "^\\d{10}$";
@@ -49,14 +66,33 @@ public class LoanController {
 
     @Operation(summary = "Fetch loan", description = "REST API to fetch loan details by mobile number")
     @ApiResponse(responseCode = "200", description = "Loan fetched successfully")
+    @ApiResponse(responseCode = "304", description = "Loan unchanged since the ETag in If-None-Match")
     @ApiResponse(responseCode = "404", description = "Loan not found",
             content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))
     @GetMapping("/{mobileNumber}")
     public Mono<ResponseEntity<LoanDto>> fetchLoan(
             @PathVariable @Pattern(regexp = MOBILE_NUMBER_PATTERN, message = MOBILE_NUMBER_MESSAGE)
-            String mobileNumber) {
+            String mobileNumber,
+            ServerHttpRequest request) {
         return loanService.fetchLoan(mobileNumber)
-                .map(ResponseEntity::ok);
+                .map(loan -> {
+                    MediaType representation = representation(request.getHeaders().getAccept());
+                    return ResponseEntity.ok()
+                            .contentType(representation)
+                            .eTag(etag(loan.getUpdatedAt(), representation))
+                            .varyBy(HttpHeaders.ACCEPT)
+                            .body(loan);
+                });
+    }
+
+    @Operation(summary = "Fetch loans in batch",
+            description = "REST API to fetch the loans of many customers in one query, streamed as NDJSON")
+    @ApiResponse(responseCode = "200", description = "Loans fetched successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid or too many mobile numbers",
+            content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))
+    @PostMapping(path = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<LoanDto> fetchLoans(@Valid @RequestBody BatchFetchRequest request) {
+        return loanService.fetchLoans(request.getMobileNumbers());
     }
 
     @Operation(summary = "Update loan", description = "REST API to update loan details")
@@ -83,4 +119,37 @@ public class LoanController {
         return loanService.deleteLoan(mobileNumber)
                 .then(Mono.just(ResponseEntity.noContent().<Void>build()));
     }
+
+    /**
+     * A strong ETag for the loan's current version, derived from when it was last changed.
+     * JSON and Smile bodies differ, so each gets its own tag. Records saved before changes
+     * were tracked have none.
+     */
+    private static String etag(LocalDateTime updatedAt, MediaType representation) {
+        if (updatedAt == null) {
+            return null;
+        }
+        long version = updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + updatedAt.getNano();
+        String suffix = APPLICATION_SMILE.equals(representation) ? "-smile" : "";
+        return "\"" + Long.toHexString(version) + suffix + "\"";
+    }
+
+    /**
+     * The representation to serve: the first of JSON and Smile that the caller accepts, in
+     * the caller's order of preference. Setting it on the response keeps the body in the
+     * format its ETag was computed for.
+     */
+    private static MediaType representation(List<MediaType> accepted) {
+        List<MediaType> ranked = new ArrayList<>(accepted);
+        MimeTypeUtils.sortBySpecificity(ranked);
+        for (MediaType type : ranked) {
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return MediaType.APPLICATION_JSON;
+            }
+            if (type.isCompatibleWith(APPLICATION_SMILE)) {
+                return APPLICATION_SMILE;
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
 }
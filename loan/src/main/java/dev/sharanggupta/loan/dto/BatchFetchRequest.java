@@ -0,0 +1,29 @@
+package dev.sharanggupta.loan.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Request DTO for fetching many loans in one call.
+ * Mobile numbers without a matching loan are simply absent from the response.
+ */
+@Getter
+public class BatchFetchRequest {
+
+    public static final int MAX_MOBILE_NUMBERS = 5000;
+
+    @NotEmpty(message = "At least one mobile number is required")
+    @Size(max = MAX_MOBILE_NUMBERS, message = "At most " + MAX_MOBILE_NUMBERS + " mobile numbers are allowed")
+    private final List<@Pattern(regexp = "^\\d{10}$", message = "Mobile number must be 10 digits") String> mobileNumbers;
+
+    @JsonCreator
+    public BatchFetchRequest(@JsonProperty("mobileNumbers") List<String> mobileNumbers) {
+        this.mobileNumbers = mobileNumbers;
+    }
+}
@@ -1,11 +1,14 @@
 package dev.sharanggupta.loan.dto;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.Builder;
 import lombok.Getter;
 
+import java.time.LocalDateTime;
+
 @Getter
 public class LoanDto {
 
@@ -21,22 +24,34 @@ public class LoanDto {
     @PositiveOrZero(message = "Amount paid must be zero or positive")
     private final int amountPaid;
 
+    /**
+     * When the loan was last changed, for its ETag. Not part of the representation.
+     */
+    @JsonIgnore
+    private final LocalDateTime updatedAt;
+
     public int getOutstandingAmount() {
         return totalLoan - amountPaid;
     }
 
     @JsonCreator
-    @Builder(toBuilder = true) // ✅ enable toBuilder for updates
     public LoanDto(
             @JsonProperty("mobileNumber") String mobileNumber,
             @JsonProperty("loanNumber") String loanNumber,
             @JsonProperty("loanType") String loanType,
             @JsonProperty("totalLoan") int totalLoan,
             @JsonProperty("amountPaid") int amountPaid) {
+        this(mobileNumber, loanNumber, loanType, totalLoan, amountPaid, null);
+    }
+
+    @Builder(toBuilder = true) // ✅ enable toBuilder for updates
+    public LoanDto(String mobileNumber, String loanNumber, String loanType, int totalLoan, int amountPaid,
+                   LocalDateTime updatedAt) {
         this.mobileNumber = mobileNumber;
         this.loanNumber = loanNumber;
         this.loanType = loanType;
         this.totalLoan = totalLoan;
         this.amountPaid = amountPaid;
+        this.updatedAt = updatedAt;
     }
 }
@@ -13,6 +13,7 @@ public class LoanMapper {
                 .loanType(loan.getLoanType())
                 .totalLoan(loan.getTotalLoan())
                 .amountPaid(loan.getAmountPaid())
+                .updatedAt(loan.getUpdatedAt())
                 .build();
     }
 
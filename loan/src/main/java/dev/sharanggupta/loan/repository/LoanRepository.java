@@ -1,8 +1,10 @@
 package dev.sharanggupta.loan.repository;
 
 import dev.sharanggupta.loan.entity.Loan;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Repository
@@ -10,5 +12,8 @@ public interface LoanRepository extends ReactiveCrudRepository<Loan, Long> {
 
     Mono<Loan> findByMobileNumber(String mobileNumber);
 
+    @Query("SELECT * FROM loan WHERE mobile_number = ANY(:mobileNumbers)")
+    Flux<Loan> findAllByMobileNumbers(String[] mobileNumbers);
+
     Mono<Loan> findByLoanNumber(String loanNumber);
 }
\ No newline at end of file
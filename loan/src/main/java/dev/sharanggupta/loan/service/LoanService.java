@@ -3,14 +3,19 @@ package dev.sharanggupta.loan.service;
 import dev.sharanggupta.loan.dto.LoanCreateRequest;
 import dev.sharanggupta.loan.dto.LoanDto;
 import dev.sharanggupta.loan.dto.LoanUpdateRequest;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 public interface LoanService {
 
     Mono<Void> createLoan(String mobileNumber, LoanCreateRequest request);
 
     Mono<LoanDto> fetchLoan(String mobileNumber);
 
+    Flux<LoanDto> fetchLoans(List<String> mobileNumbers);
+
     Mono<Void> updateLoan(String mobileNumber, LoanUpdateRequest request);
 
     Mono<Void> deleteLoan(String mobileNumber);
@@ -10,8 +10,10 @@ import dev.sharanggupta.loan.mapper.LoanMapper;
 import dev.sharanggupta.loan.repository.LoanRepository;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.Random;
 
 @Service
@@ -46,6 +48,13 @@ public class LoanServiceImpl implements LoanService {
                 .map(LoanMapper::mapToDto);
     }
 
+    @Override
+    public Flux<LoanDto> fetchLoans(List<String> mobileNumbers) {
+        String[] distinctMobileNumbers = mobileNumbers.stream().distinct().toArray(String[]::new);
+        return loanRepository.findAllByMobileNumbers(distinctMobileNumbers)
+                .map(LoanMapper::mapToDto);
+    }
+
     @Override
     public Mono<Void> updateLoan(String mobileNumber, LoanUpdateRequest request) {
         return getLoanByMobileNumber(mobileNumber)
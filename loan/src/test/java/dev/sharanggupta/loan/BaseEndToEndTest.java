@@ -29,6 +29,7 @@ public abstract class BaseEndToEndTest {
         registry.add("spring.r2dbc.username", postgres::getUsername);
         registry.add("spring.r2dbc.password", postgres::getPassword);
         registry.add("spring.webflux.base-path", () -> "");
+        registry.add("spring.rsocket.server.port", () -> 0);
     }
 
     @LocalServerPort
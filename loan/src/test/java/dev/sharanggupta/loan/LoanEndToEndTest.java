@@ -8,14 +8,26 @@ import dev.sharanggupta.loan.repository.LoanRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import io.rsocket.exceptions.CustomRSocketException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.messaging.rsocket.RSocketRequester;
+
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class LoanEndToEndTest extends BaseEndToEndTest {
 
     private static final String LOAN_API_PATH = "/api";
+    private static final MediaType APPLICATION_SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+    private static final int RSOCKET_NOT_FOUND = 0x1000 + 404;
+    private static final int RSOCKET_BAD_REQUEST = 0x1000 + 400;
     private static final String VALID_MOBILE_NUMBER = "1234567890";
     private static final String HOME_LOAN_TYPE = "Home Loan";
     private static final int DEFAULT_TOTAL_LOAN = 500_000;
@@ -25,6 +37,12 @@ class LoanEndToEndTest extends BaseEndToEndTest {
     @Autowired
     private LoanRepository loanRepository;
 
+    @Autowired
+    private RSocketRequester.Builder rsocketRequesterBuilder;
+
+    @Value("${local.rsocket.server.port}")
+    private int rsocketPort;
+
     @AfterEach
     void tearDown() {
         loanRepository.deleteAll().block(); // block here is ok for cleanup
@@ -138,6 +156,188 @@ class LoanEndToEndTest extends BaseEndToEndTest {
                 .expectStatus().isNotFound();
     }
 
+    @Test
+    @DisplayName("Should fetch loans for many mobile numbers in one request")
+    void shouldFetchLoansInBatch() {
+        createLoan(VALID_MOBILE_NUMBER, createLoanRequest(HOME_LOAN_TYPE, DEFAULT_TOTAL_LOAN));
+        createLoan("1112223334", createLoanRequest(HOME_LOAN_TYPE, DEFAULT_TOTAL_LOAN));
+
+        List<LoanDto> loans = client.post()
+                .uri(LOAN_API_PATH + "/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(Map.of("mobileNumbers", List.of(VALID_MOBILE_NUMBER, "1112223334", "9999999999")))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(LoanDto.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertThat(loans)
+                .extracting(LoanDto::getMobileNumber)
+                .containsExactlyInAnyOrder(VALID_MOBILE_NUMBER, "1112223334");
+    }
+
+    @Test
+    @DisplayName("Should reject batch fetch with an invalid mobile number")
+    void shouldRejectBatchFetchWithInvalidMobileNumber() {
+        client.post()
+                .uri(LOAN_API_PATH + "/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("mobileNumbers", List.of("12345")))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("Should reject a request whose deadline has already expired without writing")
+    void shouldRejectExpiredRequest() {
+        LoanCreateRequest loanRequest = createLoanRequest(HOME_LOAN_TYPE, DEFAULT_TOTAL_LOAN);
+
+        client.post()
+                .uri(LOAN_API_PATH + "/" + VALID_MOBILE_NUMBER)
+                .header("X-Request-Timeout-Ms", "0")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(loanRequest)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+
+        assertThat(loanRepository.count().block()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should fetch loan as Smile when asked and as JSON otherwise")
+    void shouldNegotiateBinaryFormat() {
+        createLoan(VALID_MOBILE_NUMBER, createLoanRequest(HOME_LOAN_TYPE, DEFAULT_TOTAL_LOAN));
+
+        client.get()
+                .uri(LOAN_API_PATH + "/" + VALID_MOBILE_NUMBER)
+                .accept(APPLICATION_SMILE)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(APPLICATION_SMILE)
+                .expectBody(LoanDto.class)
+                .value(loan -> assertThat(loan.getMobileNumber()).isEqualTo(VALID_MOBILE_NUMBER));
+
+        client.get()
+                .uri(LOAN_API_PATH + "/" + VALID_MOBILE_NUMBER)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON);
+    }
+
+    @Test
+    @DisplayName("Should answer an unchanged loan with 304 Not Modified")
+    void shouldAnswerUnchangedLoanWithNotModified() {
+        createLoan(VALID_MOBILE_NUMBER, createLoanRequest(HOME_LOAN_TYPE, DEFAULT_TOTAL_LOAN));
+        String etag = fetchLoanETag(VALID_MOBILE_NUMBER);
+
+        client.get()
+                .uri(LOAN_API_PATH + "/" + VALID_MOBILE_NUMBER)
+                .ifNoneMatch(etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, etag)
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should give the Smile representation of the loan its own ETag")
+    void shouldTagSmileSeparately() {
+        createLoan(VALID_MOBILE_NUMBER, createLoanRequest(HOME_LOAN_TYPE, DEFAULT_TOTAL_LOAN));
+        String jsonETag = fetchLoanETag(VALID_MOBILE_NUMBER);
+
+        String smileETag = client.get()
+                .uri(LOAN_API_PATH + "/" + VALID_MOBILE_NUMBER)
+                .accept(APPLICATION_SMILE)
+                .ifNoneMatch(jsonETag)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(APPLICATION_SMILE)
+                .expectBody().returnResult()
+                .getResponseHeaders()
+                .getETag();
+        assertThat(smileETag).isNotNull().isNotEqualTo(jsonETag);
+
+        client.get()
+                .uri(LOAN_API_PATH + "/" + VALID_MOBILE_NUMBER)
+                .accept(APPLICATION_SMILE)
+                .ifNoneMatch(smileETag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    @DisplayName("Should change the loan's ETag when the loan is updated")
+    void shouldChangeETagOnUpdate() {
+        createLoan(VALID_MOBILE_NUMBER, createLoanRequest(HOME_LOAN_TYPE, DEFAULT_TOTAL_LOAN));
+        String etag = fetchLoanETag(VALID_MOBILE_NUMBER);
+        LoanDto existingLoan = fetchLoan(VALID_MOBILE_NUMBER);
+
+        client.put()
+                .uri(LOAN_API_PATH + "/" + VALID_MOBILE_NUMBER)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(LoanUpdateRequest.builder()
+                        .loanNumber(existingLoan.getLoanNumber())
+                        .loanType(existingLoan.getLoanType())
+                        .totalLoan(existingLoan.getTotalLoan())
+                        .amountPaid(100_000)
+                        .build())
+                .exchange()
+                .expectStatus().isNoContent();
+
+        client.get()
+                .uri(LOAN_API_PATH + "/" + VALID_MOBILE_NUMBER)
+                .ifNoneMatch(etag)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().value(HttpHeaders.ETAG, current -> assertThat(current).isNotEqualTo(etag))
+                .expectBody(LoanDto.class)
+                .value(loan -> assertThat(loan.getAmountPaid()).isEqualTo(100_000));
+    }
+
+    @Test
+    @DisplayName("Should fetch loan over RSocket")
+    void shouldFetchLoanOverRSocket() {
+        createLoan(VALID_MOBILE_NUMBER, createLoanRequest(HOME_LOAN_TYPE, DEFAULT_TOTAL_LOAN));
+        RSocketRequester requester = rsocketRequester();
+
+        LoanDto loan = requester.route("loan.fetch.{mobileNumber}", VALID_MOBILE_NUMBER)
+                .retrieveMono(LoanDto.class)
+                .block();
+
+        assertThat(loan.getLoanType()).isEqualTo(HOME_LOAN_TYPE);
+        requester.dispose();
+    }
+
+    @Test
+    @DisplayName("Should answer a non-existent loan over RSocket with the not-found error code")
+    void shouldReturnNotFoundOverRSocket() {
+        RSocketRequester requester = rsocketRequester();
+
+        assertThatThrownBy(() -> requester.route("loan.fetch.{mobileNumber}", "9999999999")
+                .retrieveMono(LoanDto.class)
+                .block())
+                .isInstanceOfSatisfying(CustomRSocketException.class,
+                        e -> assertThat(e.errorCode()).isEqualTo(RSOCKET_NOT_FOUND));
+        requester.dispose();
+    }
+
+    @Test
+    @DisplayName("Should answer an invalid payload over RSocket with the bad-request error code")
+    void shouldRejectInvalidPayloadOverRSocket() {
+        RSocketRequester requester = rsocketRequester();
+
+        assertThatThrownBy(() -> requester.route("loan.fetch-batch")
+                .data(Map.of("mobileNumbers", List.of()))
+                .retrieveFlux(LoanDto.class)
+                .blockLast())
+                .isInstanceOfSatisfying(CustomRSocketException.class,
+                        e -> assertThat(e.errorCode()).isEqualTo(RSOCKET_BAD_REQUEST));
+        requester.dispose();
+    }
+
     // ----------------------
     // Helpers
     // ----------------------
@@ -151,6 +351,21 @@ class LoanEndToEndTest extends BaseEndToEndTest {
                 .expectStatus().isCreated();
     }
 
+    private RSocketRequester rsocketRequester() {
+        return rsocketRequesterBuilder.tcp("localhost", rsocketPort);
+    }
+
+    private String fetchLoanETag(String mobileNumber) {
+        return client.get()
+                .uri(LOAN_API_PATH + "/" + mobileNumber)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(LoanDto.class)
+                .returnResult()
+                .getResponseHeaders()
+                .getETag();
+    }
+
     private LoanDto fetchLoan(String mobileNumber) {
         return client.get()
                 .uri(LOAN_API_PATH + "/" + mobileNumber)